@@ -0,0 +1,38 @@
+package io.ddf.benchmarks;
+
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and writes their results as JSON, to be compared against a baseline run, e.g. with
+ * <pre>
+ *   java -cp ... io.ddf.benchmarks.BenchmarkRunner [regexp of the benchmarks to run] [result file]
+ * </pre>
+ * By default all benchmarks run and the results go to jmh-result.json. The forked JVMs are given spark.master if it
+ * is set, otherwise Spark runs on local[*].
+ */
+public class BenchmarkRunner {
+
+  public static final String DEFAULT_INCLUDE = "io\\.ddf\\.benchmarks\\..*";
+
+  public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+  public static void main(String[] args) throws RunnerException {
+    String include = args.length > 0 ? args[0] : DEFAULT_INCLUDE;
+    String resultFile = args.length > 1 ? args[1] : DEFAULT_RESULT_FILE;
+
+    ChainedOptionsBuilder options = new OptionsBuilder()
+        .include(include)
+        .resultFormat(ResultFormatType.JSON)
+        .result(resultFile);
+    String master = System.getProperty("spark.master");
+    if (master != null) options = options.jvmArgsAppend("-Dspark.master=" + master);
+
+    new Runner(options.build()).run();
+    System.out.println(">>>> Benchmark results written to " + resultFile);
+  }
+}
@@ -0,0 +1,71 @@
+package io.ddf.benchmarks;
+
+
+import io.ddf.DDF;
+import io.ddf.content.Representation;
+import io.ddf.exception.DDFException;
+import io.ddf.spark.content.DataFrame2MatrixVector;
+import io.ddf.spark.content.RDDRow2ArrayDouble;
+import org.apache.spark.rdd.RDD;
+import org.apache.spark.sql.DataFrame;
+import org.apache.spark.sql.Row;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The representation conversions that ML algorithms start with, on the numeric columns of synthetic data cached in
+ * memory, so that only the conversion and a count of its result are timed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConverterBenchmark {
+
+  @Param({ "100000" })
+  public int numRows;
+
+  private DDF mDDF;
+
+  private DataFrame mDataFrame;
+
+  private RDD<Row> mRows;
+
+  @Setup
+  public void setup(LocalSpark spark) throws DDFException {
+    File file = new SyntheticData(42).writeCsv(spark.getDataDir(), numRows);
+    DDF loaded = spark.getManager().loadFile(file.getAbsolutePath(), SyntheticData.SEPARATOR);
+    mDDF = loaded.VIEWS.project("V1", "V2", "V3", "V5");
+    mDDF.getSchemaHandler().generateDummyCoding();
+
+    mDataFrame = ((DataFrame) mDDF.getRepresentationHandler().get(DataFrame.class)).cache();
+    mDataFrame.count();
+    mRows = mDataFrame.rdd();
+  }
+
+  @Benchmark
+  public long rddRow2ArrayDouble() {
+    Representation result = new RDDRow2ArrayDouble(mDDF).apply(new Representation(mRows, RDD.class, Row.class));
+    return ((RDD<?>) result.getValue()).count();
+  }
+
+  @Benchmark
+  public long dataFrame2MatrixVector() {
+    Representation result = new DataFrame2MatrixVector(mDDF).apply(new Representation(mDataFrame, DataFrame.class));
+    return ((RDD<?>) result.getValue()).count();
+  }
+}
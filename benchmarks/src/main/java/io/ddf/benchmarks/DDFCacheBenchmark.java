@@ -0,0 +1,77 @@
+package io.ddf.benchmarks;
+
+
+import io.ddf.DDF;
+import io.ddf.DDFManager;
+import io.ddf.exception.DDFException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups of DDFs by UUID and by name in the DDFCache of a manager holding numDDFs DDFs, as done for every DDF an sql
+ * command refers to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DDFCacheBenchmark {
+
+  @Param({ "10", "1000" })
+  public int numDDFs;
+
+  private DDFManager mManager;
+
+  private UUID[] mUUIDs;
+
+  private String[] mNames;
+
+  @Setup
+  public void setup() throws DDFException {
+    mManager = DDFManager.get(DDFManager.EngineType.BASIC);
+    SyntheticData data = new SyntheticData(42);
+    mUUIDs = new UUID[numDDFs];
+    mNames = new String[numDDFs];
+    for (int i = 0; i < numDDFs; i++) {
+      DDF ddf = data.newBasicDDF(mManager, "cached_" + i, 1);
+      mUUIDs[i] = ddf.getUUID();
+      mNames[i] = ddf.getName();
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    mManager.shutdown();
+  }
+
+  @Benchmark
+  public DDF getDDF() throws DDFException {
+    // the most recently added DDF, as looked up right after it is created
+    return mManager.getDDF(mUUIDs[numDDFs - 1]);
+  }
+
+  @Benchmark
+  public DDF getDDFByName() throws DDFException {
+    return mManager.getDDFByName(mNames[numDDFs - 1]);
+  }
+
+  @Benchmark
+  public boolean hasDDF() {
+    return mManager.hasDDF(mUUIDs[numDDFs / 2]);
+  }
+}
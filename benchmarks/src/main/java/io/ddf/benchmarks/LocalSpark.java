@@ -0,0 +1,50 @@
+package io.ddf.benchmarks;
+
+
+import io.ddf.DDFManager;
+import io.ddf.exception.DDFException;
+import io.ddf.spark.SparkDDFManager;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+
+/**
+ * A SparkDDFManager shared by the benchmarks of a trial, on a local[*] master unless spark.master is set, and a
+ * directory for their synthetic data.
+ */
+@State(Scope.Benchmark)
+public class LocalSpark {
+
+  public static final String DEFAULT_MASTER = "local[*]";
+
+  private SparkDDFManager mManager;
+
+  private File mDataDir;
+
+  @Setup(Level.Trial)
+  public void setup() throws DDFException {
+    if (System.getProperty("spark.master") == null) System.setProperty("spark.master", DEFAULT_MASTER);
+    if (System.getProperty("spark.ui.enabled") == null) System.setProperty("spark.ui.enabled", "false");
+    mManager = (SparkDDFManager) DDFManager.get(DDFManager.EngineType.SPARK);
+    mDataDir = SyntheticData.createTempDir();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    // the manager leaves its context running, and a forked JVM may run another trial
+    mManager.getSparkContext().stop();
+    SyntheticData.delete(mDataDir);
+  }
+
+  public SparkDDFManager getManager() {
+    return mManager;
+  }
+
+  public File getDataDir() {
+    return mDataDir;
+  }
+}
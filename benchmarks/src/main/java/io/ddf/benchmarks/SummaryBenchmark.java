@@ -0,0 +1,74 @@
+package io.ddf.benchmarks;
+
+
+import io.ddf.analytics.Summary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary.merge of single values, as done per row when summarizing a partition, and of partial summaries, as done
+ * when the partitions are reduced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SummaryBenchmark {
+
+  @Param({ "1000", "100000" })
+  public int numValues;
+
+  private double[] mValues;
+
+  private Summary[] mPartials;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    mValues = new double[numValues];
+    for (int i = 0; i < numValues; i++) {
+      // one value in a hundred is missing
+      mValues[i] = random.nextInt(100) == 0 ? Double.NaN : random.nextGaussian() * 100;
+    }
+
+    mPartials = new Summary[64];
+    for (int i = 0; i < mPartials.length; i++) {
+      mPartials[i] = new Summary();
+      for (int j = i; j < numValues; j += mPartials.length) {
+        mPartials[i].merge(mValues[j]);
+      }
+    }
+  }
+
+  @Benchmark
+  public Summary mergeValues() {
+    Summary summary = new Summary();
+    for (double value : mValues) {
+      summary.merge(value);
+    }
+    return summary;
+  }
+
+  @Benchmark
+  public Summary mergeSummaries() {
+    Summary summary = new Summary();
+    for (Summary partial : mPartials) {
+      summary.merge(partial);
+    }
+    return summary;
+  }
+}
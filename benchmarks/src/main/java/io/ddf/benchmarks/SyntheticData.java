@@ -0,0 +1,110 @@
+package io.ddf.benchmarks;
+
+
+import com.google.common.base.Joiner;
+import io.ddf.DDF;
+import io.ddf.DDFManager;
+import io.ddf.content.Schema;
+import io.ddf.exception.DDFException;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates airline-like rows for the benchmarks, as delimited files or basic DDFs, the same for a given seed:
+ * <pre>
+ *   V1 int     group, 0 to 99
+ *   V2 double  distance, uniform in [100, 3000)
+ *   V3 double  departure delay, normal around 10
+ *   V4 string  carrier, one of {@link #CARRIERS}
+ *   V5 double  arrival delay, linear in V2 and V3 plus noise, so that regressions converge
+ * </pre>
+ */
+public class SyntheticData {
+
+  public static final String[] CARRIERS = { "AA", "DL", "UA", "WN", "B6", "AS" };
+
+  public static final String SEPARATOR = ",";
+
+  public static final String SCHEMA = "V1 int, V2 double, V3 double, V4 string, V5 double";
+
+  private final long mSeed;
+
+  public SyntheticData(long seed) {
+    mSeed = seed;
+  }
+
+  public File writeCsv(File dir, int numRows) throws DDFException {
+    File file = new File(dir, String.format("synthetic-%d-%d.csv", numRows, mSeed));
+    Random random = new Random(mSeed);
+    try {
+      BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+      try {
+        for (int i = 0; i < numRows; i++) {
+          writer.write(row(random));
+          writer.newLine();
+        }
+      } finally {
+        writer.close();
+      }
+    } catch (IOException e) {
+      throw new DDFException("Cannot write synthetic data to " + file, e);
+    }
+    return file;
+  }
+
+  /**
+   * @return a basic DDF of the given rows, named if the name is not null
+   */
+  public DDF newBasicDDF(DDFManager manager, String name, int numRows) throws DDFException {
+    Random random = new Random(mSeed);
+    List<Object[]> rows = new ArrayList<Object[]>(numRows);
+    for (int i = 0; i < numRows; i++) {
+      rows.add(values(random));
+    }
+    return manager.newDDF(rows, new Class<?>[] { List.class, Object[].class }, name, new Schema(null, SCHEMA));
+  }
+
+  static Object[] values(Random random) {
+    int group = random.nextInt(100);
+    double distance = round(100 + random.nextDouble() * 2900);
+    double depDelay = round(10 + random.nextGaussian() * 15);
+    String carrier = CARRIERS[random.nextInt(CARRIERS.length)];
+    double arrDelay = round(0.002 * distance + 0.9 * depDelay + random.nextGaussian() * 5);
+    return new Object[] { group, distance, depDelay, carrier, arrDelay };
+  }
+
+  static String row(Random random) {
+    return Joiner.on(SEPARATOR).join(values(random));
+  }
+
+  private static double round(double value) {
+    return Math.round(value * 100) / 100.0;
+  }
+
+  public static File createTempDir() throws DDFException {
+    try {
+      File dir = File.createTempFile("ddf-benchmarks", "");
+      if (!dir.delete() || !dir.mkdir()) throw new IOException("Cannot create directory " + dir);
+      dir.deleteOnExit();
+      return dir;
+    } catch (IOException e) {
+      throw new DDFException(e);
+    }
+  }
+
+  public static void delete(File dir) {
+    File[] files = dir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    dir.delete();
+  }
+}
@@ -0,0 +1,78 @@
+package io.ddf.benchmarks;
+
+
+import io.ddf.DDFManager;
+import io.ddf.TableNameReplacer;
+import io.ddf.exception.DDFException;
+import net.sf.jsqlparser.parser.CCJSqlParserManager;
+import net.sf.jsqlparser.statement.Statement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rewriting of the DDF names of sql commands into table names, as done by sql and sql2ddf before a command is run.
+ * The replacer rewrites the parsed statement in place, so each invocation parses the command again: parse alone is
+ * the baseline to subtract.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TableNameReplacerBenchmark {
+
+  private static final String SIMPLE = "select V1, avg(V5) from flights where V3 > 15 group by V1";
+
+  private static final String JOIN = "select f.V4, c.V2 from flights f join carriers c on f.V1 = c.V1 "
+      + "where f.V3 > (select avg(V3) from delays) union all select V4, V2 from carriers";
+
+  @Param({ "simple", "join" })
+  public String query;
+
+  private DDFManager mManager;
+
+  private CCJSqlParserManager mParser;
+
+  private String mCommand;
+
+  @Setup
+  public void setup() throws DDFException {
+    mManager = DDFManager.get(DDFManager.EngineType.BASIC);
+    SyntheticData data = new SyntheticData(42);
+    for (String name : new String[] { "flights", "carriers", "delays" }) {
+      data.newBasicDDF(mManager, name, 1);
+    }
+    mParser = new CCJSqlParserManager();
+    mCommand = "join".equals(query) ? JOIN : SIMPLE;
+  }
+
+  @TearDown
+  public void tearDown() {
+    mManager.shutdown();
+  }
+
+  @Benchmark
+  public Statement parse() throws Exception {
+    return mParser.parse(new StringReader(mCommand));
+  }
+
+  @Benchmark
+  public String parseAndReplace() throws Exception {
+    Statement statement = mParser.parse(new StringReader(mCommand));
+    return new TableNameReplacer(mManager).run(statement).toString();
+  }
+}
@@ -0,0 +1,99 @@
+package io.ddf.benchmarks;
+
+
+import io.ddf.DDF;
+import io.ddf.analytics.Summary;
+import io.ddf.exception.DDFException;
+import io.ddf.ml.IModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end DDFManager workflows on numRows rows of synthetic data, each timed once per iteration. Except for load,
+ * they start from the loaded DDF cached in memory, so that they time the operation rather than reading the file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WorkflowBenchmark {
+
+  public static final String DDF_NAME = "synthetic";
+
+  @Param({ "100000", "1000000" })
+  public int numRows;
+
+  private LocalSpark mSpark;
+
+  private File mFile;
+
+  private DDF mDDF;
+
+  private DDF mFeatures;
+
+  private IModel mModel;
+
+  @Setup
+  public void setup(LocalSpark spark) throws DDFException {
+    mSpark = spark;
+    mFile = new SyntheticData(42).writeCsv(spark.getDataDir(), numRows);
+    mDDF = spark.getManager().loadFile(mFile.getAbsolutePath(), SyntheticData.SEPARATOR);
+    spark.getManager().setDDFName(mDDF, DDF_NAME);
+    mDDF.getRepresentationHandler().cache(false);
+
+    mFeatures = mDDF.VIEWS.project("V2", "V3", "V5");
+    mFeatures.getRepresentationHandler().cache(false);
+    mModel = mFeatures.ML.KMeans(5, 5, 1);
+  }
+
+  @Benchmark
+  public long load() throws DDFException {
+    return mSpark.getManager().loadFile(mFile.getAbsolutePath(), SyntheticData.SEPARATOR).getNumRows();
+  }
+
+  @Benchmark
+  public long sql2ddf() throws DDFException {
+    DDF result = mSpark.getManager().sql2ddf(
+        String.format("select V4, avg(V5) as delay from %s where V3 > 0 group by V4", DDF_NAME), true);
+    return result.getNumRows();
+  }
+
+  @Benchmark
+  public Summary[] summary() throws DDFException {
+    return mDDF.getSummary();
+  }
+
+  @Benchmark
+  public long binning() throws DDFException {
+    return mDDF.binning("V2", "EQUALINTERVAL", 10, null, true, true).getNumRows();
+  }
+
+  @Benchmark
+  public IModel trainKMeans() throws DDFException {
+    return mFeatures.ML.KMeans(5, 5, 1);
+  }
+
+  @Benchmark
+  public IModel trainLinearRegression() throws DDFException {
+    return mFeatures.ML.LinearRegressionWithSGD(10);
+  }
+
+  @Benchmark
+  public long predict() throws DDFException {
+    return mFeatures.ML.applyModel(mModel, false, true).getNumRows();
+  }
+}
@@ -16,6 +16,8 @@ TARGET_DIR=target
 PROJECTS=(`echo */src/main | sed -e 's/\/src\/main//g'`)
 
 for project in ${PROJECTS[*]} ; do
+  # The benchmarks pom only builds the shaded JMH jar and is maintained by hand
+  [ "$project" = benchmarks ] && continue
   # find the latest *.pom under $TARGET_DIR
   pom=`find $project -type f -name *.pom -exec ls -l {} \; 2> /dev/null | sort -t' ' -k +6,6 -k +7,7 -k+8,8 | tail -1 | sed -e 's/.* //g'`
   [ -z $pom ] && continue
@@ -8,6 +8,7 @@ import com.google.common.base.Strings;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.annotations.Expose;
+import io.basic.ddf.content.ColumnarTable;
 import io.basic.ddf.content.PersistenceHandler.BasicPersistible;
 import io.ddf.DDF;
 import io.ddf.DDFManager;
@@ -63,7 +64,12 @@ public class BasicDDF extends DDF {
 
     super(manager, sDummyBasicDDFManager);
     if (rows == null) throw new DDFException("Non-null rows Object is required to instantiate a new BasicDDF");
-    mUnitType = (typeSpecs != null && typeSpecs.length > 0) ? typeSpecs[1] : null;
+    if (typeSpecs != null && typeSpecs.length > 1) {
+      mUnitType = typeSpecs[1];
+    } else if (typeSpecs != null && typeSpecs.length == 1 && typeSpecs[0] == ColumnarTable.class) {
+      // columnar DDFs are listed, and serialized, as Object[] rows
+      mUnitType = Object[].class;
+    }
     this.initialize(manager, rows, typeSpecs, name, schema);
   }
 
@@ -97,6 +103,10 @@ public class BasicDDF extends DDF {
     return (List<T>) this.getRepresentationHandler().get(List.class, rowType);
   }
 
+  public Class<?> getUnitType() {
+    return mUnitType;
+  }
+
   public void setList(List<?> data, Class<?> rowType) {
     this.getRepresentationHandler().set(data, List.class, rowType);
   }
@@ -4,11 +4,16 @@
 package io.basic.ddf;
 
 
+import io.basic.ddf.datasource.BasicDataSourceManager;
 import io.ddf.DDF;
 import io.ddf.DDFManager;
 import io.ddf.content.Schema;
+import io.ddf.datasource.DataFormat;
+import io.ddf.datasource.TextFileFormat;
 import io.ddf.exception.DDFException;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
 
@@ -22,7 +27,9 @@ public class BasicDDFManager extends DDFManager {
     return "basic";
   }
 
-  public BasicDDFManager() {}
+  public BasicDDFManager() {
+    this.mDataSourceManager = new BasicDataSourceManager(this);
+  }
 
   public <T> DDF newDDF(List<T> rows, Class<T> unitType, String name, Schema schema)
       throws DDFException {
@@ -34,17 +41,37 @@ public class BasicDDFManager extends DDFManager {
     return this.newDDF(this, rows, new Class[] { List.class, unitType }, name, schema);
   }
 
+  /**
+   * Loads a delimited file without header, whose columns are named V1, V2, ... and typed by sampling the file
+   */
   public DDF loadFile(String fileURL, String fieldSeparator) throws DDFException {
-    throw new DDFException("Load DDF from file is not supported!");
+    TextFileFormat format = new TextFileFormat(DataFormat.CSV, false, fieldSeparator, "\"");
+    return ((BasicDataSourceManager) this.mDataSourceManager).loadDelimitedFile(fileURL, format, null);
   }
 
+  /**
+   * Copies the typed rows of a DDF of any engine into memory, through the row iterator of its view handler
+   */
   @Override
   public DDF copyFrom(DDF ddf, String tgtname) throws DDFException {
-    throw new DDFException("Unsupported operation");
+    mLog.info(String.format(">>> Copy new ddf %s from ddf %s", tgtname, ddf.getName()));
+    List<Object[]> rows = new ArrayList<Object[]>();
+    Iterator<Object[]> it = ddf.getViewHandler().getRowIterator(-1);
+    while (it.hasNext()) {
+      rows.add(it.next().clone());
+    }
+
+    List<Schema.Column> columns = new ArrayList<Schema.Column>();
+    for (Schema.Column column : ddf.getSchema().getColumns()) {
+      columns.add(new Schema.Column(column.getName(), column.getType()));
+    }
+    DDF copy = this.newDDF(this, rows, new Class<?>[] { List.class, Object[].class }, null, new Schema(null, columns));
+    if (tgtname != null) this.setDDFName(copy, tgtname);
+    return copy;
   }
 
   @Override
   public DDF copyFrom(DDFManager manager, String ddfname, String tgtname) throws DDFException {
-    throw new DDFException("Unsupported operation");
+    return this.copyFrom(manager.getDDFByName(ddfname), tgtname);
   }
 }
@@ -4,7 +4,12 @@
 package io.basic.ddf;
 
 
+import io.basic.ddf.content.ArrayObject2Columnar;
+import io.basic.ddf.content.Columnar2ArrayDouble;
+import io.basic.ddf.content.Columnar2ArrayObject;
+import io.basic.ddf.content.ColumnarTable;
 import io.ddf.DDF;
+import io.ddf.content.Representation;
 
 import java.lang.reflect.Array;
 import java.util.List;
@@ -16,6 +21,9 @@ public class RepresentationHandler extends io.ddf.content.RepresentationHandler
 
   public RepresentationHandler(DDF theDDF) {
     super(theDDF);
+    this.addConvertFunction(LIST_OBJECT_ARRAY, COLUMNAR, new ArrayObject2Columnar(this.getDDF()));
+    this.addConvertFunction(COLUMNAR, LIST_OBJECT_ARRAY, new Columnar2ArrayObject(this.getDDF()));
+    this.addConvertFunction(COLUMNAR, LIST_DOUBLE_ARRAY, new Columnar2ArrayDouble(this.getDDF()));
   }
 
 
@@ -25,10 +33,18 @@ public class RepresentationHandler extends io.ddf.content.RepresentationHandler
   public static final String LIST_ARRAY_DOUBLE = getKeyFor(new Class<?>[] { List.class, Array.class, Double.class });
   public static final String LIST_ARRAY_OBJECT = getKeyFor(new Class<?>[] { List.class, Array.class, Object.class });
 
+  public static final Representation LIST_OBJECT_ARRAY = new Representation(List.class, Object[].class);
+  public static final Representation LIST_DOUBLE_ARRAY = new Representation(List.class, double[].class);
+  public static final Representation COLUMNAR = new Representation(ColumnarTable.class);
 
+
+  /**
+   * @return the type the DDF was created with, List&lt;Object[]&gt; if unknown
+   */
   @Override
   public Class<?>[] getDefaultDataType() {
-    return new Class<?>[] { List.class, Array.class, Object.class };
+    Class<?>[] typeSpecs = super.getDefaultDataType();
+    return typeSpecs != null ? typeSpecs : new Class<?>[] { List.class, Object[].class };
   }
 
 
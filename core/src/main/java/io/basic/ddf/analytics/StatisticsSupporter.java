@@ -0,0 +1,213 @@
+package io.basic.ddf.analytics;
+
+
+import io.basic.ddf.content.ColumnVector;
+import io.basic.ddf.content.ColumnarTable;
+import io.ddf.DDF;
+import io.ddf.analytics.AStatisticsSupporter;
+import io.ddf.analytics.CategoricalSimpleSummary;
+import io.ddf.analytics.NumericSimpleSummary;
+import io.ddf.analytics.SimpleSummary;
+import io.ddf.analytics.Summary;
+import io.ddf.content.Schema;
+import io.ddf.content.Schema.ColumnType;
+import io.ddf.exception.DDFException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Statistics of basic DDFs, computed by scanning the columns of their {@link ColumnarTable} representation. Quantiles
+ * are exact, interpolated linearly between the closest ranks as Hive's percentile().
+ */
+public class StatisticsSupporter extends AStatisticsSupporter {
+
+  public StatisticsSupporter(DDF theDDF) {
+    super(theDDF);
+  }
+
+  private ColumnarTable getTable() throws DDFException {
+    ColumnarTable table = (ColumnarTable) this.getDDF().getRepresentationHandler().get(ColumnarTable.class);
+    if (table == null) throw new DDFException("Cannot get the columns of " + this.getDDF().getName());
+    return table;
+  }
+
+  private ColumnVector getNumericColumn(String columnName) throws DDFException {
+    ColumnVector column = this.getTable().getColumn(columnName);
+    if (column.getType() == null || !ColumnType.isNumeric(column.getType())) {
+      throw new DDFException(String.format("Column %s is not numeric", columnName));
+    }
+    return column;
+  }
+
+  /**
+   * @return the summaries of the numeric columns, null for the others
+   */
+  @Override
+  protected Summary[] getSummaryImpl() throws DDFException {
+    ColumnarTable table = this.getTable();
+    Summary[] summaries = new Summary[table.getNumColumns()];
+    for (int i = 0; i < summaries.length; i++) {
+      ColumnVector column = table.getColumn(i);
+      if (column.getType() != null && ColumnType.isNumeric(column.getType())) {
+        summaries[i] = summarize(column);
+      }
+    }
+    return summaries;
+  }
+
+  @Override
+  protected SimpleSummary[] getSimpleSummaryImpl() throws DDFException {
+    ColumnarTable table = this.getTable();
+    List<SimpleSummary> simpleSummaries = new ArrayList<SimpleSummary>();
+    for (Schema.Column column : this.getDDF().getSchemaHandler().getColumns()) {
+      if (column.getColumnClass() != Schema.ColumnClass.FACTOR) continue;
+      ColumnVector vector = table.getColumn(column.getName());
+      List<String> values = new ArrayList<String>();
+      if (vector instanceof ColumnVector.DictionaryVector) {
+        values.addAll(((ColumnVector.DictionaryVector) vector).getDictionary());
+      } else {
+        Set<String> distinct = new LinkedHashSet<String>();
+        for (int r = 0; r < vector.size(); r++) {
+          if (!vector.isNull(r)) distinct.add(vector.get(r).toString());
+        }
+        values.addAll(distinct);
+      }
+
+      CategoricalSimpleSummary summary = new CategoricalSimpleSummary();
+      summary.setValues(values);
+      summary.setColumnName(column.getName());
+      simpleSummaries.add(summary);
+    }
+
+    for (Schema.Column column : this.getDDF().getSchemaHandler().getColumns()) {
+      if (column.getType() == null || !ColumnType.isNumeric(column.getType())) continue;
+      Summary summary = summarize(table.getColumn(column.getName()));
+      NumericSimpleSummary simpleSummary = new NumericSimpleSummary();
+      simpleSummary.setColumnName(column.getName());
+      simpleSummary.setMin(summary.min());
+      simpleSummary.setMax(summary.max());
+      simpleSummaries.add(simpleSummary);
+    }
+    return simpleSummaries.toArray(new SimpleSummary[simpleSummaries.size()]);
+  }
+
+  @Override
+  public FiveNumSummary[] getFiveNumSummary(List<String> columnNames) throws DDFException {
+    FiveNumSummary[] fivenums = new FiveNumSummary[columnNames.size()];
+    for (int i = 0; i < fivenums.length; i++) {
+      ColumnVector column = this.getTable().getColumn(columnNames.get(i));
+      if (column.getType() == null || !ColumnType.isNumeric(column.getType())) {
+        fivenums[i] = new FiveNumSummary(Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+      } else {
+        double[] sorted = sortedValues(column);
+        fivenums[i] = new FiveNumSummary(quantile(sorted, 0), quantile(sorted, 1), quantile(sorted, 0.25),
+            quantile(sorted, 0.5), quantile(sorted, 0.75));
+      }
+    }
+    return fivenums;
+  }
+
+  @Override
+  public Double[] getVectorQuantiles(String columnName, Double[] percentiles, Integer B) throws DDFException {
+    if (percentiles == null || percentiles.length == 0) {
+      throw new DDFException("Cannot compute quantiles for empty percenties");
+    }
+    double[] sorted = sortedValues(this.getNumericColumn(columnName));
+    Double[] result = new Double[percentiles.length];
+    for (int i = 0; i < percentiles.length; i++) {
+      result[i] = sorted.length == 0 ? null : quantile(sorted, percentiles[i]);
+    }
+    return result;
+  }
+
+  @Override
+  public Double[] getVectorVariance(String columnName) throws DDFException {
+    Summary summary = summarize(this.getNumericColumn(columnName));
+    if (summary.count() <= 1) return null;
+    return new Double[] { summary.variance(), summary.stdev() };
+  }
+
+  @Override
+  public Double getVectorMean(String columnName) throws DDFException {
+    Summary summary = summarize(this.getNumericColumn(columnName));
+    return summary.count() == 0 ? null : summary.mean();
+  }
+
+  @Override
+  public Double getVectorMin(String columnName) throws DDFException {
+    Summary summary = summarize(this.getNumericColumn(columnName));
+    return summary.count() == 0 ? null : summary.min();
+  }
+
+  @Override
+  public Double getVectorMax(String columnName) throws DDFException {
+    Summary summary = summarize(this.getNumericColumn(columnName));
+    return summary.count() == 0 ? null : summary.max();
+  }
+
+  @Override
+  public double getVectorCor(String xColumnName, String yColumnName) throws DDFException {
+    double[] moments = this.comoments(xColumnName, yColumnName);
+    return moments[0] < 2 ? Double.NaN : moments[3] / Math.sqrt(moments[1] * moments[2]);
+  }
+
+  @Override
+  public double getVectorCovariance(String xColumnName, String yColumnName) throws DDFException {
+    double[] moments = this.comoments(xColumnName, yColumnName);
+    return moments[0] < 2 ? Double.NaN : moments[3] / (moments[0] - 1);
+  }
+
+  /**
+   * @return count, sum of squared deviations of x and of y, and co-moment, over the rows where both are non-null
+   */
+  private double[] comoments(String xColumnName, String yColumnName) throws DDFException {
+    ColumnVector x = this.getNumericColumn(xColumnName);
+    ColumnVector y = this.getNumericColumn(yColumnName);
+    double n = 0, meanX = 0, meanY = 0, ssX = 0, ssY = 0, cXY = 0;
+    for (int r = 0; r < x.size(); r++) {
+      double a = x.getDouble(r), b = y.getDouble(r);
+      if (Double.isNaN(a) || Double.isNaN(b)) continue;
+      n++;
+      double dX = a - meanX;
+      meanX += dX / n;
+      double dY = b - meanY;
+      meanY += dY / n;
+      ssX += dX * (a - meanX);
+      ssY += dY * (b - meanY);
+      cXY += dX * (b - meanY);
+    }
+    return new double[] { n, ssX, ssY, cXY };
+  }
+
+  static Summary summarize(ColumnVector column) {
+    Summary summary = new Summary();
+    for (int r = 0; r < column.size(); r++) {
+      summary.merge(column.getDouble(r));
+    }
+    return summary;
+  }
+
+  static double[] sortedValues(ColumnVector column) {
+    double[] values = new double[column.size() - column.getNullCount()];
+    int n = 0;
+    for (int r = 0; r < column.size(); r++) {
+      double value = column.getDouble(r);
+      if (!Double.isNaN(value)) values[n++] = value;
+    }
+    values = n == values.length ? values : Arrays.copyOf(values, n);
+    Arrays.sort(values);
+    return values;
+  }
+
+  static double quantile(double[] sorted, double p) {
+    if (sorted.length == 0) return Double.NaN;
+    double rank = p * (sorted.length - 1);
+    int lower = (int) Math.floor(rank);
+    int upper = (int) Math.ceil(rank);
+    return sorted[lower] + (rank - lower) * (sorted[upper] - sorted[lower]);
+  }
+}
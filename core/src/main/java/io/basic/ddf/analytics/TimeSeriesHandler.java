@@ -0,0 +1,68 @@
+package io.basic.ddf.analytics;
+
+
+import io.basic.ddf.BasicDDF;
+import io.ddf.DDF;
+import io.ddf.content.Schema;
+import io.ddf.exception.DDFException;
+import io.ddf.timeseries.ATimeSeriesHandler;
+import io.ddf.timeseries.AsOfJoinScan;
+import io.ddf.timeseries.SeriesOrdering;
+import io.ddf.timeseries.SeriesScan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Time series of basic DDFs, scanned in one partition. Rows already in order, e.g. those of a previous time-series
+ * operation, are not sorted again.
+ */
+public class TimeSeriesHandler extends ATimeSeriesHandler {
+
+  public TimeSeriesHandler(DDF theDDF) {
+    super(theDDF);
+  }
+
+  private static List<Object[]> getRows(DDF ddf) throws DDFException {
+    List<Object[]> rows = ((BasicDDF) ddf).getList(Object[].class);
+    if (rows == null) throw new DDFException(String.format("Cannot get the rows of %s", ddf.getName()));
+    return rows;
+  }
+
+  private static List<Object[]> sort(List<Object[]> rows, SeriesOrdering ordering) {
+    for (int i = 1; i < rows.size(); i++) {
+      if (ordering.compare(rows.get(i - 1), rows.get(i)) > 0) {
+        List<Object[]> sorted = new ArrayList<Object[]>(rows);
+        Collections.sort(sorted, ordering);
+        return sorted;
+      }
+    }
+    return rows;
+  }
+
+  private DDF newDDF(List<Object[]> rows, Schema schema) throws DDFException {
+    return this.getManager().newDDF(this.getManager(), rows, new Class<?>[] { List.class, Object[].class }, null,
+        schema);
+  }
+
+  @Override
+  protected DDF scan(SeriesOrdering ordering, SeriesScan<?> scan, Schema schema, SeriesOrdering outputOrdering)
+      throws DDFException {
+    return this.newDDF(scan.scan(sort(getRows(this.getDDF()), ordering)), schema);
+  }
+
+  @Override
+  protected DDF scanAsOfJoin(DDF other, AsOfJoinScan scan, Schema schema, SeriesOrdering outputOrdering)
+      throws DDFException {
+    List<Object[]> rows = new ArrayList<Object[]>();
+    for (Object[] row : getRows(this.getDDF())) {
+      rows.add(scan.leftRow(row));
+    }
+    for (Object[] row : getRows(other)) {
+      rows.add(scan.rightRow(row));
+    }
+    Collections.sort(rows, scan.getOrdering());
+    return this.newDDF(scan.scan(rows), schema);
+  }
+}
@@ -0,0 +1,30 @@
+package io.basic.ddf.content;
+
+
+import io.basic.ddf.RepresentationHandler;
+import io.ddf.DDF;
+import io.ddf.content.ConvertFunction;
+import io.ddf.content.Representation;
+import io.ddf.exception.DDFException;
+
+import java.util.List;
+
+/**
+ * Converts the List&lt;Object[]&gt; of a basic DDF into a {@link ColumnarTable} with the columns of its schema
+ */
+public class ArrayObject2Columnar extends ConvertFunction {
+
+  private transient DDF mDDF;
+
+  public ArrayObject2Columnar(DDF ddf) {
+    super(ddf);
+    mDDF = ddf;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public Representation apply(Representation rep) throws DDFException {
+    ColumnarTable table = ColumnarTable.fromRows((List<Object[]>) rep.getValue(), mDDF.getSchema().getColumns());
+    return new Representation(table, RepresentationHandler.COLUMNAR.getTypeSpecsString());
+  }
+}
@@ -0,0 +1,484 @@
+package io.basic.ddf.content;
+
+
+import com.google.common.base.Charsets;
+import com.google.common.io.CountingOutputStream;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.ddf.content.Schema;
+import io.ddf.exception.DDFException;
+import io.ddf.util.Utils;
+import io.ddf.util.Utils.JsonSerDes;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.sql.Timestamp;
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Binary, chunked and columnar file format used by the basic engine {@link PersistenceHandler} for DDFs of
+ * Object[] rows.
+ * <p/>
+ * Layout:
+ * <pre>
+ * MAGIC, VERSION, numRows, numChunks, indexOffset     fixed-size preamble, patched once all chunks are written
+ * headerLength, header, headerCrc                     JSON with the DDF name and its serialized schema
+ * chunk*                                              up to chunkRows rows each, stored column by column
+ * (offset, numRows, length, crc)*                     chunk index
+ * </pre>
+ * Rows are streamed one chunk at a time, so writing never holds more than one encoded chunk in memory. The file is
+ * written to a temporary file next to the target and then renamed over it, so a crash mid-write leaves the previous
+ * copy intact. Reading only parses the preamble, header and index; chunks are read and checksum-verified on first
+ * access to one of their rows. An opened file keeps its channel until {@link #close()}, so that its rows can still be
+ * read after a newer copy has been renamed over the path, or after the file has been deleted.
+ */
+public class ChunkedDataFile implements Closeable {
+
+  public static final String SUFFIX = ".ddf";
+
+  public static final int DEFAULT_CHUNK_ROWS = 65536;
+
+  private static final int MAGIC = 0x44444642; // "DDFB"
+  private static final int VERSION = 1;
+
+  // numRows, numChunks, indexOffset are patched at this position once the chunks are written
+  private static final long PREAMBLE_PATCH_OFFSET = 8;
+
+  private static final byte CODEC_NULL = 0;
+  private static final byte CODEC_BYTE = 1;
+  private static final byte CODEC_SHORT = 2;
+  private static final byte CODEC_INT = 3;
+  private static final byte CODEC_LONG = 4;
+  private static final byte CODEC_FLOAT = 5;
+  private static final byte CODEC_DOUBLE = 6;
+  private static final byte CODEC_BOOLEAN = 7;
+  private static final byte CODEC_STRING = 8;
+  private static final byte CODEC_TIMESTAMP = 9;
+  private static final byte CODEC_DATE = 10;
+  private static final byte CODEC_OBJECT = 11;
+
+
+  /**
+   * Streams the rows to path, replacing any existing file atomically
+   *
+   * @return the number of rows written
+   */
+  public static long write(String path, String name, Schema schema, Iterator<Object[]> rows, int chunkRows)
+      throws DDFException {
+
+    File tmpFile = new File(path + ".tmp");
+
+    try {
+      long numRows = 0;
+      int numChunks = 0;
+      long indexOffset;
+      ByteArrayOutputStream index = new ByteArrayOutputStream();
+      DataOutputStream indexOut = new DataOutputStream(index);
+
+      CountingOutputStream counter = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+      DataOutputStream out = new DataOutputStream(counter);
+      try {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(0L);
+        out.writeInt(0);
+        out.writeLong(0L);
+
+        JsonObject header = new JsonObject();
+        header.addProperty("name", name);
+        header.addProperty("schema", JsonSerDes.serialize(schema));
+        header.addProperty("chunkRows", chunkRows);
+        byte[] headerBytes = header.toString().getBytes(Charsets.UTF_8);
+        out.writeInt(headerBytes.length);
+        out.write(headerBytes);
+        out.writeLong(checksum(headerBytes, headerBytes.length));
+
+        Object[][] chunk = new Object[chunkRows][];
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        while (rows.hasNext()) {
+          int n = 0;
+          while (n < chunkRows && rows.hasNext()) {
+            chunk[n++] = rows.next();
+          }
+
+          buffer.reset();
+          encodeChunk(chunk, n, new DataOutputStream(buffer));
+          byte[] bytes = buffer.toByteArray();
+
+          indexOut.writeLong(counter.getCount());
+          indexOut.writeInt(n);
+          indexOut.writeInt(bytes.length);
+          indexOut.writeLong(checksum(bytes, bytes.length));
+          out.write(bytes);
+
+          numRows += n;
+          numChunks++;
+        }
+
+        indexOffset = counter.getCount();
+        index.writeTo(out);
+      } finally {
+        out.close();
+      }
+
+      // patch the preamble now that the counts are known, and make sure everything is on disk before the rename
+      RandomAccessFile raf = new RandomAccessFile(tmpFile, "rw");
+      try {
+        raf.seek(PREAMBLE_PATCH_OFFSET);
+        raf.writeLong(numRows);
+        raf.writeInt(numChunks);
+        raf.writeLong(indexOffset);
+        raf.getFD().sync();
+      } finally {
+        raf.close();
+      }
+
+      Utils.renameAtomically(tmpFile.getPath(), path);
+
+      return numRows;
+
+    } catch (IOException e) {
+      tmpFile.delete();
+      throw new DDFException(String.format("Unable to write %s", path), e);
+    }
+  }
+
+  /**
+   * Opens a file written by {@link #write}. Only the header and the chunk index are read here.
+   */
+  public static ChunkedDataFile open(String path) throws DDFException {
+    return new ChunkedDataFile(path);
+  }
+
+
+  private final File mFile;
+  private final FileChannel mChannel;
+  private final String mName;
+  private final Schema mSchema;
+  private final long mNumRows;
+  private final long[] mChunkOffsets;
+  private final int[] mChunkLengths;
+  private final long[] mChunkChecksums;
+  // cumulative row count before each chunk
+  private final long[] mChunkStarts;
+
+  private ChunkedDataFile(String path) throws DDFException {
+    mFile = new File(path);
+
+    try {
+      // the stream releases the descriptor if the file is never closed, once the rows are no longer referenced
+      FileInputStream stream = new FileInputStream(mFile);
+      mChannel = stream.getChannel();
+      boolean isOpened = false;
+      try {
+        // the streams over the channel are left open, closing them would close the channel
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(mChannel)));
+        if (in.readInt() != MAGIC) throw new DDFException(String.format("%s is not a DDF data file", path));
+        int version = in.readInt();
+        if (version != VERSION) throw new DDFException(String.format("Unsupported version %d of %s", version, path));
+
+        mNumRows = in.readLong();
+        int numChunks = in.readInt();
+        long indexOffset = in.readLong();
+
+        byte[] headerBytes = new byte[in.readInt()];
+        in.readFully(headerBytes);
+        if (in.readLong() != checksum(headerBytes, headerBytes.length)) {
+          throw new DDFException(String.format("Corrupted header in %s", path));
+        }
+        JsonObject header = new JsonParser().parse(new String(headerBytes, Charsets.UTF_8)).getAsJsonObject();
+        mName = header.get("name").isJsonNull() ? null : header.get("name").getAsString();
+        mSchema = (Schema) JsonSerDes.deserialize(header.get("schema").getAsString());
+
+        mChunkOffsets = new long[numChunks];
+        mChunkLengths = new int[numChunks];
+        mChunkChecksums = new long[numChunks];
+        mChunkStarts = new long[numChunks];
+        mChannel.position(indexOffset);
+        in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(mChannel)));
+        long start = 0;
+        for (int i = 0; i < numChunks; i++) {
+          mChunkOffsets[i] = in.readLong();
+          int rows = in.readInt();
+          mChunkLengths[i] = in.readInt();
+          mChunkChecksums[i] = in.readLong();
+          mChunkStarts[i] = start;
+          start += rows;
+        }
+        if (start != mNumRows) throw new DDFException(String.format("Corrupted chunk index in %s", path));
+        isOpened = true;
+      } finally {
+        if (!isOpened) stream.close();
+      }
+    } catch (IOException e) {
+      throw new DDFException(String.format("Unable to read %s", path), e);
+    }
+  }
+
+  public String getName() {
+    return mName;
+  }
+
+  public Schema getSchema() {
+    return mSchema;
+  }
+
+  public long getNumRows() {
+    return mNumRows;
+  }
+
+  public int getNumChunks() {
+    return mChunkOffsets.length;
+  }
+
+  /**
+   * A checksum of the row count and the chunk index, which tells apart two writes of different rows to the same path
+   */
+  public long getFingerprint() {
+    ByteBuffer buffer = ByteBuffer.allocate(8 + mChunkOffsets.length * 20);
+    buffer.putLong(mNumRows);
+    for (int i = 0; i < mChunkOffsets.length; i++) {
+      buffer.putLong(mChunkOffsets[i]).putInt(mChunkLengths[i]).putLong(mChunkChecksums[i]);
+    }
+    return checksum(buffer.array(), buffer.position());
+  }
+
+  /**
+   * @return a read-only view of the rows that loads, and keeps, one chunk at a time. Closing it closes the file.
+   */
+  public List<Object[]> getRows() throws DDFException {
+    if (mNumRows > Integer.MAX_VALUE) {
+      throw new DDFException(String.format("%s has %d rows, more than a list can hold", mFile, mNumRows));
+    }
+    return new LazyRowList();
+  }
+
+  /**
+   * Reads and verifies one chunk
+   */
+  public Object[][] readChunk(int chunk) throws DDFException {
+    byte[] bytes = new byte[mChunkLengths[chunk]];
+    try {
+      // positional reads leave the channel position alone, so concurrent readers need no lock
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      long position = mChunkOffsets[chunk];
+      while (buffer.hasRemaining()) {
+        int n = mChannel.read(buffer, position);
+        if (n < 0) throw new EOFException(String.format("Chunk %d of %s is truncated", chunk, mFile));
+        position += n;
+      }
+
+      if (checksum(bytes, bytes.length) != mChunkChecksums[chunk]) {
+        throw new DDFException(String.format("Checksum mismatch in chunk %d of %s", chunk, mFile));
+      }
+      return decodeChunk(new DataInputStream(new ByteArrayInputStream(bytes)));
+
+    } catch (IOException e) {
+      throw new DDFException(String.format("Unable to read chunk %d of %s", chunk, mFile), e);
+    } catch (ClassNotFoundException e) {
+      throw new DDFException(String.format("Unable to read chunk %d of %s", chunk, mFile), e);
+    }
+  }
+
+
+  /**
+   * Closes the channel of the file. Rows that are not loaded yet can no longer be read.
+   */
+  @Override
+  public void close() throws IOException {
+    mChannel.close();
+  }
+
+
+  private class LazyRowList extends AbstractList<Object[]> implements Closeable {
+    private int mCurrentChunk = -1;
+    private Object[][] mCurrentRows;
+
+    @Override
+    public synchronized Object[] get(int index) {
+      if (index < 0 || index >= mNumRows) throw new IndexOutOfBoundsException(String.valueOf(index));
+
+      int chunk = this.findChunk(index);
+      if (chunk != mCurrentChunk) {
+        try {
+          mCurrentRows = readChunk(chunk);
+        } catch (DDFException e) {
+          throw new IllegalStateException(e.getMessage(), e);
+        }
+        mCurrentChunk = chunk;
+      }
+      return mCurrentRows[(int) (index - mChunkStarts[chunk])];
+    }
+
+    @Override
+    public int size() {
+      // getRows() checked that the rows fit in a list
+      return (int) mNumRows;
+    }
+
+    @Override
+    public void close() throws IOException {
+      ChunkedDataFile.this.close();
+    }
+
+    private int findChunk(long index) {
+      int lo = 0, hi = mChunkStarts.length - 1;
+      while (lo < hi) {
+        int mid = (lo + hi + 1) >>> 1;
+        if (mChunkStarts[mid] <= index) lo = mid;
+        else hi = mid - 1;
+      }
+      return lo;
+    }
+  }
+
+
+  private static long checksum(byte[] bytes, int length) {
+    CRC32 crc = new CRC32();
+    crc.update(bytes, 0, length);
+    return crc.getValue();
+  }
+
+  private static void encodeChunk(Object[][] rows, int numRows, DataOutputStream out) throws IOException {
+    int numColumns = 0;
+    for (int r = 0; r < numRows; r++) {
+      if (rows[r] != null) numColumns = Math.max(numColumns, rows[r].length);
+    }
+
+    out.writeInt(numRows);
+    out.writeInt(numColumns);
+
+    BitSet nulls = new BitSet(numRows);
+    for (int c = 0; c < numColumns; c++) {
+      nulls.clear();
+      Class<?> type = null;
+      boolean isMixed = false;
+      for (int r = 0; r < numRows; r++) {
+        Object value = (rows[r] != null && c < rows[r].length) ? rows[r][c] : null;
+        if (value == null) {
+          nulls.set(r);
+        } else if (type == null) {
+          type = value.getClass();
+        } else if (type != value.getClass()) {
+          isMixed = true;
+        }
+      }
+
+      byte codec = isMixed ? CODEC_OBJECT : codecOf(type);
+      out.writeByte(codec);
+      byte[] nullBytes = nulls.toByteArray();
+      out.writeInt(nullBytes.length);
+      out.write(nullBytes);
+      if (codec == CODEC_NULL) continue;
+
+      // Java-serialized values are framed separately, as ObjectInputStream may read ahead of its last object
+      ByteArrayOutputStream objectBytes = codec == CODEC_OBJECT ? new ByteArrayOutputStream() : null;
+      ObjectOutputStream objectOut = codec == CODEC_OBJECT ? new ObjectOutputStream(objectBytes) : null;
+      for (int r = 0; r < numRows; r++) {
+        if (nulls.get(r)) continue;
+        Object value = rows[r][c];
+
+        switch (codec) {
+          case CODEC_BYTE: out.writeByte((Byte) value); break;
+          case CODEC_SHORT: out.writeShort((Short) value); break;
+          case CODEC_INT: out.writeInt((Integer) value); break;
+          case CODEC_LONG: out.writeLong((Long) value); break;
+          case CODEC_FLOAT: out.writeFloat((Float) value); break;
+          case CODEC_DOUBLE: out.writeDouble((Double) value); break;
+          case CODEC_BOOLEAN: out.writeBoolean((Boolean) value); break;
+          case CODEC_STRING: {
+            byte[] bytes = ((String) value).getBytes(Charsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            break;
+          }
+          case CODEC_TIMESTAMP: {
+            out.writeLong(((Timestamp) value).getTime());
+            out.writeInt(((Timestamp) value).getNanos());
+            break;
+          }
+          case CODEC_DATE: out.writeLong(((java.sql.Date) value).getTime()); break;
+          default: objectOut.writeObject(value);
+        }
+      }
+      if (objectOut != null) {
+        objectOut.close();
+        out.writeInt(objectBytes.size());
+        objectBytes.writeTo(out);
+      }
+    }
+  }
+
+  private static byte codecOf(Class<?> type) {
+    if (type == null) return CODEC_NULL;
+    if (type == Byte.class) return CODEC_BYTE;
+    if (type == Short.class) return CODEC_SHORT;
+    if (type == Integer.class) return CODEC_INT;
+    if (type == Long.class) return CODEC_LONG;
+    if (type == Float.class) return CODEC_FLOAT;
+    if (type == Double.class) return CODEC_DOUBLE;
+    if (type == Boolean.class) return CODEC_BOOLEAN;
+    if (type == String.class) return CODEC_STRING;
+    if (type == Timestamp.class) return CODEC_TIMESTAMP;
+    if (type == java.sql.Date.class) return CODEC_DATE;
+    return CODEC_OBJECT;
+  }
+
+  private static Object[][] decodeChunk(DataInputStream in) throws IOException, ClassNotFoundException {
+    int numRows = in.readInt();
+    int numColumns = in.readInt();
+    Object[][] rows = new Object[numRows][numColumns];
+
+    for (int c = 0; c < numColumns; c++) {
+      byte codec = in.readByte();
+      byte[] nullBytes = new byte[in.readInt()];
+      in.readFully(nullBytes);
+      BitSet nulls = BitSet.valueOf(nullBytes);
+      if (codec == CODEC_NULL) continue;
+
+      ObjectInputStream objectIn = null;
+      if (codec == CODEC_OBJECT) {
+        byte[] objectBytes = new byte[in.readInt()];
+        in.readFully(objectBytes);
+        objectIn = new ObjectInputStream(new ByteArrayInputStream(objectBytes));
+      }
+      for (int r = 0; r < numRows; r++) {
+        if (nulls.get(r)) continue;
+
+        Object value;
+        switch (codec) {
+          case CODEC_BYTE: value = in.readByte(); break;
+          case CODEC_SHORT: value = in.readShort(); break;
+          case CODEC_INT: value = in.readInt(); break;
+          case CODEC_LONG: value = in.readLong(); break;
+          case CODEC_FLOAT: value = in.readFloat(); break;
+          case CODEC_DOUBLE: value = in.readDouble(); break;
+          case CODEC_BOOLEAN: value = in.readBoolean(); break;
+          case CODEC_STRING: {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            value = new String(bytes, Charsets.UTF_8);
+            break;
+          }
+          case CODEC_TIMESTAMP: {
+            Timestamp ts = new Timestamp(in.readLong());
+            ts.setNanos(in.readInt());
+            value = ts;
+            break;
+          }
+          case CODEC_DATE: value = new java.sql.Date(in.readLong()); break;
+          case CODEC_OBJECT: value = objectIn.readObject(); break;
+          default: throw new IOException("Unknown column codec " + codec);
+        }
+        rows[r][c] = value;
+      }
+    }
+    return rows;
+  }
+}
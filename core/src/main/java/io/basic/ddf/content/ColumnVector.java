@@ -0,0 +1,435 @@
+package io.basic.ddf.content;
+
+
+import io.ddf.content.Schema.ColumnType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An append-only column of a {@link ColumnarTable}. Values are stored in chunks of {@link #CHUNK_SIZE} rows, so growing
+ * a column copies at most the values of its first chunk, which starts small and doubles until full. Each chunk has a
+ * null bitmap, allocated on the first null of the chunk.
+ * <p/>
+ * INT, BIGINT and DOUBLE columns are stored in primitive arrays, STRING columns are dictionary-encoded, and columns of
+ * any other type keep their boxed values. INT and BIGINT columns reject numbers they cannot hold exactly.
+ */
+public abstract class ColumnVector {
+
+  static final int CHUNK_BITS = 14;
+  public static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+  static final int CHUNK_MASK = CHUNK_SIZE - 1;
+  static final int INITIAL_CAPACITY = 64;
+
+  private final ColumnType mType;
+
+  private final List<long[]> mNulls = new ArrayList<long[]>();
+
+  private int mSize = 0;
+
+  private int mNullCount = 0;
+
+  // capacity of the last chunk
+  private int mCapacity = 0;
+
+  protected ColumnVector(ColumnType type) {
+    mType = type;
+  }
+
+  public static ColumnVector newVector(ColumnType type) {
+    if (type == null) return new ObjectVector(null);
+    switch (type) {
+      case INT:
+        return new IntVector();
+      case BIGINT:
+        return new LongVector();
+      case DOUBLE:
+        return new DoubleVector();
+      case STRING:
+        return new DictionaryVector();
+      default:
+        return new ObjectVector(type);
+    }
+  }
+
+  public ColumnType getType() {
+    return mType;
+  }
+
+  public int size() {
+    return mSize;
+  }
+
+  public int getNullCount() {
+    return mNullCount;
+  }
+
+  public boolean isNull(int row) {
+    long[] nulls = mNulls.get(row >>> CHUNK_BITS);
+    int offset = row & CHUNK_MASK;
+    return nulls != null && (nulls[offset >>> 6] & (1L << offset)) != 0;
+  }
+
+  /**
+   * @return the value of the row, boxed, or null
+   */
+  public Object get(int row) {
+    return this.isNull(row) ? null : this.getValue(row >>> CHUNK_BITS, row & CHUNK_MASK);
+  }
+
+  /**
+   * @return the value of the row as a double, NaN for null or a value without numeric meaning
+   */
+  public double getDouble(int row) {
+    return this.isNull(row) ? Double.NaN : this.getDoubleValue(row >>> CHUNK_BITS, row & CHUNK_MASK);
+  }
+
+  /**
+   * @throws IllegalArgumentException, e.g. a NumberFormatException or ClassCastException, if the value does not
+   *                                   fit the column. The column is left unchanged.
+   */
+  public void append(Object value) {
+    int chunk = mSize >>> CHUNK_BITS;
+    int offset = mSize & CHUNK_MASK;
+    if (offset == 0) {
+      // only the first chunk starts small, so that small tables stay small
+      mCapacity = chunk == 0 ? INITIAL_CAPACITY : CHUNK_SIZE;
+      this.addChunk(mCapacity);
+      mNulls.add(null);
+    } else if (offset == mCapacity) {
+      mCapacity = Math.min(2 * mCapacity, CHUNK_SIZE);
+      this.resizeLastChunk(mCapacity);
+    }
+
+    if (value == null) {
+      long[] nulls = mNulls.get(chunk);
+      if (nulls == null) {
+        nulls = new long[CHUNK_SIZE >>> 6];
+        mNulls.set(chunk, nulls);
+      }
+      nulls[offset >>> 6] |= 1L << offset;
+      mNullCount++;
+    } else {
+      try {
+        this.setValue(chunk, offset, value);
+      } catch (ClassCastException e) {
+        if (offset == 0) this.removeChunk();
+        throw new IllegalArgumentException(String.format("%s does not fit a %s column", value, mType), e);
+      } catch (IllegalArgumentException e) {
+        if (offset == 0) this.removeChunk();
+        throw e;
+      }
+    }
+    mSize++;
+  }
+
+  /**
+   * Removes the last value, to undo the partial append of a row
+   */
+  void removeLast() {
+    mSize--;
+    int offset = mSize & CHUNK_MASK;
+    long[] nulls = mNulls.get(mSize >>> CHUNK_BITS);
+    if (nulls != null && (nulls[offset >>> 6] & (1L << offset)) != 0) {
+      nulls[offset >>> 6] &= ~(1L << offset);
+      mNullCount--;
+    }
+    if (offset == 0) this.removeChunk();
+  }
+
+  private void removeChunk() {
+    this.removeLastChunk();
+    mNulls.remove(mNulls.size() - 1);
+  }
+
+  protected abstract void addChunk(int capacity);
+
+  protected abstract void resizeLastChunk(int capacity);
+
+  protected abstract void removeLastChunk();
+
+  protected abstract Object getValue(int chunk, int offset);
+
+  protected abstract double getDoubleValue(int chunk, int offset);
+
+  protected abstract void setValue(int chunk, int offset, Object value);
+
+  static Number toNumber(Object value) {
+    if (value instanceof Number) return (Number) value;
+    return Double.parseDouble(value.toString().trim());
+  }
+
+  /**
+   * @throws IllegalArgumentException if the number is not an integer within the range of a long, rather than
+   *                                  truncating it
+   */
+  static long toExactLong(Number value) {
+    if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+      return value.longValue();
+    }
+    if (value instanceof BigInteger && ((BigInteger) value).bitLength() < 64) return value.longValue();
+    if (value instanceof BigDecimal) {
+      try {
+        return ((BigDecimal) value).longValueExact();
+      } catch (ArithmeticException e) {
+        throw new IllegalArgumentException(String.format("%s is not a long", value), e);
+      }
+    }
+    double d = value.doubleValue();
+    if (d == Math.rint(d) && d >= -0x1p63 && d < 0x1p63) return (long) d;
+    throw new IllegalArgumentException(String.format("%s is not a long", value));
+  }
+
+  /**
+   * @return a column of the same type, with the first numRows values of this one
+   */
+  ColumnVector copy(int numRows) {
+    ColumnVector copy = newVector(mType);
+    for (int row = 0; row < numRows; row++) {
+      copy.append(this.get(row));
+    }
+    return copy;
+  }
+
+
+  public static class IntVector extends ColumnVector {
+    private final List<int[]> mChunks = new ArrayList<int[]>();
+
+    public IntVector() {
+      super(ColumnType.INT);
+    }
+
+    public int getInt(int row) {
+      return mChunks.get(row >>> CHUNK_BITS)[row & CHUNK_MASK];
+    }
+
+    @Override
+    protected void addChunk(int capacity) {
+      mChunks.add(new int[capacity]);
+    }
+
+    @Override
+    protected void resizeLastChunk(int capacity) {
+      mChunks.set(mChunks.size() - 1, Arrays.copyOf(mChunks.get(mChunks.size() - 1), capacity));
+    }
+
+    @Override
+    protected void removeLastChunk() {
+      mChunks.remove(mChunks.size() - 1);
+    }
+
+    @Override
+    protected Object getValue(int chunk, int offset) {
+      return mChunks.get(chunk)[offset];
+    }
+
+    @Override
+    protected double getDoubleValue(int chunk, int offset) {
+      return mChunks.get(chunk)[offset];
+    }
+
+    @Override
+    protected void setValue(int chunk, int offset, Object value) {
+      if (!(value instanceof Number)) {
+        mChunks.get(chunk)[offset] = Integer.parseInt(value.toString().trim());
+        return;
+      }
+      long exact = toExactLong((Number) value);
+      if (exact != (int) exact) throw new IllegalArgumentException(String.format("%s is not an int", value));
+      mChunks.get(chunk)[offset] = (int) exact;
+    }
+  }
+
+
+  public static class LongVector extends ColumnVector {
+    private final List<long[]> mChunks = new ArrayList<long[]>();
+
+    public LongVector() {
+      super(ColumnType.BIGINT);
+    }
+
+    public long getLong(int row) {
+      return mChunks.get(row >>> CHUNK_BITS)[row & CHUNK_MASK];
+    }
+
+    @Override
+    protected void addChunk(int capacity) {
+      mChunks.add(new long[capacity]);
+    }
+
+    @Override
+    protected void resizeLastChunk(int capacity) {
+      mChunks.set(mChunks.size() - 1, Arrays.copyOf(mChunks.get(mChunks.size() - 1), capacity));
+    }
+
+    @Override
+    protected void removeLastChunk() {
+      mChunks.remove(mChunks.size() - 1);
+    }
+
+    @Override
+    protected Object getValue(int chunk, int offset) {
+      return mChunks.get(chunk)[offset];
+    }
+
+    @Override
+    protected double getDoubleValue(int chunk, int offset) {
+      return mChunks.get(chunk)[offset];
+    }
+
+    @Override
+    protected void setValue(int chunk, int offset, Object value) {
+      mChunks.get(chunk)[offset] = value instanceof Number ? toExactLong((Number) value)
+          : Long.parseLong(value.toString().trim());
+    }
+  }
+
+
+  public static class DoubleVector extends ColumnVector {
+    private final List<double[]> mChunks = new ArrayList<double[]>();
+
+    public DoubleVector() {
+      super(ColumnType.DOUBLE);
+    }
+
+    @Override
+    protected void addChunk(int capacity) {
+      mChunks.add(new double[capacity]);
+    }
+
+    @Override
+    protected void resizeLastChunk(int capacity) {
+      mChunks.set(mChunks.size() - 1, Arrays.copyOf(mChunks.get(mChunks.size() - 1), capacity));
+    }
+
+    @Override
+    protected void removeLastChunk() {
+      mChunks.remove(mChunks.size() - 1);
+    }
+
+    @Override
+    protected Object getValue(int chunk, int offset) {
+      return mChunks.get(chunk)[offset];
+    }
+
+    @Override
+    protected double getDoubleValue(int chunk, int offset) {
+      return mChunks.get(chunk)[offset];
+    }
+
+    @Override
+    protected void setValue(int chunk, int offset, Object value) {
+      mChunks.get(chunk)[offset] = toNumber(value).doubleValue();
+    }
+  }
+
+
+  /**
+   * Strings stored as int codes into a dictionary of their distinct values, in order of first appearance. The code
+   * doubles as the level index of a factor, which is what {@link #getDouble(int)} returns.
+   */
+  public static class DictionaryVector extends ColumnVector {
+    private final List<int[]> mChunks = new ArrayList<int[]>();
+    private final List<String> mDictionary = new ArrayList<String>();
+    private final Map<String, Integer> mCodes = new HashMap<String, Integer>();
+
+    public DictionaryVector() {
+      super(ColumnType.STRING);
+    }
+
+    public int getCode(int row) {
+      return mChunks.get(row >>> CHUNK_BITS)[row & CHUNK_MASK];
+    }
+
+    /**
+     * @return the distinct non-null values of the column, indexed by code
+     */
+    public List<String> getDictionary() {
+      return mDictionary;
+    }
+
+    @Override
+    protected void addChunk(int capacity) {
+      mChunks.add(new int[capacity]);
+    }
+
+    @Override
+    protected void resizeLastChunk(int capacity) {
+      mChunks.set(mChunks.size() - 1, Arrays.copyOf(mChunks.get(mChunks.size() - 1), capacity));
+    }
+
+    @Override
+    protected void removeLastChunk() {
+      mChunks.remove(mChunks.size() - 1);
+    }
+
+    @Override
+    protected Object getValue(int chunk, int offset) {
+      return mDictionary.get(mChunks.get(chunk)[offset]);
+    }
+
+    @Override
+    protected double getDoubleValue(int chunk, int offset) {
+      return mChunks.get(chunk)[offset];
+    }
+
+    @Override
+    protected void setValue(int chunk, int offset, Object value) {
+      String s = value.toString();
+      Integer code = mCodes.get(s);
+      if (code == null) {
+        code = mDictionary.size();
+        mDictionary.add(s);
+        mCodes.put(s, code);
+      }
+      mChunks.get(chunk)[offset] = code;
+    }
+  }
+
+
+  public static class ObjectVector extends ColumnVector {
+    private final List<Object[]> mChunks = new ArrayList<Object[]>();
+
+    public ObjectVector(ColumnType type) {
+      super(type);
+    }
+
+    @Override
+    protected void addChunk(int capacity) {
+      mChunks.add(new Object[capacity]);
+    }
+
+    @Override
+    protected void resizeLastChunk(int capacity) {
+      mChunks.set(mChunks.size() - 1, Arrays.copyOf(mChunks.get(mChunks.size() - 1), capacity));
+    }
+
+    @Override
+    protected void removeLastChunk() {
+      mChunks.remove(mChunks.size() - 1);
+    }
+
+    @Override
+    protected Object getValue(int chunk, int offset) {
+      return mChunks.get(chunk)[offset];
+    }
+
+    @Override
+    protected double getDoubleValue(int chunk, int offset) {
+      Object value = mChunks.get(chunk)[offset];
+      if (value instanceof Number) return ((Number) value).doubleValue();
+      if (value instanceof Boolean) return (Boolean) value ? 1 : 0;
+      return Double.NaN;
+    }
+
+    @Override
+    protected void setValue(int chunk, int offset, Object value) {
+      mChunks.get(chunk)[offset] = value;
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package io.basic.ddf.content;
+
+
+import io.basic.ddf.RepresentationHandler;
+import io.ddf.DDF;
+import io.ddf.content.ConvertFunction;
+import io.ddf.content.Representation;
+import io.ddf.exception.DDFException;
+
+/**
+ * Extracts the List&lt;double[]&gt; of all columns of a {@link ColumnarTable}, for ML. String columns give the level
+ * index of their values, booleans 1 or 0; rows with a null or a value without numeric meaning are dropped.
+ */
+public class Columnar2ArrayDouble extends ConvertFunction {
+
+  public Columnar2ArrayDouble(DDF ddf) {
+    super(ddf);
+  }
+
+  @Override
+  public Representation apply(Representation rep) throws DDFException {
+    ColumnarTable table = (ColumnarTable) rep.getValue();
+    int[] columns = new int[table.getNumColumns()];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = i;
+    }
+    return new Representation(table.toDoubleRows(columns), RepresentationHandler.LIST_DOUBLE_ARRAY.getTypeSpecsString());
+  }
+}
@@ -0,0 +1,25 @@
+package io.basic.ddf.content;
+
+
+import io.basic.ddf.RepresentationHandler;
+import io.ddf.DDF;
+import io.ddf.content.ConvertFunction;
+import io.ddf.content.Representation;
+import io.ddf.exception.DDFException;
+
+/**
+ * Presents a {@link ColumnarTable} as a read-only List&lt;Object[]&gt;, whose rows are materialized on access rather
+ * than copied up front
+ */
+public class Columnar2ArrayObject extends ConvertFunction {
+
+  public Columnar2ArrayObject(DDF ddf) {
+    super(ddf);
+  }
+
+  @Override
+  public Representation apply(Representation rep) throws DDFException {
+    return new Representation(((ColumnarTable) rep.getValue()).asRows(),
+        RepresentationHandler.LIST_OBJECT_ARRAY.getTypeSpecsString());
+  }
+}
@@ -0,0 +1,162 @@
+package io.basic.ddf.content;
+
+
+import io.ddf.content.Schema;
+import io.ddf.exception.DDFException;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Column-oriented representation of the rows of a basic DDF: one {@link ColumnVector} per column of its schema.
+ * Numeric columns hold primitive values, so statistics and ML extraction scan arrays instead of boxed row objects.
+ * <p/>
+ * Rows are appended with {@link #append(Object[])}. A projection shares the columns of its table, and copies them on
+ * its first append; the table stays appendable, as its appends are past the rows the projection sees.
+ */
+public class ColumnarTable {
+
+  private final List<String> mColumnNames;
+
+  private final List<ColumnVector> mColumns;
+
+  private int mNumRows = 0;
+
+  // the columns are those of the projected table, copied before the first append
+  private boolean mShared = false;
+
+  public ColumnarTable(List<Schema.Column> columns) {
+    mColumnNames = new ArrayList<String>(columns.size());
+    mColumns = new ArrayList<ColumnVector>(columns.size());
+    for (Schema.Column column : columns) {
+      mColumnNames.add(column.getName());
+      mColumns.add(ColumnVector.newVector(column.getType()));
+    }
+  }
+
+  private ColumnarTable(List<String> columnNames, List<ColumnVector> columns, int numRows) {
+    mColumnNames = columnNames;
+    mColumns = columns;
+    mNumRows = numRows;
+    mShared = true;
+  }
+
+  public static ColumnarTable fromRows(List<Object[]> rows, List<Schema.Column> columns) throws DDFException {
+    ColumnarTable table = new ColumnarTable(columns);
+    for (Object[] row : rows) {
+      table.append(row);
+    }
+    return table;
+  }
+
+  public int getNumRows() {
+    return mNumRows;
+  }
+
+  public int getNumColumns() {
+    return mColumns.size();
+  }
+
+  public List<String> getColumnNames() {
+    return mColumnNames;
+  }
+
+  public ColumnVector getColumn(int i) {
+    return mColumns.get(i);
+  }
+
+  public ColumnVector getColumn(String name) throws DDFException {
+    return mColumns.get(this.getColumnIndex(name));
+  }
+
+  public int getColumnIndex(String name) throws DDFException {
+    for (int i = 0; i < mColumnNames.size(); i++) {
+      if (mColumnNames.get(i).equalsIgnoreCase(name)) return i;
+    }
+    throw new DDFException(String.format("Column %s not found", name));
+  }
+
+  public void append(Object[] row) throws DDFException {
+    if (mShared) {
+      for (int i = 0; i < mColumns.size(); i++) {
+        mColumns.set(i, mColumns.get(i).copy(mNumRows));
+      }
+      mShared = false;
+    }
+    if (row.length != mColumns.size()) {
+      throw new DDFException(String.format("Row of %d values for a table of %d columns", row.length, mColumns.size()));
+    }
+
+    int i = 0;
+    try {
+      for (; i < row.length; i++) {
+        mColumns.get(i).append(row[i]);
+      }
+    } catch (IllegalArgumentException e) {
+      // keep the columns aligned: drop the values of the row appended so far
+      for (int j = 0; j < i; j++) {
+        mColumns.get(j).removeLast();
+      }
+      throw new DDFException(String.format("Cannot append value %s to column %s", row[i], mColumnNames.get(i)), e);
+    }
+    mNumRows++;
+  }
+
+  public Object[] getRow(int row) {
+    Object[] values = new Object[mColumns.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = mColumns.get(i).get(row);
+    }
+    return values;
+  }
+
+  /**
+   * @return a read-only view of the rows, each materialized on access
+   */
+  public List<Object[]> asRows() {
+    return new AbstractList<Object[]>() {
+      @Override
+      public Object[] get(int index) {
+        if (index < 0 || index >= mNumRows) throw new IndexOutOfBoundsException(String.valueOf(index));
+        return ColumnarTable.this.getRow(index);
+      }
+
+      @Override
+      public int size() {
+        return mNumRows;
+      }
+    };
+  }
+
+  /**
+   * @return the rows of the columns whose values all have a numeric meaning, see {@link ColumnVector#getDouble(int)}
+   */
+  public List<double[]> toDoubleRows(int[] columns) {
+    List<double[]> rows = new ArrayList<double[]>(mNumRows);
+    for (int r = 0; r < mNumRows; r++) {
+      double[] values = new double[columns.length];
+      boolean isComplete = true;
+      for (int i = 0; i < columns.length && isComplete; i++) {
+        values[i] = mColumns.get(columns[i]).getDouble(r);
+        isComplete = !Double.isNaN(values[i]);
+      }
+      if (isComplete) rows.add(values);
+    }
+    return rows;
+  }
+
+  /**
+   * @return a table of the given columns, sharing them with this table
+   */
+  public ColumnarTable project(List<String> columnNames) throws DDFException {
+    List<ColumnVector> columns = new ArrayList<ColumnVector>(columnNames.size());
+    List<String> names = new ArrayList<String>(columnNames.size());
+    for (String name : columnNames) {
+      int index = this.getColumnIndex(name);
+      columns.add(mColumns.get(index));
+      names.add(mColumnNames.get(index));
+    }
+    return new ColumnarTable(names, columns, mNumRows);
+  }
+}
@@ -0,0 +1,93 @@
+package io.basic.ddf.content;
+
+
+import com.google.common.base.Strings;
+import io.ddf.DDF;
+import io.ddf.exception.DDFException;
+import io.ddf.index.AIndexingHandler;
+import io.ddf.index.ColumnRange;
+import io.ddf.index.IndexSelection;
+import io.ddf.index.IndexSet;
+import io.ddf.misc.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Indexes the rows of basic DDFs in partitions of BasicPersistenceChunkRows rows, the chunks in which they are
+ * persisted, so that the chunks of a persisted DDF that a query skips are not even read
+ */
+public class IndexingHandler extends AIndexingHandler {
+
+  private int mPartitionRows = getDefaultPartitionRows();
+
+  public IndexingHandler(DDF theDDF) {
+    super(theDDF);
+  }
+
+  public static int getDefaultPartitionRows() {
+    String value = Config.getGlobalValue(Config.ConfigConstant.FIELD_BASIC_PERSISTENCE_CHUNK_ROWS);
+    return Strings.isNullOrEmpty(value) ? ChunkedDataFile.DEFAULT_CHUNK_ROWS : Integer.parseInt(value.trim());
+  }
+
+  public synchronized int getPartitionRows() {
+    return mPartitionRows;
+  }
+
+  /**
+   * Sets indexes built over partitions of partitionRows rows
+   */
+  public void setIndexSet(IndexSet indexes, int partitionRows) throws DDFException {
+    synchronized (this) {
+      mPartitionRows = partitionRows;
+    }
+    this.setIndexSet(indexes);
+  }
+
+  @Override
+  protected Object getSource() throws DDFException {
+    Object rows = this.getDDF().getRepresentationHandler().get(List.class, Object[].class);
+    if (rows == null) throw new DDFException(String.format("Cannot get the rows of %s", this.getDDF().getName()));
+    return rows;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  protected synchronized List<IndexSet.Partition> indexPartitions(Object source, IndexSet.Indexer indexer) {
+    List<Object[]> rows = (List<Object[]>) source;
+    if (!this.isBuilt()) mPartitionRows = getDefaultPartitionRows();
+
+    List<IndexSet.Partition> partitions = new ArrayList<IndexSet.Partition>();
+    for (int from = 0; from < rows.size(); from += mPartitionRows) {
+      partitions.add(indexer.index(rows.subList(from, Math.min(from + mPartitionRows, rows.size())).iterator()));
+    }
+    return partitions;
+  }
+
+  /**
+   * @param rows the rows of the DDF
+   * @return the rows that may satisfy all ranges, all rows if no index applies
+   */
+  public List<Object[]> select(List<Object[]> rows, List<ColumnRange> ranges) throws DDFException {
+    IndexSelection selection = this.select(ranges);
+    int partitionRows = this.getPartitionRows();
+    if (selection == null || selection.getNumPartitions() != (rows.size() + partitionRows - 1) / partitionRows) {
+      return rows;
+    }
+
+    List<Object[]> selected = new ArrayList<Object[]>();
+    for (int p = 0; p < selection.getNumPartitions(); p++) {
+      if (!selection.isKept(p)) continue;
+      int from = p * partitionRows;
+      int[] positions = selection.getRows(p);
+      if (positions == null) {
+        selected.addAll(rows.subList(from, Math.min(from + partitionRows, rows.size())));
+      } else {
+        for (int position : positions) {
+          selected.add(rows.get(from + position));
+        }
+      }
+    }
+    return selected;
+  }
+}
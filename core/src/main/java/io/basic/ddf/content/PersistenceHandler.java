@@ -4,25 +4,37 @@
 package io.basic.ddf.content;
 
 
+import com.google.common.base.Charsets;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
+import com.google.common.io.Files;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonPrimitive;
 import io.basic.ddf.BasicDDF;
 import io.ddf.DDF;
+import io.ddf.DDFManager;
 import io.ddf.content.APersistenceHandler;
+import io.ddf.content.IHandleIndexing;
 import io.ddf.content.ISerializable;
 import io.ddf.content.Schema;
 import io.ddf.exception.DDFException;
+import io.ddf.index.IndexSet;
 import io.ddf.misc.Config;
 import io.ddf.types.AGloballyAddressable;
 import io.ddf.types.IGloballyAddressable;
 import io.ddf.util.Utils;
 import io.ddf.util.Utils.JsonSerDes;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.List;
 import java.util.UUID;
 
@@ -31,6 +43,8 @@ import java.util.UUID;
  */
 public class PersistenceHandler extends APersistenceHandler {
 
+  public static final String INDEX_SUFFIX = ".idx";
+
   public PersistenceHandler(DDF theDDF) {
     super(theDDF);
   }
@@ -82,6 +96,22 @@ public class PersistenceHandler extends APersistenceHandler {
     return this.getFilePath(namespace, name, ".sch");
   }
 
+  protected String getBinaryFileName() throws DDFException {
+    return this.getFilePath("adatao", this.getDDF().getName(), ChunkedDataFile.SUFFIX);
+  }
+
+  protected String getBinaryFileName(String namespace, String name) throws DDFException {
+    return this.getFilePath(namespace, name, ChunkedDataFile.SUFFIX);
+  }
+
+  protected String getIndexFileName() throws DDFException {
+    return this.getFilePath("adatao", this.getDDF().getName(), INDEX_SUFFIX);
+  }
+
+  protected String getIndexFileName(String namespace, String name) throws DDFException {
+    return this.getFilePath(namespace, name, INDEX_SUFFIX);
+  }
+
   protected String getFilePath(String namespace, String name, String postfix) throws DDFException {
     String directory = locateOrCreatePersistenceSubdirectory(namespace);
     return String.format("%s/%s%s", directory, name, postfix);
@@ -98,27 +128,39 @@ public class PersistenceHandler extends APersistenceHandler {
 
     String dataFile = this.getDataFileName();
     String schemaFile = this.getSchemaFileName();
+    String binaryFile = this.getBinaryFileName();
 
     try {
-      if (!doOverwrite && (Utils.fileExists(dataFile) || Utils.fileExists(schemaFile))) {
+      if (!doOverwrite && (Utils.fileExists(dataFile) || Utils.fileExists(schemaFile)
+          || Utils.localFileExists(binaryFile))) {
         throw new DDFException("DDF already exists in persistence storage, and overwrite option is false");
       }
     } catch (IOException e) {
       throw new DDFException(e);
     }
 
+    String persistedFile;
     try {
       this.getDDF().beforePersisting();
 
-      //if overwrite and existed
-      if (doOverwrite && (Utils.fileExists(dataFile) || Utils.fileExists(schemaFile))) {
-        if(Utils.fileExists(dataFile)) Utils.deleteFile(dataFile);
-        if(Utils.fileExists(schemaFile)) Utils.deleteFile(schemaFile);
+      // the new copy is always written next to the old one and renamed over it, so a failed write keeps the old copy
+      if (this.isBinaryPersistable()) {
+        BasicDDF ddf = (BasicDDF) this.getDDF();
+        ChunkedDataFile.write(binaryFile, ddf.getName(), ddf.getSchema(), ddf.getList(Object[].class).iterator(),
+            this.getChunkRows());
+        this.writeIndexes(this.getIndexFileName(), binaryFile);
+        if (Utils.localFileExists(dataFile)) Utils.deleteFile(dataFile);
+        if (Utils.localFileExists(schemaFile)) Utils.deleteFile(schemaFile);
+        persistedFile = binaryFile;
+
+      } else {
+        this.writeAtomically(dataFile, JsonSerDes.serialize(this.getDDF()) + '\n');
+        this.writeAtomically(schemaFile, JsonSerDes.serialize(this.getDDF().getSchema()) + '\n');
+        if (Utils.localFileExists(binaryFile)) Utils.deleteFile(binaryFile);
+        if (Utils.localFileExists(this.getIndexFileName())) Utils.deleteFile(this.getIndexFileName());
+        persistedFile = dataFile;
       }
 
-      Utils.writeToFile(dataFile, JsonSerDes.serialize(this.getDDF()) + '\n');
-      Utils.writeToFile(schemaFile, JsonSerDes.serialize(this.getDDF().getSchema()) + '\n');
-
       this.getDDF().afterPersisting();
 
     } catch (Exception e) {
@@ -126,7 +168,110 @@ public class PersistenceHandler extends APersistenceHandler {
       else throw new DDFException(e);
     }
 
-    return new PersistenceUri(this.getDDF().getEngine(), dataFile);
+    return new PersistenceUri(this.getDDF().getEngine(), persistedFile);
+  }
+
+  /**
+   * DDFs of Object[] rows are persisted in the binary {@link ChunkedDataFile} format. Everything else, including the
+   * single BLOB-column containers of {@link BasicPersistible}s which rely on the JSON form to be unwrapped on load,
+   * keeps the JSON .dat/.sch format.
+   */
+  protected boolean isBinaryPersistable() {
+    if (!(this.getDDF() instanceof BasicDDF)) return false;
+
+    BasicDDF ddf = (BasicDDF) this.getDDF();
+    if (ddf.getUnitType() != Object[].class || ddf.getSchema() == null) return false;
+
+    for (Schema.Column column : ddf.getSchema().getColumns()) {
+      if (column.getType() == Schema.ColumnType.BLOB) return false;
+    }
+    return true;
+  }
+
+  private int getChunkRows() {
+    String value = Config.getGlobalValue(Config.ConfigConstant.FIELD_BASIC_PERSISTENCE_CHUNK_ROWS);
+    return Strings.isNullOrEmpty(value) ? ChunkedDataFile.DEFAULT_CHUNK_ROWS : Integer.parseInt(value.trim());
+  }
+
+  /**
+   * Writes the indexes of the DDF next to its data file, when they were built over partitions of its chunks, so that
+   * the chunks a query skips are not read once the DDF is loaded. The indexes are written with the fingerprint of the
+   * data file, as a crash between the two renames leaves the indexes of the previous copy next to the new one.
+   */
+  private void writeIndexes(String indexFile, String binaryFile) throws DDFException, IOException {
+    IndexSet indexes = null;
+    int partitionRows = 0;
+    try {
+      IHandleIndexing handler = this.getDDF().getIndexingHandler();
+      if (handler instanceof IndexingHandler) {
+        indexes = ((IndexingHandler) handler).getIndexSet();
+        partitionRows = ((IndexingHandler) handler).getPartitionRows();
+      }
+    } catch (UnsupportedOperationException e) {
+      // the DDF has no indexes
+    }
+
+    if (indexes == null || partitionRows != this.getChunkRows()) {
+      if (Utils.localFileExists(indexFile)) Utils.deleteFile(indexFile);
+      return;
+    }
+    long fingerprint;
+    ChunkedDataFile file = ChunkedDataFile.open(binaryFile);
+    try {
+      fingerprint = file.getFingerprint();
+    } finally {
+      file.close();
+    }
+
+    String tmpFileName = indexFile + ".tmp";
+    try {
+      ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFileName)));
+      try {
+        out.writeInt(partitionRows);
+        out.writeLong(fingerprint);
+        out.writeObject(indexes);
+      } finally {
+        out.close();
+      }
+      Utils.renameAtomically(tmpFileName, indexFile);
+    } finally {
+      new File(tmpFileName).delete();
+    }
+  }
+
+  /**
+   * Sets the persisted indexes of a loaded DDF, if they were written for its data file
+   */
+  private void readIndexes(String indexFile, BasicDDF ddf, ChunkedDataFile file) {
+    if (!Utils.localFileExists(indexFile)) return;
+    try {
+      ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+      try {
+        int partitionRows = in.readInt();
+        if (in.readLong() != file.getFingerprint()) {
+          mLog.warn(String.format("Ignoring the stale indexes of %s in %s", ddf.getName(), indexFile));
+          return;
+        }
+        IndexSet indexes = (IndexSet) in.readObject();
+        if (indexes.getNumPartitions() == file.getNumChunks() && ddf.getIndexingHandler() instanceof IndexingHandler) {
+          ((IndexingHandler) ddf.getIndexingHandler()).setIndexSet(indexes, partitionRows);
+        }
+      } finally {
+        in.close();
+      }
+    } catch (Exception e) {
+      mLog.warn(String.format("Unable to read the indexes of %s from %s", ddf.getName(), indexFile), e);
+    }
+  }
+
+  private void writeAtomically(String fileName, String contents) throws IOException {
+    String tmpFileName = fileName + ".tmp";
+    try {
+      Files.write(contents, new File(tmpFileName), Charsets.UTF_8);
+      Utils.renameAtomically(tmpFileName, fileName);
+    } finally {
+      new File(tmpFileName).delete();
+    }
   }
 
 
@@ -141,6 +286,8 @@ public class PersistenceHandler extends APersistenceHandler {
     try {
       Utils.deleteFile(this.getDataFileName(namespace, name));
       Utils.deleteFile(this.getSchemaFileName(namespace, name));
+      Utils.deleteFile(this.getBinaryFileName(namespace, name));
+      Utils.deleteFile(this.getIndexFileName(namespace, name));
     } catch(Exception e) {
       throw new DDFException(e);
     }
@@ -195,6 +342,11 @@ public class PersistenceHandler extends APersistenceHandler {
    */
   @Override
   public IPersistible load(String namespace, String name) throws DDFException {
+    String binaryFile = this.getBinaryFileName(namespace, name);
+    if (Utils.localFileExists(binaryFile)) {
+      return this.loadBinary(binaryFile, this.getIndexFileName(namespace, name));
+    }
+
     Object loadedObject, schema = null;
 
 
@@ -217,6 +369,20 @@ public class PersistenceHandler extends APersistenceHandler {
     return (IPersistible) loadedObject;
   }
 
+  /**
+   * Only the header and chunk index are read here, the rows of the returned DDF are read from the file one chunk at a
+   * time as they are accessed
+   */
+  private BasicDDF loadBinary(String binaryFile, String indexFile) throws DDFException {
+    ChunkedDataFile file = ChunkedDataFile.open(binaryFile);
+    DDFManager manager = (this.getDDF() != null && this.getDDF().getManager() != null) ? this.getDDF().getManager()
+        : DDFManager.get(DDFManager.EngineType.BASIC);
+
+    BasicDDF ddf = new BasicDDF(manager, file.getRows(), Object[].class, file.getName(), file.getSchema());
+    this.readIndexes(indexFile, ddf, file);
+    return ddf;
+  }
+
   @Override
   public List<String> listNamespaces() throws DDFException {
     return Utils.listSubdirectories(this.locateOrCreatePersistenceDirectory());
@@ -0,0 +1,43 @@
+package io.basic.ddf.content;
+
+
+import io.ddf.DDF;
+import io.ddf.content.Schema;
+import io.ddf.exception.DDFException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Projects basic DDFs by sharing the columns of their {@link ColumnarTable}, without copying or querying rows
+ */
+public class ViewHandler extends io.ddf.content.ViewHandler {
+
+  public ViewHandler(DDF theDDF) {
+    super(theDDF);
+  }
+
+  @Override
+  public DDF project(String... columnNames) throws DDFException {
+    if (columnNames == null || columnNames.length == 0) throw new DDFException("columnNames must be specified");
+    return this.project(Arrays.asList(columnNames));
+  }
+
+  @Override
+  public DDF project(List<String> columnNames) throws DDFException {
+    if (columnNames == null || columnNames.isEmpty()) throw new DDFException("columnNames must be specified");
+
+    ColumnarTable table = (ColumnarTable) this.getDDF().getRepresentationHandler().get(ColumnarTable.class);
+    if (table == null) return super.project(columnNames);
+
+    List<Schema.Column> columns = new ArrayList<Schema.Column>(columnNames.size());
+    for (String name : columnNames) {
+      Schema.Column column = this.getDDF().getColumn(name);
+      if (column == null) throw new DDFException(String.format("Column %s does not exists", name));
+      columns.add(new Schema.Column(column.getName(), column.getType()));
+    }
+    return this.getManager().newDDF(this.getManager(), table.project(columnNames),
+        new Class<?>[] { ColumnarTable.class }, null, new Schema(null, columns));
+  }
+}
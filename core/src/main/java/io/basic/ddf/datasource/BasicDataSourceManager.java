@@ -0,0 +1,218 @@
+package io.basic.ddf.datasource;
+
+
+import com.google.common.base.Strings;
+import io.basic.ddf.content.ColumnarTable;
+import io.ddf.DDF;
+import io.ddf.DDFManager;
+import io.ddf.content.Schema;
+import io.ddf.content.Schema.ColumnType;
+import io.ddf.datasource.DataFormat;
+import io.ddf.datasource.DataSourceDescriptor;
+import io.ddf.datasource.DataSourceManager;
+import io.ddf.datasource.DelimitedLineParser;
+import io.ddf.datasource.JDBCDataSourceDescriptor;
+import io.ddf.datasource.TextFileFormat;
+import io.ddf.exception.DDFException;
+import io.ddf.util.Utils;
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * {@link DataSourceManager} of the basic engine. Delimited files are streamed into a {@link ColumnarTable}, exports use
+ * the streaming writer of {@link DataSourceManager}.
+ */
+public class BasicDataSourceManager extends DataSourceManager {
+
+  private static final Logger mLog = LoggerFactory.getLogger(BasicDataSourceManager.class);
+
+  public BasicDataSourceManager(DDFManager manager) {
+    super(manager);
+  }
+
+  @Override
+  public DDF loadSpecialFormat(DataFormat format, URI fileURI, Boolean flatten) throws DDFException {
+    throw new DDFException(String.format("Unsupported data format: %s", format));
+  }
+
+  @Override
+  public DDF loadFromJDBC(JDBCDataSourceDescriptor dataSource) throws DDFException {
+    throw new DDFException("Loading from JDBC is not supported by the basic engine");
+  }
+
+  /**
+   * Loads the file with the columns of the descriptor's schema if it has any, inferring them otherwise
+   */
+  @Override
+  public DDF loadTextFile(DataSourceDescriptor dataSource) throws DDFException {
+    TextFileFormat textFileFormat = (TextFileFormat) dataSource.getFileFormat();
+    List<Schema.Column> columns = dataSource.getDataSourceSchema() == null ? null
+        : dataSource.getDataSourceSchema().getColumns();
+    return this.loadDelimitedFile(dataSource.getDataSourceUri().getUri().toString(), textFileFormat, columns);
+  }
+
+  /**
+   * Reads the file, or the files of the directory, twice: once to infer the column types from a reservoir sample of
+   * its lines unless columns are given, and once to convert the lines. Lines that cannot be converted are dropped,
+   * or written to the quarantine path of the format if it has one.
+   *
+   * @param columns the columns of the file, or null to name them from the header or V1, V2, ... and infer their types
+   */
+  public DDF loadDelimitedFile(String fileURL, TextFileFormat format, List<Schema.Column> columns)
+      throws DDFException {
+    DelimitedLineParser parser = new DelimitedLineParser(format);
+    try {
+      Path path = new Path(fileURL);
+      FileSystem fs = path.getFileSystem(Utils.getConfiguration());
+      List<Path> files = this.listFiles(fs, path);
+
+      String first = this.readFirstLine(fs, files);
+      if (first == null) throw new DDFException(String.format("%s is empty", fileURL));
+      // files of a directory each start with the header, so skip every copy of it
+      String header = format.getHasHeader() ? first : null;
+
+      String[] names;
+      ColumnType[] types;
+      if (columns != null && !columns.isEmpty()) {
+        names = new String[columns.size()];
+        types = new ColumnType[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+          names[i] = columns.get(i).getName();
+          types[i] = columns.get(i).getType();
+        }
+      } else {
+        String[] firstFields = parser.split(first);
+        names = new String[firstFields.length];
+        for (int i = 0; i < names.length; i++) {
+          names[i] = header != null ? firstFields[i].trim() : "V" + (i + 1);
+        }
+        types = this.inferTypes(fs, files, header, parser, names.length, getLoaderSampleSize());
+      }
+
+      List<Schema.Column> schemaColumns = new ArrayList<Schema.Column>();
+      for (int i = 0; i < names.length; i++) {
+        schemaColumns.add(new Schema.Column(names[i], types[i]));
+      }
+      ColumnarTable table = new ColumnarTable(schemaColumns);
+      long malformedRows = 0;
+      Writer quarantine = null;
+      try {
+        if (!Strings.isNullOrEmpty(format.getQuarantinePath())) {
+          quarantine = new BufferedWriter(new OutputStreamWriter(
+              fs.create(new Path(format.getQuarantinePath()), true), "utf-8"));
+        }
+        for (Path file : files) {
+          BufferedReader reader = this.open(fs, file);
+          try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+              if (line.equals(header)) continue;
+              Object[] row = parser.parse(line, types);
+              if (row != null) {
+                table.append(row);
+              } else {
+                malformedRows++;
+                if (quarantine != null) {
+                  quarantine.write(line);
+                  quarantine.write('\n');
+                }
+              }
+            }
+          } finally {
+            reader.close();
+          }
+        }
+        if (quarantine != null) quarantine.close();
+        quarantine = null;
+      } finally {
+        IOUtils.closeQuietly(quarantine);
+      }
+      mLog.info(String.format(">>>> loaded %d rows of %s, %d malformed rows dropped", table.getNumRows(), fileURL,
+          malformedRows));
+
+      return mDDFManager.newDDF(mDDFManager, table, new Class<?>[] { ColumnarTable.class }, null,
+          new Schema(null, schemaColumns));
+    } catch (IOException e) {
+      throw new DDFException(String.format("Error when loading %s", fileURL), e);
+    }
+  }
+
+  private ColumnType[] inferTypes(FileSystem fs, List<Path> files, String header, DelimitedLineParser parser,
+      int numColumns, int sampleSize) throws IOException {
+    List<String> reservoir = new ArrayList<String>(sampleSize);
+    Random random = new Random(0);
+    long seen = 0;
+    for (Path file : files) {
+      BufferedReader reader = this.open(fs, file);
+      try {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (line.equals(header)) continue;
+          if (reservoir.size() < sampleSize) {
+            reservoir.add(line);
+          } else {
+            long j = (long) (random.nextDouble() * (seen + 1));
+            if (j < sampleSize) reservoir.set((int) j, line);
+          }
+          seen++;
+        }
+      } finally {
+        reader.close();
+      }
+    }
+
+    ColumnType[] types = new ColumnType[numColumns];
+    for (String line : reservoir) {
+      parser.inferTypes(line, types);
+    }
+    for (int i = 0; i < numColumns; i++) {
+      if (types[i] == null) types[i] = ColumnType.STRING;
+    }
+    return types;
+  }
+
+  private List<Path> listFiles(FileSystem fs, Path path) throws IOException {
+    List<Path> files = new ArrayList<Path>();
+    if (!fs.getFileStatus(path).isDirectory()) {
+      files.add(path);
+      return files;
+    }
+    for (FileStatus status : fs.listStatus(path)) {
+      String name = status.getPath().getName();
+      if (!status.isDirectory() && !name.startsWith("_") && !name.startsWith(".")) files.add(status.getPath());
+    }
+    return files;
+  }
+
+  private String readFirstLine(FileSystem fs, List<Path> files) throws IOException {
+    for (Path file : files) {
+      BufferedReader reader = this.open(fs, file);
+      try {
+        String line = reader.readLine();
+        if (line != null) return line;
+      } finally {
+        reader.close();
+      }
+    }
+    return null;
+  }
+
+  private BufferedReader open(FileSystem fs, Path file) throws IOException {
+    return new BufferedReader(new InputStreamReader(fs.open(file), "utf-8"));
+  }
+}
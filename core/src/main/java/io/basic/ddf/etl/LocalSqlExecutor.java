@@ -0,0 +1,989 @@
+package io.basic.ddf.etl;
+
+
+import io.basic.ddf.content.IndexingHandler;
+import io.ddf.DDF;
+import io.ddf.DDFManager;
+import io.ddf.content.IHandleIndexing;
+import io.ddf.content.Schema;
+import io.ddf.content.Schema.ColumnType;
+import io.ddf.datasource.DelimitedLineParser;
+import io.ddf.exception.DDFException;
+import io.ddf.index.ColumnRange;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.CaseExpression;
+import net.sf.jsqlparser.expression.CastExpression;
+import net.sf.jsqlparser.expression.DateValue;
+import net.sf.jsqlparser.expression.DoubleValue;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.NullValue;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.SignedExpression;
+import net.sf.jsqlparser.expression.StringValue;
+import net.sf.jsqlparser.expression.TimestampValue;
+import net.sf.jsqlparser.expression.WhenClause;
+import net.sf.jsqlparser.expression.operators.arithmetic.Addition;
+import net.sf.jsqlparser.expression.operators.arithmetic.Concat;
+import net.sf.jsqlparser.expression.operators.arithmetic.Division;
+import net.sf.jsqlparser.expression.operators.arithmetic.Modulo;
+import net.sf.jsqlparser.expression.operators.arithmetic.Multiplication;
+import net.sf.jsqlparser.expression.operators.arithmetic.Subtraction;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.Between;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThan;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.InExpression;
+import net.sf.jsqlparser.expression.operators.relational.IsNullExpression;
+import net.sf.jsqlparser.expression.operators.relational.LikeExpression;
+import net.sf.jsqlparser.expression.operators.relational.MinorThan;
+import net.sf.jsqlparser.expression.operators.relational.MinorThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.NotEqualsTo;
+import net.sf.jsqlparser.parser.CCJSqlParserManager;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.select.AllColumns;
+import net.sf.jsqlparser.statement.select.AllTableColumns;
+import net.sf.jsqlparser.statement.select.FromItem;
+import net.sf.jsqlparser.statement.select.Join;
+import net.sf.jsqlparser.statement.select.Limit;
+import net.sf.jsqlparser.statement.select.OrderByElement;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.select.SelectExpressionItem;
+import net.sf.jsqlparser.statement.select.SelectItem;
+import net.sf.jsqlparser.statement.select.SubSelect;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Executes SELECT statements over the in-memory rows of the DDFs of a manager, whose tables are referred to by their
+ * table names, as rewritten by {@link io.ddf.TableNameReplacer}.
+ * <p/>
+ * Supported are projections, WHERE, inner, cross and left outer joins (hash joins on the equalities of the ON
+ * condition), GROUP BY with COUNT, SUM, AVG, MIN and MAX, HAVING, DISTINCT, ORDER BY, LIMIT and sub-queries in FROM.
+ * Comparisons and boolean operators follow SQL's three-valued logic, with null for unknown.
+ */
+class LocalSqlExecutor {
+
+  private static final Set<String> AGGREGATES = new LinkedHashSet<String>(
+      Arrays.asList("count", "sum", "avg", "min", "max"));
+
+  private final DDFManager mManager;
+
+  private final Map<Column, Integer> mColumnIndices = new IdentityHashMap<Column, Integer>();
+
+  private final Map<String, Pattern> mLikePatterns = new HashMap<String, Pattern>();
+
+  LocalSqlExecutor(DDFManager manager) {
+    mManager = manager;
+  }
+
+  /**
+   * The columns and rows of a table, a join or a query result
+   */
+  static class Relation {
+    final List<String> qualifiers = new ArrayList<String>();
+    final List<String> names = new ArrayList<String>();
+    final List<ColumnType> types = new ArrayList<ColumnType>();
+    List<Object[]> rows = new ArrayList<Object[]>();
+
+    void addColumn(String qualifier, String name, ColumnType type) {
+      qualifiers.add(qualifier);
+      names.add(name);
+      types.add(type);
+    }
+
+    int size() {
+      return names.size();
+    }
+
+    /**
+     * @return the index of the column, or -1 if the relation does not have it
+     */
+    int find(Column column) throws DDFException {
+      String name = unquote(column.getColumnName());
+      String qualifier = column.getTable() == null ? null : unquote(column.getTable().getName());
+      int index = -1;
+      for (int i = 0; i < names.size(); i++) {
+        if (names.get(i).equalsIgnoreCase(name) && (qualifier == null || qualifier.equalsIgnoreCase(qualifiers.get(i)))) {
+          if (index >= 0) throw new DDFException(String.format("Column %s is ambiguous", column));
+          index = i;
+        }
+      }
+      return index;
+    }
+
+    Schema getSchema() throws DDFException {
+      List<Schema.Column> columns = new ArrayList<Schema.Column>();
+      for (int i = 0; i < names.size(); i++) {
+        columns.add(new Schema.Column(names.get(i), types.get(i)));
+      }
+      return new Schema(null, columns);
+    }
+  }
+
+  Relation execute(String command) throws DDFException {
+    Statement statement;
+    try {
+      statement = new CCJSqlParserManager().parse(new StringReader(command));
+    } catch (JSQLParserException e) {
+      throw new DDFException(" SQL Syntax ERROR: " + e.getCause().getMessage().split("\n")[0]);
+    }
+    if (!(statement instanceof Select)) throw new DDFException("Only SELECT statements are supported");
+
+    Select select = (Select) statement;
+    if (select.getWithItemsList() != null && !select.getWithItemsList().isEmpty()) {
+      throw new DDFException("WITH clauses are not supported by the basic engine");
+    }
+    if (!(select.getSelectBody() instanceof PlainSelect)) {
+      throw new DDFException("UNION and other set operations are not supported by the basic engine");
+    }
+    return this.execute((PlainSelect) select.getSelectBody());
+  }
+
+  private Relation execute(PlainSelect select) throws DDFException {
+    Relation relation;
+    if (select.getFromItem() == null) {
+      relation = new Relation();
+      relation.rows.add(new Object[0]);
+    } else {
+      relation = this.scan(select.getFromItem(), select.getJoins() == null ? select.getWhere() : null);
+    }
+    if (select.getJoins() != null) {
+      for (Join join : select.getJoins()) {
+        relation = this.join(relation, join);
+      }
+    }
+
+    if (select.getWhere() != null) {
+      List<Object[]> filtered = new ArrayList<Object[]>();
+      for (Object[] row : relation.rows) {
+        if (Boolean.TRUE.equals(this.eval(select.getWhere(), relation, row, null))) filtered.add(row);
+      }
+      relation.rows = filtered;
+    }
+
+    // output columns, with the relation's column index for plain column references
+    List<Expression> expressions = new ArrayList<Expression>();
+    List<Integer> columnIndices = new ArrayList<Integer>();
+    Relation result = new Relation();
+    boolean isAggregate = select.getGroupByColumnReferences() != null || select.getHaving() != null;
+    for (SelectItem item : select.getSelectItems()) {
+      if (item instanceof AllColumns || item instanceof AllTableColumns) {
+        String qualifier = item instanceof AllTableColumns ? unquote(((AllTableColumns) item).getTable().getName()) : null;
+        for (int i = 0; i < relation.size(); i++) {
+          if (qualifier == null || qualifier.equalsIgnoreCase(relation.qualifiers.get(i))) {
+            expressions.add(null);
+            columnIndices.add(i);
+            result.addColumn(null, relation.names.get(i), relation.types.get(i));
+          }
+        }
+      } else {
+        SelectExpressionItem expressionItem = (SelectExpressionItem) item;
+        Expression expression = expressionItem.getExpression();
+        isAggregate |= containsAggregate(expression);
+        int index = expression instanceof Column ? this.indexOf((Column) expression, relation) : -1;
+        String name = expressionItem.getAlias() != null ? unquote(expressionItem.getAlias().getName())
+            : index >= 0 ? relation.names.get(index) : "_c" + expressions.size();
+        expressions.add(expression);
+        columnIndices.add(index);
+        result.addColumn(null, name, index >= 0 ? relation.types.get(index) : null);
+      }
+    }
+
+    // each output row comes from a row, or from a group of rows when aggregating
+    List<Object[]> firstRows = new ArrayList<Object[]>();
+    List<List<Object[]>> groups = new ArrayList<List<Object[]>>();
+    if (isAggregate) {
+      Map<List<Object>, List<Object[]>> grouped = new LinkedHashMap<List<Object>, List<Object[]>>();
+      List<Expression> groupBy = select.getGroupByColumnReferences();
+      for (Object[] row : relation.rows) {
+        List<Object> key = new ArrayList<Object>();
+        if (groupBy != null) {
+          for (Expression expression : groupBy) key.add(normalize(this.eval(expression, relation, row, null)));
+        }
+        List<Object[]> group = grouped.get(key);
+        if (group == null) {
+          group = new ArrayList<Object[]>();
+          grouped.put(key, group);
+        }
+        group.add(row);
+      }
+      // aggregates without GROUP BY return one row, even over no rows
+      if (grouped.isEmpty() && groupBy == null) grouped.put(new ArrayList<Object>(), new ArrayList<Object[]>());
+
+      for (List<Object[]> group : grouped.values()) {
+        Object[] first = group.isEmpty() ? new Object[relation.size()] : group.get(0);
+        if (select.getHaving() == null || Boolean.TRUE.equals(this.eval(select.getHaving(), relation, first, group))) {
+          firstRows.add(first);
+          groups.add(group);
+        }
+      }
+    } else {
+      firstRows = relation.rows;
+    }
+
+    List<OrderByElement> orderBy = select.getOrderByElements() == null ? Collections.<OrderByElement>emptyList()
+        : select.getOrderByElements();
+    final List<Object[]> orderKeys = new ArrayList<Object[]>();
+    for (int r = 0; r < firstRows.size(); r++) {
+      Object[] row = firstRows.get(r);
+      List<Object[]> group = isAggregate ? groups.get(r) : null;
+      Object[] values = new Object[expressions.size()];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = expressions.get(i) == null || (!isAggregate && columnIndices.get(i) >= 0) ? row[columnIndices.get(i)]
+            : this.eval(expressions.get(i), relation, row, group);
+      }
+      result.rows.add(values);
+
+      if (!orderBy.isEmpty()) {
+        Object[] keys = new Object[orderBy.size()];
+        for (int k = 0; k < keys.length; k++) {
+          keys[k] = this.orderKey(orderBy.get(k).getExpression(), result, values, relation, row, group);
+        }
+        orderKeys.add(keys);
+      }
+    }
+
+    if (select.getDistinct() != null) {
+      if (select.getDistinct().getOnSelectItems() != null) throw new DDFException("DISTINCT ON is not supported");
+      Set<List<Object>> seen = new LinkedHashSet<List<Object>>();
+      List<Object[]> distinct = new ArrayList<Object[]>();
+      List<Object[]> distinctKeys = new ArrayList<Object[]>();
+      for (int r = 0; r < result.rows.size(); r++) {
+        List<Object> key = new ArrayList<Object>();
+        for (Object value : result.rows.get(r)) key.add(normalize(value));
+        if (seen.add(key)) {
+          distinct.add(result.rows.get(r));
+          if (!orderKeys.isEmpty()) distinctKeys.add(orderKeys.get(r));
+        }
+      }
+      result.rows = distinct;
+      orderKeys.clear();
+      orderKeys.addAll(distinctKeys);
+    }
+
+    if (!orderBy.isEmpty()) {
+      final boolean[] ascending = new boolean[orderBy.size()];
+      for (int k = 0; k < ascending.length; k++) ascending[k] = orderBy.get(k).isAsc();
+      Integer[] order = new Integer[result.rows.size()];
+      for (int r = 0; r < order.length; r++) order[r] = r;
+      Arrays.sort(order, new Comparator<Integer>() {
+        @Override
+        public int compare(Integer a, Integer b) {
+          Object[] x = orderKeys.get(a), y = orderKeys.get(b);
+          for (int k = 0; k < x.length; k++) {
+            // nulls first in ascending order
+            int c = x[k] == null ? (y[k] == null ? 0 : -1) : y[k] == null ? 1 : LocalSqlExecutor.compare(x[k], y[k]);
+            if (c != 0) return ascending[k] ? c : -c;
+          }
+          return 0;
+        }
+      });
+      List<Object[]> sorted = new ArrayList<Object[]>(order.length);
+      for (Integer r : order) sorted.add(result.rows.get(r));
+      result.rows = sorted;
+    }
+
+    Limit limit = select.getLimit();
+    if (limit != null && !limit.isLimitAll()) {
+      int from = (int) Math.min(limit.getOffset(), result.rows.size());
+      int to = limit.getRowCount() < 0 ? result.rows.size() : (int) Math.min(from + limit.getRowCount(), result.rows.size());
+      result.rows = new ArrayList<Object[]>(result.rows.subList(from, to));
+    }
+
+    // type computed columns from their values
+    for (int i = 0; i < result.size(); i++) {
+      if (result.types.get(i) != null) continue;
+      ColumnType type = null;
+      for (Object[] row : result.rows) {
+        if (row[i] != null) {
+          type = typeOf(row[i]);
+          break;
+        }
+      }
+      result.types.set(i, type == null ? ColumnType.STRING : type);
+    }
+    return result;
+  }
+
+  /**
+   * ORDER BY refers to output columns by alias or position, and otherwise to expressions over the input
+   */
+  private Object orderKey(Expression expression, Relation result, Object[] values, Relation relation, Object[] row,
+      List<Object[]> group) throws DDFException {
+    if (expression instanceof LongValue) {
+      int position = (int) ((LongValue) expression).getValue();
+      if (position < 1 || position > values.length) throw new DDFException("ORDER BY position out of range: " + position);
+      return values[position - 1];
+    }
+    if (expression instanceof Column && ((Column) expression).getTable() == null
+        || expression instanceof Column && ((Column) expression).getTable().getName() == null) {
+      String name = unquote(((Column) expression).getColumnName());
+      for (int i = 0; i < result.size(); i++) {
+        if (result.names.get(i).equalsIgnoreCase(name)) return values[i];
+      }
+    }
+    return this.eval(expression, relation, row, group);
+  }
+
+  private Relation scan(FromItem fromItem) throws DDFException {
+    return this.scan(fromItem, null);
+  }
+
+  /**
+   * @param where the WHERE condition over the item alone, with which indexed tables skip rows, or null
+   */
+  private Relation scan(FromItem fromItem, Expression where) throws DDFException {
+    String alias = fromItem.getAlias() == null ? null : unquote(fromItem.getAlias().getName());
+    if (fromItem instanceof SubSelect) {
+      if (!(((SubSelect) fromItem).getSelectBody() instanceof PlainSelect)) {
+        throw new DDFException("UNION and other set operations are not supported by the basic engine");
+      }
+      Relation sub = this.execute((PlainSelect) ((SubSelect) fromItem).getSelectBody());
+      Relation relation = new Relation();
+      for (int i = 0; i < sub.size(); i++) relation.addColumn(alias, sub.names.get(i), sub.types.get(i));
+      relation.rows = sub.rows;
+      return relation;
+    }
+    if (!(fromItem instanceof Table)) {
+      throw new DDFException(String.format("%s is not supported in FROM by the basic engine", fromItem));
+    }
+
+    String tableName = unquote(((Table) fromItem).getName());
+    DDF ddf = this.getDDF(tableName);
+    Relation relation = new Relation();
+    for (Schema.Column column : ddf.getSchema().getColumns()) {
+      relation.addColumn(alias != null ? alias : tableName, column.getName(), column.getType());
+    }
+    Object rows = ddf.getRepresentationHandler().get(List.class, Object[].class);
+    if (rows == null) throw new DDFException(String.format("Cannot get the rows of %s", tableName));
+    relation.rows = (List<Object[]>) rows;
+    if (where != null) relation.rows = this.selectIndexed(ddf, relation, where, relation.rows);
+    return relation;
+  }
+
+  /**
+   * Narrows the rows of a table to those that its indexes tell may satisfy the conjuncts of the WHERE condition
+   * comparing its columns to literals. The condition is still evaluated over the returned rows.
+   */
+  private List<Object[]> selectIndexed(DDF ddf, Relation relation, Expression where, List<Object[]> rows)
+      throws DDFException {
+    IHandleIndexing handler;
+    try {
+      handler = ddf.getIndexingHandler();
+    } catch (UnsupportedOperationException e) {
+      return rows;
+    }
+    if (!(handler instanceof IndexingHandler) || handler.getIndexes().isEmpty()) return rows;
+
+    List<Expression> conjuncts = new ArrayList<Expression>();
+    splitConjuncts(where, conjuncts);
+    List<ColumnRange> ranges = new ArrayList<ColumnRange>();
+    for (Expression conjunct : conjuncts) {
+      ColumnRange range = this.rangeOf(conjunct, relation);
+      if (range != null) ranges.add(range);
+    }
+    return ranges.isEmpty() ? rows : ((IndexingHandler) handler).select(rows, ranges);
+  }
+
+  /**
+   * @return the range of a comparison, BETWEEN or IN of a column of the relation with literals, or null
+   */
+  private ColumnRange rangeOf(Expression e, Relation relation) throws DDFException {
+    if (e instanceof InExpression) {
+      InExpression in = (InExpression) e;
+      String column = this.columnOf(in.getLeftExpression(), relation);
+      if (in.isNot() || column == null || !(in.getRightItemsList() instanceof ExpressionList)) return null;
+      List<Object> values = new ArrayList<Object>();
+      for (Expression item : ((ExpressionList) in.getRightItemsList()).getExpressions()) {
+        if (!isLiteral(item)) return null;
+        values.add(this.eval(item, relation, null, null));
+      }
+      return ColumnRange.in(column, values);
+    }
+    if (e instanceof Between) {
+      Between between = (Between) e;
+      String column = this.columnOf(between.getLeftExpression(), relation);
+      if (between.isNot() || column == null || !isLiteral(between.getBetweenExpressionStart())
+          || !isLiteral(between.getBetweenExpressionEnd())) {
+        return null;
+      }
+      Object start = this.eval(between.getBetweenExpressionStart(), relation, null, null);
+      Object end = this.eval(between.getBetweenExpressionEnd(), relation, null, null);
+      return ColumnRange.between(column, start, end);
+    }
+    if (!(e instanceof EqualsTo || e instanceof GreaterThan || e instanceof GreaterThanEquals || e instanceof MinorThan
+        || e instanceof MinorThanEquals) || ((BinaryExpression) e).isNot()) {
+      return null;
+    }
+
+    BinaryExpression comparison = (BinaryExpression) e;
+    boolean flipped = false;
+    String column = this.columnOf(comparison.getLeftExpression(), relation);
+    Expression literal = comparison.getRightExpression();
+    if (column == null) {
+      column = this.columnOf(comparison.getRightExpression(), relation);
+      literal = comparison.getLeftExpression();
+      flipped = true;
+    }
+    if (column == null || !isLiteral(literal)) return null;
+    Object value = this.eval(literal, relation, null, null);
+
+    if (e instanceof EqualsTo) return ColumnRange.equalTo(column, value);
+    // column > value, or value > column when flipped
+    boolean greater = (e instanceof GreaterThan || e instanceof GreaterThanEquals) != flipped;
+    boolean inclusive = e instanceof GreaterThanEquals || e instanceof MinorThanEquals;
+    return greater ? ColumnRange.greaterThan(column, value, inclusive) : ColumnRange.lessThan(column, value, inclusive);
+  }
+
+  /**
+   * @return the name of the column of the relation the expression is, or null
+   */
+  private String columnOf(Expression expression, Relation relation) throws DDFException {
+    if (!(expression instanceof Column)) return null;
+    int index = relation.find((Column) expression);
+    return index < 0 ? null : relation.names.get(index);
+  }
+
+  private static boolean isLiteral(Expression e) {
+    if (e instanceof SignedExpression) e = ((SignedExpression) e).getExpression();
+    return e instanceof LongValue || e instanceof DoubleValue || e instanceof StringValue || e instanceof DateValue
+        || e instanceof TimestampValue;
+  }
+
+  private DDF getDDF(String tableName) throws DDFException {
+    for (DDF ddf : mManager.listDDFs()) {
+      if (ddf.getSchema() != null && tableName.equalsIgnoreCase(ddf.getTableName())) return ddf;
+    }
+    DDF ddf = mManager.getDDFByName(tableName);
+    if (ddf == null) throw new DDFException(String.format("Table %s not found", tableName));
+    return ddf;
+  }
+
+  private Relation join(Relation left, Join join) throws DDFException {
+    if (join.isRight() || join.isFull() || join.isNatural() || join.getUsingColumns() != null) {
+      throw new DDFException(String.format("%s is not supported by the basic engine, only inner, cross and left joins",
+          join));
+    }
+    Relation right = this.scan(join.getRightItem());
+    Relation joined = new Relation();
+    for (Relation relation : Arrays.asList(left, right)) {
+      for (int i = 0; i < relation.size(); i++) {
+        joined.addColumn(relation.qualifiers.get(i), relation.names.get(i), relation.types.get(i));
+      }
+    }
+    boolean isOuter = join.isLeft();
+
+    // split the ON condition into equalities between both sides, for the hash join, and the rest
+    List<Integer> leftKeys = new ArrayList<Integer>();
+    List<Integer> rightKeys = new ArrayList<Integer>();
+    List<Expression> residuals = new ArrayList<Expression>();
+    List<Expression> conjuncts = new ArrayList<Expression>();
+    if (join.getOnExpression() != null) splitConjuncts(join.getOnExpression(), conjuncts);
+    for (Expression conjunct : conjuncts) {
+      if (conjunct instanceof EqualsTo && !((EqualsTo) conjunct).isNot()
+          && ((EqualsTo) conjunct).getLeftExpression() instanceof Column
+          && ((EqualsTo) conjunct).getRightExpression() instanceof Column) {
+        Column a = (Column) ((EqualsTo) conjunct).getLeftExpression();
+        Column b = (Column) ((EqualsTo) conjunct).getRightExpression();
+        if (left.find(a) >= 0 && right.find(b) >= 0 && left.find(b) < 0 && right.find(a) < 0) {
+          leftKeys.add(left.find(a));
+          rightKeys.add(right.find(b));
+          continue;
+        }
+        if (left.find(b) >= 0 && right.find(a) >= 0 && left.find(a) < 0 && right.find(b) < 0) {
+          leftKeys.add(left.find(b));
+          rightKeys.add(right.find(a));
+          continue;
+        }
+      }
+      residuals.add(conjunct);
+    }
+
+    Map<List<Object>, List<Object[]>> index = null;
+    if (!leftKeys.isEmpty()) {
+      index = new HashMap<List<Object>, List<Object[]>>();
+      for (Object[] row : right.rows) {
+        List<Object> key = keyOf(row, rightKeys);
+        if (key == null) continue;
+        List<Object[]> matches = index.get(key);
+        if (matches == null) {
+          matches = new ArrayList<Object[]>();
+          index.put(key, matches);
+        }
+        matches.add(row);
+      }
+    }
+
+    for (Object[] leftRow : left.rows) {
+      List<Object[]> candidates;
+      if (index == null) {
+        candidates = right.rows;
+      } else {
+        List<Object> key = keyOf(leftRow, leftKeys);
+        candidates = key == null ? null : index.get(key);
+      }
+
+      boolean matched = false;
+      if (candidates != null) {
+        for (Object[] rightRow : candidates) {
+          Object[] row = concat(leftRow, rightRow, right.size());
+          boolean matches = true;
+          for (Expression residual : residuals) {
+            if (!Boolean.TRUE.equals(this.eval(residual, joined, row, null))) {
+              matches = false;
+              break;
+            }
+          }
+          if (matches) {
+            joined.rows.add(row);
+            matched = true;
+          }
+        }
+      }
+      if (isOuter && !matched) joined.rows.add(concat(leftRow, null, right.size()));
+    }
+    return joined;
+  }
+
+  private static void splitConjuncts(Expression expression, List<Expression> conjuncts) {
+    if (expression instanceof AndExpression && !((AndExpression) expression).isNot()) {
+      splitConjuncts(((AndExpression) expression).getLeftExpression(), conjuncts);
+      splitConjuncts(((AndExpression) expression).getRightExpression(), conjuncts);
+    } else if (expression instanceof Parenthesis && !((Parenthesis) expression).isNot()) {
+      splitConjuncts(((Parenthesis) expression).getExpression(), conjuncts);
+    } else {
+      conjuncts.add(expression);
+    }
+  }
+
+  /**
+   * @return the normalized values of the key columns, or null if one is null as nulls never join
+   */
+  private static List<Object> keyOf(Object[] row, List<Integer> columns) {
+    List<Object> key = new ArrayList<Object>(columns.size());
+    for (Integer column : columns) {
+      Object value = normalize(row[column]);
+      if (value == null) return null;
+      key.add(value);
+    }
+    return key;
+  }
+
+  private static Object[] concat(Object[] left, Object[] right, int rightSize) {
+    Object[] row = new Object[left.length + rightSize];
+    System.arraycopy(left, 0, row, 0, left.length);
+    if (right != null) System.arraycopy(right, 0, row, left.length, rightSize);
+    return row;
+  }
+
+  private int indexOf(Column column, Relation relation) throws DDFException {
+    Integer index = mColumnIndices.get(column);
+    if (index == null) {
+      index = relation.find(column);
+      if (index < 0) throw new DDFException(String.format("Column %s not found", column));
+      mColumnIndices.put(column, index);
+    }
+    return index;
+  }
+
+  private static boolean containsAggregate(Expression expression) {
+    if (expression instanceof Function) {
+      Function function = (Function) expression;
+      if (AGGREGATES.contains(function.getName().toLowerCase())) return true;
+      if (function.getParameters() != null) {
+        for (Expression parameter : function.getParameters().getExpressions()) {
+          if (containsAggregate(parameter)) return true;
+        }
+      }
+    } else if (expression instanceof BinaryExpression) {
+      return containsAggregate(((BinaryExpression) expression).getLeftExpression())
+          || containsAggregate(((BinaryExpression) expression).getRightExpression());
+    } else if (expression instanceof Parenthesis) {
+      return containsAggregate(((Parenthesis) expression).getExpression());
+    } else if (expression instanceof SignedExpression) {
+      return containsAggregate(((SignedExpression) expression).getExpression());
+    } else if (expression instanceof CastExpression) {
+      return containsAggregate(((CastExpression) expression).getLeftExpression());
+    }
+    return false;
+  }
+
+  /**
+   * @param group the rows of the group when evaluating an aggregated output, null otherwise
+   */
+  private Object eval(Expression e, Relation relation, Object[] row, List<Object[]> group) throws DDFException {
+    if (e instanceof Column) return row[this.indexOf((Column) e, relation)];
+    if (e instanceof LongValue) return ((LongValue) e).getValue();
+    if (e instanceof DoubleValue) return ((DoubleValue) e).getValue();
+    if (e instanceof StringValue) return ((StringValue) e).getValue();
+    if (e instanceof NullValue) return null;
+    if (e instanceof DateValue) return ((DateValue) e).getValue();
+    if (e instanceof TimestampValue) return ((TimestampValue) e).getValue();
+    if (e instanceof Parenthesis) {
+      Object value = this.eval(((Parenthesis) e).getExpression(), relation, row, group);
+      return ((Parenthesis) e).isNot() ? not(value) : value;
+    }
+    if (e instanceof SignedExpression) {
+      Object value = this.eval(((SignedExpression) e).getExpression(), relation, row, group);
+      return ((SignedExpression) e).getSign() == '-' ? arithmetic('-', 0L, value) : value;
+    }
+    if (e instanceof Function) return this.function((Function) e, relation, row, group);
+    if (e instanceof AndExpression || e instanceof OrExpression) {
+      BinaryExpression b = (BinaryExpression) e;
+      Object l = this.eval(b.getLeftExpression(), relation, row, group);
+      boolean isAnd = e instanceof AndExpression;
+      // short circuit
+      Object value;
+      if (isAnd && Boolean.FALSE.equals(l)) value = Boolean.FALSE;
+      else if (!isAnd && Boolean.TRUE.equals(l)) value = Boolean.TRUE;
+      else {
+        Object r = this.eval(b.getRightExpression(), relation, row, group);
+        if (isAnd) value = Boolean.FALSE.equals(r) ? Boolean.FALSE : l == null || r == null ? null : Boolean.TRUE;
+        else value = Boolean.TRUE.equals(r) ? Boolean.TRUE : l == null || r == null ? null : Boolean.FALSE;
+      }
+      return b.isNot() ? not(value) : value;
+    }
+    if (e instanceof IsNullExpression) {
+      boolean isNull = this.eval(((IsNullExpression) e).getLeftExpression(), relation, row, group) == null;
+      return ((IsNullExpression) e).isNot() != isNull;
+    }
+    if (e instanceof Between) {
+      Between between = (Between) e;
+      Object value = this.eval(between.getLeftExpression(), relation, row, group);
+      Object start = this.eval(between.getBetweenExpressionStart(), relation, row, group);
+      Object end = this.eval(between.getBetweenExpressionEnd(), relation, row, group);
+      Object result = value == null || start == null || end == null ? null
+          : compare(value, start) >= 0 && compare(value, end) <= 0;
+      return between.isNot() ? not(result) : result;
+    }
+    if (e instanceof InExpression) {
+      InExpression in = (InExpression) e;
+      if (!(in.getRightItemsList() instanceof ExpressionList)) {
+        throw new DDFException("Sub-queries in IN are not supported by the basic engine");
+      }
+      Object value = this.eval(in.getLeftExpression(), relation, row, group);
+      Object result = Boolean.FALSE;
+      if (value == null) {
+        result = null;
+      } else {
+        for (Expression item : ((ExpressionList) in.getRightItemsList()).getExpressions()) {
+          Object candidate = this.eval(item, relation, row, group);
+          if (candidate == null) result = null;
+          else if (compare(value, candidate) == 0) {
+            result = Boolean.TRUE;
+            break;
+          }
+        }
+      }
+      return in.isNot() ? not(result) : result;
+    }
+    if (e instanceof LikeExpression) {
+      LikeExpression like = (LikeExpression) e;
+      Object value = this.eval(like.getLeftExpression(), relation, row, group);
+      Object pattern = this.eval(like.getRightExpression(), relation, row, group);
+      Object result = value == null || pattern == null ? null
+          : this.likePattern(pattern.toString()).matcher(value.toString()).matches();
+      return like.isNot() ? not(result) : result;
+    }
+    if (e instanceof BinaryExpression) {
+      BinaryExpression b = (BinaryExpression) e;
+      Object l = this.eval(b.getLeftExpression(), relation, row, group);
+      Object r = this.eval(b.getRightExpression(), relation, row, group);
+      Object value;
+      if (e instanceof Addition) value = arithmetic('+', l, r);
+      else if (e instanceof Subtraction) value = arithmetic('-', l, r);
+      else if (e instanceof Multiplication) value = arithmetic('*', l, r);
+      else if (e instanceof Division) value = arithmetic('/', l, r);
+      else if (e instanceof Modulo) value = arithmetic('%', l, r);
+      else if (e instanceof Concat) value = l == null || r == null ? null : l.toString() + r.toString();
+      else if (l == null || r == null) value = null;
+      else if (e instanceof EqualsTo) value = compare(l, r) == 0;
+      else if (e instanceof NotEqualsTo) value = compare(l, r) != 0;
+      else if (e instanceof GreaterThan) value = compare(l, r) > 0;
+      else if (e instanceof GreaterThanEquals) value = compare(l, r) >= 0;
+      else if (e instanceof MinorThan) value = compare(l, r) < 0;
+      else if (e instanceof MinorThanEquals) value = compare(l, r) <= 0;
+      else throw new DDFException(String.format("%s is not supported by the basic engine", e));
+      return b.isNot() ? not(value) : value;
+    }
+    if (e instanceof CaseExpression) {
+      CaseExpression caseExpression = (CaseExpression) e;
+      Object switchValue = caseExpression.getSwitchExpression() == null ? null
+          : this.eval(caseExpression.getSwitchExpression(), relation, row, group);
+      for (Expression when : caseExpression.getWhenClauses()) {
+        WhenClause clause = (WhenClause) when;
+        Object condition = this.eval(clause.getWhenExpression(), relation, row, group);
+        boolean matches = caseExpression.getSwitchExpression() == null ? Boolean.TRUE.equals(condition)
+            : switchValue != null && condition != null && compare(switchValue, condition) == 0;
+        if (matches) return this.eval(clause.getThenExpression(), relation, row, group);
+      }
+      return caseExpression.getElseExpression() == null ? null
+          : this.eval(caseExpression.getElseExpression(), relation, row, group);
+    }
+    if (e instanceof CastExpression) {
+      Object value = this.eval(((CastExpression) e).getLeftExpression(), relation, row, group);
+      return cast(value, ((CastExpression) e).getType().getDataType());
+    }
+    throw new DDFException(String.format("%s is not supported by the basic engine", e));
+  }
+
+  private Object function(Function function, Relation relation, Object[] row, List<Object[]> group)
+      throws DDFException {
+    String name = function.getName().toLowerCase();
+    List<Expression> parameters = function.getParameters() == null ? Collections.<Expression>emptyList()
+        : function.getParameters().getExpressions();
+
+    if (AGGREGATES.contains(name)) {
+      if (group == null) throw new DDFException(String.format("%s is not allowed here", function));
+      if (name.equals("count") && function.isAllColumns()) return (long) group.size();
+      if (parameters.size() != 1) throw new DDFException(String.format("%s takes one argument", name));
+
+      Expression parameter = parameters.get(0);
+      Set<Object> distinct = function.isDistinct() ? new HashSet<Object>() : null;
+      long count = 0;
+      Object result = null;
+      boolean isIntegral = true;
+      double sum = 0;
+      long longSum = 0;
+      for (Object[] groupRow : group) {
+        Object value = this.eval(parameter, relation, groupRow, null);
+        if (value == null) continue;
+        if (distinct != null && !distinct.add(normalize(value))) continue;
+        count++;
+        if (name.equals("sum") || name.equals("avg")) {
+          Number number = toNumber(value);
+          isIntegral &= isIntegral(number);
+          sum += number.doubleValue();
+          if (isIntegral) longSum += number.longValue();
+        } else if (name.equals("min")) {
+          if (result == null || compare(value, result) < 0) result = value;
+        } else if (name.equals("max")) {
+          if (result == null || compare(value, result) > 0) result = value;
+        }
+      }
+      if (name.equals("count")) return count;
+      if (name.equals("sum")) return count == 0 ? null : isIntegral ? (Object) longSum : (Object) sum;
+      if (name.equals("avg")) return count == 0 ? null : sum / count;
+      return result;
+    }
+
+    List<Object> args = new ArrayList<Object>(parameters.size());
+    for (Expression parameter : parameters) args.add(this.eval(parameter, relation, row, group));
+
+    if (name.equals("coalesce")) {
+      for (Object arg : args) {
+        if (arg != null) return arg;
+      }
+      return null;
+    }
+    if (name.equals("concat")) {
+      StringBuilder builder = new StringBuilder();
+      for (Object arg : args) {
+        if (arg == null) return null;
+        builder.append(arg);
+      }
+      return builder.toString();
+    }
+    if (args.isEmpty()) throw new DDFException(String.format("%s takes at least one argument", name));
+    Object arg = args.get(0);
+    if (arg == null) return null;
+
+    if (name.equals("abs")) {
+      Number number = toNumber(arg);
+      return isIntegral(number) ? (Object) Math.abs(number.longValue()) : (Object) Math.abs(number.doubleValue());
+    }
+    if (name.equals("round")) {
+      int digits = args.size() > 1 && args.get(1) != null ? toNumber(args.get(1)).intValue() : 0;
+      return new BigDecimal(toNumber(arg).doubleValue()).setScale(digits, BigDecimal.ROUND_HALF_UP).doubleValue();
+    }
+    if (name.equals("floor")) return (long) Math.floor(toNumber(arg).doubleValue());
+    if (name.equals("ceil") || name.equals("ceiling")) return (long) Math.ceil(toNumber(arg).doubleValue());
+    if (name.equals("sqrt")) return Math.sqrt(toNumber(arg).doubleValue());
+    if (name.equals("lower") || name.equals("lcase")) return arg.toString().toLowerCase();
+    if (name.equals("upper") || name.equals("ucase")) return arg.toString().toUpperCase();
+    if (name.equals("length")) return arg.toString().length();
+    if (name.equals("trim")) return arg.toString().trim();
+    if (name.equals("substr") || name.equals("substring")) {
+      String s = arg.toString();
+      // 1-based start, negative from the end, as in Hive
+      int start = toNumber(args.get(1)).intValue();
+      int from = start > 0 ? start - 1 : start < 0 ? Math.max(0, s.length() + start) : 0;
+      from = Math.min(from, s.length());
+      int to = args.size() > 2 ? Math.min(s.length(), from + Math.max(0, toNumber(args.get(2)).intValue())) : s.length();
+      return s.substring(from, to);
+    }
+    throw new DDFException(String.format("Function %s is not supported by the basic engine", function.getName()));
+  }
+
+  private Pattern likePattern(String pattern) {
+    Pattern compiled = mLikePatterns.get(pattern);
+    if (compiled == null) {
+      StringBuilder regex = new StringBuilder();
+      StringBuilder literal = new StringBuilder();
+      for (char c : pattern.toCharArray()) {
+        if (c == '%' || c == '_') {
+          if (literal.length() > 0) regex.append(Pattern.quote(literal.toString()));
+          literal.setLength(0);
+          regex.append(c == '%' ? ".*" : ".");
+        } else {
+          literal.append(c);
+        }
+      }
+      if (literal.length() > 0) regex.append(Pattern.quote(literal.toString()));
+      compiled = Pattern.compile(regex.toString(), Pattern.DOTALL);
+      mLikePatterns.put(pattern, compiled);
+    }
+    return compiled;
+  }
+
+  private static Object not(Object value) {
+    return value == null ? null : !((Boolean) value);
+  }
+
+  private static Object arithmetic(char operator, Object l, Object r) throws DDFException {
+    if (l == null || r == null) return null;
+    Number a = toNumber(l), b = toNumber(r);
+    if (operator != '/' && isIntegral(a) && isIntegral(b)) {
+      long x = a.longValue(), y = b.longValue();
+      switch (operator) {
+        case '+':
+          return x + y;
+        case '-':
+          return x - y;
+        case '*':
+          return x * y;
+        default:
+          return y == 0 ? null : (Object) (x % y);
+      }
+    }
+    double x = a.doubleValue(), y = b.doubleValue();
+    switch (operator) {
+      case '+':
+        return x + y;
+      case '-':
+        return x - y;
+      case '*':
+        return x * y;
+      case '/':
+        return y == 0 ? null : (Object) (x / y);
+      default:
+        return y == 0 ? null : (Object) (x % y);
+    }
+  }
+
+  private static Number toNumber(Object value) throws DDFException {
+    if (value instanceof Number) return (Number) value;
+    try {
+      return Double.parseDouble(value.toString().trim());
+    } catch (NumberFormatException e) {
+      throw new DDFException(String.format("%s is not a number", value));
+    }
+  }
+
+  private static boolean isIntegral(Number number) {
+    return number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte;
+  }
+
+  /**
+   * Makes equal numbers of different classes equal, for hashing in joins, groups and DISTINCT
+   */
+  private static Object normalize(Object value) {
+    if (!(value instanceof Number)) return value;
+    Number number = (Number) value;
+    if (isIntegral(number)) return number.longValue();
+    double d = number.doubleValue();
+    if (d == Math.rint(d) && Math.abs(d) < 9.0e15) return (long) d;
+    return d;
+  }
+
+  /**
+   * Compares values of the same kind; strings are compared as numbers to numbers, and as dates to dates
+   */
+  @SuppressWarnings("unchecked")
+  static int compare(Object a, Object b) {
+    if (a instanceof Number && b instanceof Number) {
+      if (isIntegral((Number) a) && isIntegral((Number) b)) {
+        long x = ((Number) a).longValue(), y = ((Number) b).longValue();
+        return x < y ? -1 : x == y ? 0 : 1;
+      }
+      return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+    }
+    if (a instanceof java.util.Date && b instanceof java.util.Date) {
+      long x = ((java.util.Date) a).getTime(), y = ((java.util.Date) b).getTime();
+      return x < y ? -1 : x == y ? 0 : 1;
+    }
+    if (a instanceof String && !(b instanceof String)) return -compare(b, a);
+    if (b instanceof String && !(a instanceof String)) {
+      try {
+        if (a instanceof Number) return compare(a, Double.parseDouble(((String) b).trim()));
+        if (a instanceof java.util.Date) return compare(a, cast(b, "timestamp"));
+        if (a instanceof Boolean) return compare(a, cast(b, "boolean"));
+      } catch (IllegalArgumentException e) {
+        // not comparable as such, fall back to the string representations
+      }
+      return a.toString().compareTo((String) b);
+    }
+    if (a.getClass() == b.getClass() && a instanceof Comparable) return ((Comparable<Object>) a).compareTo(b);
+    return a.toString().compareTo(b.toString());
+  }
+
+  private static Object cast(Object value, String type) {
+    if (value == null) return null;
+    String t = type.toLowerCase();
+    if (t.equals("integer")) t = "int";
+    else if (t.equals("long")) t = "bigint";
+    else if (t.equals("varchar") || t.equals("char") || t.equals("text")) t = "string";
+    ColumnType columnType = ColumnType.get(t);
+    if (columnType == null) throw new IllegalArgumentException("Unsupported type " + type);
+    if (value instanceof Number && (columnType == ColumnType.INT || columnType == ColumnType.BIGINT)) {
+      // truncate as SQL does, rather than failing to parse "1.5"
+      return columnType == ColumnType.INT ? (Object) ((Number) value).intValue() : (Object) ((Number) value).longValue();
+    }
+    return DelimitedLineParser.convert(value.toString(), columnType);
+  }
+
+  static ColumnType typeOf(Object value) {
+    if (value instanceof Integer) return ColumnType.INT;
+    if (value instanceof Long) return ColumnType.BIGINT;
+    if (value instanceof Double) return ColumnType.DOUBLE;
+    if (value instanceof Float) return ColumnType.FLOAT;
+    if (value instanceof Short) return ColumnType.SMALLINT;
+    if (value instanceof Byte) return ColumnType.TINYINT;
+    if (value instanceof BigDecimal) return ColumnType.DECIMAL;
+    if (value instanceof Boolean) return ColumnType.BOOLEAN;
+    if (value instanceof java.sql.Timestamp) return ColumnType.TIMESTAMP;
+    if (value instanceof java.sql.Date) return ColumnType.DATE;
+    return ColumnType.STRING;
+  }
+
+  private static String unquote(String name) {
+    if (name != null && name.length() > 1 && (name.charAt(0) == '`' || name.charAt(0) == '"')
+        && name.charAt(name.length() - 1) == name.charAt(0)) {
+      return name.substring(1, name.length() - 1);
+    }
+    return name;
+  }
+}
@@ -0,0 +1,64 @@
+package io.basic.ddf.etl;
+
+
+import io.basic.ddf.BasicDDF;
+import io.ddf.DDF;
+import io.ddf.content.Schema;
+import io.ddf.etl.AReshapingHandler;
+import io.ddf.etl.Melt;
+import io.ddf.etl.Pivot;
+import io.ddf.exception.DDFException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reshapes basic DDFs in one partition. Pivoted rows are in the order their keys first appear.
+ */
+public class ReshapingHandler extends AReshapingHandler {
+
+  public ReshapingHandler(DDF theDDF) {
+    super(theDDF);
+  }
+
+  private List<Object[]> getRows() throws DDFException {
+    List<Object[]> rows = ((BasicDDF) this.getDDF()).getList(Object[].class);
+    if (rows == null) throw new DDFException(String.format("Cannot get the rows of %s", this.getDDF().getName()));
+    return rows;
+  }
+
+  private DDF newDDF(List<Object[]> rows, Schema schema) throws DDFException {
+    return this.getManager().newDDF(this.getManager(), rows, new Class<?>[] { List.class, Object[].class }, null,
+        schema);
+  }
+
+  @Override
+  protected List<Object> getDistinctValues(int columnIndex) throws DDFException {
+    Set<Object> values = new LinkedHashSet<Object>();
+    for (Object[] row : this.getRows()) {
+      if (row[columnIndex] != null) values.add(row[columnIndex]);
+    }
+    return new ArrayList<Object>(values);
+  }
+
+  @Override
+  protected DDF pivot(Pivot pivot, Schema schema) throws DDFException {
+    List<Object[]> rows = new ArrayList<Object[]>();
+    for (Map.Entry<List<Object>, Pivot.Cell[]> entry : pivot.aggregate(this.getRows().iterator()).entrySet()) {
+      rows.add(pivot.output(entry.getKey(), entry.getValue()));
+    }
+    return this.newDDF(rows, schema);
+  }
+
+  @Override
+  protected DDF melt(Melt melt, Schema schema) throws DDFException {
+    List<Object[]> rows = new ArrayList<Object[]>();
+    for (Object[] row : this.getRows()) {
+      rows.addAll(melt.melt(row));
+    }
+    return this.newDDF(rows, schema);
+  }
+}
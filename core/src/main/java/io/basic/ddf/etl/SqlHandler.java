@@ -0,0 +1,123 @@
+package io.basic.ddf.etl;
+
+
+import io.ddf.DDF;
+import io.ddf.content.Schema;
+import io.ddf.content.SqlResult;
+import io.ddf.content.SqlTypedCell;
+import io.ddf.content.SqlTypedResult;
+import io.ddf.datasource.DataFormat;
+import io.ddf.datasource.DataSourceDescriptor;
+import io.ddf.datasource.JDBCDataSourceDescriptor;
+import io.ddf.etl.ASqlHandler;
+import io.ddf.exception.DDFException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL handler of the basic engine, executing SELECT statements over the in-memory rows of its DDFs with a
+ * {@link LocalSqlExecutor}.
+ */
+public class SqlHandler extends ASqlHandler {
+
+  public SqlHandler(DDF theDDF) {
+    super(theDDF);
+  }
+
+  @Override
+  public DDF sql2ddf(String command) throws DDFException {
+    return this.sql2ddf(command, null, null, null);
+  }
+
+  @Override
+  public DDF sql2ddf(String command, Schema schema) throws DDFException {
+    return this.sql2ddf(command, schema, null, null);
+  }
+
+  @Override
+  public DDF sql2ddf(String command, DataFormat dataFormat) throws DDFException {
+    return this.sql2ddf(command, null, null, dataFormat);
+  }
+
+  @Override
+  public DDF sql2ddf(String command, Schema schema, DataSourceDescriptor dataSource) throws DDFException {
+    return this.sql2ddf(command, schema, dataSource, null);
+  }
+
+  @Override
+  public DDF sql2ddf(String command, Schema schema, DataFormat dataFormat) throws DDFException {
+    return this.sql2ddf(command, schema, null, dataFormat);
+  }
+
+  @Override
+  public DDF sql2ddf(String command, Schema schema, DataSourceDescriptor dataSource, DataFormat dataFormat)
+      throws DDFException {
+    LocalSqlExecutor.Relation result = this.execute(command, dataSource);
+    if (schema == null) schema = result.getSchema();
+    return this.getManager().newDDF(this.getManager(), result.rows, new Class<?>[] { List.class, Object[].class },
+        null, schema);
+  }
+
+  @Override
+  public SqlResult sql(String command) throws DDFException {
+    return this.sql(command, null, null);
+  }
+
+  @Override
+  public SqlResult sql(String command, Integer maxRows) throws DDFException {
+    return this.sql(command, maxRows, null);
+  }
+
+  @Override
+  public SqlResult sql(String command, Integer maxRows, DataSourceDescriptor dataSource) throws DDFException {
+    LocalSqlExecutor.Relation result = this.execute(command, dataSource);
+    int numRows = maxRows == null ? result.rows.size() : Math.min(maxRows, result.rows.size());
+    List<String> rows = new ArrayList<String>(numRows);
+    StringBuilder line = new StringBuilder();
+    for (Object[] row : result.rows.subList(0, numRows)) {
+      line.setLength(0);
+      for (int i = 0; i < row.length; i++) {
+        if (i > 0) line.append('\t');
+        line.append(row[i] == null ? "null" : row[i].toString());
+      }
+      rows.add(line.toString());
+    }
+    return new SqlResult(result.getSchema(), rows);
+  }
+
+  @Override
+  public SqlTypedResult sqlTyped(String command) throws DDFException {
+    return this.sqlTyped(command, null, null);
+  }
+
+  @Override
+  public SqlTypedResult sqlTyped(String command, Integer maxRows) throws DDFException {
+    return this.sqlTyped(command, maxRows, null);
+  }
+
+  @Override
+  public SqlTypedResult sqlTyped(String command, Integer maxRows, DataSourceDescriptor dataSource)
+      throws DDFException {
+    LocalSqlExecutor.Relation result = this.execute(command, dataSource);
+    Schema schema = result.getSchema();
+    int numRows = maxRows == null ? result.rows.size() : Math.min(maxRows, result.rows.size());
+    List<List<SqlTypedCell>> sqlTypedResult = new ArrayList<List<SqlTypedCell>>(numRows);
+    for (Object[] values : result.rows.subList(0, numRows)) {
+      List<SqlTypedCell> row = new ArrayList<SqlTypedCell>(values.length);
+      for (int i = 0; i < values.length; i++) {
+        row.add(new SqlTypedCell(schema.getColumn(i).getType(), values[i] == null ? "null" : values[i].toString()));
+      }
+      sqlTypedResult.add(row);
+    }
+    return new SqlTypedResult(schema, sqlTypedResult);
+  }
+
+  private LocalSqlExecutor.Relation execute(String command, DataSourceDescriptor dataSource) throws DDFException {
+    if (dataSource instanceof JDBCDataSourceDescriptor) {
+      throw new DDFException("Queries on JDBC data sources are not supported by the basic engine");
+    }
+    mLog.info(">>>> Executing locally: " + command);
+    return new LocalSqlExecutor(this.getManager()).execute(command);
+  }
+}
@@ -0,0 +1,206 @@
+package io.basic.ddf.etl;
+
+
+import io.basic.ddf.BasicDDF;
+import io.ddf.DDF;
+import io.ddf.analytics.IncrementalStatistics;
+import io.ddf.content.Schema.ColumnType;
+import io.ddf.datasource.DelimitedLineParser;
+import io.ddf.datasource.IStreamSource;
+import io.ddf.datasource.TextFileFormat;
+import io.ddf.etl.AStreamingDataHandler;
+import io.ddf.exception.DDFException;
+import io.ddf.metrics.Metrics;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Streaming for basic DDFs: a thread of the process polls the source once per batch interval, parses the lines and
+ * appends them in memory. The rows of the DDF and of the batches share one buffer that batches are appended to, and a
+ * snapshot is a BasicDDF over a read-only view of the rows in the buffer when it was taken, so taking one copies
+ * nothing.
+ */
+public class StreamingDataHandler extends AStreamingDataHandler {
+
+  /**
+   * The rows of the DDF followed by those of the batches, created with the first batch or snapshot. Only ever appended
+   * to, so the first rows of the buffer never change.
+   */
+  private List<Object[]> mRows;
+
+  private volatile Poller mPoller;
+
+  public StreamingDataHandler(DDF theDDF) {
+    super(theDDF);
+  }
+
+  private List<Object[]> getRows() throws DDFException {
+    return ((BasicDDF) this.getDDF()).getList(Object[].class);
+  }
+
+  @Override
+  public synchronized void start(IStreamSource source, TextFileFormat format, long batchIntervalMillis)
+      throws DDFException {
+    if (mPoller != null) throw new DDFException(String.format("%s is already streaming", this.getDDF().getName()));
+    if (batchIntervalMillis <= 0) throw new DDFException("The batch interval must be positive");
+
+    mPoller = new Poller(source, new DelimitedLineParser(format), this.getColumnTypes(), batchIntervalMillis);
+    mPoller.start();
+    mLog.info(String.format(">>>> Streaming %s into %s every %d ms", source, this.getDDF().getName(),
+        batchIntervalMillis));
+  }
+
+  @Override
+  public void stop() throws DDFException {
+    Poller poller;
+    synchronized (this) {
+      poller = mPoller;
+      mPoller = null;
+    }
+    if (poller == null) return;
+
+    poller.mStopped = true;
+    poller.interrupt();
+    try {
+      poller.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    poller.mSource.close();
+  }
+
+  @Override
+  public boolean isStreaming() {
+    return mPoller != null;
+  }
+
+  @Override
+  public synchronized void appendBatch(List<Object[]> rows) throws DDFException {
+    int numColumns = this.getColumns().size();
+    IncrementalStatistics batch = new IncrementalStatistics(this.getColumns());
+    for (Object[] row : rows) {
+      if (row.length != numColumns) {
+        throw new DDFException(String.format("Rows of %s have %d values, not %d", this.getDDF().getName(),
+            row.length, numColumns));
+      }
+      batch.add(row);
+    }
+    this.getBuffer().addAll(rows);
+    this.batchAppended(batch);
+  }
+
+  @Override
+  protected IncrementalStatistics computeStatistics() throws DDFException {
+    IncrementalStatistics statistics = new IncrementalStatistics(this.getColumns());
+    for (Object[] row : this.getRows()) {
+      statistics.add(row);
+    }
+    return statistics;
+  }
+
+  private synchronized List<Object[]> getBuffer() throws DDFException {
+    if (mRows == null) {
+      mRows = Collections.synchronizedList(new ArrayList<Object[]>(this.getRows()));
+    }
+    return mRows;
+  }
+
+  @Override
+  protected DDF newSnapshot() throws DDFException {
+    List<Object[]> buffer = this.getBuffer();
+    List<Object[]> rows = Collections.unmodifiableList(new BufferView(buffer, buffer.size()));
+    return this.getManager().newDDF(this.getManager(), rows, new Class<?>[] { List.class, Object[].class }, null,
+        this.newSnapshotSchema());
+  }
+
+
+  /**
+   * The first rows of the buffer, which later batches leave as they are. Serialized as a list of those rows only.
+   */
+  private static class BufferView extends AbstractList<Object[]> implements RandomAccess, Serializable {
+
+    private static final long serialVersionUID = 4907410921582187530L;
+
+    private final List<Object[]> mBuffer;
+
+    private final int mSize;
+
+    BufferView(List<Object[]> buffer, int size) {
+      mBuffer = buffer;
+      mSize = size;
+    }
+
+    @Override
+    public Object[] get(int index) {
+      if (index < 0 || index >= mSize) throw new IndexOutOfBoundsException(String.format("%d of %d", index, mSize));
+      return mBuffer.get(index);
+    }
+
+    @Override
+    public int size() {
+      return mSize;
+    }
+
+    private Object writeReplace() {
+      return new ArrayList<Object[]>(this);
+    }
+  }
+
+
+  private class Poller extends Thread {
+
+    private final IStreamSource mSource;
+
+    private final DelimitedLineParser mParser;
+
+    private final ColumnType[] mTypes;
+
+    private final long mIntervalMillis;
+
+    private volatile boolean mStopped;
+
+    Poller(IStreamSource source, DelimitedLineParser parser, ColumnType[] types, long intervalMillis) {
+      super("ddf-streaming-" + StreamingDataHandler.this.getDDF().getUUID());
+      this.setDaemon(true);
+      mSource = source;
+      mParser = parser;
+      mTypes = types;
+      mIntervalMillis = intervalMillis;
+    }
+
+    @Override
+    public void run() {
+      while (!mStopped) {
+        try {
+          Thread.sleep(mIntervalMillis);
+        } catch (InterruptedException e) {
+          if (mStopped) break;
+        }
+
+        try {
+          this.poll();
+        } catch (Exception e) {
+          mLog.error("Error appending a batch to " + StreamingDataHandler.this.getDDF().getName(), e);
+        }
+      }
+    }
+
+    private void poll() throws DDFException {
+      List<String> lines = mSource.poll();
+      if (lines.isEmpty()) return;
+
+      List<Object[]> rows = new ArrayList<Object[]>(lines.size());
+      for (String line : lines) {
+        Object[] row = mParser.parse(line, mTypes);
+        if (row != null) rows.add(row);
+      }
+      if (rows.size() < lines.size()) Metrics.counter("streaming.malformed").inc(lines.size() - rows.size());
+      if (!rows.isEmpty()) StreamingDataHandler.this.appendBatch(rows);
+    }
+  }
+}
@@ -30,6 +30,7 @@ import io.ddf.content.APersistenceHandler.PersistenceUri;
 import io.ddf.content.*;
 import io.ddf.content.IHandlePersistence.IPersistible;
 import io.ddf.content.Schema.Column;
+import io.ddf.datasource.CsvExportFormat;
 import io.ddf.datasource.SQLDataSourceDescriptor;
 import io.ddf.etl.*;
 import io.ddf.etl.IHandleMissingData.Axis;
@@ -37,6 +38,7 @@ import io.ddf.etl.IHandleMissingData.NAChecking;
 import io.ddf.etl.Types.JoinType;
 import io.ddf.exception.DDFException;
 import io.ddf.facades.*;
+import io.ddf.metrics.Trace;
 import io.ddf.misc.*;
 import io.ddf.ml.ISupportML;
 import io.ddf.ml.ISupportMLMetrics;
@@ -48,7 +50,6 @@ import io.ddf.util.PhantomReference;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Modifier;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -177,11 +178,11 @@ public abstract class DDF extends ALoggable //
 
     if(!Strings.isNullOrEmpty(name)) manager.setDDFName(this, name);
 
-    // Facades
-    this.ML = new MLFacade(this, this.getMLSupporter());
-    this.VIEWS = new ViewsFacade(this, this.getViewHandler());
-    this.Transform = new TransformFacade(this, this.getTransformationHandler());
-    this.R = new RFacade(this, this.getAggregationHandler());
+    // Facades, whose handlers are created on first use
+    this.ML = new MLFacade(this, null);
+    this.VIEWS = new ViewsFacade(this, null);
+    this.Transform = new TransformFacade(this, null);
+    this.R = new RFacade(this, null);
   }
 
   /**
@@ -325,8 +326,20 @@ public abstract class DDF extends ALoggable //
   public void setColumnNames(List<String> columnNames) {this.getSchema().setColumnNames(columnNames);}
 
 
+  /**
+   * @return a trace of the given operation on this DDF, to be ended when the operation completes
+   */
+  protected Trace trace(String operation) {
+    return Trace.begin(this.getManager(), this, operation, null);
+  }
+
   public long getNumRows() throws DDFException {
-    return this.getMetaDataHandler().getNumRows();
+    Trace trace = this.trace("DDF.getNumRows");
+    try {
+      return this.getMetaDataHandler().getNumRows();
+    } finally {
+      trace.end();
+    }
   }
 
   public int getNumColumns() {
@@ -399,7 +412,12 @@ public abstract class DDF extends ALoggable //
    * @throws DDFException
    */
   public double correlation(String columnA, String columnB) throws DDFException {
-    return this.getAggregationHandler().computeCorrelation(columnA, columnB);
+    Trace trace = this.trace("DDF.correlation");
+    try {
+      return this.getAggregationHandler().computeCorrelation(columnA, columnB);
+    } finally {
+      trace.end();
+    }
   }
 
   /**
@@ -411,20 +429,40 @@ public abstract class DDF extends ALoggable //
    * @throws DDFException
    */
   public AggregationResult aggregate(String fields) throws DDFException {
-    return this.getAggregationHandler().aggregate(AggregateField.fromSqlFieldSpecs(fields));
+    Trace trace = this.trace("DDF.aggregate");
+    try {
+      return this.getAggregationHandler().aggregate(AggregateField.fromSqlFieldSpecs(fields));
+    } finally {
+      trace.end();
+    }
   }
 
   public AggregationResult xtabs(String fields) throws DDFException {
-    return this.getAggregationHandler().xtabs(AggregateField.fromSqlFieldSpecs(fields));
+    Trace trace = this.trace("DDF.xtabs");
+    try {
+      return this.getAggregationHandler().xtabs(AggregateField.fromSqlFieldSpecs(fields));
+    } finally {
+      trace.end();
+    }
   }
 
   public DDF join(DDF anotherDDF, JoinType joinType, List<String> byColumns, List<String> byLeftColumns,
       List<String> byRightColumns) throws DDFException {
-    return this.getJoinsHandler().join(anotherDDF, joinType, byColumns, byLeftColumns, byRightColumns);
+    Trace trace = this.trace("DDF.join");
+    try {
+      return this.getJoinsHandler().join(anotherDDF, joinType, byColumns, byLeftColumns, byRightColumns);
+    } finally {
+      trace.end();
+    }
   }
 
   public DDF groupBy(List<String> groupedColumns, List<String> aggregateFunctions) throws DDFException {
-    return this.getAggregationHandler().groupBy(groupedColumns, aggregateFunctions);
+    Trace trace = this.trace("DDF.groupBy");
+    try {
+      return this.getAggregationHandler().groupBy(groupedColumns, aggregateFunctions);
+    } finally {
+      trace.end();
+    }
   }
 
   public DDF groupBy(List<String> groupedColumns) {
@@ -432,13 +470,23 @@ public abstract class DDF extends ALoggable //
   }
 
   public DDF agg(List<String> aggregateFunctions) throws DDFException {
-    return this.getAggregationHandler().agg(aggregateFunctions);
+    Trace trace = this.trace("DDF.agg");
+    try {
+      return this.getAggregationHandler().agg(aggregateFunctions);
+    } finally {
+      trace.end();
+    }
   }
 
   // ///// binning
   public DDF binning(String column, String binningType, int numBins, double[] breaks, boolean includeLowest,
       boolean right) throws DDFException {
-    return this.getBinningHandler().binning(column, binningType, numBins, breaks, includeLowest, right);
+    Trace trace = this.trace("DDF.binning");
+    try {
+      return this.getBinningHandler().binning(column, binningType, numBins, breaks, includeLowest, right);
+    } finally {
+      trace.end();
+    }
   }
 
 
@@ -784,7 +832,8 @@ public abstract class DDF extends ALoggable //
 
 
   /**
-   * Instantiate a new {@link ADDFFunctionalGroupHandler} given its class name
+   * Instantiate a new {@link ADDFFunctionalGroupHandler} given its class name, with the constructor that
+   * {@link EngineClasses} resolved once for the engine
    *
    * @param theInterface
    * @return
@@ -804,25 +853,14 @@ public abstract class DDF extends ALoggable //
 
     try {
       className = Config.getValueWithGlobalDefault(this.getEngine(), theInterface.getSimpleName());
-      mLog.info(">>> className = " + className);
       if (Strings.isNullOrEmpty(className)) {
         mLog.error(String.format("Cannot determine classname for %s from configuration source [%s] %s",
             theInterface.getSimpleName(), Config.getConfigHandler().getSource(), this.getEngine()));
         return null;
       }
 
-      Class<?> clazz = Class.forName(className);
-
-      if (Modifier.isAbstract(clazz.getModifiers())) {
-        throw new InstantiationError(String.format("Class %s is abstract and cannot be instantiated", className));
-      }
-
-      Constructor<ADDFFunctionalGroupHandler> cons = (Constructor<ADDFFunctionalGroupHandler>) clazz
-          .getDeclaredConstructor(new Class<?>[] { DDF.class });
-
-      if (cons != null) cons.setAccessible(true);
-
-      return cons != null ? (I) cons.newInstance(this) : null;
+      Constructor<?> cons = EngineClasses.get(this.getEngine()).getHandlerConstructor(className);
+      return (I) cons.newInstance(this);
 
     } catch (ClassNotFoundException cnfe) {
       mLog.error(String.format("Cannot instantiate handler for [%s] %s/%s", this.getEngine(),
@@ -925,11 +963,21 @@ public abstract class DDF extends ALoggable //
 
   // Calculate summary statistics of the DDF
   public Summary[] getSummary() throws DDFException {
-    return this.getStatisticsSupporter().getSummary();
+    Trace trace = this.trace("DDF.getSummary");
+    try {
+      return this.getStatisticsSupporter().getSummary();
+    } finally {
+      trace.end();
+    }
   }
 
   public FiveNumSummary[] getFiveNumSummary() throws DDFException {
-    return this.getStatisticsSupporter().getFiveNumSummary(this.getColumnNames());
+    Trace trace = this.trace("DDF.getFiveNumSummary");
+    try {
+      return this.getStatisticsSupporter().getFiveNumSummary(this.getColumnNames());
+    } finally {
+      trace.end();
+    }
   }
 
 
@@ -945,11 +993,21 @@ public abstract class DDF extends ALoggable //
   }
 
   public DDF dropNA(Axis pattern) throws DDFException {
-    return this.getMissingDataHandler().dropNA(pattern, NAChecking.ANY, 0, null);
+    Trace trace = this.trace("DDF.dropNA");
+    try {
+      return this.getMissingDataHandler().dropNA(pattern, NAChecking.ANY, 0, null);
+    } finally {
+      trace.end();
+    }
   }
 
   public DDF fillNA(String value) throws DDFException {
-    return this.getMissingDataHandler().fillNA(value, null, 0, null, null, null);
+    Trace trace = this.trace("DDF.fillNA");
+    try {
+      return this.getMissingDataHandler().fillNA(value, null, 0, null, null, null);
+    } finally {
+      trace.end();
+    }
   }
 
   public DDF updateInplace(DDF result) throws DDFException {
@@ -957,7 +1015,12 @@ public abstract class DDF extends ALoggable //
   }
 
   public Double[] getVectorQuantiles(String columnName, Double[] percentiles) throws DDFException {
-    return this.getStatisticsSupporter().getVectorQuantiles(columnName, percentiles);
+    Trace trace = this.trace("DDF.getVectorQuantiles");
+    try {
+      return this.getStatisticsSupporter().getVectorQuantiles(columnName, percentiles);
+    } finally {
+      trace.end();
+    }
   }
 
   public Double[] getVectorQuantiles(Double[] percentiles) throws DDFException {
@@ -982,14 +1045,23 @@ public abstract class DDF extends ALoggable //
     return getVectorApproxHistogram(columnName, numBins);
   }
   public List<HistogramBin> getVectorApproxHistogram(String columnName, int numBins) throws DDFException {
-    // TODO need to check columnName
-    return this.getBinningHandler().getVectorApproxHistogram(columnName, numBins);
-
+    Trace trace = this.trace("DDF.getVectorApproxHistogram");
+    try {
+      // TODO need to check columnName
+      return this.getBinningHandler().getVectorApproxHistogram(columnName, numBins);
+    } finally {
+      trace.end();
+    }
   }
 
   public List<HistogramBin> getVectorHistogram(String columnName, int numBins) throws DDFException {
-    // TODO need to check columnName
-    return this.getBinningHandler().getVectorHistogram(columnName, numBins);
+    Trace trace = this.trace("DDF.getVectorHistogram");
+    try {
+      // TODO need to check columnName
+      return this.getBinningHandler().getVectorHistogram(columnName, numBins);
+    } finally {
+      trace.end();
+    }
   }
 
   public Double getVectorCor(String xColumnName, String yColumnName) throws DDFException {
@@ -1078,4 +1150,8 @@ public abstract class DDF extends ALoggable //
     this.getManager().export2csv(this, fileURL, fieldSeparator, hasHead);
   }
 
+  public void export2csv(String fileURL, CsvExportFormat format) throws DDFException {
+    this.getManager().export2csv(this, fileURL, format);
+  }
+
 }
@@ -23,12 +23,15 @@ import io.ddf.content.IHandleRepresentations;
 import io.ddf.content.Schema;
 import io.ddf.content.SqlResult;
 import io.ddf.content.SqlTypedResult;
+import io.ddf.datasource.CsvExportFormat;
 import io.ddf.datasource.DataFormat;
 import io.ddf.datasource.DataSourceDescriptor;
 import io.ddf.datasource.DataSourceManager;
 import io.ddf.datasource.SQLDataSourceDescriptor;
 import io.ddf.etl.IHandleSqlLike;
 import io.ddf.exception.DDFException;
+import io.ddf.metrics.ITraceListener;
+import io.ddf.metrics.Trace;
 import io.ddf.misc.ALoggable;
 import io.ddf.misc.Config;
 import io.ddf.misc.Config.ConfigConstant;
@@ -40,9 +43,7 @@ import io.ddf.util.PhantomReference;
 
 import java.lang.reflect.Constructor;
 import java.util.Arrays;
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * <p>
@@ -124,7 +125,14 @@ public abstract class DDFManager extends ALoggable implements IDDFManager, IHand
    */
   protected DDFCache mDDFCache = new DDFCache();
 
-  protected Map<String, IModel> mModels = new ConcurrentHashMap<String, IModel>();
+  protected ModelCache mModels = this.createModelCache();
+
+  /**
+   * @return the registry of the trained models of this manager, engines override it to pin models backed by their data
+   */
+  protected ModelCache createModelCache() {
+    return new ModelCache();
+  }
 
   public void addDDF(DDF ddf) throws DDFException {
     mDDFCache.addDDF(ddf);
@@ -161,12 +169,19 @@ public abstract class DDFManager extends ALoggable implements IDDFManager, IHand
     mDDFCache.setDDFUUID(ddf, uuid);
   }
 
-  public void addModel(IModel model) {
-    mModels.put(model.getName(), model);
+  public void addModel(IModel model) throws DDFException {
+    mModels.addModel(model);
   }
 
-  public IModel getModel(String modelName) {
-    return mModels.get(modelName);
+  /**
+   * @return the model, reloaded from the model directory if it had been spilled, or null if there is no such model
+   */
+  public IModel getModel(String modelName) throws DDFException {
+    return mModels.getModel(modelName);
+  }
+
+  public void removeModel(String modelName) throws DDFException {
+    mModels.removeModel(modelName);
   }
 
   public DDF serialize2DDF(IModel model) throws DDFException {
@@ -314,11 +329,9 @@ public abstract class DDFManager extends ALoggable implements IDDFManager, IHand
         "Cannot determine class name for [%s] %s", this.getEngine(), "DDF"));
 
     try {
-      Constructor<DDF> cons = (Constructor<DDF>) Class.forName(className).getDeclaredConstructor(argTypes);
-      if (cons == null) throw new DDFException("Cannot get constructor for " + className);
-
-      cons.setAccessible(true); // make sure we can use it whether it's
-      // private, protected, or public
+      // resolved once per engine and made accessible whether it's private, protected, or public
+      Constructor<DDF> cons = (Constructor<DDF>) EngineClasses.get(this.getEngine())
+          .getDDFConstructor(className, argTypes);
 
       DDF ddf = cons.newInstance(argValues);
       if (ddf == null) throw new DDFException("Cannot instantiate a new instance of " + className);
@@ -332,6 +345,13 @@ public abstract class DDFManager extends ALoggable implements IDDFManager, IHand
     }
   }
 
+  /**
+   * @return the listener of the operations traced on the DDFs of this manager, null by default
+   */
+  public ITraceListener getTraceListener() {
+    return null;
+  }
+
   // ////// ISupportPhantomReference ////////
 
   public void cleanup() {
@@ -344,11 +364,14 @@ public abstract class DDFManager extends ALoggable implements IDDFManager, IHand
   public void startup() {
 
     PhantomReference.register(this);
+
+    // resolve the handler classes of the engine once, rather than on each new DDF
+    if (!Strings.isNullOrEmpty(this.getEngine())) EngineClasses.get(this.getEngine());
   }
 
   @Override
   public void shutdown() {
-    // Do nothing in the base
+    mModels.clear();
   }
 
 
@@ -404,8 +427,13 @@ public abstract class DDFManager extends ALoggable implements IDDFManager, IHand
                      Schema schema,
                      DataSourceDescriptor dataSource,
                      DataFormat dataFormat) throws DDFException {
-    return this.getDummyDDF().getSqlHandler().
-            sql2ddfHandle(command, schema, dataSource, dataFormat);
+    Trace trace = Trace.begin(this, null, "DDFManager.sql2ddf", command);
+    try {
+      return this.getDummyDDF().getSqlHandler().
+              sql2ddfHandle(command, schema, dataSource, dataFormat);
+    } finally {
+      trace.end();
+    }
   }
 
 
@@ -429,14 +457,18 @@ public abstract class DDFManager extends ALoggable implements IDDFManager, IHand
   public SqlResult sql(String command,
                        Integer maxRows,
                        DataSourceDescriptor dataSource) throws DDFException {
-    return this.getDummyDDF().getSqlHandler().
-            sqlHandle(command, maxRows, dataSource);
+    Trace trace = Trace.begin(this, null, "DDFManager.sql", command);
+    try {
+      return this.getDummyDDF().getSqlHandler().
+              sqlHandle(command, maxRows, dataSource);
+    } finally {
+      trace.end();
+    }
   }
 
   public SqlResult sql(String command, DataSourceDescriptor dataSource)
           throws DDFException {
-    return this.getDummyDDF().getSqlHandler().
-            sqlHandle(command, null, dataSource);
+    return this.sql(command, null, dataSource);
   }
 
   @Override
@@ -504,6 +536,10 @@ public abstract class DDFManager extends ALoggable implements IDDFManager, IHand
     mDataSourceManager.export2csv(ddf, fileURL, fieldSeparator, hasHead);
   }
 
+  public void export2csv(DDF ddf, String fileURL, CsvExportFormat format) throws DDFException {
+    mDataSourceManager.export2csv(ddf, fileURL, format);
+  }
+
   public void export2csv(SqlResult result, String fileURL, String fieldSeparator, Boolean hasHead) throws DDFException {
     mDataSourceManager.export2csv(result, fileURL, fieldSeparator, hasHead);
   }
@@ -0,0 +1,130 @@
+package io.ddf;
+
+
+import io.ddf.misc.ADDFFunctionalGroupHandler;
+import io.ddf.misc.Config;
+import io.ddf.misc.Config.ConfigConstant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The constructors of the classes that ddf.ini configures for an engine, its DDF and handlers, resolved once per
+ * engine and class name, so that creating a DDF or one of its handlers is a Config lookup and a constructor call
+ * instead of a class lookup by name and a search of its constructors.
+ * <p/>
+ * The handler classes of an engine are resolved when its first {@link DDFManager} starts up; classes that do not
+ * resolve then, e.g. those of other modules, are resolved on first use as before. Constructors are cached by class
+ * name, so that settings changed with {@link Config#set} still take effect.
+ */
+final class EngineClasses {
+
+  private static final Logger sLog = LoggerFactory.getLogger(EngineClasses.class);
+
+  private static final ConcurrentMap<String, EngineClasses> sEngines = new ConcurrentHashMap<String, EngineClasses>();
+
+  private final String mEngine;
+
+  private final ConcurrentMap<String, Constructor<?>> mHandlerConstructors =
+      new ConcurrentHashMap<String, Constructor<?>>();
+
+  private final ConcurrentMap<List<Object>, Constructor<?>> mDDFConstructors =
+      new ConcurrentHashMap<List<Object>, Constructor<?>>();
+
+
+  private EngineClasses(String engine) {
+    mEngine = engine;
+  }
+
+  /**
+   * @return the classes of the engine, resolving its handler classes the first time
+   */
+  static EngineClasses get(String engine) {
+    EngineClasses classes = sEngines.get(engine);
+    if (classes == null) {
+      EngineClasses newClasses = new EngineClasses(engine);
+      classes = sEngines.putIfAbsent(engine, newClasses);
+      if (classes == null) {
+        classes = newClasses;
+        classes.resolveHandlers();
+      }
+    }
+    return classes;
+  }
+
+  /**
+   * Resolves the handler classes of the global and engine sections, without initializing them
+   */
+  private void resolveHandlers() {
+    List<String> classNames = new ArrayList<String>();
+    for (String section : new String[] { ConfigConstant.SECTION_GLOBAL.toString(), mEngine }) {
+      if (Config.getConfigHandler().getSection(section) == null) continue;
+      Map<String, String> settings = Config.getConfigHandler().getSettings(section);
+      if (settings != null) classNames.addAll(settings.values());
+    }
+
+    for (String className : classNames) {
+      if (className == null || !className.matches("[\\w$]+(\\.[\\w$]+)+")) continue;
+      try {
+        Class<?> clazz = Class.forName(className, false, EngineClasses.class.getClassLoader());
+        if (ADDFFunctionalGroupHandler.class.isAssignableFrom(clazz) && !Modifier.isAbstract(clazz.getModifiers())) {
+          mHandlerConstructors.putIfAbsent(className, accessible(clazz.getDeclaredConstructor(DDF.class)));
+        }
+      } catch (ClassNotFoundException e) {
+        // not in this module, reported on first use if configured for this engine
+      } catch (NoSuchMethodException e) {
+        // reported on first use
+      } catch (LinkageError e) {
+        // reported on first use
+      }
+    }
+    sLog.info(String.format(">>>> resolved %d handler classes of engine %s", mHandlerConstructors.size(), mEngine));
+  }
+
+  /**
+   * @return the constructor from a DDF of the handler class
+   * @throws InstantiationError if the class is abstract
+   */
+  Constructor<?> getHandlerConstructor(String className) throws ClassNotFoundException, NoSuchMethodException {
+    Constructor<?> cons = mHandlerConstructors.get(className);
+    if (cons == null) {
+      Class<?> clazz = Class.forName(className);
+      if (Modifier.isAbstract(clazz.getModifiers())) {
+        throw new InstantiationError(String.format("Class %s is abstract and cannot be instantiated", className));
+      }
+      cons = accessible(clazz.getDeclaredConstructor(DDF.class));
+      mHandlerConstructors.putIfAbsent(className, cons);
+    }
+    return cons;
+  }
+
+  Constructor<?> getDDFConstructor(String className, Class<?>[] argTypes)
+      throws ClassNotFoundException, NoSuchMethodException {
+    List<Object> key = new ArrayList<Object>(argTypes.length + 1);
+    key.add(className);
+    key.addAll(Arrays.asList(argTypes));
+
+    Constructor<?> cons = mDDFConstructors.get(key);
+    if (cons == null) {
+      cons = accessible(Class.forName(className).getDeclaredConstructor(argTypes));
+      mDDFConstructors.putIfAbsent(key, cons);
+    }
+    return cons;
+  }
+
+  /**
+   * Makes the constructor usable whether it is private, protected or public
+   */
+  private static Constructor<?> accessible(Constructor<?> cons) {
+    cons.setAccessible(true);
+    return cons;
+  }
+}
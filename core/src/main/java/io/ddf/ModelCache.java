@@ -0,0 +1,301 @@
+package io.ddf;
+
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import io.ddf.exception.DDFException;
+import io.ddf.misc.ALoggable;
+import io.ddf.misc.Config;
+import io.ddf.misc.Config.ConfigConstant;
+import io.ddf.ml.IModel;
+import io.ddf.ml.Model;
+import io.ddf.util.Utils;
+import org.apache.commons.io.FileUtils;
+
+import java.io.*;
+import java.net.URLEncoder;
+import java.util.*;
+
+/**
+ * Registry of the trained models of a {@link DDFManager}, bounded by a memory budget.
+ * <p/>
+ * Models are kept in LRU order and accounted by their serialized size, measured once when they are added. When the
+ * budget is exceeded, the least recently used models are spilled to a directory of this cache under the model
+ * directory, in Java serialization format if the model is {@link Serializable} or as {@link IModel#toJson()}
+ * otherwise, and are reloaded lazily on the next {@link #getModel(String)}. Models that can be neither measured nor
+ * spilled, or that the engine does not let spill, see {@link #isSpillable(IModel)}, stay pinned in memory.
+ */
+public class ModelCache extends ALoggable {
+
+  public static final long DEFAULT_MAX_BYTES = 512L * 1024 * 1024;
+
+  private static final String BINARY_SUFFIX = ".model";
+  private static final String JSON_SUFFIX = ".json";
+
+  private final long mMaxBytes;
+
+  private final String mModelDir;
+
+  private long mUsedBytes = 0;
+
+  // access-ordered, i.e., iteration starts with the least recently used model
+  private final LinkedHashMap<String, IModel> mModels = new LinkedHashMap<String, IModel>(16, 0.75f, true);
+
+  // sizes of the models in memory and spilled, so that reloaded models are not measured again
+  private final Map<String, Long> mSizes = new HashMap<String, Long>();
+
+  private final Set<String> mPinned = new HashSet<String>();
+
+  private final Set<String> mSpilled = new HashSet<String>();
+
+
+  public ModelCache() {
+    this(getConfiguredMaxBytes(), getConfiguredModelDir());
+  }
+
+  /**
+   * @param maxBytes memory budget for the in-memory models, in serialized bytes
+   * @param modelDir directory to spill evicted models to, created on the first spill, or null to drop them instead
+   */
+  public ModelCache(long maxBytes, String modelDir) {
+    mMaxBytes = maxBytes;
+    mModelDir = modelDir;
+  }
+
+  public long getMaxBytes() {
+    return mMaxBytes;
+  }
+
+  public synchronized long getUsedBytes() {
+    return mUsedBytes;
+  }
+
+  public synchronized void addModel(IModel model) throws DDFException {
+    if (model == null || Strings.isNullOrEmpty(model.getName())) {
+      throw new DDFException("Model and its name cannot be null");
+    }
+
+    String name = model.getName();
+    this.forget(name);
+    this.deleteSpilled(name);
+
+    this.account(model);
+  }
+
+  /**
+   * Returns the model, reloading it from the model directory if it has been spilled
+   */
+  public synchronized IModel getModel(String name) throws DDFException {
+    IModel model = mModels.get(name);
+    if (model != null || !mSpilled.contains(name)) return model;
+
+    model = this.readSpilled(name);
+    this.deleteSpilled(name);
+    this.account(model);
+    return model;
+  }
+
+  public synchronized boolean hasModel(String name) {
+    return mModels.containsKey(name) || mSpilled.contains(name);
+  }
+
+  public synchronized void removeModel(String name) throws DDFException {
+    this.forget(name);
+    this.deleteSpilled(name);
+  }
+
+  public synchronized List<String> listModelNames() {
+    List<String> names = new ArrayList<String>(mModels.keySet());
+    names.addAll(mSpilled);
+    return names;
+  }
+
+  /**
+   * @return the accounted size of the model in bytes, or -1 if it is not known
+   */
+  public synchronized long getModelSize(String name) {
+    Long size = mSizes.get(name);
+    return size == null ? -1 : size;
+  }
+
+  public synchronized boolean isSpilled(String name) {
+    return mSpilled.contains(name);
+  }
+
+  public synchronized boolean isPinned(String name) {
+    return mPinned.contains(name);
+  }
+
+  /**
+   * Drops all models and deletes the spill directory of this cache
+   */
+  public synchronized void clear() {
+    mModels.clear();
+    mSizes.clear();
+    mPinned.clear();
+    mSpilled.clear();
+    mUsedBytes = 0;
+    if (mModelDir != null) FileUtils.deleteQuietly(new File(mModelDir));
+  }
+
+  /**
+   * Whether the model can be spilled and reloaded by its serialized form. Engines override this for models that hold
+   * distributed data, whose serialized form is only a handle to data that does not survive a reload.
+   */
+  protected boolean isSpillable(IModel model) {
+    return true;
+  }
+
+  private void account(IModel model) throws DDFException {
+    String name = model.getName();
+    Long size = mSizes.get(name);
+
+    if (size == null) {
+      if (!this.isSpillable(model)) {
+        mLog.info(String.format("Model %s is backed by engine data, it will not be evicted", name));
+        mPinned.add(name);
+        size = 0L;
+      } else {
+        size = this.estimateSize(model);
+        if (size < 0) {
+          mLog.warn(String.format("Model %s cannot be serialized, it will not be evicted", name));
+          mPinned.add(name);
+          size = 0L;
+        }
+      }
+      mSizes.put(name, size);
+    }
+
+    mModels.put(name, model);
+    mUsedBytes += size;
+    this.evict(name);
+  }
+
+  private void forget(String name) {
+    if (mModels.remove(name) != null) mUsedBytes -= mSizes.get(name);
+    mPinned.remove(name);
+    mSizes.remove(name);
+  }
+
+  /**
+   * Spills least recently used models until the budget is met, never the one just added or reloaded
+   */
+  private void evict(String keep) throws DDFException {
+    Iterator<Map.Entry<String, IModel>> it = mModels.entrySet().iterator();
+
+    while (mUsedBytes > mMaxBytes && it.hasNext()) {
+      Map.Entry<String, IModel> entry = it.next();
+      String name = entry.getKey();
+      if (name.equals(keep) || mPinned.contains(name)) continue;
+
+      if (mModelDir != null) {
+        this.writeSpilled(entry.getValue());
+        mSpilled.add(name);
+        mLog.info(String.format("Spilled model %s (%d bytes) to %s", name, mSizes.get(name), mModelDir));
+      } else {
+        mLog.info(String.format("Evicted model %s (%d bytes)", name, mSizes.get(name)));
+      }
+
+      it.remove();
+      mUsedBytes -= mSizes.get(name);
+    }
+  }
+
+  private long estimateSize(IModel model) {
+    if (!(model instanceof Serializable)) {
+      String json = model.toJson();
+      return json == null ? -1 : 2L * json.length();
+    }
+
+    CountingOutputStream counter = new CountingOutputStream(ByteStreams.nullOutputStream());
+    try {
+      ObjectOutputStream out = new ObjectOutputStream(counter);
+      out.writeObject(model);
+      out.close();
+      return counter.getCount();
+    } catch (IOException e) {
+      return -1;
+    }
+  }
+
+  private void writeSpilled(IModel model) throws DDFException {
+    boolean binary = model instanceof Serializable;
+    File file = this.getSpillFile(model.getName(), binary ? BINARY_SUFFIX : JSON_SUFFIX);
+    File tmpFile = new File(file.getPath() + ".tmp");
+
+    try {
+      FileUtils.forceMkdir(file.getParentFile());
+      if (binary) {
+        ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+        try {
+          out.writeObject(model);
+        } finally {
+          out.close();
+        }
+      } else {
+        FileUtils.writeStringToFile(tmpFile, model.toJson(), "utf-8");
+      }
+
+      if (!tmpFile.renameTo(file)) {
+        throw new IOException(String.format("Cannot rename %s to %s", tmpFile, file));
+      }
+    } catch (IOException e) {
+      tmpFile.delete();
+      throw new DDFException(String.format("Cannot spill model %s to %s", model.getName(), mModelDir), e);
+    }
+  }
+
+  private IModel readSpilled(String name) throws DDFException {
+    File binaryFile = this.getSpillFile(name, BINARY_SUFFIX);
+
+    try {
+      if (binaryFile.exists()) {
+        ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(binaryFile)));
+        try {
+          return (IModel) in.readObject();
+        } finally {
+          in.close();
+        }
+      } else {
+        return Model.fromJson(FileUtils.readFileToString(this.getSpillFile(name, JSON_SUFFIX), "utf-8"));
+      }
+    } catch (IOException e) {
+      throw new DDFException(String.format("Cannot reload spilled model %s", name), e);
+    } catch (ClassNotFoundException e) {
+      throw new DDFException(String.format("Cannot reload spilled model %s", name), e);
+    }
+  }
+
+  private void deleteSpilled(String name) throws DDFException {
+    if (!mSpilled.remove(name)) return;
+
+    this.getSpillFile(name, BINARY_SUFFIX).delete();
+    this.getSpillFile(name, JSON_SUFFIX).delete();
+  }
+
+  private File getSpillFile(String name, String suffix) throws DDFException {
+    try {
+      return new File(mModelDir, URLEncoder.encode(name, "utf-8") + suffix);
+    } catch (UnsupportedEncodingException e) {
+      throw new DDFException(e);
+    }
+  }
+
+  private static long getConfiguredMaxBytes() {
+    String value = Config.getGlobalValue(ConfigConstant.FIELD_MODEL_CACHE_MAX_BYTES);
+    return Strings.isNullOrEmpty(value) ? DEFAULT_MAX_BYTES : Long.parseLong(value.trim());
+  }
+
+  /**
+   * @return a directory of its own under the model directory, so that caches of different managers do not collide
+   */
+  private static String getConfiguredModelDir() {
+    try {
+      String modelDir = Utils.locateOrCreateDirectory(Config.getModelDir());
+      return new File(modelDir, "cache-" + UUID.randomUUID().toString()).getPath();
+    } catch (IOException e) {
+      return null;
+    }
+  }
+}
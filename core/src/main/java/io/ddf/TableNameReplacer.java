@@ -41,6 +41,8 @@ public class TableNameReplacer extends TableVisitor {
     private Map<String, String> mViewMapping = new HashMap<String, String>();
     // Whether the query contains local table.
     private Boolean mHasLocalTbl = false;
+    // The DDFs the statement reads, in order of appearance.
+    private List<DDF> mReferencedDDFs = new ArrayList<DDF>();
 
 
 
@@ -109,6 +111,7 @@ public class TableNameReplacer extends TableVisitor {
     public Statement run(Statement statement) throws Exception {
         // Clear the with table names in case that we run several sql command.
         this.withTableNameList.clear();
+        this.mReferencedDDFs.clear();
         if (statement instanceof Select) {
             visit(statement);
         } else if (statement instanceof DescribeTable){
@@ -159,6 +162,7 @@ public class TableNameReplacer extends TableVisitor {
             ddf = this.mDDFManager.getDDFByName(table.getName());
         }
 
+        mReferencedDDFs.add(ddf);
         if (ddf.getIsDDFView()) {
             String tableName = null;
             if (mViewMapping.containsKey(ddf.getName())) {
@@ -186,6 +190,13 @@ public class TableNameReplacer extends TableVisitor {
         }
     }
 
+    /**
+     * @brief The DDFs referred to by the last statement run, once per reference.
+     */
+    public List<DDF> getReferencedDDFs() {
+        return mReferencedDDFs;
+    }
+
     private DDF handleIndex(String index, List<String> identifierList, Table table)
         throws Exception {
         if (!mIndexPattern.matcher(index).matches()) {
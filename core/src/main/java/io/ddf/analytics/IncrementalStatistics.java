@@ -0,0 +1,148 @@
+package io.ddf.analytics;
+
+
+import io.ddf.content.Schema;
+import io.ddf.content.Schema.ColumnClass;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistics of a growing set of rows, kept up to date as rows are added rather than recomputed: the number of rows,
+ * a {@link Summary} of every numeric column and the level counts of every factor, string or boolean column.
+ * Statistics of partitions or batches computed apart are combined with {@link #merge(IncrementalStatistics)}.
+ * <p/>
+ * The level counts of a column are dropped once it has more than {@link #MAX_LEVELS} levels, as it is then no
+ * factor.
+ */
+public class IncrementalStatistics implements Serializable {
+
+  private static final long serialVersionUID = 4153287163924452837L;
+
+  public static final int MAX_LEVELS = 1000;
+
+  private final List<Schema.Column> mColumns;
+
+  private final String[] mColumnNames;
+
+  private final Summary[] mSummaries;
+
+  private final List<HashMap<String, Long>> mLevelCounts;
+
+  private long mNumRows;
+
+  public IncrementalStatistics(List<Schema.Column> columns) {
+    int n = columns.size();
+    mColumns = new ArrayList<Schema.Column>(n);
+    mColumnNames = new String[n];
+    mSummaries = new Summary[n];
+    mLevelCounts = new ArrayList<HashMap<String, Long>>(n);
+    for (int i = 0; i < n; i++) {
+      Schema.Column column = columns.get(i);
+      // copied without their factors, which need not be serializable
+      mColumns.add(new Schema.Column(column.getName(), column.getType()).setColumnClass(column.getColumnClass()));
+      mColumnNames[i] = column.getName();
+      boolean isNumeric = column.isNumeric() && column.getColumnClass() != ColumnClass.FACTOR;
+      mSummaries[i] = isNumeric ? new Summary() : null;
+      mLevelCounts.add(isNumeric ? null : new HashMap<String, Long>());
+    }
+  }
+
+  /**
+   * @param row the values of a row, in the order of the columns
+   */
+  public IncrementalStatistics add(Object[] row) {
+    mNumRows++;
+    for (int i = 0; i < mColumnNames.length; i++) {
+      Object value = row[i];
+      if (mSummaries[i] != null) {
+        mSummaries[i].merge(value instanceof Number ? ((Number) value).doubleValue() : Double.NaN);
+      } else if (mLevelCounts.get(i) != null && value != null) {
+        this.addLevel(i, value.toString(), 1);
+      }
+    }
+    return this;
+  }
+
+  private void addLevel(int column, String level, long count) {
+    HashMap<String, Long> counts = mLevelCounts.get(column);
+    Long current = counts.get(level);
+    counts.put(level, current == null ? count : current + count);
+    if (counts.size() > MAX_LEVELS) mLevelCounts.set(column, null);
+  }
+
+  /**
+   * Adds the statistics of other rows with the same columns
+   */
+  public IncrementalStatistics merge(IncrementalStatistics other) {
+    if (other.mColumnNames.length != mColumnNames.length) {
+      throw new IllegalArgumentException("Cannot merge the statistics of different columns");
+    }
+
+    mNumRows += other.mNumRows;
+    for (int i = 0; i < mColumnNames.length; i++) {
+      if (mSummaries[i] != null) {
+        mSummaries[i].merge(other.mSummaries[i]);
+      } else if (mLevelCounts.get(i) != null) {
+        HashMap<String, Long> otherCounts = other.mLevelCounts.get(i);
+        if (otherCounts == null) {
+          mLevelCounts.set(i, null);
+        } else {
+          for (Map.Entry<String, Long> entry : otherCounts.entrySet()) {
+            if (mLevelCounts.get(i) == null) break;
+            this.addLevel(i, entry.getKey(), entry.getValue());
+          }
+        }
+      }
+    }
+    return this;
+  }
+
+  public IncrementalStatistics copy() {
+    return new IncrementalStatistics(mColumns).merge(this);
+  }
+
+  public long getNumRows() {
+    return mNumRows;
+  }
+
+  /**
+   * @return the summaries of the numeric columns, null for the others
+   */
+  public Summary[] getSummaries() {
+    return mSummaries.clone();
+  }
+
+  /**
+   * @return the summary of a numeric column, null for other columns
+   */
+  public Summary getSummary(String columnName) {
+    int i = this.indexOf(columnName);
+    return i < 0 ? null : mSummaries[i];
+  }
+
+  /**
+   * @return the number of rows of each level of a factor, string or boolean column, null for other columns and those
+   * with more than {@link #MAX_LEVELS} levels
+   */
+  public Map<String, Long> getLevelCounts(String columnName) {
+    int i = this.indexOf(columnName);
+    if (i < 0 || mLevelCounts.get(i) == null) return null;
+    return new HashMap<String, Long>(mLevelCounts.get(i));
+  }
+
+  private int indexOf(String columnName) {
+    for (int i = 0; i < mColumnNames.length; i++) {
+      if (mColumnNames[i].equals(columnName)) return i;
+    }
+    return -1;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d rows of %d columns", mNumRows, mColumnNames.length);
+  }
+}
@@ -19,7 +19,7 @@ public class Summary implements Serializable {
   private double mSS = 0; // sum of squared deviations
   private long mNACount = 0; // tracking number of NA values
   private double mMin = Double.MAX_VALUE;
-  private double mMax = Double.MIN_VALUE;
+  private double mMax = -Double.MAX_VALUE;
 
   public Summary() {
   }
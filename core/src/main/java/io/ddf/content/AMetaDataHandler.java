@@ -57,15 +57,20 @@ public abstract class AMetaDataHandler extends ADDFFunctionalGroupHandler
    * Called to assert that the row count needs to be recomputed at next access
    */
 
-  protected void invalidateNumRows() {
+  @Override
+  public void invalidateNumRows() {
     bNumRowsIsValid = false;
   }
 
+  /**
+   * Computed on first access, then memoized until {@link #invalidateNumRows()}, which the representation handler calls
+   * whenever the representations of the DDF are replaced
+   */
   @Override
-  public long getNumRows() throws DDFException {
+  public synchronized long getNumRows() throws DDFException {
     if (!bNumRowsIsValid) {
       mNumRows = this.getNumRowsImpl();
-      //      bNumRowsIsValid = true;
+      bNumRowsIsValid = true;
     }
     return mNumRows;
   }
@@ -97,6 +102,11 @@ public abstract class AMetaDataHandler extends ADDFFunctionalGroupHandler
     this.useCount += 1;
   }
 
+  @Override
+  public synchronized int getUseCount() {
+    return this.useCount;
+  }
+
   /**
    * Transfer factor information from ddf to this DDF
    * @param ddf
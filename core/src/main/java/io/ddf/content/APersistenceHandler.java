@@ -85,7 +85,8 @@ public abstract class APersistenceHandler extends ADDFFunctionalGroupHandler imp
       if (parts == null || parts.length == 0) return;
 
       String name = parts[parts.length - 1];
-      if (!Strings.isNullOrEmpty(name) && name.toLowerCase().endsWith(".dat") || name.toLowerCase().endsWith(".sch")) {
+      if (!Strings.isNullOrEmpty(name) && (name.toLowerCase().endsWith(".dat") || name.toLowerCase().endsWith(".sch")
+          || name.toLowerCase().endsWith(".ddf"))) {
         name = name.substring(0, name.lastIndexOf('.'));
         // Also trim our current path
         this.setPath(this.getPath().substring(0, this.getPath().lastIndexOf('.')));
@@ -0,0 +1,310 @@
+package io.ddf.content;
+
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import io.ddf.DDF;
+import io.ddf.analytics.Summary;
+import io.ddf.content.Schema.ColumnType;
+import io.ddf.exception.DDFException;
+import io.ddf.types.AggregateTypes.AggregationResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Transfers rows to clients that cannot afford a call per value, e.g. the Python client over py4j, as chunks of at
+ * most chunkRows rows, each encoded by columns into one byte array. There is always at least one chunk, so that
+ * clients get the columns of an empty result.
+ * <p/>
+ * A chunk is, big-endian: int version, int number of rows n, int number of columns, then for every column its name as
+ * an int length and UTF-8 bytes, a byte encoding, a byte telling whether a null mask follows, the null mask of n bits,
+ * the first row in the highest bit of the first byte, and the values:
+ * <ul>
+ * <li>INT32, INT64, FLOAT64: n ints, longs or doubles, 0 for nulls</li>
+ * <li>BOOL: n bytes, 1 for true</li>
+ * <li>TIMESTAMP: n longs, milliseconds since the epoch</li>
+ * <li>DICTIONARY: int number of distinct values k, k int lengths, the k values in UTF-8, then n int codes, -1 for
+ * null</li>
+ * </ul>
+ * Columns are dictionary-encoded as strings when they are not numbers, booleans or times, or have values that do not
+ * fit their type.
+ */
+public class ColumnarTransfer implements Iterator<byte[]> {
+
+  public static final int VERSION = 1;
+
+  public static final int DEFAULT_CHUNK_ROWS = 65536;
+
+  public static final byte INT32 = 0;
+  public static final byte INT64 = 1;
+  public static final byte FLOAT64 = 2;
+  public static final byte BOOL = 3;
+  public static final byte TIMESTAMP = 4;
+  public static final byte DICTIONARY = 5;
+
+  private final List<Schema.Column> mColumns;
+
+  private final Iterator<Object[]> mRows;
+
+  private final int mChunkRows;
+
+  private boolean mStarted = false;
+
+  public ColumnarTransfer(List<Schema.Column> columns, Iterator<Object[]> rows, int chunkRows) {
+    mColumns = new ArrayList<Schema.Column>(columns);
+    mRows = rows;
+    mChunkRows = chunkRows > 0 ? chunkRows : DEFAULT_CHUNK_ROWS;
+  }
+
+  /**
+   * @param numRows the number of rows, or -1 for all
+   */
+  public static ColumnarTransfer head(DDF ddf, int numRows, int chunkRows) throws DDFException {
+    return new ColumnarTransfer(ddf.getSchema().getColumns(), ddf.getViewHandler().getRowIterator(numRows),
+        chunkRows);
+  }
+
+  public static ColumnarTransfer sample(DDF ddf, int numSamples, boolean withReplacement, int seed, int chunkRows)
+      throws DDFException {
+    List<Object[]> rows = ddf.getViewHandler().getRandomSample(numSamples, withReplacement, seed);
+    if (rows == null) throw new DDFException(String.format("Cannot sample %s", ddf.getName()));
+    return new ColumnarTransfer(ddf.getSchema().getColumns(), rows.iterator(), chunkRows);
+  }
+
+  /**
+   * @return a row per column of the DDF, of its name, mean, stdev, count, cNA, min and max, nulls for non-numeric
+   * columns
+   */
+  public static ColumnarTransfer summary(DDF ddf) throws DDFException {
+    Summary[] summaries = ddf.getSummary();
+    List<String> names = ddf.getColumnNames();
+    List<Object[]> rows = new ArrayList<Object[]>(names.size());
+    for (int c = 0; c < names.size(); c++) {
+      Summary s = summaries == null || c >= summaries.length ? null : summaries[c];
+      rows.add(s == null ? new Object[] { names.get(c), null, null, null, null, null, null }
+          : new Object[] { names.get(c), s.mean(), s.stdev(), s.count(), s.NACount(), s.min(), s.max() });
+    }
+    List<Schema.Column> columns = Arrays.asList(new Schema.Column("column", ColumnType.STRING),
+        new Schema.Column("mean", ColumnType.DOUBLE), new Schema.Column("stdev", ColumnType.DOUBLE),
+        new Schema.Column("count", ColumnType.BIGINT), new Schema.Column("cNA", ColumnType.BIGINT),
+        new Schema.Column("min", ColumnType.DOUBLE), new Schema.Column("max", ColumnType.DOUBLE));
+    return new ColumnarTransfer(columns, rows.iterator(), rows.size());
+  }
+
+  /**
+   * @return a row per group, of the values of the group columns, as strings, and of the aggregated columns
+   */
+  public static ColumnarTransfer aggregate(DDF ddf, List<String> groupColumns, List<String> aggregatedColumns,
+      int chunkRows) throws DDFException {
+    List<String> fields = new ArrayList<String>(groupColumns);
+    fields.addAll(aggregatedColumns);
+    AggregationResult result = ddf.aggregate(Joiner.on(",").join(fields));
+
+    List<Schema.Column> columns = new ArrayList<Schema.Column>();
+    for (String name : groupColumns) {
+      columns.add(new Schema.Column(name, ColumnType.STRING));
+    }
+    for (String name : aggregatedColumns) {
+      columns.add(new Schema.Column(name, ColumnType.DOUBLE));
+    }
+    List<Object[]> rows = new ArrayList<Object[]>(result.size());
+    for (Map.Entry<String, double[]> entry : result.entrySet()) {
+      Object[] row = new Object[columns.size()];
+      String[] keys = entry.getKey().split("\t", -1);
+      for (int k = 0; k < groupColumns.size(); k++) {
+        row[k] = k < keys.length ? keys[k] : null;
+      }
+      double[] values = entry.getValue();
+      for (int v = 0; v < aggregatedColumns.size() && v < values.length; v++) {
+        row[groupColumns.size() + v] = values[v];
+      }
+      rows.add(row);
+    }
+    return new ColumnarTransfer(columns, rows.iterator(), chunkRows);
+  }
+
+  @Override
+  public boolean hasNext() {
+    return !mStarted || mRows.hasNext();
+  }
+
+  @Override
+  public byte[] next() {
+    if (!this.hasNext()) throw new NoSuchElementException();
+    mStarted = true;
+    List<Object[]> rows = new ArrayList<Object[]>();
+    while (rows.size() < mChunkRows && mRows.hasNext()) {
+      rows.add(mRows.next());
+    }
+    return encode(mColumns, rows);
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static byte[] encode(List<Schema.Column> columns, List<Object[]> rows) {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(buffer);
+    try {
+      out.writeInt(VERSION);
+      out.writeInt(rows.size());
+      out.writeInt(columns.size());
+      for (int c = 0; c < columns.size(); c++) {
+        writeString(out, columns.get(c).getName());
+        encodeColumn(out, columns.get(c).getType(), rows, c);
+      }
+      out.flush();
+    } catch (IOException e) {
+      // not thrown by a ByteArrayOutputStream
+      throw new IllegalStateException(e);
+    }
+    return buffer.toByteArray();
+  }
+
+  private static void encodeColumn(DataOutputStream out, ColumnType type, List<Object[]> rows, int c)
+      throws IOException {
+    int n = rows.size();
+    byte[] nulls = new byte[(n + 7) / 8];
+    boolean hasNulls = false;
+    for (int r = 0; r < n; r++) {
+      if (rows.get(r)[c] == null) {
+        nulls[r >>> 3] |= 0x80 >>> (r & 7);
+        hasNulls = true;
+      }
+    }
+
+    byte encoding = encodingOf(type, rows, c);
+    out.writeByte(encoding);
+    out.writeBoolean(hasNulls);
+    if (hasNulls) out.write(nulls);
+
+    switch (encoding) {
+      case INT32:
+        for (Object[] row : rows) {
+          out.writeInt(row[c] == null ? 0 : ((Number) row[c]).intValue());
+        }
+        break;
+      case INT64:
+        for (Object[] row : rows) {
+          out.writeLong(row[c] == null ? 0 : ((Number) row[c]).longValue());
+        }
+        break;
+      case FLOAT64:
+        for (Object[] row : rows) {
+          out.writeDouble(row[c] == null ? 0 : ((Number) row[c]).doubleValue());
+        }
+        break;
+      case BOOL:
+        for (Object[] row : rows) {
+          out.writeBoolean(row[c] != null && (Boolean) row[c]);
+        }
+        break;
+      case TIMESTAMP:
+        for (Object[] row : rows) {
+          out.writeLong(row[c] == null ? 0 : ((java.util.Date) row[c]).getTime());
+        }
+        break;
+      default:
+        encodeDictionary(out, rows, c);
+    }
+  }
+
+  private static void encodeDictionary(DataOutputStream out, List<Object[]> rows, int c) throws IOException {
+    Map<String, Integer> codes = new HashMap<String, Integer>();
+    List<byte[]> values = new ArrayList<byte[]>();
+    int[] rowCodes = new int[rows.size()];
+    for (int r = 0; r < rowCodes.length; r++) {
+      Object value = rows.get(r)[c];
+      if (value == null) {
+        rowCodes[r] = -1;
+        continue;
+      }
+      String string = String.valueOf(value);
+      Integer code = codes.get(string);
+      if (code == null) {
+        code = values.size();
+        codes.put(string, code);
+        values.add(string.getBytes(Charsets.UTF_8));
+      }
+      rowCodes[r] = code;
+    }
+
+    out.writeInt(values.size());
+    for (byte[] value : values) {
+      out.writeInt(value.length);
+    }
+    for (byte[] value : values) {
+      out.write(value);
+    }
+    for (int code : rowCodes) {
+      out.writeInt(code);
+    }
+  }
+
+  /**
+   * @return the encoding of the type, or DICTIONARY if a value does not fit it
+   */
+  private static byte encodingOf(ColumnType type, List<Object[]> rows, int c) {
+    byte encoding;
+    Class<?>[] classes;
+    if (type == null) return DICTIONARY;
+    switch (type) {
+      case TINYINT:
+      case SMALLINT:
+      case INT:
+        encoding = INT32;
+        classes = new Class<?>[] { Integer.class, Short.class, Byte.class };
+        break;
+      case BIGINT:
+        encoding = INT64;
+        classes = new Class<?>[] { Long.class, Integer.class, Short.class, Byte.class };
+        break;
+      case FLOAT:
+      case DOUBLE:
+      case DECIMAL:
+        encoding = FLOAT64;
+        classes = new Class<?>[] { Number.class };
+        break;
+      case BOOLEAN:
+        encoding = BOOL;
+        classes = new Class<?>[] { Boolean.class };
+        break;
+      case TIMESTAMP:
+      case DATE:
+        encoding = TIMESTAMP;
+        classes = new Class<?>[] { java.util.Date.class };
+        break;
+      default:
+        return DICTIONARY;
+    }
+
+    for (Object[] row : rows) {
+      if (row[c] != null && !isInstance(classes, row[c])) return DICTIONARY;
+    }
+    return encoding;
+  }
+
+  private static boolean isInstance(Class<?>[] classes, Object value) {
+    for (Class<?> cls : classes) {
+      if (cls.isInstance(value)) return true;
+    }
+    return false;
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(Charsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+}
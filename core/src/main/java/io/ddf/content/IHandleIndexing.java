@@ -1,8 +1,60 @@
 package io.ddf.content;
 
 
+import io.ddf.exception.DDFException;
+import io.ddf.index.ColumnRange;
+import io.ddf.index.IndexSelection;
 import io.ddf.misc.IHandleDDFFunctionalGroup;
 
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexes on columns of a DDF, with which engines skip the partitions and rows that cannot satisfy the filters of
+ * subsets and SQL queries. Every index keeps the min/max zone map of its column in each partition; HASH and SORTED
+ * indexes also keep the positions of the rows by value.
+ * <p/>
+ * Indexes are dropped when the DDF is mutated, and rebuilt on its new rows when next used.
+ */
 public interface IHandleIndexing extends IHandleDDFFunctionalGroup {
 
+  enum IndexType {
+    /**
+     * Only the per-partition zone map, to skip partitions
+     */
+    ZONE_MAP,
+    /**
+     * Row positions by value, for equalities and IN lists
+     */
+    HASH,
+    /**
+     * Row positions in the order of the values, also for ranges
+     */
+    SORTED
+  }
+
+  /**
+   * Builds indexes of the type on the columns, in one pass over the rows, replacing their existing indexes
+   */
+  void createIndex(IndexType type, String... columns) throws DDFException;
+
+  void dropIndex(String column);
+
+  void dropIndexes();
+
+  /**
+   * @return the type of index by indexed column
+   */
+  Map<String, IndexType> getIndexes();
+
+  /**
+   * Drops the built indexes, which are rebuilt over the rows of the DDF when next used
+   */
+  void invalidate();
+
+  /**
+   * @param ranges conditions that all rows of interest satisfy
+   * @return the partitions and rows that may satisfy all ranges, or null if no index applies to them
+   */
+  IndexSelection select(List<ColumnRange> ranges) throws DDFException;
 }
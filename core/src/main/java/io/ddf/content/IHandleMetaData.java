@@ -18,6 +18,9 @@ public interface IHandleMetaData extends IHandleDDFFunctionalGroup {
 
   public long getNumRows() throws DDFException;
 
+  // the row count must be recomputed at next access, e.g. after the content changed
+  public void invalidateNumRows();
+
   public void copyFactor(DDF ddf)  throws DDFException;
 
   public void copyFactor(DDF ddf, List<String> colums)  throws DDFException;
@@ -57,4 +60,7 @@ public interface IHandleMetaData extends IHandleDDFFunctionalGroup {
 
   //increase number of user using ddf
   public void increaseUseCount();
+
+  // number of times the ddf has been used, e.g. referenced by a sql command
+  public int getUseCount();
 }
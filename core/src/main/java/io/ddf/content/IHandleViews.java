@@ -10,6 +10,7 @@ import io.ddf.content.ViewHandler.Expression;
 import io.ddf.exception.DDFException;
 import io.ddf.misc.IHandleDDFFunctionalGroup;
 
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -32,6 +33,12 @@ public interface IHandleViews extends IHandleDDFFunctionalGroup {
 
   public List<String> head(int numRows) throws DDFException;
 
+  /**
+   * @param numRows the number of rows, or -1 for all
+   * @return the first rows of the DDF, fetched as they are iterated rather than all at once where the engine allows
+   */
+  public Iterator<Object[]> getRowIterator(int numRows) throws DDFException;
+
   public List<String> top(int numRows, String orderCols, String mode) throws DDFException;
 
   public DDF project(String... columnNames) throws DDFException;
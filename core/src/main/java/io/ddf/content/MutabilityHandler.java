@@ -32,6 +32,11 @@ public class MutabilityHandler extends ADDFFunctionalGroupHandler implements IHa
     curDDF.getRepresentationHandler().setRepresentations(newddf.getRepresentationHandler().getAllRepresentations());
     newddf.getMetaDataHandler().copyFactor(this.getDDF());
     curDDF.getSchemaHandler().setSchema(newddf.getSchema());
+    try {
+      curDDF.getIndexingHandler().invalidate();
+    } catch (UnsupportedOperationException e) {
+      // the engine does not index DDFs
+    }
 
     return curDDF;
   }
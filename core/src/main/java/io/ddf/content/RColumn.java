@@ -0,0 +1,305 @@
+package io.ddf.content;
+
+
+import io.ddf.content.Schema.ColumnType;
+import io.ddf.exception.DDFException;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * A column of rows for R, filled into a primitive array of the R vector type of the column, with the NA sentinels of R,
+ * so that a whole column crosses to R in one copy, by rJava or as an REXP, instead of as an object per value:
+ * <ul>
+ * <li>integer: TINYINT, SMALLINT and INT, as int[], NA_INTEGER for NA</li>
+ * <li>numeric: BIGINT, FLOAT, DOUBLE and DECIMAL, as double[], NA_DOUBLE for NA</li>
+ * <li>logical: BOOLEAN, as int[] of 0 and 1, NA_INTEGER for NA</li>
+ * <li>factor: factor columns with levels, as int[] of 1-based level codes, NA_INTEGER for NA and unknown levels</li>
+ * <li>Date: DATE, as double[] of days since the epoch</li>
+ * <li>POSIXct: TIMESTAMP, as double[] of seconds since the epoch</li>
+ * <li>character: all others, as String[], null for NA</li>
+ * </ul>
+ * Values that do not fit an integer or numeric column are parsed from their strings, or are NA, as with as.numeric.
+ */
+public class RColumn {
+
+  /**
+   * NA_integer_ of R
+   */
+  public static final int NA_INTEGER = Integer.MIN_VALUE;
+
+  /**
+   * NA_real_ of R, a NaN with the payload 1954
+   */
+  public static final double NA_DOUBLE = Double.longBitsToDouble(0x7ff00000000007a2L);
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+
+  public enum RType {
+    INTEGER("integer"), NUMERIC("numeric"), LOGICAL("logical"), FACTOR("factor"), DATE("Date"), POSIXCT("POSIXct"),
+    CHARACTER("character");
+
+    private final String mRClass;
+
+    private RType(String rClass) {
+      mRClass = rClass;
+    }
+
+    public String getRClass() {
+      return mRClass;
+    }
+
+    public static RType of(ColumnType type, boolean hasLevels) {
+      if (hasLevels) return FACTOR;
+      if (type == null) return CHARACTER;
+      switch (type) {
+        case TINYINT:
+        case SMALLINT:
+        case INT:
+          return INTEGER;
+        case BIGINT:
+        case FLOAT:
+        case DOUBLE:
+        case DECIMAL:
+          return NUMERIC;
+        case BOOLEAN:
+          return LOGICAL;
+        case DATE:
+          return DATE;
+        case TIMESTAMP:
+          return POSIXCT;
+        default:
+          return CHARACTER;
+      }
+    }
+  }
+
+
+  private final String mName;
+
+  private final RType mType;
+
+  private final String[] mLevels;
+
+  private Map<String, Integer> mCodes;
+
+  private int[] mInts;
+
+  private double[] mDoubles;
+
+  private String[] mStrings;
+
+  private int mSize = 0;
+
+
+  /**
+   * @param levels the levels of a factor column, or null
+   */
+  public RColumn(String name, ColumnType type, List<String> levels) {
+    this(name, type, levels, INITIAL_CAPACITY);
+  }
+
+  /**
+   * @param capacity the expected number of values, e.g. the rows of a chunk, so that the arrays are not grown
+   */
+  public RColumn(String name, ColumnType type, List<String> levels, int capacity) {
+    mName = name;
+    mType = RType.of(type, levels != null && !levels.isEmpty());
+    mLevels = mType == RType.FACTOR ? levels.toArray(new String[levels.size()]) : null;
+    capacity = Math.max(capacity, 1);
+    switch (mType) {
+      case INTEGER:
+      case LOGICAL:
+      case FACTOR:
+        mInts = new int[capacity];
+        break;
+      case NUMERIC:
+      case DATE:
+      case POSIXCT:
+        mDoubles = new double[capacity];
+        break;
+      default:
+        mStrings = new String[capacity];
+    }
+  }
+
+  public static RColumn of(Schema.Column column, int capacity) throws DDFException {
+    Factor<?> factor = column.getOptionalFactor();
+    return new RColumn(column.getName(), column.getType(), factor == null ? null : factor.getLevels(), capacity);
+  }
+
+  public String getName() {
+    return mName;
+  }
+
+  public RType getType() {
+    return mType;
+  }
+
+  /**
+   * @return the class of the column in R, e.g. "numeric" or "factor"
+   */
+  public String getRClass() {
+    return mType.getRClass();
+  }
+
+  public int size() {
+    return mSize;
+  }
+
+  /**
+   * @return the values of integer, logical and factor columns
+   */
+  public int[] getInts() {
+    return mInts == null ? null : Arrays.copyOf(mInts, mSize);
+  }
+
+  /**
+   * @return the values of numeric, Date and POSIXct columns
+   */
+  public double[] getDoubles() {
+    return mDoubles == null ? null : Arrays.copyOf(mDoubles, mSize);
+  }
+
+  /**
+   * @return the values of character columns
+   */
+  public String[] getStrings() {
+    return mStrings == null ? null : Arrays.copyOf(mStrings, mSize);
+  }
+
+  /**
+   * @return the levels of a factor column, the level of code i at i - 1
+   */
+  public String[] getLevels() {
+    return mLevels;
+  }
+
+  public void addNA() {
+    this.grow();
+    if (mInts != null) mInts[mSize] = NA_INTEGER;
+    else if (mDoubles != null) mDoubles[mSize] = NA_DOUBLE;
+    else mStrings[mSize] = null;
+    mSize++;
+  }
+
+  public void addInt(int value) {
+    if (mType == RType.INTEGER) {
+      this.grow();
+      mInts[mSize++] = value;
+    } else if (mType == RType.NUMERIC) {
+      this.addDouble(value);
+    } else {
+      this.add(value);
+    }
+  }
+
+  public void addDouble(double value) {
+    if (mType == RType.NUMERIC) {
+      this.grow();
+      mDoubles[mSize++] = value;
+    } else {
+      this.add(value);
+    }
+  }
+
+  public void addBoolean(boolean value) {
+    if (mType == RType.LOGICAL) {
+      this.grow();
+      mInts[mSize++] = value ? 1 : 0;
+    } else {
+      this.add(value);
+    }
+  }
+
+  public void add(Object value) {
+    if (value == null) {
+      this.addNA();
+      return;
+    }
+    this.grow();
+    switch (mType) {
+      case INTEGER:
+        mInts[mSize] = toInt(value);
+        break;
+      case LOGICAL:
+        mInts[mSize] = toLogical(value);
+        break;
+      case FACTOR:
+        mInts[mSize] = this.toCode(value);
+        break;
+      case NUMERIC:
+        mDoubles[mSize] = toDouble(value);
+        break;
+      case DATE:
+        mDoubles[mSize] = value instanceof java.util.Date ? toDays((java.util.Date) value) : NA_DOUBLE;
+        break;
+      case POSIXCT:
+        mDoubles[mSize] = value instanceof java.util.Date ? ((java.util.Date) value).getTime() / 1000.0 : NA_DOUBLE;
+        break;
+      default:
+        mStrings[mSize] = String.valueOf(value);
+    }
+    mSize++;
+  }
+
+  private void grow() {
+    int capacity = mInts != null ? mInts.length : mDoubles != null ? mDoubles.length : mStrings.length;
+    if (mSize < capacity) return;
+    capacity *= 2;
+    if (mInts != null) mInts = Arrays.copyOf(mInts, capacity);
+    else if (mDoubles != null) mDoubles = Arrays.copyOf(mDoubles, capacity);
+    else mStrings = Arrays.copyOf(mStrings, capacity);
+  }
+
+  private int toCode(Object value) {
+    if (mCodes == null) {
+      mCodes = new HashMap<String, Integer>();
+      for (int i = 0; i < mLevels.length; i++) {
+        mCodes.put(mLevels[i], i + 1);
+      }
+    }
+    Integer code = mCodes.get(String.valueOf(value));
+    return code == null ? NA_INTEGER : code;
+  }
+
+  private static int toInt(Object value) {
+    if (value instanceof Integer || value instanceof Short || value instanceof Byte) return ((Number) value).intValue();
+    double d = toDouble(value);
+    // as.integer is NA for values out of the range of R integers
+    return Double.isNaN(d) || d <= NA_INTEGER || d > Integer.MAX_VALUE ? NA_INTEGER : (int) d;
+  }
+
+  private static double toDouble(Object value) {
+    if (value instanceof Number) return ((Number) value).doubleValue();
+    try {
+      return Double.parseDouble(String.valueOf(value).trim());
+    } catch (NumberFormatException e) {
+      return NA_DOUBLE;
+    }
+  }
+
+  private static int toLogical(Object value) {
+    if (value instanceof Boolean) return (Boolean) value ? 1 : 0;
+    if (value instanceof Number) return ((Number) value).doubleValue() != 0 ? 1 : 0;
+    String string = String.valueOf(value).trim();
+    if ("true".equalsIgnoreCase(string) || "T".equals(string)) return 1;
+    if ("false".equalsIgnoreCase(string) || "F".equals(string)) return 0;
+    return NA_INTEGER;
+  }
+
+  /**
+   * @return the days of the local calendar date of the value since the epoch, the number of an R Date
+   */
+  private static double toDays(java.util.Date value) {
+    long millis = value.getTime();
+    millis += TimeZone.getDefault().getOffset(millis);
+    return Math.floor((double) millis / MILLIS_PER_DAY);
+  }
+}
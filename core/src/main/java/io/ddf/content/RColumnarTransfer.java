@@ -0,0 +1,99 @@
+package io.ddf.content;
+
+
+import io.ddf.DDF;
+import io.ddf.exception.DDFException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Transfers rows to the R client as chunks of at most chunkRows rows, each an {@link RColumn} per column, so that R
+ * copies a primitive array per column of a chunk through rJava, and the driver never holds more than a chunk of
+ * converted values. There is always at least one chunk, so that R gets the columns of an empty result.
+ * <p/>
+ * R iterates with hasNext() and nextChunk(), which, unlike the erased next(), rJava can call by its signature.
+ */
+public class RColumnarTransfer implements Iterator<RColumn[]> {
+
+  public static final int DEFAULT_CHUNK_ROWS = 65536;
+
+  private final List<Schema.Column> mColumns;
+
+  private final Iterator<Object[]> mRows;
+
+  private final int mChunkRows;
+
+  private final int mCapacity;
+
+  private boolean mStarted = false;
+
+  public RColumnarTransfer(List<Schema.Column> columns, Iterator<Object[]> rows, int chunkRows) {
+    this(columns, rows, chunkRows, -1);
+  }
+
+  /**
+   * @param numRows the number of rows, if known, or -1, to size the columns of the chunks
+   */
+  public RColumnarTransfer(List<Schema.Column> columns, Iterator<Object[]> rows, int chunkRows, long numRows) {
+    mColumns = new ArrayList<Schema.Column>(columns);
+    mRows = rows;
+    mChunkRows = chunkRows > 0 ? chunkRows : DEFAULT_CHUNK_ROWS;
+    mCapacity = numRows < 0 ? mChunkRows : (int) Math.min(numRows, mChunkRows);
+  }
+
+  /**
+   * @param numRows the number of rows, or -1 for all
+   */
+  public static RColumnarTransfer head(DDF ddf, int numRows, int chunkRows) throws DDFException {
+    return new RColumnarTransfer(ddf.getSchema().getColumns(), ddf.getViewHandler().getRowIterator(numRows),
+        chunkRows, numRows);
+  }
+
+  public static RColumnarTransfer sample(DDF ddf, int numSamples, boolean withReplacement, int seed, int chunkRows)
+      throws DDFException {
+    List<Object[]> rows = ddf.getViewHandler().getRandomSample(numSamples, withReplacement, seed);
+    if (rows == null) throw new DDFException(String.format("Cannot sample %s", ddf.getName()));
+    return new RColumnarTransfer(ddf.getSchema().getColumns(), rows.iterator(), chunkRows, rows.size());
+  }
+
+  @Override
+  public boolean hasNext() {
+    return !mStarted || mRows.hasNext();
+  }
+
+  @Override
+  public RColumn[] next() {
+    if (!this.hasNext()) throw new NoSuchElementException();
+    mStarted = true;
+    RColumn[] columns = new RColumn[mColumns.size()];
+    try {
+      for (int c = 0; c < columns.length; c++) {
+        columns[c] = RColumn.of(mColumns.get(c), mCapacity);
+      }
+    } catch (DDFException e) {
+      throw new IllegalStateException(e);
+    }
+
+    int n = 0;
+    while (n < mChunkRows && mRows.hasNext()) {
+      Object[] row = mRows.next();
+      for (int c = 0; c < columns.length; c++) {
+        columns[c].add(c < row.length ? row[c] : null);
+      }
+      n++;
+    }
+    return columns;
+  }
+
+  public RColumn[] nextChunk() {
+    return this.next();
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+}
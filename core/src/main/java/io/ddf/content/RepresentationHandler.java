@@ -6,11 +6,15 @@ package io.ddf.content;
 
 import io.ddf.DDF;
 import io.ddf.exception.DDFException;
+import io.ddf.metrics.Metrics;
+import io.ddf.metrics.Timer;
 import io.ddf.misc.ADDFFunctionalGroupHandler;
 import io.ddf.types.AGloballyAddressable;
 import io.ddf.types.IGloballyAddressable;
 import org.jgrapht.GraphPath;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -22,6 +26,15 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class RepresentationHandler extends ADDFFunctionalGroupHandler implements IHandleRepresentations {
 
+  /**
+   * Metrics of representation lookups, of their conversions from the existing representations, and of each convert
+   * function applied, by class name
+   */
+  public static final String REPRESENTATION_HITS = "representation.hits";
+  public static final String REPRESENTATION_MISSES = "representation.misses";
+  public static final String REPRESENTATION_CREATE = "representation.create";
+  public static final String REPRESENTATION_CONVERT = "representation.convert.";
+
   // The various representations for our DDF
   protected Map<String, Representation> mReps = new ConcurrentHashMap<String, Representation>();
 
@@ -112,14 +125,17 @@ public class RepresentationHandler extends ADDFFunctionalGroupHandler implements
       return null;
     }
     Representation obj = mReps.get(typeSpecs);
+    Metrics.counter(obj != null ? REPRESENTATION_HITS : REPRESENTATION_MISSES).inc();
 
     if (obj == null && doCreate) {
       Representation representation = new Representation(typeSpecs);
+      Timer.Context context = Metrics.timer(REPRESENTATION_CREATE).time();
       try {
         obj = this.createRepresentation(representation);
       } catch (Exception e) {
         throw new DDFException(String.format("Error creating representation %s", typeSpecs), e);
       }
+      context.stop();
       if (obj != null) mReps.put(typeSpecs, obj);
     }
     if (obj != null) {
@@ -167,6 +183,7 @@ public class RepresentationHandler extends ADDFFunctionalGroupHandler implements
   @Override
   public void setDefaultDataType(Class<?>... typeSpecs) {
     mDefaultTypeSpecs = typeSpecs;
+    this.invalidateNumRows();
   }
 
   @Override
@@ -184,6 +201,18 @@ public class RepresentationHandler extends ADDFFunctionalGroupHandler implements
     this.setDefaultDataType((Class<?>[]) null);
   }
 
+  /**
+   * The row count memoized by the metadata handler is that of the replaced representations
+   */
+  private void invalidateNumRows() {
+    if (this.getDDF() == null) return;
+    try {
+      this.getDDF().getMetaDataHandler().invalidateNumRows();
+    } catch (UnsupportedOperationException e) {
+      // the engine keeps no metadata
+    }
+  }
+
   private boolean equalsDefaultDataType(Class<?>... typeSpecs) {
     return this.getSpecsAsString(typeSpecs).equals(this.getSpecsAsString(this.getDefaultDataType()));
   }
@@ -235,7 +264,9 @@ public class RepresentationHandler extends ADDFFunctionalGroupHandler implements
       List<ConvertFunction> convertFunctions = minPath.getEdgeList();
       Representation objectRepresentation = startRepresentation;
       for (ConvertFunction func : convertFunctions) {
+        Timer.Context context = Metrics.timer(REPRESENTATION_CONVERT + func.getClass().getSimpleName()).time();
         objectRepresentation = func.apply(objectRepresentation);
+        context.stop();
       }
       return objectRepresentation;
     }
@@ -254,6 +285,7 @@ public class RepresentationHandler extends ADDFFunctionalGroupHandler implements
     this.reset();
     this.mDefaultTypeSpecs = typeSpecs;
     this.add(data, typeSpecs);
+    this.invalidateNumRows();
   }
 
   /**
@@ -297,8 +329,21 @@ public class RepresentationHandler extends ADDFFunctionalGroupHandler implements
     return result;
   }
 
+  /**
+   * Also closes the representations that hold resources of their own, such as the rows of a loaded basic DDF which
+   * keep their file open
+   */
   @Override
   public void cleanup() {
+    for (Representation rep : mReps.values()) {
+      if (rep.getValue() instanceof Closeable) {
+        try {
+          ((Closeable) rep.getValue()).close();
+        } catch (IOException e) {
+          mLog.warn(String.format("Unable to close the %s representation", rep.getTypeSpecsString()), e);
+        }
+      }
+    }
     mReps.clear();
     super.cleanup();
     uncacheAll();
@@ -415,6 +460,7 @@ public class RepresentationHandler extends ADDFFunctionalGroupHandler implements
   public void setRepresentations(Map<String, Representation> reps) {
     mReps.clear();
     mReps.putAll(reps);
+    this.invalidateNumRows();
   }
 
 }
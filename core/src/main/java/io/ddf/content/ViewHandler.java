@@ -61,6 +61,14 @@ public class ViewHandler extends ADDFFunctionalGroupHandler implements IHandleVi
         String.format("Unable to fetch %d row(s) from table %%s", numRows)).getRows();
   }
 
+  @SuppressWarnings("unchecked")
+  @Override
+  public Iterator<Object[]> getRowIterator(int numRows) throws DDFException {
+    List<Object[]> rows = (List<Object[]>) this.getDDF().getRepresentationHandler().get(List.class, Object[].class);
+    if (rows == null) throw new DDFException(String.format("Cannot get the rows of %s", this.getDDF().getName()));
+    return (numRows < 0 || numRows >= rows.size() ? rows : rows.subList(0, numRows)).iterator();
+  }
+
   public List<String> top(int numRows, String orderColumns, String mode) throws DDFException {
 
     DDF temp = sql2ddf(String.format("SELECT * FROM %%s order by %s %s", orderColumns, mode),
@@ -0,0 +1,174 @@
+package io.ddf.datasource;
+
+
+import io.ddf.exception.DDFException;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Options of a delimited-text export, and the formatting of rows according to them. Instances are shipped to the
+ * workers of distributed engines, hence Serializable.
+ * <p/>
+ * With {@link QuoteMode#MINIMAL}, a field is quoted only when it contains the delimiter, the quote character or a line
+ * break; quote characters inside quoted fields are doubled, as in RFC 4180.
+ */
+public class CsvExportFormat implements Serializable {
+
+  private static final long serialVersionUID = 2913540412208117361L;
+
+  public enum QuoteMode {
+    MINIMAL, ALL, NONE
+  }
+
+  public enum Compression {
+    NONE(null, ""),
+    GZIP("org.apache.hadoop.io.compress.GzipCodec", ".gz"),
+    // the Hadoop snappy codec needs the native hadoop library
+    SNAPPY("org.apache.hadoop.io.compress.SnappyCodec", ".snappy");
+
+    private final String mCodecClassName;
+    private final String mExtension;
+
+    private Compression(String codecClassName, String extension) {
+      mCodecClassName = codecClassName;
+      mExtension = extension;
+    }
+
+    public String getCodecClassName() {
+      return mCodecClassName;
+    }
+
+    public String getExtension() {
+      return mExtension;
+    }
+  }
+
+  private String delimiter = ",";
+
+  private char quote = '"';
+
+  private QuoteMode quoteMode = QuoteMode.MINIMAL;
+
+  private boolean hasHeader = true;
+
+  private String nullValue = "";
+
+  private Compression compression = Compression.NONE;
+
+  private boolean merge = true;
+
+  public CsvExportFormat() {
+  }
+
+  public CsvExportFormat(String delimiter, boolean hasHeader) {
+    this.delimiter = delimiter;
+    this.hasHeader = hasHeader;
+  }
+
+  public String getDelimiter() {
+    return delimiter;
+  }
+
+  public void setDelimiter(String delimiter) {
+    this.delimiter = delimiter;
+  }
+
+  public char getQuote() {
+    return quote;
+  }
+
+  public void setQuote(char quote) {
+    this.quote = quote;
+  }
+
+  public QuoteMode getQuoteMode() {
+    return quoteMode;
+  }
+
+  public void setQuoteMode(QuoteMode quoteMode) {
+    this.quoteMode = quoteMode;
+  }
+
+  public boolean getHasHeader() {
+    return hasHeader;
+  }
+
+  public void setHasHeader(boolean hasHeader) {
+    this.hasHeader = hasHeader;
+  }
+
+  public String getNullValue() {
+    return nullValue;
+  }
+
+  public void setNullValue(String nullValue) {
+    this.nullValue = nullValue;
+  }
+
+  public Compression getCompression() {
+    return compression;
+  }
+
+  public void setCompression(Compression compression) {
+    this.compression = compression;
+  }
+
+  public boolean getMerge() {
+    return merge;
+  }
+
+  /**
+   * @param merge if true, distributed engines merge their per-partition files into the single file fileURL;
+   *              otherwise fileURL is a directory with one part file per partition
+   */
+  public void setMerge(boolean merge) {
+    this.merge = merge;
+  }
+
+  public void validate() throws DDFException {
+    if (delimiter == null || delimiter.isEmpty()) throw new DDFException("Delimiter cannot be empty");
+    if (quoteMode != QuoteMode.NONE && delimiter.indexOf(quote) >= 0) {
+      throw new DDFException(String.format("Delimiter %s cannot contain the quote character %s", delimiter, quote));
+    }
+  }
+
+  public String formatHeader(List<String> columnNames) {
+    return this.formatRow(columnNames.toArray());
+  }
+
+  /**
+   * @return the line for the row, without line terminator
+   */
+  public String formatRow(Object[] values) {
+    StringBuilder line = new StringBuilder();
+    for (int i = 0; i < values.length; i++) {
+      if (i > 0) line.append(delimiter);
+      this.appendField(line, values[i]);
+    }
+    return line.toString();
+  }
+
+  private void appendField(StringBuilder line, Object value) {
+    if (value == null) {
+      line.append(nullValue);
+      return;
+    }
+
+    String field = value.toString();
+    boolean needsQuotes = quoteMode == QuoteMode.ALL || (quoteMode == QuoteMode.MINIMAL && (field.contains(delimiter)
+        || field.indexOf(quote) >= 0 || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0));
+    if (!needsQuotes) {
+      line.append(field);
+      return;
+    }
+
+    line.append(quote);
+    for (int i = 0; i < field.length(); i++) {
+      char c = field.charAt(i);
+      if (c == quote) line.append(quote);
+      line.append(c);
+    }
+    line.append(quote);
+  }
+}
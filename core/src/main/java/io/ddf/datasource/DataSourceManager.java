@@ -4,24 +4,39 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URI;
 
+import com.google.common.base.Strings;
 import io.ddf.DDFManager;
 import io.ddf.DDF;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import io.ddf.content.Schema;
 import io.ddf.content.SqlResult;
 import io.ddf.exception.DDFException;
+import io.ddf.misc.Config;
+import io.ddf.util.Utils;
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.util.ReflectionUtils;
 
 /**
  * author: daoduchuan, namma
  */
 public abstract class DataSourceManager {
 
+    public static final int DEFAULT_LOADER_SAMPLE_SIZE = 1000;
+
     protected DDFManager mDDFManager;
 
     public DataSourceManager(DDFManager manager) {
@@ -93,13 +108,116 @@ public abstract class DataSourceManager {
 
     public abstract DDF loadTextFile(DataSourceDescriptor dataSource) throws DDFException;
 
+    /**
+     * @return the number of lines sampled, per partition for distributed engines, to infer the column types of a
+     * delimited file
+     */
+    protected static int getLoaderSampleSize() {
+        String value = Config.getGlobalValue(Config.ConfigConstant.FIELD_LOADER_SAMPLE_SIZE);
+        return Strings.isNullOrEmpty(value) ? DEFAULT_LOADER_SAMPLE_SIZE : Math.max(1, Integer.parseInt(value.trim()));
+    }
+
+
+    private final Map<String, ObjectStoreReadPlanner> mReadPlanners = new ConcurrentHashMap<String, ObjectStoreReadPlanner>();
+
+    /**
+     * @return the read planner of the store of the URI, kept across loads so that its listings are reused. S3 URIs are
+     * served from the local directory ObjectStoreLocalRoot instead if it is set, see {@link LocalObjectStore}.
+     */
+    public ObjectStoreReadPlanner getReadPlanner(URI uri) {
+        String localRoot = Config.getGlobalValue(Config.ConfigConstant.FIELD_OBJECT_STORE_LOCAL_ROOT);
+        boolean isLocal = !Strings.isNullOrEmpty(localRoot) && isS3(uri);
+        String storeName = isLocal ? "local:" + localRoot : uri.getScheme() + "://" + uri.getAuthority();
+
+        ObjectStoreReadPlanner planner = mReadPlanners.get(storeName);
+        if (planner == null) {
+            IObjectStore store = isLocal ? new LocalObjectStore(localRoot.trim()) : new HadoopObjectStore(uri);
+            planner = new ObjectStoreReadPlanner(store,
+                getLongValue(Config.ConfigConstant.FIELD_OBJECT_STORE_SPLIT_SIZE, ObjectStoreReadPlanner.DEFAULT_SPLIT_SIZE),
+                getLongValue(Config.ConfigConstant.FIELD_OBJECT_STORE_PARTITION_SIZE,
+                    ObjectStoreReadPlanner.DEFAULT_PARTITION_SIZE),
+                getLongValue(Config.ConfigConstant.FIELD_OBJECT_STORE_LISTING_TTL,
+                    ObjectStoreReadPlanner.DEFAULT_LISTING_TTL_MS));
+            mReadPlanners.put(storeName, planner);
+        }
+        return planner;
+    }
+
+    /**
+     * @return the prefix of the URI in the store of {@link #getReadPlanner(URI)}
+     */
+    public static String getObjectPrefix(ObjectStoreReadPlanner planner, URI uri) {
+        if (planner.getStore() instanceof LocalObjectStore) {
+            return uri.getHost() + (uri.getPath() == null ? "" : uri.getPath());
+        }
+        return uri.toString();
+    }
+
+    private static boolean isS3(URI uri) {
+        return uri.getScheme() != null && uri.getScheme().toLowerCase().startsWith("s3");
+    }
+
+    private static long getLongValue(Config.ConfigConstant key, long defaultValue) {
+        String value = Config.getGlobalValue(key);
+        return Strings.isNullOrEmpty(value) ? defaultValue : Long.parseLong(value.trim());
+    }
 
     public void export2csv(DDF ddf, String fileURL, String fieldSeparator, Boolean hasHead) throws DDFException {
-        if (!fieldSeparator.equalsIgnoreCase("\t")) {
-            throw new DDFException("only '\t' is supported as separator.");
+        this.export2csv(ddf, fileURL, new CsvExportFormat(fieldSeparator, hasHead));
+    }
+
+    /**
+     * Streams the rows of the DDF to fileURL, one line at a time, so that memory use does not depend on the size of
+     * the DDF. Engines with distributed data override this to write from their workers.
+     */
+    public void export2csv(DDF ddf, String fileURL, CsvExportFormat format) throws DDFException {
+        format.validate();
+        Iterator<Object[]> rows = this.getRowIterator(ddf);
+
+        Writer writer = null;
+        try {
+            writer = this.createWriter(fileURL, format.getCompression());
+            if (format.getHasHeader()) {
+                writer.write(format.formatHeader(ddf.getColumnNames()));
+                writer.write('\n');
+            }
+            while (rows.hasNext()) {
+                writer.write(format.formatRow(rows.next()));
+                writer.write('\n');
+            }
+            writer.close();
+            writer = null;
+        } catch (IOException e) {
+            throw new DDFException(String.format("Error when try to export the result to %s", fileURL), e);
+        } finally {
+            IOUtils.closeQuietly(writer);
+        }
+    }
+
+    /**
+     * @return the rows of the DDF as Object[], by default from its List&lt;Object[]&gt; representation
+     */
+    @SuppressWarnings("unchecked")
+    protected Iterator<Object[]> getRowIterator(DDF ddf) throws DDFException {
+        Object rows = ddf.getRepresentationHandler().get(List.class, Object[].class);
+        if (rows == null) throw new DDFException(String.format("Cannot get the rows of %s", ddf.getName()));
+        return ((List<Object[]>) rows).iterator();
+    }
+
+    private Writer createWriter(String fileURL, CsvExportFormat.Compression compression) throws IOException {
+        Path path = new Path(fileURL);
+        OutputStream out = path.getFileSystem(Utils.getConfiguration()).create(path, true);
+        if (compression != null && compression.getCodecClassName() != null) {
+            try {
+                CompressionCodec codec = (CompressionCodec) ReflectionUtils.newInstance(
+                    Class.forName(compression.getCodecClassName()), Utils.getConfiguration());
+                out = codec.createOutputStream(out);
+            } catch (ClassNotFoundException e) {
+                out.close();
+                throw new IOException(String.format("Compression %s is not available", compression), e);
+            }
         }
-        SqlResult result = ddf.sql("select * from @this", "error");
-        this.export2csv(result, fileURL, fieldSeparator, hasHead);
+        return new BufferedWriter(new OutputStreamWriter(out, "utf-8"));
     }
 
     public void export2csv(SqlResult result, String fileURL, String fieldSeparator, Boolean hasHead)
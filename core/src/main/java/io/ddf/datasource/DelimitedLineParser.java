@@ -0,0 +1,265 @@
+package io.ddf.datasource;
+
+
+import com.google.common.base.Strings;
+import io.ddf.content.Schema.ColumnType;
+import io.ddf.exception.DDFException;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits delimited lines into fields, infers the type of field values and converts them, for the delimited-file
+ * loaders of the engines. Instances are shipped to the workers of distributed engines, hence Serializable.
+ * <p/>
+ * Empty fields and Hive's \N are nulls. R's NA is a null in columns of any type but string.
+ */
+public class DelimitedLineParser implements Serializable {
+
+  private static final long serialVersionUID = -3720364129911284706L;
+
+  public static final String HIVE_NULL = "\\N";
+
+  public static final String NA = "NA";
+
+  private final String mDelimiter;
+
+  private final char mQuote;
+
+  private final boolean mHasQuote;
+
+  /**
+   * @param delimiter the field delimiter, "\t" and "\001" may be given escaped
+   * @param quote     the quote character, or null or empty for none
+   */
+  public DelimitedLineParser(String delimiter, String quote) throws DDFException {
+    mDelimiter = unescape(delimiter);
+    if (Strings.isNullOrEmpty(mDelimiter)) throw new DDFException("Delimiter cannot be empty");
+    mHasQuote = !Strings.isNullOrEmpty(quote);
+    mQuote = mHasQuote ? unescape(quote).charAt(0) : '\0';
+  }
+
+  public DelimitedLineParser(TextFileFormat format) throws DDFException {
+    this(format.getDelimiter(), format.getQuote());
+  }
+
+  /**
+   * Splits a line on the delimiter. A field starting with the quote character extends to the matching closing quote,
+   * in which doubled quotes stand for one quote character.
+   */
+  public String[] split(String line) {
+    List<String> fields = new ArrayList<String>();
+    StringBuilder field = new StringBuilder();
+    int n = line.length();
+    int i = 0;
+
+    while (true) {
+      // i is the start of a field
+      int end;
+      if (mHasQuote && i < n && line.charAt(i) == mQuote) {
+        field.setLength(0);
+        i++;
+        boolean closed = false;
+        while (i < n && !closed) {
+          char c = line.charAt(i);
+          if (c == mQuote && i + 1 < n && line.charAt(i + 1) == mQuote) {
+            field.append(mQuote);
+            i += 2;
+          } else if (c == mQuote) {
+            closed = true;
+            i++;
+          } else {
+            field.append(c);
+            i++;
+          }
+        }
+        fields.add(field.toString());
+        // anything between the closing quote and the next delimiter is dropped
+        end = line.indexOf(mDelimiter, i);
+      } else {
+        end = line.indexOf(mDelimiter, i);
+        fields.add(end < 0 ? line.substring(i) : line.substring(i, end));
+      }
+
+      if (end < 0) break;
+      i = end + mDelimiter.length();
+    }
+    return fields.toArray(new String[fields.size()]);
+  }
+
+  /**
+   * @return the values of the line converted to the types, or null if the line does not have one field per type or
+   * a value does not convert to the type of its column
+   */
+  public Object[] parse(String line, ColumnType[] types) {
+    String[] fields = this.split(line);
+    if (fields.length != types.length) return null;
+
+    Object[] values = new Object[fields.length];
+    try {
+      for (int i = 0; i < fields.length; i++) {
+        values[i] = convert(fields[i], types[i]);
+      }
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+    return values;
+  }
+
+  /**
+   * Widens types with the types of the values of the line, if it has one field per type
+   *
+   * @param types the types inferred so far, null for columns without any non-null value yet
+   */
+  public void inferTypes(String line, ColumnType[] types) {
+    String[] fields = this.split(line);
+    if (fields.length != types.length) return;
+    for (int i = 0; i < fields.length; i++) {
+      types[i] = widen(types[i], inferType(fields[i]));
+    }
+  }
+
+  /**
+   * @return the narrowest type of the value, or null for a null
+   */
+  public static ColumnType inferType(String value) {
+    if (isNullOrNA(value)) return null;
+
+    String s = value.trim();
+    if (isIntegral(s)) {
+      if (s.length() < 10) return ColumnType.INT;
+      try {
+        long l = Long.parseLong(s.startsWith("+") ? s.substring(1) : s);
+        return l >= Integer.MIN_VALUE && l <= Integer.MAX_VALUE ? ColumnType.INT : ColumnType.BIGINT;
+      } catch (NumberFormatException e) {
+        return ColumnType.DOUBLE;
+      }
+    } else if (s.equalsIgnoreCase("true") || s.equalsIgnoreCase("false")) {
+      return ColumnType.BOOLEAN;
+    } else if (isDouble(s)) {
+      return ColumnType.DOUBLE;
+    } else if (s.length() == 10 && isDate(s)) {
+      return ColumnType.DATE;
+    } else if (s.length() > 10 && isDate(s.substring(0, 10)) && isTimestamp(s)) {
+      return ColumnType.TIMESTAMP;
+    } else {
+      return ColumnType.STRING;
+    }
+  }
+
+  /**
+   * @return the narrowest type of both, int to bigint to double, date to timestamp, anything else to string
+   */
+  public static ColumnType widen(ColumnType a, ColumnType b) {
+    if (a == null) return b;
+    if (b == null || a == b) return a;
+    if (isNumeric(a) && isNumeric(b)) {
+      return a == ColumnType.DOUBLE || b == ColumnType.DOUBLE ? ColumnType.DOUBLE : ColumnType.BIGINT;
+    }
+    if (isTime(a) && isTime(b)) return ColumnType.TIMESTAMP;
+    return ColumnType.STRING;
+  }
+
+  /**
+   * @throws IllegalArgumentException, e.g. a NumberFormatException, if the value is not of the type
+   */
+  public static Object convert(String value, ColumnType type) {
+    if (type == null || type == ColumnType.STRING) return isNull(value) ? null : value;
+    if (isNullOrNA(value)) return null;
+
+    String s = value.trim();
+    switch (type) {
+      case TINYINT:
+        return Byte.parseByte(s);
+      case SMALLINT:
+        return Short.parseShort(s);
+      case INT:
+        return Integer.parseInt(s);
+      case BIGINT:
+        return Long.parseLong(s.startsWith("+") ? s.substring(1) : s);
+      case FLOAT:
+        return Float.parseFloat(s);
+      case DOUBLE:
+        return Double.parseDouble(s);
+      case DECIMAL:
+        return new BigDecimal(s);
+      case BOOLEAN:
+        if (s.equalsIgnoreCase("true")) return Boolean.TRUE;
+        if (s.equalsIgnoreCase("false")) return Boolean.FALSE;
+        throw new IllegalArgumentException("Not a boolean: " + s);
+      case DATE:
+        return Date.valueOf(s);
+      case TIMESTAMP:
+        return s.length() == 10 ? new Timestamp(Date.valueOf(s).getTime()) : Timestamp.valueOf(s);
+      default:
+        return s;
+    }
+  }
+
+  private static boolean isNull(String value) {
+    return value == null || value.isEmpty() || HIVE_NULL.equals(value);
+  }
+
+  private static boolean isNullOrNA(String value) {
+    String s = value == null ? null : value.trim();
+    return isNull(s) || NA.equals(s);
+  }
+
+  private static boolean isNumeric(ColumnType type) {
+    return type == ColumnType.INT || type == ColumnType.BIGINT || type == ColumnType.DOUBLE;
+  }
+
+  private static boolean isTime(ColumnType type) {
+    return type == ColumnType.DATE || type == ColumnType.TIMESTAMP;
+  }
+
+  private static boolean isIntegral(String s) {
+    int start = s.startsWith("-") || s.startsWith("+") ? 1 : 0;
+    if (s.length() == start || s.length() - start > 19) return false;
+    for (int i = start; i < s.length(); i++) {
+      if (!Character.isDigit(s.charAt(i))) return false;
+    }
+    return true;
+  }
+
+  private static boolean isDouble(String s) {
+    // cheap rejection before the exception-throwing parse
+    char c = s.charAt(0);
+    if (!(Character.isDigit(c) || c == '-' || c == '+' || c == '.' || c == 'N' || c == 'I')) return false;
+    char last = Character.toLowerCase(s.charAt(s.length() - 1));
+    if (last == 'd' || last == 'f') return false;
+    try {
+      Double.parseDouble(s);
+      return true;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  private static boolean isDate(String s) {
+    if (s.length() != 10 || s.charAt(4) != '-' || s.charAt(7) != '-') return false;
+    try {
+      Date.valueOf(s);
+      return true;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  private static boolean isTimestamp(String s) {
+    try {
+      Timestamp.valueOf(s);
+      return true;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  private static String unescape(String s) {
+    return s == null ? null : s.replace("\\t", "\t").replace("\\001", "\u0001");
+  }
+}
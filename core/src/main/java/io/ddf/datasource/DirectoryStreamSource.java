@@ -0,0 +1,122 @@
+package io.ddf.datasource;
+
+
+import io.ddf.exception.DDFException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An {@link IStreamSource} of the files that appear in a local directory, each read whole by the poll following its
+ * appearance, oldest first. Files already in the directory are read by the first poll. Hidden files, whose name starts
+ * with '.' or '_', are ignored, so a file is written under a hidden name and renamed once complete. A file is only
+ * marked as read once it has been read, so a file that cannot be read is tried again by the next poll.
+ */
+public class DirectoryStreamSource implements IStreamSource {
+
+  private static final String ENCODING = "UTF-8";
+
+  private final File mDirectory;
+
+  private final Set<String> mSeen = new HashSet<String>();
+
+  public DirectoryStreamSource(String directory) throws DDFException {
+    mDirectory = new File(directory);
+    if (!mDirectory.isDirectory()) throw new DDFException(String.format("%s is not a directory", directory));
+  }
+
+  public String getDirectory() {
+    return mDirectory.getAbsolutePath();
+  }
+
+  /**
+   * @return the files that appeared since the previous poll, by modification time and name. Distributed engines read
+   * them on their workers instead of polling the lines, so only the files that can be read are returned and marked.
+   */
+  public List<File> pollFiles() {
+    List<File> files = new ArrayList<File>();
+    for (File file : this.listNewFiles()) {
+      if (file.canRead() && mSeen.add(file.getName())) files.add(file);
+    }
+    return files;
+  }
+
+  /**
+   * @return the files not read yet, by modification time and name
+   */
+  private List<File> listNewFiles() {
+    File[] files = mDirectory.listFiles();
+    if (files == null) return Collections.emptyList();
+
+    List<File> newFiles = new ArrayList<File>();
+    for (File file : files) {
+      String name = file.getName();
+      if (!file.isFile() || name.startsWith(".") || name.startsWith("_")) continue;
+      if (!mSeen.contains(name)) newFiles.add(file);
+    }
+    Collections.sort(newFiles, new Comparator<File>() {
+      @Override
+      public int compare(File a, File b) {
+        if (a.lastModified() != b.lastModified()) return a.lastModified() < b.lastModified() ? -1 : 1;
+        return a.getName().compareTo(b.getName());
+      }
+    });
+    return newFiles;
+  }
+
+  /**
+   * Reads the new files in order, up to the first one that cannot be read, which is left for the next poll. Fails
+   * only when not even the first file can be read, so that the lines already read are not lost.
+   */
+  @Override
+  public List<String> poll() throws DDFException {
+    List<String> lines = new ArrayList<String>();
+    for (File file : this.listNewFiles()) {
+      try {
+        lines.addAll(readLines(file));
+      } catch (IOException e) {
+        if (lines.isEmpty()) throw new DDFException(String.format("Cannot read %s", file), e);
+        break;
+      }
+      mSeen.add(file.getName());
+    }
+    return lines;
+  }
+
+  private static List<String> readLines(File file) throws IOException {
+    List<String> lines = new ArrayList<String>();
+    BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), ENCODING));
+    try {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lines.add(line);
+      }
+    } finally {
+      try {
+        reader.close();
+      } catch (IOException e) {
+        // already read
+      }
+    }
+    return lines;
+  }
+
+  @Override
+  public void close() {
+    mSeen.clear();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s(%s)", this.getClass().getSimpleName(), mDirectory);
+  }
+}
@@ -0,0 +1,76 @@
+package io.ddf.datasource;
+
+
+import io.ddf.exception.DDFException;
+import io.ddf.util.Utils;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link IObjectStore} over a Hadoop file system, e.g. s3n:// or hdfs://. Keys are full URIs.
+ */
+public class HadoopObjectStore implements IObjectStore {
+
+  private final String mUri;
+
+  /**
+   * @param uri any URI of the file system, including its credentials if needed
+   */
+  public HadoopObjectStore(URI uri) {
+    this.mUri = uri.toString();
+  }
+
+  private FileSystem getFileSystem() throws IOException {
+    return FileSystem.get(URI.create(mUri), Utils.getConfiguration());
+  }
+
+  @Override
+  public List<ObjectStatus> list(String prefix) throws DDFException {
+    List<ObjectStatus> objects = new ArrayList<ObjectStatus>();
+    try {
+      FileSystem fs = this.getFileSystem();
+      Path path = new Path(prefix);
+      if (fs.exists(path)) {
+        RemoteIterator<LocatedFileStatus> files = fs.listFiles(path, true);
+        while (files.hasNext()) {
+          LocatedFileStatus file = files.next();
+          if (!isHidden(file.getPath())) objects.add(new ObjectStatus(file.getPath().toString(), file.getLen()));
+        }
+      } else if (path.getParent() != null && fs.exists(path.getParent())) {
+        for (FileStatus file : fs.listStatus(path.getParent())) {
+          if (file.getPath().getName().startsWith(path.getName()) && !isHidden(file.getPath())) {
+            objects.addAll(this.list(file.getPath().toString()));
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new DDFException(String.format("Cannot list %s", prefix), e);
+    }
+    return objects;
+  }
+
+  private static boolean isHidden(Path path) {
+    return path.getName().startsWith("_") || path.getName().startsWith(".");
+  }
+
+  @Override
+  public InputStream open(String key, long offset) throws DDFException {
+    try {
+      FSDataInputStream in = this.getFileSystem().open(new Path(key));
+      if (offset > 0) in.seek(offset);
+      return in;
+    } catch (IOException e) {
+      throw new DDFException(String.format("Cannot open %s at %d", key, offset), e);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package io.ddf.datasource;
+
+
+import io.ddf.exception.DDFException;
+
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Read access to a store of objects addressed by key, such as S3 or HDFS. Implementations are serialized to the
+ * workers of distributed engines, which open the objects themselves.
+ */
+public interface IObjectStore extends Serializable {
+
+  /**
+   * @return the objects whose key starts with the prefix, the files below it if it is a directory. Hidden objects, whose
+   * name starts with '_' or '.', are left out.
+   */
+  public List<ObjectStatus> list(String prefix) throws DDFException;
+
+  /**
+   * @return the bytes of the object from offset to its end
+   */
+  public InputStream open(String key, long offset) throws DDFException;
+
+
+  public static class ObjectStatus implements Serializable {
+    private final String mKey;
+    private final long mLength;
+
+    public ObjectStatus(String key, long length) {
+      this.mKey = key;
+      this.mLength = length;
+    }
+
+    public String getKey() {
+      return mKey;
+    }
+
+    public long getLength() {
+      return mLength;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s (%d bytes)", mKey, mLength);
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package io.ddf.datasource;
+
+
+import io.ddf.exception.DDFException;
+
+import java.util.List;
+
+/**
+ * A source of text lines arriving over time, polled once per micro-batch by {@link io.ddf.misc.IHandleStreamingData}
+ * handlers. Sources are polled from a single thread of the driver.
+ */
+public interface IStreamSource {
+
+  /**
+   * @return the lines that arrived since the previous poll, empty if none did
+   */
+  public List<String> poll() throws DDFException;
+
+  public void close() throws DDFException;
+}
@@ -6,9 +6,26 @@ import io.ddf.DDFManager;
 import io.ddf.datasource.DataSourceDescriptor;
 import io.ddf.datasource.DataSourceURI;
 
+/**
+ * Describes a table, or a sub-query in parentheses, to load through JDBC.
+ * <p/>
+ * When a partition column is set, the table is read in parallel by range: the bounds are discovered with a
+ * MIN/MAX query unless given, and split into numPartitions ranges of equal width, each read over its own
+ * connection. The partition column must be numeric, a DATE or a TIMESTAMP. The filter, if any, is a SQL condition
+ * that is pushed down into the WHERE clause of every query sent to the database.
+ */
 public class JDBCDataSourceDescriptor extends SQLDataSourceDescriptor {
+  public static final int DEFAULT_FETCH_SIZE = 1000;
+
   private JDBCDataSourceCredentials credentials;
   private String dbTable;
+  private String driver;
+  private String partitionColumn;
+  private int numPartitions = 0;
+  private String lowerBound;
+  private String upperBound;
+  private int fetchSize = DEFAULT_FETCH_SIZE;
+  private String filter;
 
   public JDBCDataSourceDescriptor(DataSourceURI uri, JDBCDataSourceCredentials credentials, String dbTable) {
     super(uri, credentials, null, null);
@@ -35,6 +52,87 @@ public class JDBCDataSourceDescriptor extends SQLDataSourceDescriptor {
   public JDBCDataSourceDescriptor(String uri, String username, String password, String dbTable) throws URISyntaxException {
     this(new DataSourceURI(uri), new JDBCDataSourceCredentials(username, password), dbTable);
   }
+
+  /**
+   * @return a descriptor of another table of the same database, with the same partitioning and fetch options
+   */
+  public JDBCDataSourceDescriptor copyWithTable(String dbTable) {
+    JDBCDataSourceDescriptor copy = new JDBCDataSourceDescriptor(this.getDataSourceUri(), credentials, dbTable);
+    copy.driver = driver;
+    copy.partitionColumn = partitionColumn;
+    copy.numPartitions = numPartitions;
+    copy.lowerBound = lowerBound;
+    copy.upperBound = upperBound;
+    copy.fetchSize = fetchSize;
+    copy.filter = filter;
+    return copy;
+  }
+
+  public String getDriver() {
+    return driver;
+  }
+
+  /**
+   * @param driver JDBC driver class to load before connecting, for drivers that do not register themselves
+   */
+  public void setDriver(String driver) {
+    this.driver = driver;
+  }
+
+  public String getPartitionColumn() {
+    return partitionColumn;
+  }
+
+  public void setPartitionColumn(String partitionColumn) {
+    this.partitionColumn = partitionColumn;
+  }
+
+  public int getNumPartitions() {
+    return numPartitions;
+  }
+
+  /**
+   * @param numPartitions number of ranges to read in parallel, or 0 for the default parallelism of the engine
+   */
+  public void setNumPartitions(int numPartitions) {
+    this.numPartitions = numPartitions;
+  }
+
+  public String getLowerBound() {
+    return lowerBound;
+  }
+
+  /**
+   * @param lowerBound lower bound of the partition column, a number or a JDBC date/timestamp literal such as
+   *                   2015-01-31 or 2015-01-31 12:00:00, or null to query it
+   */
+  public void setLowerBound(String lowerBound) {
+    this.lowerBound = lowerBound;
+  }
+
+  public String getUpperBound() {
+    return upperBound;
+  }
+
+  public void setUpperBound(String upperBound) {
+    this.upperBound = upperBound;
+  }
+
+  public int getFetchSize() {
+    return fetchSize;
+  }
+
+  public void setFetchSize(int fetchSize) {
+    this.fetchSize = fetchSize;
+  }
+
+  public String getFilter() {
+    return filter;
+  }
+
+  public void setFilter(String filter) {
+    this.filter = filter;
+  }
   @Override
   public DDF load(DDFManager manager) {
     return null;
@@ -0,0 +1,95 @@
+package io.ddf.datasource;
+
+
+import io.ddf.exception.DDFException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An {@link IObjectStore} over a directory of the local file system, standing in for a remote store in tests and
+ * offline. Keys are paths relative to the root directory, e.g. bucket/dir/file for S3.
+ */
+public class LocalObjectStore implements IObjectStore {
+
+  private final String mRoot;
+
+  public LocalObjectStore(String root) {
+    this.mRoot = root;
+  }
+
+  public String getRoot() {
+    return mRoot;
+  }
+
+  @Override
+  public List<ObjectStatus> list(String prefix) throws DDFException {
+    File root = new File(mRoot);
+    File file = new File(root, prefix);
+    List<ObjectStatus> objects = new ArrayList<ObjectStatus>();
+    if (file.isDirectory()) {
+      this.listFiles(file, objects);
+    } else if (file.isFile()) {
+      objects.add(new ObjectStatus(prefix, file.length()));
+    } else if (file.getParentFile() != null && file.getParentFile().isDirectory()) {
+      String prefixPath = file.getPath();
+      List<ObjectStatus> siblings = new ArrayList<ObjectStatus>();
+      this.listFiles(file.getParentFile(), siblings);
+      for (ObjectStatus object : siblings) {
+        if (new File(root, object.getKey()).getPath().startsWith(prefixPath)) objects.add(object);
+      }
+    }
+
+    Collections.sort(objects, new Comparator<ObjectStatus>() {
+      @Override
+      public int compare(ObjectStatus a, ObjectStatus b) {
+        return a.getKey().compareTo(b.getKey());
+      }
+    });
+    return objects;
+  }
+
+  private void listFiles(File directory, List<ObjectStatus> objects) {
+    File[] files = directory.listFiles();
+    if (files == null) return;
+    for (File file : files) {
+      if (file.getName().startsWith("_") || file.getName().startsWith(".")) continue;
+      if (file.isDirectory()) {
+        this.listFiles(file, objects);
+      } else {
+        objects.add(new ObjectStatus(this.keyOf(file), file.length()));
+      }
+    }
+  }
+
+  private String keyOf(File file) {
+    String root = new File(mRoot).getAbsolutePath();
+    String path = file.getAbsolutePath();
+    String key = path.substring(root.length());
+    return key.startsWith(File.separator) ? key.substring(1) : key;
+  }
+
+  @Override
+  public InputStream open(String key, long offset) throws DDFException {
+    FileInputStream in = null;
+    try {
+      in = new FileInputStream(new File(mRoot, key));
+      in.getChannel().position(offset);
+      return in;
+    } catch (IOException e) {
+      if (in != null) {
+        try {
+          in.close();
+        } catch (IOException ignored) {
+        }
+      }
+      throw new DDFException(String.format("Cannot open %s at %d", key, offset), e);
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package io.ddf.datasource;
+
+
+import io.ddf.datasource.ObjectStoreReadPlanner.Split;
+import io.ddf.exception.DDFException;
+import io.ddf.util.Utils;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the UTF-8 lines of a {@link Split}, with the same convention as Hadoop's LineRecordReader: a split other than the
+ * first of its object skips its first, possibly partial, line, and every split reads through the line that crosses its
+ * end, so each line is read by exactly one split.
+ */
+public class ObjectSplitLineReader implements Iterator<String>, Closeable {
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private final InputStream mIn;
+
+  private final long mEnd;
+
+  private final ByteArrayOutputStream mLine = new ByteArrayOutputStream(256);
+
+  private final byte[] mBuffer = new byte[65536];
+
+  private int mBufferPos = 0;
+
+  private int mBufferLimit = 0;
+
+  private long mPos;
+
+  private String mNext;
+
+  private boolean isDone = false;
+
+  public ObjectSplitLineReader(IObjectStore store, Split split) throws DDFException {
+    InputStream in = store.open(split.getKey(), split.getOffset());
+    try {
+      if (split.isCompressed()) {
+        CompressionCodec codec = new CompressionCodecFactory(Utils.getConfiguration()).getCodec(
+            new Path(split.getKey()));
+        if (codec == null) throw new DDFException(String.format("No codec for %s", split.getKey()));
+        mIn = codec.createInputStream(in);
+        mEnd = Long.MAX_VALUE;
+      } else {
+        mIn = in;
+        mEnd = split.getOffset() + split.getLength();
+      }
+      mPos = split.getOffset();
+      if (mPos > 0 && !split.isCompressed()) this.readLine();
+    } catch (IOException e) {
+      closeQuietly(in);
+      throw new DDFException(String.format("Cannot read %s", split), e);
+    } catch (DDFException e) {
+      closeQuietly(in);
+      throw e;
+    }
+  }
+
+  /**
+   * @return the next line without its terminator, null at the end of the object
+   */
+  private String readLine() throws IOException {
+    mLine.reset();
+    boolean isTerminated = false;
+    while (!isTerminated) {
+      if (mBufferPos == mBufferLimit) {
+        mBufferLimit = mIn.read(mBuffer);
+        mBufferPos = 0;
+        if (mBufferLimit <= 0) {
+          mBufferLimit = 0;
+          break;
+        }
+      }
+      int start = mBufferPos;
+      while (mBufferPos < mBufferLimit && mBuffer[mBufferPos] != '\n') mBufferPos++;
+      mLine.write(mBuffer, start, mBufferPos - start);
+      mPos += mBufferPos - start;
+      if (mBufferPos < mBufferLimit) {
+        // consume the terminator
+        mBufferPos++;
+        mPos++;
+        isTerminated = true;
+      }
+    }
+    if (!isTerminated && mLine.size() == 0) return null;
+
+    byte[] bytes = mLine.toByteArray();
+    int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+    return new String(bytes, 0, length, UTF8);
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (mNext == null && !isDone) {
+      try {
+        mNext = mPos <= mEnd ? this.readLine() : null;
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+      if (mNext == null) {
+        isDone = true;
+        closeQuietly(this);
+      }
+    }
+    return mNext != null;
+  }
+
+  @Override
+  public String next() {
+    if (!this.hasNext()) throw new NoSuchElementException();
+    String line = mNext;
+    mNext = null;
+    return line;
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void close() throws IOException {
+    mIn.close();
+  }
+
+  private static void closeQuietly(Closeable closeable) {
+    try {
+      closeable.close();
+    } catch (IOException ignored) {
+    }
+  }
+}
@@ -0,0 +1,264 @@
+package io.ddf.datasource;
+
+
+import io.ddf.datasource.IObjectStore.ObjectStatus;
+import io.ddf.exception.DDFException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Plans the parallel read of the objects below a prefix of an {@link IObjectStore}.
+ * <p/>
+ * The prefix is listed once, and the listing is cached for a while, so that loading the same objects again does not
+ * list them again. Uncompressed objects larger than the split size are read as ranges of that size; compressed ones
+ * cannot be split. The splits are then packed into partitions of about the partition size, the largest first into the
+ * least loaded partition, so that thousands of small files make a few balanced partitions rather than one task each.
+ * Each partition reads its splits in key order, and the partition of the first split in key order comes first, so
+ * that the first line of the first partition is the first line of the first object, such as its header.
+ */
+public class ObjectStoreReadPlanner {
+
+  private static final Logger sLog = LoggerFactory.getLogger(ObjectStoreReadPlanner.class);
+
+  public static final long DEFAULT_SPLIT_SIZE = 128L << 20;
+
+  public static final long DEFAULT_PARTITION_SIZE = 128L << 20;
+
+  public static final long DEFAULT_LISTING_TTL_MS = 60000L;
+
+  // the extensions of the codecs of a default Hadoop CompressionCodecFactory
+  private static final String[] COMPRESSED_EXTENSIONS = { ".gz", ".bz2", ".deflate", ".snappy", ".lz4" };
+
+  private static final Comparator<Split> KEY_ORDER = new Comparator<Split>() {
+    @Override
+    public int compare(Split a, Split b) {
+      int byKey = a.getKey().compareTo(b.getKey());
+      return byKey != 0 ? byKey : Long.compare(a.getOffset(), b.getOffset());
+    }
+  };
+
+  private final IObjectStore mStore;
+
+  private final long mSplitSize;
+
+  private final long mPartitionSize;
+
+  private final long mListingTTL;
+
+  private final Map<String, Listing> mListings = new ConcurrentHashMap<String, Listing>();
+
+  public ObjectStoreReadPlanner(IObjectStore store) {
+    this(store, DEFAULT_SPLIT_SIZE, DEFAULT_PARTITION_SIZE, DEFAULT_LISTING_TTL_MS);
+  }
+
+  /**
+   * @param listingTTL how long, in milliseconds, listings are reused; 0 to list every time
+   */
+  public ObjectStoreReadPlanner(IObjectStore store, long splitSize, long partitionSize, long listingTTL) {
+    if (splitSize <= 0 || partitionSize <= 0) {
+      throw new IllegalArgumentException("Split and partition sizes must be positive");
+    }
+    this.mStore = store;
+    this.mSplitSize = splitSize;
+    this.mPartitionSize = partitionSize;
+    this.mListingTTL = listingTTL;
+  }
+
+  public IObjectStore getStore() {
+    return mStore;
+  }
+
+  public List<ObjectStatus> list(String prefix) throws DDFException {
+    Listing listing = mListings.get(prefix);
+    long now = System.currentTimeMillis();
+    if (listing == null || now - listing.mTime > mListingTTL) {
+      listing = new Listing(mStore.list(prefix), now);
+      sLog.info(String.format(">>>> listed %d objects below %s", listing.mObjects.size(), prefix));
+      if (mListingTTL > 0) mListings.put(prefix, listing);
+    }
+    return listing.mObjects;
+  }
+
+  public void invalidate(String prefix) {
+    mListings.remove(prefix);
+  }
+
+  /**
+   * @return the partitions to read the objects below the prefix in, with at least one, possibly empty, partition
+   */
+  public List<ReadPartition> plan(String prefix) throws DDFException {
+    List<Split> splits = new ArrayList<Split>();
+    long totalLength = 0;
+    for (ObjectStatus object : this.list(prefix)) {
+      totalLength += object.getLength();
+      if (isCompressed(object.getKey()) || object.getLength() <= mSplitSize) {
+        splits.add(new Split(object.getKey(), 0, object.getLength(), isCompressed(object.getKey())));
+      } else {
+        for (long offset = 0; offset < object.getLength(); offset += mSplitSize) {
+          splits.add(new Split(object.getKey(), offset, Math.min(mSplitSize, object.getLength() - offset), false));
+        }
+      }
+    }
+
+    int numPartitions = (int) Math.max(1, Math.min(splits.size(), (totalLength + mPartitionSize - 1) / mPartitionSize));
+    List<ReadPartition> partitions = this.pack(splits, numPartitions);
+    sLog.info(String.format(">>>> planned %d splits of %d bytes below %s into %d partitions", splits.size(),
+        totalLength, prefix, partitions.size()));
+    return partitions;
+  }
+
+  private List<ReadPartition> pack(List<Split> splits, int numPartitions) {
+    List<Split> bySize = new ArrayList<Split>(splits);
+    Collections.sort(bySize, new Comparator<Split>() {
+      @Override
+      public int compare(Split a, Split b) {
+        return Long.compare(b.getLength(), a.getLength());
+      }
+    });
+
+    PriorityQueue<ReadPartition> leastLoaded = new PriorityQueue<ReadPartition>(numPartitions,
+        new Comparator<ReadPartition>() {
+          @Override
+          public int compare(ReadPartition a, ReadPartition b) {
+            int byLength = Long.compare(a.getLength(), b.getLength());
+            return byLength != 0 ? byLength : Integer.compare(a.getIndex(), b.getIndex());
+          }
+        });
+    List<ReadPartition> partitions = new ArrayList<ReadPartition>(numPartitions);
+    for (int i = 0; i < numPartitions; i++) {
+      ReadPartition partition = new ReadPartition(i);
+      partitions.add(partition);
+      leastLoaded.add(partition);
+    }
+    for (Split split : bySize) {
+      ReadPartition partition = leastLoaded.poll();
+      partition.add(split);
+      leastLoaded.add(partition);
+    }
+
+    // read the splits of a partition in key order
+    ReadPartition first = partitions.get(0);
+    for (ReadPartition partition : partitions) {
+      Collections.sort(partition.mSplits, KEY_ORDER);
+      if (!partition.mSplits.isEmpty() && (first.mSplits.isEmpty()
+          || KEY_ORDER.compare(partition.mSplits.get(0), first.mSplits.get(0)) < 0)) {
+        first = partition;
+      }
+    }
+    if (first.getIndex() == 0) return partitions;
+
+    // largest-first packing may have put a later split of the first object ahead in partition 0
+    List<ReadPartition> ordered = new ArrayList<ReadPartition>(partitions.size());
+    ordered.add(first);
+    for (ReadPartition partition : partitions) {
+      if (partition != first) ordered.add(partition);
+    }
+    List<ReadPartition> renumbered = new ArrayList<ReadPartition>(ordered.size());
+    for (ReadPartition partition : ordered) {
+      ReadPartition copy = new ReadPartition(renumbered.size());
+      for (Split split : partition.getSplits()) {
+        copy.add(split);
+      }
+      renumbered.add(copy);
+    }
+    return renumbered;
+  }
+
+  public static boolean isCompressed(String key) {
+    String lowerKey = key.toLowerCase();
+    for (String extension : COMPRESSED_EXTENSIONS) {
+      if (lowerKey.endsWith(extension)) return true;
+    }
+    return false;
+  }
+
+
+  private static class Listing {
+    private final List<ObjectStatus> mObjects;
+    private final long mTime;
+
+    Listing(List<ObjectStatus> objects, long time) {
+      this.mObjects = Collections.unmodifiableList(objects);
+      this.mTime = time;
+    }
+  }
+
+
+  /**
+   * A byte range of an object, the whole object if it is compressed
+   */
+  public static class Split implements Serializable {
+    private final String mKey;
+    private final long mOffset;
+    private final long mLength;
+    private final boolean mIsCompressed;
+
+    public Split(String key, long offset, long length, boolean isCompressed) {
+      this.mKey = key;
+      this.mOffset = offset;
+      this.mLength = length;
+      this.mIsCompressed = isCompressed;
+    }
+
+    public String getKey() {
+      return mKey;
+    }
+
+    public long getOffset() {
+      return mOffset;
+    }
+
+    public long getLength() {
+      return mLength;
+    }
+
+    public boolean isCompressed() {
+      return mIsCompressed;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s[%d, %d)", mKey, mOffset, mOffset + mLength);
+    }
+  }
+
+
+  public static class ReadPartition implements Serializable {
+    private final int mIndex;
+    private final List<Split> mSplits = new ArrayList<Split>();
+    private long mLength = 0;
+
+    public ReadPartition(int index) {
+      this.mIndex = index;
+    }
+
+    public int getIndex() {
+      return mIndex;
+    }
+
+    public List<Split> getSplits() {
+      return mSplits;
+    }
+
+    /**
+     * @return the number of bytes of its splits, compressed
+     */
+    public long getLength() {
+      return mLength;
+    }
+
+    void add(Split split) {
+      mSplits.add(split);
+      mLength += split.getLength();
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package io.ddf.datasource;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * An in-memory {@link IStreamSource}, fed by {@link #offer(String)} from any thread, e.g. by tests or by an
+ * application receiving events itself.
+ */
+public class QueueStreamSource implements IStreamSource {
+
+  private final ConcurrentLinkedQueue<String> mLines = new ConcurrentLinkedQueue<String>();
+
+  public QueueStreamSource offer(String line) {
+    mLines.add(line);
+    return this;
+  }
+
+  public QueueStreamSource offer(List<String> lines) {
+    mLines.addAll(lines);
+    return this;
+  }
+
+  @Override
+  public List<String> poll() {
+    List<String> lines = new ArrayList<String>();
+    String line;
+    while ((line = mLines.poll()) != null) {
+      lines.add(line);
+    }
+    return lines;
+  }
+
+  @Override
+  public void close() {
+    mLines.clear();
+  }
+}
@@ -11,6 +11,8 @@ public class TextFileFormat extends FileFormat {
 
   private String quote;
 
+  private String quarantinePath;
+
   public TextFileFormat(DataFormat format, boolean hasHeader, String delimiter, String quote) {
     super(format);
     this.hasheader = hasHeader;
@@ -41,4 +43,16 @@ public class TextFileFormat extends FileFormat {
   public void setHasHeader(boolean hasheader) {
     this.hasheader = hasheader;
   }
+
+  public String getQuarantinePath() {
+    return this.quarantinePath;
+  }
+
+  /**
+   * @param quarantinePath directory to which lines that cannot be parsed are written when loading, or null to only
+   *                       count and drop them
+   */
+  public void setQuarantinePath(String quarantinePath) {
+    this.quarantinePath = quarantinePath;
+  }
 }
@@ -0,0 +1,264 @@
+package io.ddf.etl;
+
+
+import io.ddf.DDF;
+import io.ddf.Factor;
+import io.ddf.content.Schema;
+import io.ddf.content.Schema.ColumnType;
+import io.ddf.exception.DDFException;
+import io.ddf.index.ColumnRange;
+import io.ddf.misc.ADDFFunctionalGroupHandler;
+import io.ddf.timeseries.Aggregates;
+import io.ddf.types.AggregateTypes.AggregateFunction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reshaping operations as a {@link Pivot} or a {@link Melt}, which engines run over the rows of the DDF in one pass.
+ * Factor levels tell the pivot values and are kept on the columns of the results, so that reshaping a result back
+ * does not need a pass to find them.
+ */
+public abstract class AReshapingHandler extends ADDFFunctionalGroupHandler implements IHandleReshaping {
+
+  public static final String VARIABLE = "variable";
+
+  public static final String VALUE = "value";
+
+  public AReshapingHandler(DDF theDDF) {
+    super(theDDF);
+  }
+
+  /**
+   * @return the distinct values of the column that are not null, in any order
+   */
+  protected abstract List<Object> getDistinctValues(int columnIndex) throws DDFException;
+
+  /**
+   * @return a DDF of the output rows of the pivot over the rows of the DDF
+   */
+  protected abstract DDF pivot(Pivot pivot, Schema schema) throws DDFException;
+
+  /**
+   * @return a DDF of the rows melted from every row of the DDF
+   */
+  protected abstract DDF melt(Melt melt, Schema schema) throws DDFException;
+
+  @Override
+  public DDF pivot(List<String> keyColumns, String pivotColumn, String valueColumn, AggregateFunction function,
+      List<String> pivotValues) throws DDFException {
+    if (function == null || function == AggregateFunction.MEDIAN) {
+      throw new DDFException(String.format("Cannot pivot with %s", function));
+    }
+    if (function != AggregateFunction.COUNT && !ColumnType.isNumeric(this.getColumn(valueColumn).getType())) {
+      throw new DDFException(String.format("Column %s is not numeric", valueColumn));
+    }
+    return this.pivot(keyColumns, pivotColumn, valueColumn, function, pivotValues, Aggregates.typeOf(function));
+  }
+
+  @Override
+  public DDF unstack(List<String> keyColumns, String variableColumn, String valueColumn) throws DDFException {
+    return this.pivot(keyColumns, variableColumn, valueColumn, null, null, this.getColumn(valueColumn).getType());
+  }
+
+  @Override
+  public DDF melt(List<String> idColumns, List<String> valueColumns, String variableName, String valueName)
+      throws DDFException {
+    return this.melt(idColumns, valueColumns, variableName, valueName, false);
+  }
+
+  @Override
+  public DDF stack(List<String> idColumns) throws DDFException {
+    Set<String> ids = new HashSet<String>();
+    if (idColumns != null) {
+      for (String column : idColumns) {
+        ids.add(this.getColumn(column).getName());
+      }
+    }
+    List<String> valueColumns = new ArrayList<String>();
+    for (Schema.Column column : this.getDDF().getSchema().getColumns()) {
+      if (!ids.contains(column.getName())) valueColumns.add(column.getName());
+    }
+    return this.melt(idColumns, valueColumns, VARIABLE, VALUE, true);
+  }
+
+  private DDF pivot(List<String> keyColumns, String pivotColumn, String valueColumn, AggregateFunction function,
+      List<String> pivotValues, ColumnType valueType) throws DDFException {
+    if (keyColumns == null) keyColumns = Collections.emptyList();
+    int pivotIndex = this.getIndex(pivotColumn);
+    int valueIndex = this.getIndex(valueColumn);
+    int[] keyIndexes = new int[keyColumns.size()];
+    List<Schema.Column> columns = new ArrayList<Schema.Column>();
+    for (int k = 0; k < keyIndexes.length; k++) {
+      keyIndexes[k] = this.getIndex(keyColumns.get(k));
+      columns.add(this.copyColumn(this.getDDF().getSchema().getColumn(keyIndexes[k])));
+    }
+
+    List<String> values = pivotValues == null ? this.getPivotValues(pivotColumn, pivotIndex)
+        : new ArrayList<String>(new LinkedHashSet<String>(pivotValues));
+    if (values.isEmpty()) throw new DDFException(String.format("Column %s has no values to pivot", pivotColumn));
+    Set<String> names = new HashSet<String>();
+    for (Schema.Column column : columns) {
+      names.add(column.getName().toLowerCase());
+    }
+    for (String value : values) {
+      columns.add(new Schema.Column(columnName(pivotColumn, value, names), valueType));
+    }
+
+    mLog.info(String.format(">>>> pivoting %s of %s by %s over %d values", valueColumn, this.getDDF().getName(),
+        pivotColumn, values.size()));
+    DDF result;
+    try {
+      result = this.pivot(new Pivot(keyIndexes, pivotIndex, valueIndex, function, values), new Schema(null, columns));
+    } catch (RuntimeException e) {
+      throw new DDFException(String.format("Unable to pivot %s by %s", valueColumn, pivotColumn), e);
+    }
+    for (int k = 0; k < keyIndexes.length; k++) {
+      this.copyFactor(this.getDDF().getSchema().getColumn(keyIndexes[k]), result, k);
+    }
+    return result;
+  }
+
+  private DDF melt(List<String> idColumns, List<String> valueColumns, String variableName, String valueName,
+      boolean dropNulls) throws DDFException {
+    if (idColumns == null) idColumns = Collections.emptyList();
+    if (valueColumns == null || valueColumns.isEmpty()) throw new DDFException("valueColumns must be specified");
+    if (variableName == null || valueName == null) {
+      throw new DDFException("variableName and valueName must be specified");
+    }
+
+    int[] idIndexes = new int[idColumns.size()];
+    List<Schema.Column> columns = new ArrayList<Schema.Column>();
+    for (int i = 0; i < idIndexes.length; i++) {
+      idIndexes[i] = this.getIndex(idColumns.get(i));
+      columns.add(this.copyColumn(this.getDDF().getSchema().getColumn(idIndexes[i])));
+    }
+    int[] valueIndexes = new int[valueColumns.size()];
+    String[] variables = new String[valueIndexes.length];
+    Set<ColumnType> types = new HashSet<ColumnType>();
+    boolean numeric = true;
+    for (int v = 0; v < valueIndexes.length; v++) {
+      valueIndexes[v] = this.getIndex(valueColumns.get(v));
+      Schema.Column column = this.getDDF().getSchema().getColumn(valueIndexes[v]);
+      variables[v] = column.getName();
+      types.add(column.getType());
+      numeric &= ColumnType.isNumeric(column.getType());
+    }
+
+    Melt.Conversion conversion;
+    ColumnType valueType;
+    if (types.size() == 1) {
+      conversion = Melt.Conversion.NONE;
+      valueType = types.iterator().next();
+    } else if (numeric) {
+      conversion = Melt.Conversion.DOUBLE;
+      valueType = ColumnType.DOUBLE;
+    } else {
+      conversion = Melt.Conversion.STRING;
+      valueType = ColumnType.STRING;
+    }
+    columns.add(new Schema.Column(variableName, ColumnType.STRING));
+    columns.add(new Schema.Column(valueName, valueType));
+
+    DDF result;
+    try {
+      result = this.melt(new Melt(idIndexes, valueIndexes, variables, conversion, dropNulls),
+          new Schema(null, columns));
+    } catch (RuntimeException e) {
+      throw new DDFException(String.format("Unable to melt %s", valueColumns), e);
+    }
+    for (int i = 0; i < idIndexes.length; i++) {
+      this.copyFactor(this.getDDF().getSchema().getColumn(idIndexes[i]), result, i);
+    }
+    List<String> levels = new ArrayList<String>(new LinkedHashSet<String>(Arrays.asList(variables)));
+    result.getSchemaHandler().setAsFactor(variableName).setLevels(levels);
+    return result;
+  }
+
+  /**
+   * @return the levels of the pivot column, found and set if it has none
+   */
+  private List<String> getPivotValues(String pivotColumn, int pivotIndex) throws DDFException {
+    Factor<?> factor = this.getDDF().getSchema().getColumn(pivotIndex).getOptionalFactor();
+    if (factor != null && factor.getLevels() != null && !factor.getLevels().isEmpty()) {
+      return new ArrayList<String>(factor.getLevels());
+    }
+
+    List<Object> distinct = new ArrayList<Object>(this.getDistinctValues(pivotIndex));
+    try {
+      Collections.sort(distinct, new Comparator<Object>() {
+        @Override
+        public int compare(Object a, Object b) {
+          Integer c = ColumnRange.compare(a, b);
+          if (c == null) throw new IllegalArgumentException("Values are not comparable");
+          return c;
+        }
+      });
+    } catch (IllegalArgumentException e) {
+      Collections.sort(distinct, new Comparator<Object>() {
+        @Override
+        public int compare(Object a, Object b) {
+          return String.valueOf(a).compareTo(String.valueOf(b));
+        }
+      });
+    }
+    List<String> levels = new ArrayList<String>(new LinkedHashSet<String>(toStrings(distinct)));
+    if (!levels.isEmpty()) {
+      if (factor == null) factor = this.getDDF().getSchemaHandler().setAsFactor(pivotColumn);
+      factor.setLevels(levels);
+    }
+    return levels;
+  }
+
+  private static List<String> toStrings(List<Object> values) {
+    List<String> strings = new ArrayList<String>(values.size());
+    for (Object value : values) {
+      strings.add(String.valueOf(value));
+    }
+    return strings;
+  }
+
+  /**
+   * @param taken the lower-cased names of the columns so far, to which the name is added
+   */
+  static String columnName(String pivotColumn, String value, Set<String> taken) {
+    String name = value.replaceAll("[^A-Za-z0-9_]", "_");
+    if (name.isEmpty() || Character.isDigit(name.charAt(0)) || taken.contains(name.toLowerCase())) {
+      name = pivotColumn + "_" + name;
+    }
+    String unique = name;
+    for (int n = 2; taken.contains(unique.toLowerCase()); n++) {
+      unique = name + "_" + n;
+    }
+    taken.add(unique.toLowerCase());
+    return unique;
+  }
+
+  private void copyFactor(Schema.Column column, DDF result, int resultIndex) throws DDFException {
+    Factor<?> factor = column.getOptionalFactor();
+    if (factor == null || factor.getLevels() == null || factor.getLevels().isEmpty()) return;
+    result.getSchemaHandler().setAsFactor(resultIndex).setLevels(factor.getLevels(), factor.isOrdered());
+  }
+
+  private Schema.Column getColumn(String columnName) throws DDFException {
+    Schema.Column column = columnName == null ? null : this.getDDF().getColumn(columnName);
+    if (column == null) {
+      throw new DDFException(String.format("Column %s does not exist in %s", columnName, this.getDDF().getName()));
+    }
+    return column;
+  }
+
+  private int getIndex(String columnName) throws DDFException {
+    return this.getDDF().getColumnIndex(this.getColumn(columnName).getName());
+  }
+
+  private Schema.Column copyColumn(Schema.Column column) {
+    return new Schema.Column(column.getName(), column.getType());
+  }
+}
@@ -14,6 +14,8 @@ import io.ddf.datasource.DataSourceDescriptor;
 import io.ddf.datasource.JDBCDataSourceDescriptor;
 import io.ddf.datasource.SQLDataSourceDescriptor;
 import io.ddf.exception.DDFException;
+import io.ddf.metrics.Metrics;
+import io.ddf.metrics.Timer;
 import io.ddf.misc.ADDFFunctionalGroupHandler;
 import net.sf.jsqlparser.JSQLParserException;
 import net.sf.jsqlparser.parser.CCJSqlParserManager;
@@ -31,6 +33,12 @@ import java.util.List;
  */
 public abstract class ASqlHandler extends ADDFFunctionalGroupHandler implements IHandleSql {
 
+  /**
+   * Timers of parsing sql commands on DDFs and of rewriting their DDF names into table names
+   */
+  public static final String SQL_PARSE = "sql.parse";
+  public static final String SQL_REWRITE = "sql.rewrite";
+
   public ASqlHandler(DDF theDDF) {
     super(theDDF);
   }
@@ -113,15 +121,20 @@ public abstract class ASqlHandler extends ADDFFunctionalGroupHandler implements
     CCJSqlParserManager parserManager = new CCJSqlParserManager();
     StringReader reader = new StringReader(sqlcmd);
     try {
+      Timer.Context parse = Metrics.timer(SQL_PARSE).time();
       Statement statement = parserManager.parse(reader);
+      parse.stop();
       if (statement instanceof ShowTables) {
         return this.showTables();
       } else if (statement instanceof  DescribeTable){
         return this.describeTable(((DescribeTable)statement).getName().getName());
       } else if (statement instanceof  Select) {
         // Standard SQL.
+          Timer.Context rewrite = Metrics.timer(SQL_REWRITE).time();
           statement = tableNameReplacer.run(statement);
+          rewrite.stop();
           this.mLog.info("Reformulate SQL to " + statement.toString());
+          this.onReferenced(tableNameReplacer.getReferencedDDFs());
           return this.sql(statement.toString(), maxRows, dataSource);
       } else if (statement instanceof Drop) {
           // TODO: +rename
@@ -141,6 +154,16 @@ public abstract class ASqlHandler extends ADDFFunctionalGroupHandler implements
   }
 
 
+  /**
+   * Called with the DDFs a statement reads, once per reference, before the statement is run. Counts their uses, which
+   * engines may base their caching on.
+   */
+  protected void onReferenced(List<DDF> ddfs) throws DDFException {
+    for (DDF ddf : ddfs) {
+      ddf.getMetaDataHandler().increaseUseCount();
+    }
+  }
+
   public DDF sql2ddfHandle(String command,
                            Schema schema,
                            DataSourceDescriptor dataSource,
@@ -175,12 +198,17 @@ public abstract class ASqlHandler extends ADDFFunctionalGroupHandler implements
     CCJSqlParserManager parserManager = new CCJSqlParserManager();
     StringReader reader = new StringReader(command);
     try {
+      Timer.Context parse = Metrics.timer(SQL_PARSE).time();
       Statement statement = parserManager.parse(reader);
+      parse.stop();
       if (!(statement instanceof Select)) {
         throw  new DDFException("ERROR: Only select is allowed in this sql2ddf");
       } else {
+        Timer.Context rewrite = Metrics.timer(SQL_REWRITE).time();
         statement = tableNameReplacer.run(statement);
+        rewrite.stop();
         this.mLog.info("Reformulate SQL to " + statement.toString());
+        this.onReferenced(tableNameReplacer.getReferencedDDFs());
         // TODO(fanj) optimization here;
         return this.sql2ddf(statement.toString(), schema, dataSource,
                       dataFormat);
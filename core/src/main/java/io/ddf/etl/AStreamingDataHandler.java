@@ -0,0 +1,110 @@
+package io.ddf.etl;
+
+
+import io.ddf.DDF;
+import io.ddf.analytics.IncrementalStatistics;
+import io.ddf.content.Schema;
+import io.ddf.content.Schema.ColumnType;
+import io.ddf.exception.DDFException;
+import io.ddf.metrics.Metrics;
+import io.ddf.misc.ADDFFunctionalGroupHandler;
+import io.ddf.misc.IHandleStreamingData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bookkeeping common to the streaming handlers of the engines: the statistics, which start from those of the rows of
+ * the DDF and are merged with those of every batch, and the snapshot, which is only recreated once a batch has been
+ * appended since it was taken. Engines keep the batches apart from the rows of the DDF, and report every batch they
+ * append with {@link #batchAppended(IncrementalStatistics)}.
+ */
+public abstract class AStreamingDataHandler extends ADDFFunctionalGroupHandler implements IHandleStreamingData {
+
+  private IncrementalStatistics mStatistics;
+
+  private long mNumBatches;
+
+  private DDF mSnapshot;
+
+  private long mSnapshotBatches = -1;
+
+  public AStreamingDataHandler(DDF theDDF) {
+    super(theDDF);
+  }
+
+  protected List<Schema.Column> getColumns() throws DDFException {
+    Schema schema = this.getDDF().getSchema();
+    if (schema == null || schema.getColumns() == null || schema.getColumns().isEmpty()) {
+      throw new DDFException("Streaming requires the schema of the DDF");
+    }
+    return schema.getColumns();
+  }
+
+  protected ColumnType[] getColumnTypes() throws DDFException {
+    List<Schema.Column> columns = this.getColumns();
+    ColumnType[] types = new ColumnType[columns.size()];
+    for (int i = 0; i < types.length; i++) {
+      types[i] = columns.get(i).getType();
+    }
+    return types;
+  }
+
+  /**
+   * @return a schema of the columns of the DDF for a snapshot, which gets a table name of its own
+   */
+  protected Schema newSnapshotSchema() throws DDFException {
+    List<Schema.Column> columns = new ArrayList<Schema.Column>();
+    for (Schema.Column column : this.getColumns()) {
+      columns.add(new Schema.Column(column.getName(), column.getType()));
+    }
+    return new Schema(null, columns);
+  }
+
+  /**
+   * @return the statistics of the rows of the DDF, without any batch
+   */
+  protected abstract IncrementalStatistics computeStatistics() throws DDFException;
+
+  /**
+   * @return a new DDF of the rows of the DDF and of the batches appended so far
+   */
+  protected abstract DDF newSnapshot() throws DDFException;
+
+  /**
+   * Records that the engine appended a batch of rows with the given statistics. Called with the lock of this handler
+   * held, together with the append itself, so that snapshots and statistics agree on the batches.
+   */
+  protected synchronized void batchAppended(IncrementalStatistics batch) throws DDFException {
+    this.getCurrentStatistics().merge(batch);
+    mNumBatches++;
+    Metrics.counter("streaming.batches").inc();
+    Metrics.counter("streaming.rows").inc(batch.getNumRows());
+    mLog.info(String.format(">>>> Appended batch %d of %d rows to %s", mNumBatches, batch.getNumRows(),
+        this.getDDF().getName()));
+  }
+
+  private IncrementalStatistics getCurrentStatistics() throws DDFException {
+    if (mStatistics == null) mStatistics = this.computeStatistics();
+    return mStatistics;
+  }
+
+  @Override
+  public synchronized long getNumBatches() {
+    return mNumBatches;
+  }
+
+  @Override
+  public synchronized IncrementalStatistics getStatistics() throws DDFException {
+    return this.getCurrentStatistics().copy();
+  }
+
+  @Override
+  public synchronized DDF snapshot() throws DDFException {
+    if (mSnapshot == null || mSnapshotBatches != mNumBatches) {
+      mSnapshot = this.newSnapshot();
+      mSnapshotBatches = mNumBatches;
+    }
+    return mSnapshot;
+  }
+}
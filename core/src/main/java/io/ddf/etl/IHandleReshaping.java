@@ -1,8 +1,48 @@
 package io.ddf.etl;
 
 
+import io.ddf.DDF;
+import io.ddf.exception.DDFException;
 import io.ddf.misc.IHandleDDFFunctionalGroup;
+import io.ddf.types.AggregateTypes.AggregateFunction;
 
+import java.util.List;
+
+/**
+ * Reshapes DDFs between the long format, of one row per key and variable, and the wide format, of one row per key and
+ * one column per variable. Every operation reads the rows of the DDF once, aggregating within partitions before
+ * combining them.
+ */
 public interface IHandleReshaping extends IHandleDDFFunctionalGroup {
 
+  /**
+   * Aggregates valueColumn by the key columns and the values of pivotColumn, into rows of the key columns followed by
+   * one column per pivot value. The pivot values are, in order, pivotValues if given, otherwise the levels of
+   * pivotColumn if it is a factor with levels, otherwise its distinct values, found in a first pass and set as its
+   * levels. MEDIAN is not supported.
+   * <p/>
+   * Pivot columns are named after their values, with characters other than letters, digits and _ replaced by _, and
+   * prefixed by pivotColumn_ if that does not make an identifier distinct from the key columns.
+   */
+  public DDF pivot(List<String> keyColumns, String pivotColumn, String valueColumn, AggregateFunction function,
+      List<String> pivotValues) throws DDFException;
+
+  /**
+   * Turns every row into one row per value column, of the id columns, a variableName column of the name of the value
+   * column, a factor whose levels are valueColumns, and a valueName column of its value. Values of different numeric
+   * types are converted to DOUBLE, and of different types otherwise to STRING.
+   */
+  public DDF melt(List<String> idColumns, List<String> valueColumns, String variableName, String valueName)
+      throws DDFException;
+
+  /**
+   * Melts all columns but the id columns into columns "variable" and "value", dropping the rows of null values
+   */
+  public DDF stack(List<String> idColumns) throws DDFException;
+
+  /**
+   * Pivots valueColumn by the key columns and the values of variableColumn without aggregating, e.g. to undo a
+   * {@link #stack}; a key having several values of a variable is an error. Missing values are null.
+   */
+  public DDF unstack(List<String> keyColumns, String variableColumn, String valueColumn) throws DDFException;
 }
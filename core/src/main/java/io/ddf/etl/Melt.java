@@ -0,0 +1,73 @@
+package io.ddf.etl;
+
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns a row into one row per value column, of the id columns, the name of the value column and its value; shipped
+ * to where the partitions are
+ */
+public class Melt implements Serializable {
+
+  private static final long serialVersionUID = -1526011357707745316L;
+
+  /**
+   * How values are converted to the type of the value column
+   */
+  public enum Conversion {
+    NONE, DOUBLE, STRING
+  }
+
+  private final int[] mIdIndexes;
+
+  private final int[] mValueIndexes;
+
+  private final String[] mVariables;
+
+  private final Conversion mConversion;
+
+  private final boolean mDropNulls;
+
+  /**
+   * @param variables the names of the value columns
+   * @param dropNulls whether to skip null values rather than output rows of them
+   */
+  public Melt(int[] idIndexes, int[] valueIndexes, String[] variables, Conversion conversion, boolean dropNulls) {
+    mIdIndexes = idIndexes.clone();
+    mValueIndexes = valueIndexes.clone();
+    mVariables = variables.clone();
+    mConversion = conversion;
+    mDropNulls = dropNulls;
+  }
+
+  public List<Object[]> melt(Object[] row) {
+    List<Object[]> rows = new ArrayList<Object[]>(mValueIndexes.length);
+    for (int v = 0; v < mValueIndexes.length; v++) {
+      Object value = row[mValueIndexes[v]];
+      if (value == null && mDropNulls) continue;
+
+      Object[] melted = new Object[mIdIndexes.length + 2];
+      for (int i = 0; i < mIdIndexes.length; i++) {
+        melted[i] = row[mIdIndexes[i]];
+      }
+      melted[mIdIndexes.length] = mVariables[v];
+      melted[mIdIndexes.length + 1] = this.convert(value);
+      rows.add(melted);
+    }
+    return rows;
+  }
+
+  private Object convert(Object value) {
+    if (value == null) return null;
+    switch (mConversion) {
+      case DOUBLE:
+        return ((Number) value).doubleValue();
+      case STRING:
+        return String.valueOf(value);
+      default:
+        return value;
+    }
+  }
+}
@@ -0,0 +1,157 @@
+package io.ddf.etl;
+
+
+import io.ddf.analytics.Summary;
+import io.ddf.timeseries.Aggregates;
+import io.ddf.types.AggregateTypes.AggregateFunction;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates the value column of rows by their keys and pivot values, into one array of cells per key, with one cell
+ * per pivot column. Engines aggregate the rows of every partition with {@link #aggregate}, combine the cells of the
+ * same key with {@link #merge} and output one row per key with {@link #output}; shipped to where the partitions are.
+ */
+public class Pivot implements Serializable {
+
+  private static final long serialVersionUID = 3590216884715346012L;
+
+  private final int[] mKeyIndexes;
+
+  private final int mPivotIndex;
+
+  private final int mValueIndex;
+
+  // null to take the only value of every cell
+  private final AggregateFunction mFunction;
+
+  // the position of the column of every pivot value, by its string
+  private final HashMap<String, Integer> mColumns = new HashMap<String, Integer>();
+
+  /**
+   * @param function    the aggregate of the values of a cell, null if cells have at most one value
+   * @param pivotValues the values of the pivot columns, in order; rows of other pivot values are skipped
+   */
+  public Pivot(int[] keyIndexes, int pivotIndex, int valueIndex, AggregateFunction function, List<String> pivotValues) {
+    mKeyIndexes = keyIndexes.clone();
+    mPivotIndex = pivotIndex;
+    mValueIndex = valueIndex;
+    mFunction = function;
+    for (String value : pivotValues) {
+      if (!mColumns.containsKey(value)) mColumns.put(value, mColumns.size());
+    }
+  }
+
+  public int getNumColumns() {
+    return mColumns.size();
+  }
+
+  /**
+   * @return the cells of every key of the rows, in the order keys first appear
+   */
+  public Map<List<Object>, Cell[]> aggregate(Iterator<Object[]> rows) {
+    Map<List<Object>, Cell[]> cells = new LinkedHashMap<List<Object>, Cell[]>();
+    while (rows.hasNext()) {
+      Object[] row = rows.next();
+      Object pivotValue = row[mPivotIndex];
+      Integer column = pivotValue == null ? null : mColumns.get(String.valueOf(pivotValue));
+      if (column == null) continue;
+
+      List<Object> key = new ArrayList<Object>(mKeyIndexes.length);
+      for (int index : mKeyIndexes) {
+        key.add(row[index]);
+      }
+      Cell[] keyCells = cells.get(key);
+      if (keyCells == null) {
+        keyCells = new Cell[mColumns.size()];
+        cells.put(key, keyCells);
+      }
+      if (keyCells[column] == null) keyCells[column] = new Cell();
+      this.add(keyCells[column], row[mValueIndex]);
+    }
+    return cells;
+  }
+
+  /**
+   * Merges the cells of the same key aggregated from other rows into cells
+   *
+   * @return cells
+   */
+  public Cell[] merge(Cell[] cells, Cell[] other) {
+    for (int c = 0; c < cells.length; c++) {
+      if (other[c] == null) continue;
+      if (cells[c] == null) {
+        cells[c] = other[c];
+      } else if (mFunction != null) {
+        cells[c].mSummary.merge(other[c].mSummary);
+      } else {
+        this.setValue(cells[c], other[c].mValue, other[c].mRows);
+      }
+    }
+    return cells;
+  }
+
+  /**
+   * @return the row of the key followed by the value of every pivot column
+   */
+  public Object[] output(List<Object> key, Cell[] cells) {
+    Object[] row = new Object[key.size() + cells.length];
+    for (int k = 0; k < key.size(); k++) {
+      row[k] = key.get(k);
+    }
+    for (int c = 0; c < cells.length; c++) {
+      Object value;
+      if (mFunction == null) {
+        value = cells[c] == null ? null : cells[c].mValue;
+      } else {
+        value = Aggregates.valueOf(mFunction, cells[c] == null ? new Summary() : cells[c].mSummary);
+      }
+      row[key.size() + c] = value;
+    }
+    return row;
+  }
+
+  private void add(Cell cell, Object value) {
+    if (mFunction == null) {
+      this.setValue(cell, value, 1);
+      return;
+    }
+    if (cell.mSummary == null) cell.mSummary = new Summary();
+    // COUNT counts the values that are not null, numbers or not
+    if (mFunction == AggregateFunction.COUNT && value != null && !(value instanceof Number)) {
+      cell.mSummary.merge(0);
+    } else {
+      cell.mSummary.merge(Aggregates.toDouble(value));
+    }
+  }
+
+  private void setValue(Cell cell, Object value, long rows) {
+    cell.mRows += rows;
+    if (cell.mRows > 1) {
+      throw new IllegalArgumentException(String.format("Several rows of key and pivot value, e.g. of value %s; " +
+          "pivot them with an aggregate function", value));
+    }
+    cell.mValue = value;
+  }
+
+
+  /**
+   * The aggregate of the values of one key and pivot value
+   */
+  public static class Cell implements Serializable {
+
+    private static final long serialVersionUID = -3074180538066851935L;
+
+    private Summary mSummary;
+
+    private Object mValue;
+
+    private long mRows;
+  }
+}
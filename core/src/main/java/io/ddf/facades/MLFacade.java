@@ -6,6 +6,7 @@ package io.ddf.facades;
 
 import io.ddf.DDF;
 import io.ddf.exception.DDFException;
+import io.ddf.metrics.Trace;
 import io.ddf.ml.CrossValidationSet;
 import io.ddf.ml.IModel;
 import io.ddf.ml.ISupportML;
@@ -36,7 +37,11 @@ public class MLFacade implements ISupportML {
     mDDF = theDDF;
   }
 
+  /**
+   * @return the ML supporter, created by the DDF on first use
+   */
   public ISupportML getMLSupporter() {
+    if (mMLSupporter == null) mMLSupporter = mDDF.getMLSupporter();
     return mMLSupporter;
   }
 
@@ -47,22 +52,47 @@ public class MLFacade implements ISupportML {
 
   @Override
   public IModel train(String trainMethodName, Object... params) throws DDFException {
-    return this.getMLSupporter().train(trainMethodName, params);
+    Trace trace = Trace.begin(mDDF.getManager(), mDDF, "ML.train", trainMethodName);
+    try {
+      return this.getMLSupporter().train(trainMethodName, params);
+    } finally {
+      trace.end();
+    }
+  }
+
+  @Override
+  public Object prepareTrainingInput(String trainMethodName, Object... params) throws DDFException {
+    return this.getMLSupporter().prepareTrainingInput(trainMethodName, params);
   }
 
   @Override
   public DDF applyModel(IModel model) throws DDFException {
-    return this.getMLSupporter().applyModel(model);
+    Trace trace = Trace.begin(mDDF.getManager(), mDDF, "ML.applyModel", model.getName());
+    try {
+      return this.getMLSupporter().applyModel(model);
+    } finally {
+      trace.end();
+    }
   }
 
   @Override
   public DDF applyModel(IModel model, boolean hasLabels) throws DDFException {
-    return this.getMLSupporter().applyModel(model, hasLabels);
+    Trace trace = Trace.begin(mDDF.getManager(), mDDF, "ML.applyModel", model.getName());
+    try {
+      return this.getMLSupporter().applyModel(model, hasLabels);
+    } finally {
+      trace.end();
+    }
   }
 
   @Override
   public DDF applyModel(IModel model, boolean hasLabels, boolean includeFeatures) throws DDFException {
-    return this.getMLSupporter().applyModel(model, hasLabels, includeFeatures);
+    Trace trace = Trace.begin(mDDF.getManager(), mDDF, "ML.applyModel", model.getName());
+    try {
+      return this.getMLSupporter().applyModel(model, hasLabels, includeFeatures);
+    } finally {
+      trace.end();
+    }
   }
 
   // //// Convenient facade ML algorithm names //////
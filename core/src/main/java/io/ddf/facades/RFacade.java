@@ -25,7 +25,11 @@ public class RFacade implements IHandleAggregation {
     mAggregationHandler = aggregationHandler;
   }
 
+  /**
+   * @return the aggregation handler, created by the DDF on first use
+   */
   public IHandleAggregation getAggregationHandler() {
+    if (mAggregationHandler == null) mAggregationHandler = mDDF.getAggregationHandler();
     return mAggregationHandler;
   }
 
@@ -61,7 +65,7 @@ public class RFacade implements IHandleAggregation {
   // aggregate(cbind(mpg,hp) ~ vs + am, mtcars, FUN=mean)
   public AggregationResult aggregate(String rAggregateFormula) throws DDFException {
 
-    return mAggregationHandler.aggregate(AggregateField.fromSqlFieldSpecs(parseRAggregateFormula(rAggregateFormula)));
+    return this.getAggregationHandler().aggregate(AggregateField.fromSqlFieldSpecs(parseRAggregateFormula(rAggregateFormula)));
   }
 
   public static String parseRAggregateFormula(String rAggregateFormula) {
@@ -31,7 +31,11 @@ public class TransformFacade implements IHandleTransformations {
     mDDF = theDDF;
   }
 
+  /**
+   * @return the transformation handler, created by the DDF on first use
+   */
   public IHandleTransformations getmTransformationHandler() {
+    if (mTransformationHandler == null) mTransformationHandler = mDDF.getTransformationHandler();
     return mTransformationHandler;
   }
 
@@ -46,34 +50,34 @@ public class TransformFacade implements IHandleTransformations {
 
   @Override
   public DDF transformMapReduceNative(String mapFuncDef, String reduceFuncDef, boolean mapsideCombine) {
-    return mTransformationHandler.transformMapReduceNative(mapFuncDef, reduceFuncDef, mapsideCombine);
+    return this.getmTransformationHandler().transformMapReduceNative(mapFuncDef, reduceFuncDef, mapsideCombine);
 
   }
 
   @Override
   public DDF transformNativeRserve(String transformExpression) {
-    return mTransformationHandler.transformNativeRserve(transformExpression);
+    return this.getmTransformationHandler().transformNativeRserve(transformExpression);
 
   }
 
   @Override
   public DDF transformPython(String[] transformFunctions, String[] destColumns, String[][] sourceColumns) {
-    return mTransformationHandler.transformPython(transformFunctions, destColumns, sourceColumns);
+    return this.getmTransformationHandler().transformPython(transformFunctions, destColumns, sourceColumns);
   }
 
   @Override
   public DDF transformScaleMinMax() throws DDFException {
-    return mTransformationHandler.transformScaleMinMax();
+    return this.getmTransformationHandler().transformScaleMinMax();
   }
 
   @Override
   public DDF transformScaleStandard() throws DDFException {
-    return mTransformationHandler.transformScaleStandard();
+    return this.getmTransformationHandler().transformScaleStandard();
   }
 
   @Override
   public DDF transformUDF(List<String> transformExpressions, List<String> columns) throws DDFException {
-    return mTransformationHandler.transformUDF(transformExpressions, columns);
+    return this.getmTransformationHandler().transformUDF(transformExpressions, columns);
   }
 
 
@@ -85,7 +89,7 @@ public class TransformFacade implements IHandleTransformations {
   public DDF transformUDF(String transformExpression, List<String> columns) throws DDFException {
     List<String> transformExpressions = new ArrayList<String>();
     transformExpressions.add(transformExpression);
-    return mTransformationHandler.transformUDF(transformExpressions, columns);
+    return this.getmTransformationHandler().transformUDF(transformExpressions, columns);
   }
 
   /**
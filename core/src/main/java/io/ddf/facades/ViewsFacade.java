@@ -7,6 +7,7 @@ import io.ddf.content.ViewHandler.Column;
 import io.ddf.content.ViewHandler.Expression;
 import io.ddf.exception.DDFException;
 
+import java.util.Iterator;
 import java.util.List;
 
 public class ViewsFacade implements IHandleViews {
@@ -29,7 +30,11 @@ public class ViewsFacade implements IHandleViews {
     mDDF = theDDF;
   }
 
+  /**
+   * @return the view handler, created by the DDF on first use
+   */
   public IHandleViews getViewHandler() {
+    if (mViewHandler == null) mViewHandler = mDDF.getViewHandler();
     return mViewHandler;
   }
 
@@ -39,28 +44,33 @@ public class ViewsFacade implements IHandleViews {
 
   @Override
   public List<Object[]> getRandomSample(int numSamples, boolean withReplacement, int seed) {
-    return mViewHandler.getRandomSample(numSamples, withReplacement, seed);
+    return this.getViewHandler().getRandomSample(numSamples, withReplacement, seed);
   }
 
   @Override
   public DDF getRandomSampleByNum(int numSamples, boolean withReplacement,
                                   int seed) {
-    return mViewHandler.getRandomSampleByNum(numSamples, withReplacement, seed);
+    return this.getViewHandler().getRandomSampleByNum(numSamples, withReplacement, seed);
   }
 
   @Override
   public DDF getRandomSample(double percent, boolean withReplacement, int seed) {
-    return mViewHandler.getRandomSample(percent, withReplacement, seed);
+    return this.getViewHandler().getRandomSample(percent, withReplacement, seed);
   }
 
   @Override
   public List<String> head(int numRows) throws DDFException {
-    return mViewHandler.head(numRows);
+    return this.getViewHandler().head(numRows);
+  }
+
+  @Override
+  public Iterator<Object[]> getRowIterator(int numRows) throws DDFException {
+    return this.getViewHandler().getRowIterator(numRows);
   }
 
   @Override
   public List<String> top(int numRows, String orderedCols, String mode) throws DDFException {
-    return mViewHandler.top(numRows, orderedCols, mode);
+    return this.getViewHandler().top(numRows, orderedCols, mode);
   }
 
   public List<Object[]> getRandomSample(int numSamples) {
@@ -69,12 +79,12 @@ public class ViewsFacade implements IHandleViews {
 
   @Override
   public DDF project(String... columnNames) throws DDFException {
-    return mViewHandler.project(columnNames);
+    return this.getViewHandler().project(columnNames);
   }
 
   @Override
   public DDF subset(List<Column> columnExpr, Expression filter) throws DDFException {
-    return mViewHandler.subset(columnExpr, filter);
+    return this.getViewHandler().subset(columnExpr, filter);
   }
 
   @Override
@@ -0,0 +1,252 @@
+package io.ddf.index;
+
+
+import io.ddf.DDF;
+import io.ddf.content.IHandleIndexing;
+import io.ddf.content.Schema;
+import io.ddf.exception.DDFException;
+import io.ddf.metrics.Metrics;
+import io.ddf.metrics.Timer;
+import io.ddf.misc.ADDFFunctionalGroupHandler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the index definitions of a DDF and the {@link IndexSet} built over its partitions, which engines read with
+ * {@link #select}. The indexes were built over the rows returned by {@link #getSource()}; when it returns another
+ * object, the DDF was mutated and the indexes are rebuilt.
+ */
+public abstract class AIndexingHandler extends ADDFFunctionalGroupHandler implements IHandleIndexing {
+
+  public static final String INDEX_BUILD = "index.build";
+
+  public static final String PARTITIONS_READ = "index.partitions.read";
+
+  public static final String PARTITIONS_SKIPPED = "index.partitions.skipped";
+
+  private final Map<String, IndexType> mDefinitions = new LinkedHashMap<String, IndexType>();
+
+  private IndexSet mIndexes;
+
+  private Object mSource;
+
+  public AIndexingHandler(DDF theDDF) {
+    super(theDDF);
+  }
+
+  /**
+   * @return the rows of the DDF that indexes are built over, the same object as long as the DDF is not mutated
+   */
+  protected abstract Object getSource() throws DDFException;
+
+  /**
+   * Runs the indexer over every partition of the source rows
+   *
+   * @return the indexes of the partitions, in order
+   */
+  protected abstract List<IndexSet.Partition> indexPartitions(Object source, IndexSet.Indexer indexer)
+      throws DDFException;
+
+  /**
+   * Called after indexes were created, dropped or invalidated
+   */
+  protected void indexesChanged() throws DDFException {
+  }
+
+  @Override
+  public void createIndex(IndexType type, String... columns) throws DDFException {
+    if (type == null) throw new DDFException("The index type must be specified");
+    if (columns == null || columns.length == 0) throw new DDFException("columns must be specified");
+    List<String> names = new ArrayList<String>();
+    for (String column : columns) {
+      names.add(this.getColumnName(column));
+    }
+
+    synchronized (this) {
+      Object source = this.getSource();
+      if (mIndexes != null && source != mSource) mIndexes = null;
+      Map<String, IndexType> added = new LinkedHashMap<String, IndexType>();
+      for (String name : names) {
+        added.put(name, type);
+      }
+      Map<String, IndexType> definitions = new LinkedHashMap<String, IndexType>(mDefinitions);
+      definitions.putAll(added);
+      // the other indexes are still valid, unless the DDF was mutated since they were built
+      this.build(source, mIndexes == null ? definitions : added);
+      mDefinitions.putAll(added);
+    }
+    this.indexesChanged();
+  }
+
+  @Override
+  public void dropIndex(String column) {
+    synchronized (this) {
+      Schema.Column schemaColumn = this.getDDF().getColumn(column);
+      String name = schemaColumn == null ? column : schemaColumn.getName();
+      if (mDefinitions.remove(name) == null) return;
+      if (mIndexes != null) mIndexes.remove(name);
+      if (mDefinitions.isEmpty()) this.clear();
+    }
+    this.notifyChanged();
+  }
+
+  @Override
+  public void dropIndexes() {
+    synchronized (this) {
+      mDefinitions.clear();
+      this.clear();
+    }
+    this.notifyChanged();
+  }
+
+  @Override
+  public synchronized Map<String, IndexType> getIndexes() {
+    return Collections.unmodifiableMap(new LinkedHashMap<String, IndexType>(mDefinitions));
+  }
+
+  /**
+   * Drops the built indexes, and the definitions on columns that the DDF no longer has
+   */
+  @Override
+  public void invalidate() {
+    synchronized (this) {
+      if (mDefinitions.isEmpty() && mIndexes == null) return;
+      for (Iterator<String> it = mDefinitions.keySet().iterator(); it.hasNext(); ) {
+        if (this.getDDF().getColumn(it.next()) == null) it.remove();
+      }
+      this.clear();
+    }
+    mLog.info(">>>> invalidated indexes of " + this.getDDF().getName());
+    this.notifyChanged();
+  }
+
+  @Override
+  public IndexSelection select(List<ColumnRange> ranges) throws DDFException {
+    if (ranges == null || ranges.isEmpty()) return null;
+
+    IndexSelection selection;
+    synchronized (this) {
+      if (mDefinitions.isEmpty()) return null;
+      List<ColumnRange> indexed = new ArrayList<ColumnRange>();
+      for (ColumnRange range : ranges) {
+        Schema.Column column = this.getDDF().getColumn(range.getColumn());
+        if (column != null && mDefinitions.containsKey(column.getName())) {
+          indexed.add(range.withColumn(column.getName()));
+        }
+      }
+      if (indexed.isEmpty()) return null;
+
+      Object source = this.getSource();
+      if (mIndexes == null || source != mSource) {
+        try {
+          mIndexes = null;
+          this.build(source, mDefinitions);
+        } catch (Exception e) {
+          mLog.warn(String.format("Unable to rebuild the indexes of %s", this.getDDF().getName()), e);
+          this.clear();
+          return null;
+        }
+      }
+      selection = mIndexes.select(indexed);
+      mLog.info(String.format(">>>> %s: reading %d of %d partitions", indexed, selection.getNumKept(),
+          selection.getNumPartitions()));
+    }
+    Metrics.counter(PARTITIONS_READ).inc(selection.getNumKept());
+    Metrics.counter(PARTITIONS_SKIPPED).inc(selection.getNumPartitions() - selection.getNumKept());
+    return selection;
+  }
+
+  /**
+   * @return the indexes built over the current rows of the DDF, null if none are
+   */
+  public synchronized IndexSet getIndexSet() throws DDFException {
+    return mIndexes != null && this.getSource() == mSource ? mIndexes : null;
+  }
+
+  /**
+   * Sets indexes built over the current rows of the DDF, e.g. those persisted with them
+   */
+  public void setIndexSet(IndexSet indexes) throws DDFException {
+    synchronized (this) {
+      mDefinitions.clear();
+      mDefinitions.putAll(indexes.getTypes());
+      mIndexes = indexes;
+      mSource = this.getSource();
+    }
+    this.indexesChanged();
+  }
+
+  /**
+   * Defines indexes without building them, they are built when first used
+   */
+  public void setDefinitions(Map<String, IndexType> definitions) throws DDFException {
+    synchronized (this) {
+      mDefinitions.clear();
+      for (Map.Entry<String, IndexType> entry : definitions.entrySet()) {
+        mDefinitions.put(this.getColumnName(entry.getKey()), entry.getValue());
+      }
+      this.clear();
+    }
+    this.indexesChanged();
+  }
+
+  protected synchronized boolean isBuilt() {
+    return mIndexes != null;
+  }
+
+  private void build(Object source, Map<String, IndexType> definitions) throws DDFException {
+    String[] columns = new String[definitions.size()];
+    int[] columnIndexes = new int[columns.length];
+    IndexType[] types = new IndexType[columns.length];
+    int c = 0;
+    for (Map.Entry<String, IndexType> entry : definitions.entrySet()) {
+      columns[c] = entry.getKey();
+      columnIndexes[c] = this.getDDF().getColumnIndex(entry.getKey());
+      types[c] = entry.getValue();
+      c++;
+    }
+
+    IndexSet.Indexer indexer = new IndexSet.Indexer(columns, columnIndexes, types);
+    Timer.Context context = Metrics.timer(INDEX_BUILD).time();
+    List<IndexSet.Partition> partitions;
+    try {
+      partitions = this.indexPartitions(source, indexer);
+    } catch (RuntimeException e) {
+      throw new DDFException(String.format("Unable to index %s", definitions), e);
+    } finally {
+      context.stop();
+    }
+
+    if (mIndexes == null) mIndexes = new IndexSet(partitions.size());
+    mIndexes.add(indexer, partitions);
+    mSource = source;
+    mLog.info(String.format(">>>> built indexes %s of %s over %d partitions", definitions, this.getDDF().getName(),
+        partitions.size()));
+  }
+
+  private void clear() {
+    mIndexes = null;
+    mSource = null;
+  }
+
+  private void notifyChanged() {
+    try {
+      this.indexesChanged();
+    } catch (DDFException e) {
+      mLog.warn(String.format("Unable to update the indexes of %s", this.getDDF().getName()), e);
+    }
+  }
+
+  private String getColumnName(String column) throws DDFException {
+    Schema.Column schemaColumn = column == null ? null : this.getDDF().getColumn(column);
+    if (schemaColumn == null) {
+      throw new DDFException(String.format("Column %s does not exist in %s", column, this.getDDF().getName()));
+    }
+    return schemaColumn.getName();
+  }
+}
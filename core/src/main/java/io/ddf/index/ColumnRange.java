@@ -0,0 +1,198 @@
+package io.ddf.index;
+
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A condition on the values of one column, translated from a filter that selects rows: either a set of values, for
+ * equalities and IN lists, or a range with optional bounds. Nulls never satisfy a condition, as in SQL.
+ * <p/>
+ * Values are normalized so that equal numbers of different classes are equal, and dates are compared by their
+ * milliseconds. Values that cannot be compared to those of the column, e.g. a string to a number, make indexes answer
+ * "maybe", never "no".
+ */
+public class ColumnRange implements Serializable {
+
+  private static final long serialVersionUID = -8142539617338261474L;
+
+  private final String mColumn;
+
+  private final Set<Object> mValues;
+
+  private final Object mLower;
+
+  private final boolean mLowerInclusive;
+
+  private final Object mUpper;
+
+  private final boolean mUpperInclusive;
+
+  private ColumnRange(String column, Set<Object> values, Object lower, boolean lowerInclusive, Object upper,
+      boolean upperInclusive) {
+    mColumn = column;
+    mValues = values;
+    mLower = normalize(lower);
+    mUpper = normalize(upper);
+    // dates are compared by their milliseconds, which may tie with the finer timestamps of the engine
+    mLowerInclusive = lowerInclusive || mLower instanceof Date;
+    mUpperInclusive = upperInclusive || mUpper instanceof Date;
+  }
+
+  public static ColumnRange equalTo(String column, Object value) {
+    return in(column, Collections.singletonList(value));
+  }
+
+  /**
+   * @param values the values, of which nulls are ignored
+   */
+  public static ColumnRange in(String column, Collection<?> values) {
+    Set<Object> normalized = new LinkedHashSet<Object>();
+    for (Object value : values) {
+      if (value != null) normalized.add(normalize(value));
+    }
+    return new ColumnRange(column, normalized, null, false, null, false);
+  }
+
+  public static ColumnRange greaterThan(String column, Object value, boolean inclusive) {
+    return new ColumnRange(column, null, value, inclusive, null, false);
+  }
+
+  public static ColumnRange lessThan(String column, Object value, boolean inclusive) {
+    return new ColumnRange(column, null, null, false, value, inclusive);
+  }
+
+  public static ColumnRange between(String column, Object lower, Object upper) {
+    return new ColumnRange(column, null, lower, true, upper, true);
+  }
+
+  public String getColumn() {
+    return mColumn;
+  }
+
+  /**
+   * @return the range on another column, e.g. on the column of that name in the DDF
+   */
+  public ColumnRange withColumn(String column) {
+    return new ColumnRange(column, mValues, mLower, mLowerInclusive, mUpper, mUpperInclusive);
+  }
+
+  /**
+   * @return the normalized values of a set, or null for a range
+   */
+  public Set<Object> getValues() {
+    return mValues == null ? null : Collections.unmodifiableSet(mValues);
+  }
+
+  public boolean isSet() {
+    return mValues != null;
+  }
+
+  public Object getLower() {
+    return mLower;
+  }
+
+  public boolean isLowerInclusive() {
+    return mLowerInclusive;
+  }
+
+  public Object getUpper() {
+    return mUpper;
+  }
+
+  public boolean isUpperInclusive() {
+    return mUpperInclusive;
+  }
+
+  /**
+   * @param min the smallest value of a column in a partition, not null
+   * @param max the largest, not null
+   * @return false if no value from min to max can satisfy the condition
+   */
+  public boolean overlaps(Object min, Object max) {
+    if (mValues != null) {
+      for (Object value : mValues) {
+        Integer low = compare(min, value);
+        Integer high = compare(value, max);
+        if (low == null || high == null || (low <= 0 && high <= 0)) return true;
+      }
+      return false;
+    }
+    if (mLower != null) {
+      Integer c = compare(max, mLower);
+      if (c != null && (c < 0 || c == 0 && !mLowerInclusive)) return false;
+    }
+    if (mUpper != null) {
+      Integer c = compare(min, mUpper);
+      if (c != null && (c > 0 || c == 0 && !mUpperInclusive)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * @return whether the range, which must not be a set, includes the normalized value, or null if they cannot be
+   * compared
+   */
+  Boolean includes(Object value) {
+    if (mLower != null) {
+      Integer c = compare(value, mLower);
+      if (c == null) return null;
+      if (c < 0 || c == 0 && !mLowerInclusive) return false;
+    }
+    if (mUpper != null) {
+      Integer c = compare(value, mUpper);
+      if (c == null) return null;
+      if (c > 0 || c == 0 && !mUpperInclusive) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Makes equal numbers of different classes equal, and dates of different classes comparable
+   */
+  public static Object normalize(Object value) {
+    if (value instanceof Date) return new Date(((Date) value).getTime());
+    if (!(value instanceof Number)) return value;
+    Number number = (Number) value;
+    if (isIntegral(number)) return number.longValue();
+    double d = number.doubleValue();
+    if (d == Math.rint(d) && Math.abs(d) < 9.0e15) return (long) d;
+    return d;
+  }
+
+  /**
+   * @return the order of two normalized values, or null if they cannot be compared
+   */
+  @SuppressWarnings("unchecked")
+  public static Integer compare(Object a, Object b) {
+    if (a instanceof Number && b instanceof Number) {
+      if (a instanceof Long && b instanceof Long) return ((Long) a).compareTo((Long) b);
+      double x = ((Number) a).doubleValue(), y = ((Number) b).doubleValue();
+      if (Double.isNaN(x) || Double.isNaN(y)) return null;
+      return Double.compare(x, y);
+    }
+    if (a != null && b != null && a.getClass() == b.getClass() && a instanceof Comparable) {
+      return ((Comparable<Object>) a).compareTo(b);
+    }
+    return null;
+  }
+
+  private static boolean isIntegral(Number number) {
+    return number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte;
+  }
+
+  @Override
+  public String toString() {
+    if (mValues != null) return String.format("%s IN %s", mColumn, mValues);
+    List<String> bounds = new ArrayList<String>();
+    if (mLower != null) bounds.add(String.format("%s %s %s", mColumn, mLowerInclusive ? ">=" : ">", mLower));
+    if (mUpper != null) bounds.add(String.format("%s %s %s", mColumn, mUpperInclusive ? "<=" : "<", mUpper));
+    return bounds.isEmpty() ? mColumn + " IS NOT NULL" : bounds.toString();
+  }
+}
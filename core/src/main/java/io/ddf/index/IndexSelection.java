@@ -0,0 +1,45 @@
+package io.ddf.index;
+
+
+import java.io.Serializable;
+
+/**
+ * The partitions of a DDF that may have rows satisfying a filter, and for each of them the positions of those rows
+ * if an index tells them
+ */
+public class IndexSelection implements Serializable {
+
+  private static final long serialVersionUID = 6337904155853101592L;
+
+  private final boolean[] mKept;
+
+  private final int[][] mRows;
+
+  public IndexSelection(boolean[] kept, int[][] rows) {
+    mKept = kept;
+    mRows = rows;
+  }
+
+  public int getNumPartitions() {
+    return mKept.length;
+  }
+
+  public boolean isKept(int partition) {
+    return partition < mKept.length && mKept[partition];
+  }
+
+  public int getNumKept() {
+    int kept = 0;
+    for (boolean k : mKept) {
+      if (k) kept++;
+    }
+    return kept;
+  }
+
+  /**
+   * @return the ascending positions of the rows to read in a kept partition, or null to read all of them
+   */
+  public int[] getRows(int partition) {
+    return mRows[partition];
+  }
+}
@@ -0,0 +1,177 @@
+package io.ddf.index;
+
+
+import io.ddf.content.IHandleIndexing.IndexType;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The indexes built over the partitions of a DDF, by column
+ */
+public class IndexSet implements Serializable {
+
+  private static final long serialVersionUID = -6600917516009716337L;
+
+  private final int mNumPartitions;
+
+  private final Map<String, IndexType> mTypes = new LinkedHashMap<String, IndexType>();
+
+  private final Map<String, ZoneMap[]> mZoneMaps = new LinkedHashMap<String, ZoneMap[]>();
+
+  // only for HASH and SORTED columns
+  private final Map<String, PartitionIndex[]> mIndexes = new LinkedHashMap<String, PartitionIndex[]>();
+
+  public IndexSet(int numPartitions) {
+    mNumPartitions = numPartitions;
+  }
+
+  public int getNumPartitions() {
+    return mNumPartitions;
+  }
+
+  public Map<String, IndexType> getTypes() {
+    return Collections.unmodifiableMap(mTypes);
+  }
+
+  public boolean isEmpty() {
+    return mTypes.isEmpty();
+  }
+
+  /**
+   * @return the zone maps of the column by partition, or null if it is not indexed
+   */
+  public ZoneMap[] getZoneMaps(String column) {
+    return mZoneMaps.get(column);
+  }
+
+  /**
+   * Adds the indexes that an {@link Indexer} built over each partition, in order
+   */
+  public void add(Indexer indexer, List<Partition> partitions) {
+    if (partitions.size() != mNumPartitions) {
+      throw new IllegalArgumentException(String.format("Expected %d partitions, got %d", mNumPartitions,
+          partitions.size()));
+    }
+    for (int c = 0; c < indexer.mColumns.length; c++) {
+      ZoneMap[] zoneMaps = new ZoneMap[mNumPartitions];
+      PartitionIndex[] indexes = indexer.mTypes[c] == IndexType.ZONE_MAP ? null : new PartitionIndex[mNumPartitions];
+      for (int p = 0; p < mNumPartitions; p++) {
+        zoneMaps[p] = partitions.get(p).mZoneMaps[c];
+        if (indexes != null) indexes[p] = partitions.get(p).mIndexes[c];
+      }
+
+      String column = indexer.mColumns[c];
+      mTypes.put(column, indexer.mTypes[c]);
+      mZoneMaps.put(column, zoneMaps);
+      if (indexes == null) mIndexes.remove(column);
+      else mIndexes.put(column, indexes);
+    }
+  }
+
+  public void remove(String column) {
+    mTypes.remove(column);
+    mZoneMaps.remove(column);
+    mIndexes.remove(column);
+  }
+
+  /**
+   * @param ranges conditions on indexed columns, all of which rows must satisfy
+   */
+  public IndexSelection select(List<ColumnRange> ranges) {
+    boolean[] kept = new boolean[mNumPartitions];
+    int[][] rows = new int[mNumPartitions][];
+    for (int p = 0; p < mNumPartitions; p++) {
+      kept[p] = true;
+      for (ColumnRange range : ranges) {
+        ZoneMap[] zoneMaps = mZoneMaps.get(range.getColumn());
+        if (zoneMaps != null && !zoneMaps[p].mayContain(range)) {
+          kept[p] = false;
+          break;
+        }
+      }
+      if (!kept[p]) continue;
+
+      for (ColumnRange range : ranges) {
+        PartitionIndex[] indexes = mIndexes.get(range.getColumn());
+        int[] found = indexes == null ? null : indexes[p].lookup(range);
+        if (found != null) rows[p] = rows[p] == null ? found : PartitionIndex.intersect(rows[p], found);
+      }
+      if (rows[p] != null && rows[p].length == 0) kept[p] = false;
+    }
+    return new IndexSelection(kept, rows);
+  }
+
+
+  /**
+   * The indexes of one partition
+   */
+  public static class Partition implements Serializable {
+
+    private static final long serialVersionUID = 1823342318693409530L;
+
+    private final ZoneMap[] mZoneMaps;
+
+    private final PartitionIndex[] mIndexes;
+
+    Partition(ZoneMap[] zoneMaps, PartitionIndex[] indexes) {
+      mZoneMaps = zoneMaps;
+      mIndexes = indexes;
+    }
+  }
+
+
+  /**
+   * Builds the indexes of some columns over the rows of one partition, in one pass; shipped to where the partitions
+   * are
+   */
+  public static class Indexer implements Serializable {
+
+    private static final long serialVersionUID = -4862563905016437282L;
+
+    private final String[] mColumns;
+
+    private final int[] mColumnIndexes;
+
+    private final IndexType[] mTypes;
+
+    /**
+     * @param columnIndexes the indexes of the columns in the rows
+     */
+    public Indexer(String[] columns, int[] columnIndexes, IndexType[] types) {
+      mColumns = columns.clone();
+      mColumnIndexes = columnIndexes.clone();
+      mTypes = types.clone();
+    }
+
+    public Partition index(Iterator<Object[]> rows) {
+      int numColumns = mColumns.length;
+      ZoneMap[] zoneMaps = new ZoneMap[numColumns];
+      List<List<Object>> values = new ArrayList<List<Object>>(numColumns);
+      for (int c = 0; c < numColumns; c++) {
+        zoneMaps[c] = new ZoneMap();
+        values.add(mTypes[c] == IndexType.ZONE_MAP ? null : new ArrayList<Object>());
+      }
+
+      while (rows.hasNext()) {
+        Object[] row = rows.next();
+        for (int c = 0; c < numColumns; c++) {
+          Object value = row[mColumnIndexes[c]];
+          zoneMaps[c].add(value);
+          if (values.get(c) != null) values.get(c).add(value);
+        }
+      }
+
+      PartitionIndex[] indexes = new PartitionIndex[numColumns];
+      for (int c = 0; c < numColumns; c++) {
+        if (values.get(c) != null) indexes[c] = PartitionIndex.build(mTypes[c], values.get(c).iterator());
+      }
+      return new Partition(zoneMaps, indexes);
+    }
+  }
+}
@@ -0,0 +1,248 @@
+package io.ddf.index;
+
+
+import io.ddf.content.IHandleIndexing.IndexType;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The positions of the rows of one partition by the value of a column, from which the rows satisfying a
+ * {@link ColumnRange} are read without scanning the partition
+ */
+public abstract class PartitionIndex implements Serializable {
+
+  private static final long serialVersionUID = -4410119862771648571L;
+
+  /**
+   * @return the ascending positions of the rows whose value may satisfy the range, or null if the index cannot tell
+   */
+  public abstract int[] lookup(ColumnRange range);
+
+  /**
+   * @param values the values of the column in the partition, in the order of its rows
+   */
+  public static PartitionIndex build(IndexType type, Iterator<Object> values) {
+    switch (type) {
+      case HASH:
+        return new HashIndex(values);
+      case SORTED:
+        return new SortedIndex(values);
+      default:
+        throw new IllegalArgumentException(String.format("%s is not a row index", type));
+    }
+  }
+
+  /**
+   * @return the class by which values are told comparable, with numbers of all classes alike
+   */
+  static Class<?> kindOf(Object normalized) {
+    if (normalized instanceof Number) return Number.class;
+    if (normalized instanceof Date) return Date.class;
+    return normalized.getClass();
+  }
+
+
+  /**
+   * Positions by value, for equalities and IN lists
+   */
+  public static class HashIndex extends PartitionIndex {
+
+    private static final long serialVersionUID = 8201733478466135066L;
+
+    private final Map<Object, int[]> mPositions = new HashMap<Object, int[]>();
+
+    // the kind of all values, null if they are of several kinds and the index cannot be used
+    private Class<?> mKind;
+
+    HashIndex(Iterator<Object> values) {
+      Map<Object, List<Integer>> positions = new HashMap<Object, List<Integer>>();
+      boolean mixed = false;
+      for (int position = 0; values.hasNext(); position++) {
+        Object value = values.next();
+        if (value == null) continue;
+        Object normalized = ColumnRange.normalize(value);
+        if (mKind == null) mKind = kindOf(normalized);
+        else if (mKind != kindOf(normalized)) mixed = true;
+
+        List<Integer> list = positions.get(normalized);
+        if (list == null) {
+          list = new ArrayList<Integer>(1);
+          positions.put(normalized, list);
+        }
+        list.add(position);
+      }
+      if (mixed) mKind = null;
+
+      for (Map.Entry<Object, List<Integer>> entry : positions.entrySet()) {
+        mPositions.put(entry.getKey(), toArray(entry.getValue()));
+      }
+    }
+
+    @Override
+    public int[] lookup(ColumnRange range) {
+      if (!range.isSet() || mKind == null && !mPositions.isEmpty()) return null;
+
+      List<int[]> found = new ArrayList<int[]>();
+      for (Object value : range.getValues()) {
+        if (mKind != null && kindOf(value) != mKind) return null;
+        int[] positions = mPositions.get(value);
+        if (positions != null) found.add(positions);
+      }
+      return union(found);
+    }
+  }
+
+
+  /**
+   * Positions in the order of the values, for equalities, IN lists and ranges
+   */
+  public static class SortedIndex extends PartitionIndex {
+
+    private static final long serialVersionUID = -1793061758393648062L;
+
+    private final Object[] mValues;
+
+    private final int[] mPositions;
+
+    /**
+     * @throws IllegalArgumentException if the values cannot be ordered
+     */
+    SortedIndex(Iterator<Object> values) {
+      final List<Object> normalized = new ArrayList<Object>();
+      List<Integer> positions = new ArrayList<Integer>();
+      for (int position = 0; values.hasNext(); position++) {
+        Object value = values.next();
+        if (value == null) continue;
+        normalized.add(ColumnRange.normalize(value));
+        positions.add(position);
+      }
+
+      Integer[] order = new Integer[normalized.size()];
+      for (int i = 0; i < order.length; i++) {
+        order[i] = i;
+      }
+      // stable, so that the positions of equal values stay ascending
+      Arrays.sort(order, new Comparator<Integer>() {
+        @Override
+        public int compare(Integer a, Integer b) {
+          Integer c = ColumnRange.compare(normalized.get(a), normalized.get(b));
+          if (c == null) {
+            throw new IllegalArgumentException(String.format("Cannot order %s and %s", normalized.get(a),
+                normalized.get(b)));
+          }
+          return c;
+        }
+      });
+
+      mValues = new Object[order.length];
+      mPositions = new int[order.length];
+      for (int i = 0; i < order.length; i++) {
+        mValues[i] = normalized.get(order[i]);
+        mPositions[i] = positions.get(order[i]);
+      }
+    }
+
+    @Override
+    public int[] lookup(ColumnRange range) {
+      if (range.isSet()) {
+        List<int[]> found = new ArrayList<int[]>();
+        for (Object value : range.getValues()) {
+          Integer from = this.search(value, false);
+          Integer to = this.search(value, true);
+          if (from == null || to == null) return null;
+          found.add(this.positions(from, to));
+        }
+        return union(found);
+      }
+
+      Integer from = range.getLower() == null ? Integer.valueOf(0)
+          : this.search(range.getLower(), !range.isLowerInclusive());
+      Integer to = range.getUpper() == null ? Integer.valueOf(mValues.length)
+          : this.search(range.getUpper(), range.isUpperInclusive());
+      if (from == null || to == null) return null;
+      return this.positions(from, Math.max(from, to));
+    }
+
+    /**
+     * @param after whether to skip the values equal to value
+     * @return the index of the first value larger than, or equal to unless after, value, or null if they cannot be
+     * compared
+     */
+    private Integer search(Object value, boolean after) {
+      int low = 0, high = mValues.length;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        Integer c = ColumnRange.compare(mValues[middle], value);
+        if (c == null) return null;
+        if (c < 0 || after && c == 0) low = middle + 1;
+        else high = middle;
+      }
+      return low;
+    }
+
+    private int[] positions(int from, int to) {
+      int[] positions = Arrays.copyOfRange(mPositions, from, to);
+      Arrays.sort(positions);
+      return positions;
+    }
+  }
+
+
+  static int[] toArray(List<Integer> list) {
+    int[] array = new int[list.size()];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = list.get(i);
+    }
+    return array;
+  }
+
+  /**
+   * @return the ascending union of ascending positions
+   */
+  static int[] union(List<int[]> sets) {
+    if (sets.size() == 1) return sets.get(0);
+    int size = 0;
+    for (int[] set : sets) {
+      size += set.length;
+    }
+    int[] all = new int[size];
+    int offset = 0;
+    for (int[] set : sets) {
+      System.arraycopy(set, 0, all, offset, set.length);
+      offset += set.length;
+    }
+    Arrays.sort(all);
+
+    int distinct = 0;
+    for (int i = 0; i < all.length; i++) {
+      if (i == 0 || all[i] != all[i - 1]) all[distinct++] = all[i];
+    }
+    return distinct == all.length ? all : Arrays.copyOf(all, distinct);
+  }
+
+  /**
+   * @return the ascending intersection of ascending positions
+   */
+  public static int[] intersect(int[] a, int[] b) {
+    int[] both = new int[Math.min(a.length, b.length)];
+    int size = 0;
+    for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+      if (a[i] < b[j]) i++;
+      else if (a[i] > b[j]) j++;
+      else {
+        both[size++] = a[i];
+        i++;
+        j++;
+      }
+    }
+    return size == both.length ? both : Arrays.copyOf(both, size);
+  }
+}
@@ -0,0 +1,80 @@
+package io.ddf.index;
+
+
+import java.io.Serializable;
+
+/**
+ * The smallest and largest values of a column in one partition, and how many of its values are null, with which
+ * partitions that cannot satisfy a {@link ColumnRange} are skipped without being read.
+ */
+public class ZoneMap implements Serializable {
+
+  private static final long serialVersionUID = 3075640618952426839L;
+
+  private Object mMin;
+
+  private Object mMax;
+
+  private long mNumRows;
+
+  private long mNumNulls;
+
+  // false once values that cannot be compared to each other are seen, in which case nothing is skipped
+  private boolean mOrdered = true;
+
+  public void add(Object value) {
+    mNumRows++;
+    if (value == null) {
+      mNumNulls++;
+      return;
+    }
+    if (!mOrdered) return;
+
+    Object normalized = ColumnRange.normalize(value);
+    if (mMin == null) {
+      mMin = normalized;
+      mMax = normalized;
+      return;
+    }
+    Integer low = ColumnRange.compare(normalized, mMin);
+    Integer high = ColumnRange.compare(normalized, mMax);
+    if (low == null || high == null) {
+      mOrdered = false;
+      mMin = null;
+      mMax = null;
+    } else {
+      if (low < 0) mMin = normalized;
+      if (high > 0) mMax = normalized;
+    }
+  }
+
+  public Object getMin() {
+    return mMin;
+  }
+
+  public Object getMax() {
+    return mMax;
+  }
+
+  public long getNumRows() {
+    return mNumRows;
+  }
+
+  public long getNumNulls() {
+    return mNumNulls;
+  }
+
+  /**
+   * @return false if no row of the partition can satisfy the range
+   */
+  public boolean mayContain(ColumnRange range) {
+    if (mNumNulls == mNumRows) return false;
+    if (!mOrdered) return true;
+    return range.overlaps(mMin, mMax);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("[%s, %s] (%d rows, %d nulls)", mMin, mMax, mNumRows, mNumNulls);
+  }
+}
@@ -0,0 +1,46 @@
+package io.ddf.metrics;
+
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A count of events, e.g. cache hits
+ */
+public class Counter implements CounterMBean {
+
+  private final String mName;
+
+  private final AtomicLong mCount = new AtomicLong();
+
+  public Counter(String name) {
+    mName = name;
+  }
+
+  @Override
+  public String getName() {
+    return mName;
+  }
+
+  public void inc() {
+    mCount.incrementAndGet();
+  }
+
+  public void inc(long n) {
+    mCount.addAndGet(n);
+  }
+
+  @Override
+  public long getCount() {
+    return mCount.get();
+  }
+
+  @Override
+  public void reset() {
+    mCount.set(0);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s count=%d", mName, this.getCount());
+  }
+}
@@ -0,0 +1,14 @@
+package io.ddf.metrics;
+
+
+/**
+ * The attributes of a {@link Counter} exposed through JMX
+ */
+public interface CounterMBean {
+
+  String getName();
+
+  long getCount();
+
+  void reset();
+}
@@ -0,0 +1,30 @@
+package io.ddf.metrics;
+
+
+import java.util.Map;
+
+/**
+ * The in-process registry of the timers and counters of DDF operations. The implementation is set in ddf.ini as
+ * MetricsRegistry.
+ */
+public interface IMetricsRegistry {
+
+  /**
+   * @return the timer of the given name, created if there is none yet
+   */
+  Timer timer(String name);
+
+  /**
+   * @return the counter of the given name, created if there is none yet
+   */
+  Counter counter(String name);
+
+  Map<String, Timer> getTimers();
+
+  Map<String, Counter> getCounters();
+
+  /**
+   * Resets all timers and counters, e.g. between benchmark runs
+   */
+  void reset();
+}
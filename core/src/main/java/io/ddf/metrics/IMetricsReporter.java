@@ -0,0 +1,12 @@
+package io.ddf.metrics;
+
+
+/**
+ * Publishes the metrics of a registry, every MetricsReportInterval seconds as set in ddf.ini
+ */
+public interface IMetricsReporter {
+
+  void report(IMetricsRegistry registry);
+
+  void stop();
+}
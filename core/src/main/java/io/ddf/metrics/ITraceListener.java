@@ -0,0 +1,15 @@
+package io.ddf.metrics;
+
+
+/**
+ * Notified of the operations traced on the DDFs of a manager, e.g. to tag the jobs they run on the engine
+ */
+public interface ITraceListener {
+
+  /**
+   * @return state to pass to {@link #onEnd(Trace, Object)}
+   */
+  Object onBegin(Trace trace);
+
+  void onEnd(Trace trace, Object state);
+}
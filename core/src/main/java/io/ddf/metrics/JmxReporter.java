@@ -0,0 +1,61 @@
+package io.ddf.metrics;
+
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Registers the timers and counters as MBeans of the platform MBean server, under io.ddf.metrics:type=Timer,name=...
+ * and io.ddf.metrics:type=Counter,name=..., as they appear in the registry
+ */
+public class JmxReporter implements IMetricsReporter {
+
+  public static final String DOMAIN = "io.ddf.metrics";
+
+  private static final Logger sLog = LoggerFactory.getLogger(JmxReporter.class);
+
+  private final MBeanServer mServer = ManagementFactory.getPlatformMBeanServer();
+
+  private final Set<ObjectName> mRegistered = new HashSet<ObjectName>();
+
+  @Override
+  public synchronized void report(IMetricsRegistry registry) {
+    for (Timer timer : registry.getTimers().values()) {
+      this.register("Timer", timer.getName(), timer);
+    }
+    for (Counter counter : registry.getCounters().values()) {
+      this.register("Counter", counter.getName(), counter);
+    }
+  }
+
+  private void register(String type, String name, Object mbean) {
+    try {
+      ObjectName objectName = new ObjectName(DOMAIN, "type", type);
+      objectName = new ObjectName(String.format("%s,name=%s", objectName, ObjectName.quote(name)));
+      if (mRegistered.contains(objectName)) return;
+      if (!mServer.isRegistered(objectName)) mServer.registerMBean(mbean, objectName);
+      mRegistered.add(objectName);
+    } catch (JMException e) {
+      sLog.warn(String.format("Cannot register %s %s with JMX", type, name), e);
+    }
+  }
+
+  @Override
+  public synchronized void stop() {
+    for (ObjectName objectName : mRegistered) {
+      try {
+        mServer.unregisterMBean(objectName);
+      } catch (JMException e) {
+        sLog.warn("Cannot unregister " + objectName, e);
+      }
+    }
+    mRegistered.clear();
+  }
+}
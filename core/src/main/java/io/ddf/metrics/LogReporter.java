@@ -0,0 +1,27 @@
+package io.ddf.metrics;
+
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs the timers and counters that have been updated
+ */
+public class LogReporter implements IMetricsReporter {
+
+  private static final Logger sLog = LoggerFactory.getLogger(LogReporter.class);
+
+  @Override
+  public void report(IMetricsRegistry registry) {
+    for (Timer timer : registry.getTimers().values()) {
+      if (timer.getCount() > 0) sLog.info(">>>> " + timer);
+    }
+    for (Counter counter : registry.getCounters().values()) {
+      if (counter.getCount() > 0) sLog.info(">>>> " + counter);
+    }
+  }
+
+  @Override
+  public void stop() {
+  }
+}
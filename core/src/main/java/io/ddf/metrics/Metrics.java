@@ -0,0 +1,154 @@
+package io.ddf.metrics;
+
+
+import com.google.common.base.Strings;
+import io.ddf.misc.Config;
+import io.ddf.misc.Config.ConfigConstant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access to the process-wide {@link IMetricsRegistry} and its reporters, set up from ddf.ini when first used:
+ * <pre>
+ *   MetricsRegistry = the IMetricsRegistry class, {@link MetricsRegistry} by default
+ *   MetricsReporters = comma-separated "log", "jmx" or IMetricsReporter classes, none by default
+ *   MetricsReportInterval = seconds between reports, 60 by default
+ * </pre>
+ */
+public class Metrics {
+
+  public static final String LOG_REPORTER = "log";
+
+  public static final String JMX_REPORTER = "jmx";
+
+  private static final long DEFAULT_REPORT_INTERVAL = 60;
+
+  private static final Logger sLog = LoggerFactory.getLogger(Metrics.class);
+
+  private static IMetricsRegistry sRegistry;
+
+  private static List<IMetricsReporter> sReporters = new ArrayList<IMetricsReporter>();
+
+  private static ScheduledExecutorService sScheduler;
+
+  public static synchronized IMetricsRegistry getRegistry() {
+    if (sRegistry == null) {
+      sRegistry = newRegistry();
+      startReporters();
+    }
+    return sRegistry;
+  }
+
+  /**
+   * Replaces the registry, e.g. by one that forwards to the metrics library of an application. The reporters are
+   * kept, and report the new registry.
+   */
+  public static synchronized void setRegistry(IMetricsRegistry registry) {
+    if (sRegistry == null) startReporters();
+    sRegistry = registry;
+  }
+
+  public static Timer timer(String name) {
+    return getRegistry().timer(name);
+  }
+
+  public static Counter counter(String name) {
+    return getRegistry().counter(name);
+  }
+
+  /**
+   * Reports the metrics now to all reporters
+   */
+  public static synchronized void report() {
+    for (IMetricsReporter reporter : sReporters) {
+      try {
+        reporter.report(sRegistry);
+      } catch (RuntimeException e) {
+        sLog.warn("Error reporting metrics with " + reporter.getClass().getName(), e);
+      }
+    }
+  }
+
+  public static synchronized void addReporter(IMetricsReporter reporter) {
+    sReporters.add(reporter);
+  }
+
+  public static synchronized void stopReporters() {
+    if (sScheduler != null) {
+      sScheduler.shutdownNow();
+      sScheduler = null;
+    }
+    for (IMetricsReporter reporter : sReporters) {
+      reporter.stop();
+    }
+    sReporters.clear();
+  }
+
+  private static IMetricsRegistry newRegistry() {
+    String className = Config.getGlobalValue(ConfigConstant.FIELD_METRICS_REGISTRY);
+    if (Strings.isNullOrEmpty(className)) return new MetricsRegistry();
+
+    try {
+      return (IMetricsRegistry) Class.forName(className.trim()).newInstance();
+    } catch (Exception e) {
+      sLog.error(String.format("Cannot instantiate metrics registry %s, using the default one", className), e);
+      return new MetricsRegistry();
+    }
+  }
+
+  private static void startReporters() {
+    String names = Config.getGlobalValue(ConfigConstant.FIELD_METRICS_REPORTERS);
+    if (Strings.isNullOrEmpty(names)) return;
+
+    for (String name : names.split(",")) {
+      name = name.trim();
+      if (name.isEmpty()) continue;
+      if (LOG_REPORTER.equalsIgnoreCase(name)) {
+        sReporters.add(new LogReporter());
+      } else if (JMX_REPORTER.equalsIgnoreCase(name)) {
+        sReporters.add(new JmxReporter());
+      } else {
+        try {
+          sReporters.add((IMetricsReporter) Class.forName(name).newInstance());
+        } catch (Exception e) {
+          sLog.error("Cannot instantiate metrics reporter " + name, e);
+        }
+      }
+    }
+    if (sReporters.isEmpty()) return;
+
+    long interval = getReportInterval();
+    sScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "ddf-metrics-reporter");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    sScheduler.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        Metrics.report();
+      }
+    }, interval, interval, TimeUnit.SECONDS);
+    sLog.info(String.format(">>>> Reporting metrics to %s every %d seconds", names, interval));
+  }
+
+  private static long getReportInterval() {
+    String value = Config.getGlobalValue(ConfigConstant.FIELD_METRICS_REPORT_INTERVAL);
+    try {
+      return Strings.isNullOrEmpty(value) ? DEFAULT_REPORT_INTERVAL : Math.max(1, Long.parseLong(value.trim()));
+    } catch (NumberFormatException e) {
+      sLog.warn("Invalid MetricsReportInterval: " + value);
+      return DEFAULT_REPORT_INTERVAL;
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package io.ddf.metrics;
+
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The default {@link IMetricsRegistry}, holding its metrics in memory for the life of the JVM
+ */
+public class MetricsRegistry implements IMetricsRegistry {
+
+  private final ConcurrentMap<String, Timer> mTimers = new ConcurrentHashMap<String, Timer>();
+
+  private final ConcurrentMap<String, Counter> mCounters = new ConcurrentHashMap<String, Counter>();
+
+  @Override
+  public Timer timer(String name) {
+    Timer timer = mTimers.get(name);
+    if (timer == null) {
+      Timer existing = mTimers.putIfAbsent(name, timer = new Timer(name));
+      if (existing != null) timer = existing;
+    }
+    return timer;
+  }
+
+  @Override
+  public Counter counter(String name) {
+    Counter counter = mCounters.get(name);
+    if (counter == null) {
+      Counter existing = mCounters.putIfAbsent(name, counter = new Counter(name));
+      if (existing != null) counter = existing;
+    }
+    return counter;
+  }
+
+  /**
+   * @return the timers sorted by name
+   */
+  @Override
+  public Map<String, Timer> getTimers() {
+    return Collections.unmodifiableMap(new TreeMap<String, Timer>(mTimers));
+  }
+
+  /**
+   * @return the counters sorted by name
+   */
+  @Override
+  public Map<String, Counter> getCounters() {
+    return Collections.unmodifiableMap(new TreeMap<String, Counter>(mCounters));
+  }
+
+  @Override
+  public void reset() {
+    for (Timer timer : mTimers.values()) timer.reset();
+    for (Counter counter : mCounters.values()) counter.reset();
+  }
+}
@@ -0,0 +1,150 @@
+package io.ddf.metrics;
+
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The latencies of an operation, in a histogram of power-of-two buckets: bucket i counts the latencies of less than
+ * 2^i microseconds not counted by bucket i - 1, the last bucket all the longer ones. Percentiles are the upper bounds
+ * of their buckets, so they are at most twice the exact ones.
+ * <p/>
+ * Updates are lock-free and can be concurrent.
+ */
+public class Timer implements TimerMBean {
+
+  static final int NUM_BUCKETS = 40;
+
+  private final String mName;
+
+  private final AtomicLong mCount = new AtomicLong();
+
+  private final AtomicLong mTotalNanos = new AtomicLong();
+
+  private final AtomicLong mMaxNanos = new AtomicLong();
+
+  private final AtomicLongArray mBuckets = new AtomicLongArray(NUM_BUCKETS);
+
+  public Timer(String name) {
+    mName = name;
+  }
+
+  @Override
+  public String getName() {
+    return mName;
+  }
+
+  public void update(long nanos) {
+    if (nanos < 0) return;
+
+    mCount.incrementAndGet();
+    mTotalNanos.addAndGet(nanos);
+    long max = mMaxNanos.get();
+    while (nanos > max && !mMaxNanos.compareAndSet(max, nanos)) {
+      max = mMaxNanos.get();
+    }
+    mBuckets.incrementAndGet(bucketOf(nanos));
+  }
+
+  static int bucketOf(long nanos) {
+    long micros = nanos / 1000;
+    return Math.min(64 - Long.numberOfLeadingZeros(micros), NUM_BUCKETS - 1);
+  }
+
+  /**
+   * @return a context whose {@link Context#stop()} records the time elapsed since now
+   */
+  public Context time() {
+    return new Context();
+  }
+
+  @Override
+  public long getCount() {
+    return mCount.get();
+  }
+
+  @Override
+  public double getTotalMillis() {
+    return mTotalNanos.get() / 1e6;
+  }
+
+  @Override
+  public double getMeanMillis() {
+    long count = mCount.get();
+    return count == 0 ? 0 : mTotalNanos.get() / 1e6 / count;
+  }
+
+  @Override
+  public double getMaxMillis() {
+    return mMaxNanos.get() / 1e6;
+  }
+
+  @Override
+  public double getMedianMillis() {
+    return this.getPercentileMillis(0.5);
+  }
+
+  @Override
+  public double get95thPercentileMillis() {
+    return this.getPercentileMillis(0.95);
+  }
+
+  @Override
+  public double get99thPercentileMillis() {
+    return this.getPercentileMillis(0.99);
+  }
+
+  /**
+   * @param p between 0 and 1
+   * @return the latency below which a fraction p of the recorded latencies are, 0 if none is
+   */
+  public double getPercentileMillis(double p) {
+    long[] counts = new long[NUM_BUCKETS];
+    long total = 0;
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      counts[i] = mBuckets.get(i);
+      total += counts[i];
+    }
+    if (total == 0) return 0;
+
+    long rank = (long) Math.ceil(p * total);
+    long seen = 0;
+    for (int i = 0; i < NUM_BUCKETS - 1; i++) {
+      seen += counts[i];
+      if (seen >= rank && seen > 0) return Math.min((1L << i) / 1e3, this.getMaxMillis());
+    }
+    return this.getMaxMillis();
+  }
+
+  @Override
+  public void reset() {
+    mCount.set(0);
+    mTotalNanos.set(0);
+    mMaxNanos.set(0);
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      mBuckets.set(i, 0);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s count=%d mean=%.3fms p50=%.3fms p95=%.3fms p99=%.3fms max=%.3fms", mName,
+        this.getCount(), this.getMeanMillis(), this.getMedianMillis(), this.get95thPercentileMillis(),
+        this.get99thPercentileMillis(), this.getMaxMillis());
+  }
+
+
+  public class Context {
+
+    private final long mStart = System.nanoTime();
+
+    /**
+     * @return the elapsed time in nanoseconds, which is recorded by the timer
+     */
+    public long stop() {
+      long elapsed = System.nanoTime() - mStart;
+      Timer.this.update(elapsed);
+      return elapsed;
+    }
+  }
+}
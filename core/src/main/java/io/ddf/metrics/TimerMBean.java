@@ -0,0 +1,26 @@
+package io.ddf.metrics;
+
+
+/**
+ * The attributes of a {@link Timer} exposed through JMX
+ */
+public interface TimerMBean {
+
+  String getName();
+
+  long getCount();
+
+  double getTotalMillis();
+
+  double getMeanMillis();
+
+  double getMaxMillis();
+
+  double getMedianMillis();
+
+  double get95thPercentileMillis();
+
+  double get99thPercentileMillis();
+
+  void reset();
+}
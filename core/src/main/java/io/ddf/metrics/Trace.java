@@ -0,0 +1,102 @@
+package io.ddf.metrics;
+
+
+import io.ddf.DDF;
+import io.ddf.DDFManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An operation on a DDF, or on a manager if the DDF is null, timed by the timer of the operation name and announced
+ * to the {@link ITraceListener} of the manager. Traces nest, e.g. a summary running sql:
+ * <pre>
+ *   Trace trace = Trace.begin(manager, ddf, "DDF.getSummary", null);
+ *   try {
+ *     ...
+ *   } finally {
+ *     trace.end();
+ *   }
+ * </pre>
+ */
+public class Trace {
+
+  /**
+   * Operations slower than this are logged
+   */
+  public static final long SLOW_OPERATION_MILLIS = 10000;
+
+  private static final Logger sLog = LoggerFactory.getLogger(Trace.class);
+
+  private final DDFManager mManager;
+
+  private final DDF mDDF;
+
+  private final String mOperation;
+
+  private final String mDetail;
+
+  private final Timer.Context mContext;
+
+  private ITraceListener mListener;
+
+  private Object mListenerState;
+
+  private Trace(DDFManager manager, DDF ddf, String operation, String detail) {
+    mManager = manager;
+    mDDF = ddf;
+    mOperation = operation;
+    mDetail = detail;
+    mContext = Metrics.timer(operation).time();
+  }
+
+  /**
+   * @param detail what the operation is about beyond its DDF, e.g. an sql command, may be null
+   */
+  public static Trace begin(DDFManager manager, DDF ddf, String operation, String detail) {
+    Trace trace = new Trace(manager, ddf, operation, detail);
+    trace.mListener = manager != null ? manager.getTraceListener() : null;
+    if (trace.mListener != null) trace.mListenerState = trace.mListener.onBegin(trace);
+    return trace;
+  }
+
+  public void end() {
+    long elapsed = mContext.stop();
+    if (mListener != null) mListener.onEnd(this, mListenerState);
+    if (elapsed / 1000000 >= SLOW_OPERATION_MILLIS) {
+      sLog.info(String.format(">>>> Slow operation: %s took %d ms", this.getDescription(), elapsed / 1000000));
+    }
+  }
+
+  public DDFManager getManager() {
+    return mManager;
+  }
+
+  public DDF getDDF() {
+    return mDDF;
+  }
+
+  public String getOperation() {
+    return mOperation;
+  }
+
+  public String getDetail() {
+    return mDetail;
+  }
+
+  /**
+   * @return the operation, the name or else UUID of the DDF, and the detail
+   */
+  public String getDescription() {
+    StringBuilder description = new StringBuilder(mOperation);
+    if (mDDF != null) {
+      description.append(" on ").append(mDDF.getName() != null ? mDDF.getName() : String.valueOf(mDDF.getUUID()));
+    }
+    if (mDetail != null) description.append(": ").append(mDetail);
+    return description.toString();
+  }
+
+  @Override
+  public String toString() {
+    return this.getDescription();
+  }
+}
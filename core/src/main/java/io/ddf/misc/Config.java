@@ -32,6 +32,12 @@ public class Config {
     return String.format("%s/%s", getRuntimeDir(), getGlobalValue(ConfigConstant.FIELD_BASIC_PERSISTENCE_DIRECTORY));
   }
 
+  public static String getModelDir() throws IOException {
+    String modelDir = getGlobalValue(ConfigConstant.FIELD_MODEL_DIRECTORY);
+    if (Strings.isNullOrEmpty(modelDir)) modelDir = ConfigConstant.DEFAULT_MODEL_DIRECTORY.toString();
+    return String.format("%s/%s", getRuntimeDir(), modelDir);
+  }
+
 
   public static String getValue(ConfigConstant section, ConfigConstant key) {
     return getValue(section.toString(), key.toString());
@@ -171,6 +177,14 @@ public class Config {
     
     FIELD_RUNTIME_DIR("RuntimeDir"), FIELD_NAMESPACE("Namespace"), FIELD_DDF("DDF"), FIELD_DDF_MANAGER("DDFManager"),
     FIELD_BASIC_PERSISTENCE_DIRECTORY("BasicPersistenceDir"),
+    FIELD_BASIC_PERSISTENCE_CHUNK_ROWS("BasicPersistenceChunkRows"),
+    FIELD_LOADER_SAMPLE_SIZE("LoaderSampleSize"),
+    FIELD_OBJECT_STORE_SPLIT_SIZE("ObjectStoreSplitSize"), FIELD_OBJECT_STORE_PARTITION_SIZE("ObjectStorePartitionSize"),
+    FIELD_OBJECT_STORE_LISTING_TTL("ObjectStoreListingTTL"), FIELD_OBJECT_STORE_LOCAL_ROOT("ObjectStoreLocalRoot"),
+    FIELD_MODEL_DIRECTORY("ModelDir"), DEFAULT_MODEL_DIRECTORY("models"),
+    FIELD_MODEL_CACHE_MAX_BYTES("ModelCacheMaxBytes"),
+    FIELD_METRICS_REGISTRY("MetricsRegistry"), FIELD_METRICS_REPORTERS("MetricsReporters"),
+    FIELD_METRICS_REPORT_INTERVAL("MetricsReportInterval"),
 
     JDBC_DRIVER("Driver"), DEFAULT_JDBC_DRIVER("com.mysql.jdbc"),
     SFDC_JDBC_DRIVER("Driver"), DEFAULT_SFDC_JDBC_DRIVER("cdata.jdbc.salesforce.SalesforceDriver"),
@@ -1,6 +1,50 @@
 package io.ddf.misc;
 
 
+import io.ddf.DDF;
+import io.ddf.analytics.IncrementalStatistics;
+import io.ddf.datasource.IStreamSource;
+import io.ddf.datasource.TextFileFormat;
+import io.ddf.exception.DDFException;
+
+import java.util.List;
+
+/**
+ * Appends micro-batches of rows to a DDF as they arrive, keeping its statistics up to date. The DDF itself is left
+ * as it was when the first batch arrived; queries go to {@link #snapshot()}, a DDF of its rows and the batches
+ * appended so far that does not change as more arrive.
+ */
 public interface IHandleStreamingData extends IHandleDDFFunctionalGroup {
 
+  /**
+   * Starts appending the lines polled from the source every batchIntervalMillis as a batch
+   *
+   * @param format how the lines are delimited; lines that do not parse into the columns of the DDF are dropped
+   */
+  public void start(IStreamSource source, TextFileFormat format, long batchIntervalMillis) throws DDFException;
+
+  /**
+   * Stops polling the source after the batch in progress, and closes it. The batches appended so far are kept.
+   */
+  public void stop() throws DDFException;
+
+  public boolean isStreaming();
+
+  /**
+   * Appends a batch of rows, whose values are in the order and of the types of the columns of the DDF
+   */
+  public void appendBatch(List<Object[]> rows) throws DDFException;
+
+  public long getNumBatches();
+
+  /**
+   * @return the statistics of the rows of the DDF and of the batches appended so far
+   */
+  public IncrementalStatistics getStatistics() throws DDFException;
+
+  /**
+   * @return a DDF of the rows of the DDF and of the batches appended so far, registered as a table for SQL. The same
+   * snapshot is returned until another batch is appended.
+   */
+  public DDF snapshot() throws DDFException;
 }
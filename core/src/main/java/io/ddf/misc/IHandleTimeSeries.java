@@ -1,6 +1,55 @@
 package io.ddf.misc;
 
 
+import io.ddf.DDF;
+import io.ddf.exception.DDFException;
+import io.ddf.types.AggregateTypes.AggregateFunction;
+
+import java.util.List;
+
+/**
+ * Operations on the time series of a DDF: the rows of every combination of values of the key columns, ordered by the
+ * time column, which is numeric, a date or a timestamp. Without key columns the whole DDF is one series.
+ * <p/>
+ * The rows are sorted by series and time once; results are DDFs sorted the same way, so operations chained on them do
+ * not sort again.
+ */
 public interface IHandleTimeSeries extends IHandleDDFFunctionalGroup {
 
+  /**
+   * Adds a column valueColumn_functionN, of the aggregate of valueColumn over each row and the numRows - 1 rows before
+   * it in its series. MEDIAN is supported.
+   */
+  public DDF rolling(String timeColumn, List<String> keyColumns, String valueColumn, AggregateFunction function,
+      int numRows) throws DDFException;
+
+  /**
+   * Adds a column valueColumn_lagN, of the value of valueColumn offset rows before each row in its series
+   */
+  public DDF lag(String timeColumn, List<String> keyColumns, String valueColumn, int offset) throws DDFException;
+
+  /**
+   * Adds a column valueColumn_leadN, of the value of valueColumn offset rows after each row in its series
+   */
+  public DDF lead(String timeColumn, List<String> keyColumns, String valueColumn, int offset) throws DDFException;
+
+  /**
+   * Aggregates each series by time bucket, into rows of the key columns, the start of the bucket and the aggregates of
+   * the value columns. Buckets are interval wide, in milliseconds for dates and timestamps, and aligned on time 0.
+   * MEDIAN is not supported.
+   */
+  public DDF resample(String timeColumn, List<String> keyColumns, List<String> valueColumns, double interval,
+      AggregateFunction function) throws DDFException;
+
+  /**
+   * Adds to every row the otherColumns of the last row of other of the same series at the same time or before. other
+   * has timeColumn and keyColumns as well; otherColumns named as a column of this DDF get the suffix _r.
+   */
+  public DDF asOfJoin(DDF other, String timeColumn, List<String> keyColumns, List<String> otherColumns)
+      throws DDFException;
+
+  /**
+   * Replaces the nulls of columns by the last non-null value before them in their series
+   */
+  public DDF fillForward(String timeColumn, List<String> keyColumns, List<String> columns) throws DDFException;
 }
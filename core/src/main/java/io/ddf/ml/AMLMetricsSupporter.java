@@ -31,6 +31,13 @@ public class AMLMetricsSupporter extends ADDFFunctionalGroupHandler implements I
     return null;
   }
 
+  @Override
+  public RocMetric roc(DDF predictionDDF, RocMetric.Mode mode, int numPoints)
+      throws DDFException {
+    // TODO Auto-generated method stub
+    return null;
+  }
+
   @Override
   public double rmse(DDF testDDF, boolean implicitPref) throws DDFException {
     // TODO Auto-generated method stub
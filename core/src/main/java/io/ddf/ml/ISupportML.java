@@ -23,6 +23,17 @@ public interface ISupportML extends IHandleDDFFunctionalGroup {
    */
   IModel train(String trainMethodName, Object... args) throws DDFException;
 
+  /**
+   * Converts the DDF to the input representation that {@link #train(String, Object...)} would use for the same
+   * algorithm and arguments, so that it can be prepared ahead of one or more trainings.
+   *
+   * @param trainMethodName
+   * @param args
+   * @return the prepared input
+   * @throws DDFException
+   */
+  Object prepareTrainingInput(String trainMethodName, Object... args) throws DDFException;
+
   /**
    * The DDF is assumed not to have a label column, and the output should not include the feature columns.
    *
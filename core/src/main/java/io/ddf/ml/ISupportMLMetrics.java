@@ -13,5 +13,11 @@ public interface ISupportMLMetrics extends IHandleDDFFunctionalGroup {
 
   public RocMetric roc(DDF predictionDDF, int alpha_length) throws DDFException;
 
+  /**
+   * @param mode      {@link RocMetric.Mode#BUCKETED} or {@link RocMetric.Mode#EXACT}
+   * @param numPoints alpha_length for BUCKETED; the maximum number of curve points for EXACT, or 0 to keep them all
+   */
+  public RocMetric roc(DDF predictionDDF, RocMetric.Mode mode, int numPoints) throws DDFException;
+
   public double rmse(DDF predictionDDF, boolean implicitPref) throws DDFException;
 }
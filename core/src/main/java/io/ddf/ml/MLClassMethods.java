@@ -3,8 +3,13 @@ package io.ddf.ml;
 
 import io.ddf.exception.DDFException;
 import io.ddf.util.Utils.ClassMethod;
+import io.ddf.util.Utils.MethodInfo;
+import io.ddf.util.Utils.MethodInfo.ParamInfo;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
+import java.util.List;
 
 /**
  * Helper classes to identify/locate the train()/predict() methods in a given class or object
@@ -72,6 +77,75 @@ public class MLClassMethods {
 
 
 
+  /**
+   * A train() method resolved once into a {@link MethodHandle}, together with the {@link ParamInfo} of its input data
+   * argument. Instances are meant to be cached per (algorithm, argument signature), so that repeated trainings skip
+   * both the reflective method scan and the decision of which DDF representation to feed in.
+   */
+  public static class CompiledTrainMethod {
+
+    private final Method mMethod;
+    private final MethodHandle mHandle;
+    private final ParamInfo mInputParamInfo;
+    private volatile Class<?>[] mInputTypeSpecs;
+    private volatile boolean bIsInputResolved = false;
+
+
+    public CompiledTrainMethod(String classHashMethodName, Object[] trainMethodArgs) throws DDFException {
+      TrainMethod trainMethod = new TrainMethod(classHashMethodName, DEFAULT_TRAIN_METHOD_NAME, trainMethodArgs);
+      mMethod = trainMethod.getMethod();
+      if (mMethod == null) {
+        throw new DDFException(String.format("Cannot locate method specified by %s", classHashMethodName));
+      }
+
+      try {
+        mHandle = MethodHandles.lookup().unreflect(mMethod);
+      } catch (IllegalAccessException e) {
+        throw new DDFException(String.format("Cannot access method specified by %s", classHashMethodName), e);
+      }
+
+      List<ParamInfo> paramInfos = new MethodInfo(mMethod).getParamInfos();
+      mInputParamInfo = (paramInfos == null || paramInfos.isEmpty()) ? null : paramInfos.get(0);
+    }
+
+    public Method getMethod() {
+      return mMethod;
+    }
+
+    /**
+     * @return the {@link ParamInfo} of the input data argument, or null if the method takes no argument at all
+     */
+    public ParamInfo getInputParamInfo() {
+      return mInputParamInfo;
+    }
+
+    public boolean isInputResolved() {
+      return bIsInputResolved;
+    }
+
+    /**
+     * @return the representation typeSpecs the DDF is converted to for this method, null meaning the DDF itself
+     */
+    public Class<?>[] getInputTypeSpecs() {
+      return mInputTypeSpecs;
+    }
+
+    public void setInputTypeSpecs(Class<?>[] typeSpecs) {
+      mInputTypeSpecs = typeSpecs;
+      bIsInputResolved = true;
+    }
+
+    public Object classInvoke(Object... args) throws DDFException {
+      try {
+        return mHandle.invokeWithArguments(args);
+      } catch (Throwable t) {
+        throw new DDFException(t.getMessage(), t);
+      }
+    }
+  }
+
+
+
   /**
    *
    */
@@ -8,15 +8,15 @@ import io.ddf.content.Schema;
 import io.ddf.exception.DDFException;
 import io.ddf.misc.ADDFFunctionalGroupHandler;
 import io.ddf.misc.Config;
-import io.ddf.ml.MLClassMethods.TrainMethod;
-import io.ddf.util.Utils.MethodInfo;
+import io.ddf.ml.MLClassMethods.CompiledTrainMethod;
 import io.ddf.util.Utils.MethodInfo.ParamInfo;
 
 import java.lang.reflect.Constructor;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  */
@@ -24,6 +24,12 @@ public class MLSupporter extends ADDFFunctionalGroupHandler implements ISupportM
 
   private Boolean sIsNonceInitialized = false;
 
+  /**
+   * Resolved train() methods, keyed by engine, algorithm name and argument types
+   */
+  private static final ConcurrentMap<String, CompiledTrainMethod> sTrainMethods =
+      new ConcurrentHashMap<String, CompiledTrainMethod>();
+
 
   /**
    * For ML reflection test-case only
@@ -97,19 +103,19 @@ public class MLSupporter extends ADDFFunctionalGroupHandler implements ISupportM
     if (paramArgs == null) paramArgs = new Object[0];
 
     // Locate the training method
-    String mappedName = Config.getValueWithGlobalDefault(this.getEngine(), trainMethodName);
-    if (!Strings.isNullOrEmpty(mappedName)) trainMethodName = mappedName;
-
-    TrainMethod trainMethod = new TrainMethod(trainMethodName, MLClassMethods.DEFAULT_TRAIN_METHOD_NAME, paramArgs);
-    if (trainMethod.getMethod() == null) {
-      throw new DDFException(String.format("Cannot locate method specified by %s", trainMethodName));
-    }
+    CompiledTrainMethod trainMethod = this.getTrainMethod(trainMethodName, paramArgs);
 
     // Now we need to map the DDF and its column specs to the input format expected by the method we're invoking
-    Object[] allArgs = this.buildArgsForMethod(trainMethod.getMethod(), paramArgs);
+    Object[] allArgs = this.buildArgsForMethod(trainMethod, paramArgs);
 
     // Invoke the training method
-    Object rawModel = trainMethod.classInvoke(allArgs);
+    Object rawModel;
+    this.beforeTraining(trainMethod, allArgs);
+    try {
+      rawModel = trainMethod.classInvoke(allArgs);
+    } finally {
+      this.afterTraining(trainMethod, allArgs);
+    }
 
 
     List<Schema.Column> columns = this.getDDF().getSchemaHandler().getColumns();
@@ -131,13 +137,42 @@ public class MLSupporter extends ADDFFunctionalGroupHandler implements ISupportM
   }
 
 
-  @SuppressWarnings("unchecked")
-  private Object[] buildArgsForMethod(Method method, Object[] paramArgs) throws DDFException {
-    MethodInfo methodInfo = new MethodInfo(method);
-    List<ParamInfo> paramInfos = methodInfo.getParamInfos();
-    if (paramInfos == null || paramInfos.isEmpty()) return new Object[0];
+  /**
+   * The representation is cached by the representation handler, so it is already available when
+   * {@link #train(String, Object...)} runs.
+   */
+  @Override
+  public Object prepareTrainingInput(String trainMethodName, Object... paramArgs) throws DDFException {
+    if (paramArgs == null) paramArgs = new Object[0];
+    return this.getTrainingInput(this.getTrainMethod(trainMethodName, paramArgs));
+  }
+
+  /**
+   * Returns the train() method for the given algorithm and argument types, resolving it only on first use
+   */
+  protected CompiledTrainMethod getTrainMethod(String trainMethodName, Object[] paramArgs) throws DDFException {
+    StringBuilder key = new StringBuilder(this.getEngine()).append('/').append(trainMethodName);
+    for (Object arg : paramArgs) {
+      key.append(':').append(arg == null ? Object.class.getName() : arg.getClass().getName());
+    }
+
+    CompiledTrainMethod trainMethod = sTrainMethods.get(key.toString());
+    if (trainMethod == null) {
+      String mappedName = Config.getValueWithGlobalDefault(this.getEngine(), trainMethodName);
+      if (!Strings.isNullOrEmpty(mappedName)) trainMethodName = mappedName;
+
+      trainMethod = new CompiledTrainMethod(trainMethodName, paramArgs);
+      CompiledTrainMethod existing = sTrainMethods.putIfAbsent(key.toString(), trainMethod);
+      if (existing != null) trainMethod = existing;
+    }
+
+    return trainMethod;
+  }
 
-    Object firstParam = this.convertDDF(paramInfos.get(0));
+  private Object[] buildArgsForMethod(CompiledTrainMethod trainMethod, Object[] paramArgs) throws DDFException {
+    if (trainMethod.getInputParamInfo() == null) return new Object[0];
+
+    Object firstParam = this.getTrainingInput(trainMethod);
 
     if (paramArgs == null || paramArgs.length == 0) {
       return new Object[] { firstParam };
@@ -150,6 +185,44 @@ public class MLSupporter extends ADDFFunctionalGroupHandler implements ISupportM
     }
   }
 
+  private Object getTrainingInput(CompiledTrainMethod trainMethod) throws DDFException {
+    if (trainMethod.getInputParamInfo() == null) return null;
+
+    if (!trainMethod.isInputResolved()) {
+      trainMethod.setInputTypeSpecs(this.getInputTypeSpecs(trainMethod.getInputParamInfo()));
+    }
+
+    Class<?>[] typeSpecs = trainMethod.getInputTypeSpecs();
+    return typeSpecs == null ? this.convertDDF(trainMethod.getInputParamInfo())
+        : this.getDDF().getRepresentationHandler().get(typeSpecs);
+  }
+
+  /**
+   * Called with the full argument list right before the train() method is invoked, e.g., to cache the input for
+   * iterative algorithms. The base implementation does nothing.
+   */
+  protected void beforeTraining(CompiledTrainMethod trainMethod, Object[] allArgs) throws DDFException {
+  }
+
+  /**
+   * Called after the train() method returns or fails, with the same arguments as
+   * {@link #beforeTraining(CompiledTrainMethod, Object[])}. The base implementation does nothing.
+   */
+  protected void afterTraining(CompiledTrainMethod trainMethod, Object[] allArgs) throws DDFException {
+  }
+
+  /**
+   * Override this to return the typeSpecs of the DDF representation matching that specified in {@link ParamInfo}.
+   * The result is remembered per train() method. The base implementation returns null, in which case
+   * {@link #convertDDF(ParamInfo)} is used instead.
+   *
+   * @param paramInfo
+   * @return
+   */
+  protected Class<?>[] getInputTypeSpecs(ParamInfo paramInfo) throws DDFException {
+    return null;
+  }
+
   /**
    * Override this to return the appropriate DDF representation matching that specified in {@link ParamInfo}. The base
    * implementation simply returns the DDF.
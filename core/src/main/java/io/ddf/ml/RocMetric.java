@@ -6,13 +6,27 @@ import java.util.Arrays;
 
 public class RocMetric implements Serializable {
 
+  /**
+   * BUCKETED approximates the curve on a fixed grid of alpha_length thresholds, EXACT uses every distinct score as a
+   * threshold (optionally downsampled to a target number of curve points, with the AUC still computed exactly).
+   */
+  public enum Mode {
+    BUCKETED, EXACT
+  }
+
   public double[][] pred;
   public double auc;
+  public Mode mode;
 
 
   public RocMetric(double[][] _pred, double _auc) {
+    this(_pred, _auc, Mode.BUCKETED);
+  }
+
+  public RocMetric(double[][] _pred, double _auc, Mode _mode) {
     this.pred = _pred;
     this.auc = _auc;
+    this.mode = _mode;
   }
 
   public void print() {
@@ -27,6 +41,9 @@ public class RocMetric implements Serializable {
   }
 
   public double computeAUC() {
+    // exact curves come with their AUC already summed over all thresholds, the points may have been downsampled
+    if (mode == Mode.EXACT) return auc;
+
     // filter null/NA in pred
     int i = 0;
     double previousTpr = 0;
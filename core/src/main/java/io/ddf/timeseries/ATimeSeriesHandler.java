@@ -0,0 +1,203 @@
+package io.ddf.timeseries;
+
+
+import io.ddf.DDF;
+import io.ddf.content.Schema;
+import io.ddf.content.Schema.ColumnType;
+import io.ddf.exception.DDFException;
+import io.ddf.misc.ADDFFunctionalGroupHandler;
+import io.ddf.misc.IHandleTimeSeries;
+import io.ddf.timeseries.ResampleScan.TimeType;
+import io.ddf.types.AggregateTypes.AggregateFunction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Time-series operations as {@link SeriesScan}s, which engines run over the rows of the DDF sorted by
+ * {@link SeriesOrdering}. Engines remember the ordering of the DDFs they return, so that scanning them again does not
+ * sort.
+ */
+public abstract class ATimeSeriesHandler extends ADDFFunctionalGroupHandler implements IHandleTimeSeries {
+
+  public ATimeSeriesHandler(DDF theDDF) {
+    super(theDDF);
+  }
+
+  /**
+   * @param ordering       the ordering the scan requires
+   * @param schema         the schema of the output rows
+   * @param outputOrdering the ordering of the output rows
+   * @return a DDF of the output rows of the scan over the rows of the DDF
+   */
+  protected abstract DDF scan(SeriesOrdering ordering, SeriesScan<?> scan, Schema schema,
+      SeriesOrdering outputOrdering) throws DDFException;
+
+  /**
+   * @return a DDF of the output rows of the scan over the left rows of the DDF and the right rows of other
+   */
+  protected abstract DDF scanAsOfJoin(DDF other, AsOfJoinScan scan, Schema schema, SeriesOrdering outputOrdering)
+      throws DDFException;
+
+  @Override
+  public DDF rolling(String timeColumn, List<String> keyColumns, String valueColumn, AggregateFunction function,
+      int numRows) throws DDFException {
+    if (numRows < 1) throw new DDFException("The window must have at least 1 row");
+    if (function == null) throw new DDFException("The aggregate function must be specified");
+    SeriesOrdering ordering = this.getOrdering(this.getDDF(), timeColumn, keyColumns);
+    int valueIndex = this.getNumericIndex(this.getDDF(), valueColumn);
+
+    String name = String.format("%s_%s%d", valueColumn, function.name().toLowerCase(), numRows);
+    Schema schema = this.extendSchema(new Schema.Column(name, Aggregates.typeOf(function)));
+    return this.scan(ordering, new RollingScan(ordering, valueIndex, function, numRows), schema, ordering);
+  }
+
+  @Override
+  public DDF lag(String timeColumn, List<String> keyColumns, String valueColumn, int offset) throws DDFException {
+    if (offset < 1) throw new DDFException("The offset must be positive");
+    SeriesOrdering ordering = this.getOrdering(this.getDDF(), timeColumn, keyColumns);
+    int valueIndex = this.getIndex(this.getDDF(), valueColumn);
+
+    Schema schema = this.extendSchema(new Schema.Column(String.format("%s_lag%d", valueColumn, offset),
+        this.getDDF().getColumn(valueColumn).getType()));
+    return this.scan(ordering, new LagScan(ordering, valueIndex, offset), schema, ordering);
+  }
+
+  @Override
+  public DDF lead(String timeColumn, List<String> keyColumns, String valueColumn, int offset) throws DDFException {
+    if (offset < 1) throw new DDFException("The offset must be positive");
+    SeriesOrdering ordering = this.getOrdering(this.getDDF(), timeColumn, keyColumns);
+    int valueIndex = this.getIndex(this.getDDF(), valueColumn);
+
+    Schema schema = this.extendSchema(new Schema.Column(String.format("%s_lead%d", valueColumn, offset),
+        this.getDDF().getColumn(valueColumn).getType()));
+    return this.scan(ordering, new LeadScan(ordering, valueIndex, offset), schema, ordering);
+  }
+
+  @Override
+  public DDF resample(String timeColumn, List<String> keyColumns, List<String> valueColumns, double interval,
+      AggregateFunction function) throws DDFException {
+    if (!(interval > 0)) throw new DDFException("The interval must be positive");
+    if (function == null || function == AggregateFunction.MEDIAN) {
+      throw new DDFException(String.format("Cannot resample with %s", function));
+    }
+    if (valueColumns == null || valueColumns.isEmpty()) throw new DDFException("valueColumns must be specified");
+    SeriesOrdering ordering = this.getOrdering(this.getDDF(), timeColumn, keyColumns);
+
+    List<Schema.Column> columns = new ArrayList<Schema.Column>();
+    for (int index : ordering.getKeyIndexes()) {
+      columns.add(this.copyColumn(this.getDDF().getSchema().getColumn(index)));
+    }
+    ColumnType timeType = this.getDDF().getColumn(timeColumn).getType();
+    TimeType outputTimeType;
+    if (timeType == ColumnType.TIMESTAMP || timeType == ColumnType.DATE) {
+      outputTimeType = TimeType.TIMESTAMP;
+      columns.add(new Schema.Column(timeColumn, ColumnType.TIMESTAMP));
+    } else if (isIntegral(timeType) && interval == Math.rint(interval)) {
+      outputTimeType = TimeType.LONG;
+      columns.add(new Schema.Column(timeColumn, ColumnType.BIGINT));
+    } else {
+      outputTimeType = TimeType.DOUBLE;
+      columns.add(new Schema.Column(timeColumn, ColumnType.DOUBLE));
+    }
+    int[] valueIndexes = new int[valueColumns.size()];
+    for (int i = 0; i < valueIndexes.length; i++) {
+      valueIndexes[i] = this.getNumericIndex(this.getDDF(), valueColumns.get(i));
+      columns.add(new Schema.Column(valueColumns.get(i), Aggregates.typeOf(function)));
+    }
+
+    int[] outputKeyIndexes = new int[ordering.getKeyIndexes().length];
+    for (int i = 0; i < outputKeyIndexes.length; i++) {
+      outputKeyIndexes[i] = i;
+    }
+    return this.scan(ordering, new ResampleScan(ordering, interval, valueIndexes, function, outputTimeType),
+        new Schema(null, columns), new SeriesOrdering(outputKeyIndexes, outputKeyIndexes.length));
+  }
+
+  @Override
+  public DDF asOfJoin(DDF other, String timeColumn, List<String> keyColumns, List<String> otherColumns)
+      throws DDFException {
+    if (other == null) throw new DDFException("The DDF to join must be specified");
+    if (otherColumns == null || otherColumns.isEmpty()) throw new DDFException("otherColumns must be specified");
+    SeriesOrdering leftOrdering = this.getOrdering(this.getDDF(), timeColumn, keyColumns);
+    SeriesOrdering rightOrdering = this.getOrdering(other, timeColumn, keyColumns);
+
+    List<Schema.Column> columns = new ArrayList<Schema.Column>();
+    for (Schema.Column column : this.getDDF().getSchema().getColumns()) {
+      columns.add(this.copyColumn(column));
+    }
+    int[] rightIndexes = new int[otherColumns.size()];
+    for (int i = 0; i < rightIndexes.length; i++) {
+      String name = otherColumns.get(i);
+      rightIndexes[i] = this.getIndex(other, name);
+      if (this.getDDF().getColumn(name) != null) name = name + "_r";
+      columns.add(new Schema.Column(name, other.getColumn(otherColumns.get(i)).getType()));
+    }
+
+    return this.scanAsOfJoin(other, new AsOfJoinScan(leftOrdering, rightOrdering, rightIndexes),
+        new Schema(null, columns), leftOrdering);
+  }
+
+  @Override
+  public DDF fillForward(String timeColumn, List<String> keyColumns, List<String> columns) throws DDFException {
+    if (columns == null || columns.isEmpty()) throw new DDFException("columns must be specified");
+    SeriesOrdering ordering = this.getOrdering(this.getDDF(), timeColumn, keyColumns);
+    int[] indexes = new int[columns.size()];
+    for (int i = 0; i < indexes.length; i++) {
+      indexes[i] = this.getIndex(this.getDDF(), columns.get(i));
+    }
+
+    return this.scan(ordering, new FillForwardScan(ordering, indexes), this.extendSchema(), ordering);
+  }
+
+  private SeriesOrdering getOrdering(DDF ddf, String timeColumn, List<String> keyColumns) throws DDFException {
+    if (keyColumns == null) keyColumns = Collections.emptyList();
+    int[] keyIndexes = new int[keyColumns.size()];
+    for (int i = 0; i < keyIndexes.length; i++) {
+      keyIndexes[i] = this.getIndex(ddf, keyColumns.get(i));
+    }
+
+    int timeIndex = this.getIndex(ddf, timeColumn);
+    ColumnType timeType = ddf.getColumn(timeColumn).getType();
+    if (timeType != ColumnType.TIMESTAMP && timeType != ColumnType.DATE && !ColumnType.isNumeric(timeType)) {
+      throw new DDFException(String.format("Column %s of type %s is not a time", timeColumn, timeType));
+    }
+    return new SeriesOrdering(keyIndexes, timeIndex);
+  }
+
+  private int getIndex(DDF ddf, String columnName) throws DDFException {
+    int index = columnName == null ? -1 : ddf.getColumnIndex(columnName);
+    if (index < 0) throw new DDFException(String.format("Column %s does not exist in %s", columnName, ddf.getName()));
+    return index;
+  }
+
+  private int getNumericIndex(DDF ddf, String columnName) throws DDFException {
+    int index = this.getIndex(ddf, columnName);
+    if (!ColumnType.isNumeric(ddf.getColumn(columnName).getType())) {
+      throw new DDFException(String.format("Column %s is not numeric", columnName));
+    }
+    return index;
+  }
+
+  private static boolean isIntegral(ColumnType type) {
+    return type == ColumnType.TINYINT || type == ColumnType.SMALLINT || type == ColumnType.INT
+        || type == ColumnType.BIGINT;
+  }
+
+  private Schema.Column copyColumn(Schema.Column column) {
+    return new Schema.Column(column.getName(), column.getType());
+  }
+
+  /**
+   * @return the schema of the DDF followed by the columns, with a table name of its own
+   */
+  private Schema extendSchema(Schema.Column... added) throws DDFException {
+    List<Schema.Column> columns = new ArrayList<Schema.Column>();
+    for (Schema.Column column : this.getDDF().getSchema().getColumns()) {
+      columns.add(this.copyColumn(column));
+    }
+    Collections.addAll(columns, added);
+    return new Schema(null, columns);
+  }
+}
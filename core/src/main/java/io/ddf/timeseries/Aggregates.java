@@ -0,0 +1,86 @@
+package io.ddf.timeseries;
+
+
+import io.ddf.analytics.Summary;
+import io.ddf.content.Schema.ColumnType;
+import io.ddf.types.AggregateTypes.AggregateFunction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Aggregate functions over the numbers of windows and buckets. NaNs, i.e. nulls, are ignored; functions but COUNT are
+ * null over no number.
+ */
+public final class Aggregates {
+
+  private Aggregates() {
+  }
+
+  public static ColumnType typeOf(AggregateFunction function) {
+    return function == AggregateFunction.COUNT ? ColumnType.BIGINT : ColumnType.DOUBLE;
+  }
+
+  public static double toDouble(Object value) {
+    return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+  }
+
+  public static Object valueOf(AggregateFunction function, Summary summary) {
+    if (function == AggregateFunction.COUNT) return summary.count();
+    if (summary.count() == 0) return null;
+
+    double value;
+    switch (function) {
+      case MEAN:
+      case AVG:
+        value = summary.mean();
+        break;
+      case SUM:
+        value = summary.sum();
+        break;
+      case MIN:
+        value = summary.min();
+        break;
+      case MAX:
+        value = summary.max();
+        break;
+      case VARIANCE:
+        value = summary.variance();
+        break;
+      case STDDEV:
+        value = summary.stdev();
+        break;
+      default:
+        throw new IllegalArgumentException(String.format("%s cannot be computed incrementally", function));
+    }
+    return Double.isNaN(value) ? null : value;
+  }
+
+  static Object valueOf(AggregateFunction function, Collection<Double> values) {
+    if (function != AggregateFunction.MEDIAN) {
+      Summary summary = new Summary();
+      for (double value : values) {
+        summary.merge(value);
+      }
+      return valueOf(function, summary);
+    }
+
+    List<Double> numbers = new ArrayList<Double>(values.size());
+    for (Double value : values) {
+      if (!value.isNaN()) numbers.add(value);
+    }
+    if (numbers.isEmpty()) return null;
+    Collections.sort(numbers);
+    int middle = numbers.size() / 2;
+    return numbers.size() % 2 == 1 ? numbers.get(middle) : (numbers.get(middle - 1) + numbers.get(middle)) / 2;
+  }
+
+  static Object[] append(Object[] row, Object... values) {
+    Object[] result = new Object[row.length + values.length];
+    System.arraycopy(row, 0, result, 0, row.length);
+    System.arraycopy(values, 0, result, row.length, values.length);
+    return result;
+  }
+}
@@ -0,0 +1,112 @@
+package io.ddf.timeseries;
+
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Joins to every row of a left DDF the columns of the last row of a right DDF of the same series at the same time or
+ * before, nulls if there is none. Both are scanned together, as rows of the keys, the time, the side (right before
+ * left at the same time) and the columns to output, ordered by {@link #getOrdering()}.
+ */
+public class AsOfJoinScan extends SeriesScan<AsOfJoinScan.Last> {
+
+  private static final long serialVersionUID = -3950818542640224553L;
+
+  private static final Integer RIGHT = 0;
+
+  private static final Integer LEFT = 1;
+
+  private final SeriesOrdering mLeftOrdering;
+
+  private final SeriesOrdering mRightOrdering;
+
+  private final int[] mRightIndexes;
+
+  private final SeriesOrdering mOrdering;
+
+  private final int mNumKeys;
+
+  /**
+   * @param rightIndexes the columns of the right rows to output
+   */
+  public AsOfJoinScan(SeriesOrdering leftOrdering, SeriesOrdering rightOrdering, int[] rightIndexes) {
+    mLeftOrdering = leftOrdering;
+    mRightOrdering = rightOrdering;
+    mRightIndexes = rightIndexes.clone();
+    mNumKeys = leftOrdering.getKeyIndexes().length;
+
+    int[] keyIndexes = new int[mNumKeys];
+    for (int i = 0; i < mNumKeys; i++) {
+      keyIndexes[i] = i;
+    }
+    mOrdering = new SeriesOrdering(keyIndexes, mNumKeys, mNumKeys + 1);
+  }
+
+  public SeriesOrdering getOrdering() {
+    return mOrdering;
+  }
+
+  public Object[] leftRow(Object[] row) {
+    return this.scanRow(mLeftOrdering, row, LEFT, row);
+  }
+
+  public Object[] rightRow(Object[] row) {
+    Object[] values = new Object[mRightIndexes.length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = row[mRightIndexes[i]];
+    }
+    return this.scanRow(mRightOrdering, row, RIGHT, values);
+  }
+
+  private Object[] scanRow(SeriesOrdering ordering, Object[] row, Integer side, Object[] values) {
+    Object[] scanRow = new Object[mNumKeys + 3];
+    List<Object> series = ordering.seriesOf(row);
+    for (int i = 0; i < mNumKeys; i++) {
+      scanRow[i] = SeriesOrdering.normalizeKey(series.get(i));
+    }
+    scanRow[mNumKeys] = ordering.timeOf(row);
+    scanRow[mNumKeys + 1] = side;
+    scanRow[mNumKeys + 2] = values;
+    return scanRow;
+  }
+
+  @Override
+  public Object groupOf(Object[] row) {
+    return new ArrayList<Object>(Arrays.asList(row).subList(0, mNumKeys));
+  }
+
+  @Override
+  public Last newState() {
+    return new Last(null);
+  }
+
+  @Override
+  public Last process(Last last, Object[] row, List<Object[]> out) {
+    Object[] values = (Object[]) row[mNumKeys + 2];
+    if (RIGHT.equals(row[mNumKeys + 1])) return new Last(values);
+
+    Object[] right = last.mValues != null ? last.mValues : new Object[mRightIndexes.length];
+    out.add(Aggregates.append(values, right));
+    return last;
+  }
+
+  @Override
+  public Last merge(Last before, Last after) {
+    return after.mValues != null ? after : before;
+  }
+
+
+  public static class Last implements Serializable {
+
+    private static final long serialVersionUID = 8416287359713417458L;
+
+    private final Object[] mValues;
+
+    Last(Object[] values) {
+      mValues = values;
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package io.ddf.timeseries;
+
+
+import java.util.List;
+
+/**
+ * Replaces the nulls of columns by the last non-null value before them in their series
+ */
+public class FillForwardScan extends SeriesScan<Object[]> {
+
+  private static final long serialVersionUID = 6950342157632712254L;
+
+  private final SeriesOrdering mOrdering;
+
+  private final int[] mColumnIndexes;
+
+  public FillForwardScan(SeriesOrdering ordering, int[] columnIndexes) {
+    mOrdering = ordering;
+    mColumnIndexes = columnIndexes.clone();
+  }
+
+  @Override
+  public Object groupOf(Object[] row) {
+    return mOrdering.seriesOf(row);
+  }
+
+  /**
+   * @return the last non-null value of every column
+   */
+  @Override
+  public Object[] newState() {
+    return new Object[mColumnIndexes.length];
+  }
+
+  @Override
+  public Object[] process(Object[] last, Object[] row, List<Object[]> out) {
+    Object[] filled = row;
+    for (int i = 0; i < mColumnIndexes.length; i++) {
+      int index = mColumnIndexes[i];
+      if (row[index] != null) {
+        last[i] = row[index];
+      } else if (last[i] != null) {
+        if (filled == row) filled = row.clone();
+        filled[index] = last[i];
+      }
+    }
+    out.add(filled);
+    return last;
+  }
+
+  @Override
+  public Object[] merge(Object[] before, Object[] after) {
+    Object[] last = new Object[mColumnIndexes.length];
+    for (int i = 0; i < last.length; i++) {
+      last[i] = after[i] != null ? after[i] : before[i];
+    }
+    return last;
+  }
+}
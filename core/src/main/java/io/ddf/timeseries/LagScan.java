@@ -0,0 +1,56 @@
+package io.ddf.timeseries;
+
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Appends to every row the value of a column offset rows before it in its series, null for the first rows
+ */
+public class LagScan extends SeriesScan<LinkedList<Object>> {
+
+  private static final long serialVersionUID = 3360937716813893346L;
+
+  private final SeriesOrdering mOrdering;
+
+  private final int mValueIndex;
+
+  private final int mOffset;
+
+  public LagScan(SeriesOrdering ordering, int valueIndex, int offset) {
+    mOrdering = ordering;
+    mValueIndex = valueIndex;
+    mOffset = offset;
+  }
+
+  @Override
+  public Object groupOf(Object[] row) {
+    return mOrdering.seriesOf(row);
+  }
+
+  /**
+   * @return the values of the last offset rows
+   */
+  @Override
+  public LinkedList<Object> newState() {
+    return new LinkedList<Object>();
+  }
+
+  @Override
+  public LinkedList<Object> process(LinkedList<Object> previous, Object[] row, List<Object[]> out) {
+    out.add(Aggregates.append(row, previous.size() == mOffset ? previous.getFirst() : null));
+    previous.addLast(row[mValueIndex]);
+    if (previous.size() > mOffset) previous.removeFirst();
+    return previous;
+  }
+
+  @Override
+  public LinkedList<Object> merge(LinkedList<Object> before, LinkedList<Object> after) {
+    LinkedList<Object> previous = new LinkedList<Object>(before);
+    previous.addAll(after);
+    while (previous.size() > mOffset) {
+      previous.removeFirst();
+    }
+    return previous;
+  }
+}
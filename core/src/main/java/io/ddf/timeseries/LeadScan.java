@@ -0,0 +1,63 @@
+package io.ddf.timeseries;
+
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Appends to every row the value of a column offset rows after it in its series, null for the last rows. A row is
+ * output once the row offset rows after it is, so the last rows of a partition are carried to the next one.
+ */
+public class LeadScan extends SeriesScan<LinkedList<Object[]>> {
+
+  private static final long serialVersionUID = -807232394419734071L;
+
+  private final SeriesOrdering mOrdering;
+
+  private final int mValueIndex;
+
+  private final int mOffset;
+
+  public LeadScan(SeriesOrdering ordering, int valueIndex, int offset) {
+    mOrdering = ordering;
+    mValueIndex = valueIndex;
+    mOffset = offset;
+  }
+
+  @Override
+  public Object groupOf(Object[] row) {
+    return mOrdering.seriesOf(row);
+  }
+
+  /**
+   * @return the last offset rows, waiting for their lead
+   */
+  @Override
+  public LinkedList<Object[]> newState() {
+    return new LinkedList<Object[]>();
+  }
+
+  @Override
+  public LinkedList<Object[]> process(LinkedList<Object[]> pending, Object[] row, List<Object[]> out) {
+    pending.addLast(row);
+    if (pending.size() > mOffset) out.add(Aggregates.append(pending.removeFirst(), row[mValueIndex]));
+    return pending;
+  }
+
+  @Override
+  public void finish(LinkedList<Object[]> pending, List<Object[]> out) {
+    for (Object[] row : pending) {
+      out.add(Aggregates.append(row, (Object) null));
+    }
+  }
+
+  @Override
+  public LinkedList<Object[]> merge(LinkedList<Object[]> before, LinkedList<Object[]> after) {
+    LinkedList<Object[]> pending = new LinkedList<Object[]>(before);
+    pending.addAll(after);
+    while (pending.size() > mOffset) {
+      pending.removeFirst();
+    }
+    return pending;
+  }
+}
@@ -0,0 +1,121 @@
+package io.ddf.timeseries;
+
+
+import io.ddf.analytics.Summary;
+import io.ddf.types.AggregateTypes.AggregateFunction;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aggregates the rows of every series by time bucket, outputting a row of the keys, the start of the bucket and the
+ * aggregates of the value columns per bucket with rows. Buckets are interval wide and aligned on time 0.
+ */
+public class ResampleScan extends SeriesScan<ResampleScan.Bucket> {
+
+  private static final long serialVersionUID = 1297011830066437187L;
+
+  /**
+   * How the start of a bucket is output
+   */
+  public enum TimeType {
+    TIMESTAMP, LONG, DOUBLE
+  }
+
+  private final SeriesOrdering mOrdering;
+
+  private final double mInterval;
+
+  private final int[] mValueIndexes;
+
+  private final AggregateFunction mFunction;
+
+  private final TimeType mTimeType;
+
+  public ResampleScan(SeriesOrdering ordering, double interval, int[] valueIndexes, AggregateFunction function,
+      TimeType timeType) {
+    mOrdering = ordering;
+    mInterval = interval;
+    mValueIndexes = valueIndexes.clone();
+    mFunction = function;
+    mTimeType = timeType;
+  }
+
+  private double bucketOf(Object[] row) {
+    return Math.floor(mOrdering.timeOf(row) / mInterval) * mInterval;
+  }
+
+  @Override
+  public Object groupOf(Object[] row) {
+    List<Object> group = mOrdering.seriesOf(row);
+    group.add(this.bucketOf(row));
+    return group;
+  }
+
+  @Override
+  public Bucket newState() {
+    return new Bucket(mValueIndexes.length);
+  }
+
+  @Override
+  public Bucket process(Bucket bucket, Object[] row, List<Object[]> out) {
+    if (bucket.mSeries == null) {
+      bucket.mSeries = mOrdering.seriesOf(row);
+      bucket.mStart = this.bucketOf(row);
+    }
+    for (int i = 0; i < mValueIndexes.length; i++) {
+      bucket.mSummaries[i].merge(Aggregates.toDouble(row[mValueIndexes[i]]));
+    }
+    return bucket;
+  }
+
+  @Override
+  public void finish(Bucket bucket, List<Object[]> out) {
+    List<Object> values = new ArrayList<Object>(bucket.mSeries);
+    if (Double.isNaN(bucket.mStart)) {
+      values.add(null);
+    } else if (mTimeType == TimeType.TIMESTAMP) {
+      values.add(new Timestamp((long) bucket.mStart));
+    } else if (mTimeType == TimeType.LONG) {
+      values.add((long) bucket.mStart);
+    } else {
+      values.add(bucket.mStart);
+    }
+    for (Summary summary : bucket.mSummaries) {
+      values.add(Aggregates.valueOf(mFunction, summary));
+    }
+    out.add(values.toArray());
+  }
+
+  @Override
+  public Bucket merge(Bucket before, Bucket after) {
+    Bucket bucket = new Bucket(mValueIndexes.length);
+    bucket.mSeries = before.mSeries != null ? before.mSeries : after.mSeries;
+    bucket.mStart = before.mSeries != null ? before.mStart : after.mStart;
+    for (int i = 0; i < mValueIndexes.length; i++) {
+      bucket.mSummaries[i].merge(before.mSummaries[i]).merge(after.mSummaries[i]);
+    }
+    return bucket;
+  }
+
+
+  public static class Bucket implements Serializable {
+
+    private static final long serialVersionUID = -2311062689617106591L;
+
+    private List<Object> mSeries;
+
+    private double mStart;
+
+    private final Summary[] mSummaries;
+
+    Bucket(int numValues) {
+      mSummaries = new Summary[numValues];
+      for (int i = 0; i < numValues; i++) {
+        mSummaries[i] = new Summary();
+      }
+    }
+  }
+}
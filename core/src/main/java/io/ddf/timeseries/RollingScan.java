@@ -0,0 +1,61 @@
+package io.ddf.timeseries;
+
+
+import io.ddf.types.AggregateTypes.AggregateFunction;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Appends to every row the aggregate of a column over the row and the numRows - 1 rows before it in its series
+ */
+public class RollingScan extends SeriesScan<LinkedList<Double>> {
+
+  private static final long serialVersionUID = -6315230963745125316L;
+
+  private final SeriesOrdering mOrdering;
+
+  private final int mValueIndex;
+
+  private final AggregateFunction mFunction;
+
+  private final int mNumRows;
+
+  public RollingScan(SeriesOrdering ordering, int valueIndex, AggregateFunction function, int numRows) {
+    mOrdering = ordering;
+    mValueIndex = valueIndex;
+    mFunction = function;
+    mNumRows = numRows;
+  }
+
+  @Override
+  public Object groupOf(Object[] row) {
+    return mOrdering.seriesOf(row);
+  }
+
+  /**
+   * @return the values of the last numRows - 1 rows
+   */
+  @Override
+  public LinkedList<Double> newState() {
+    return new LinkedList<Double>();
+  }
+
+  @Override
+  public LinkedList<Double> process(LinkedList<Double> previous, Object[] row, List<Object[]> out) {
+    previous.addLast(Aggregates.toDouble(row[mValueIndex]));
+    out.add(Aggregates.append(row, Aggregates.valueOf(mFunction, previous)));
+    if (previous.size() >= mNumRows) previous.removeFirst();
+    return previous;
+  }
+
+  @Override
+  public LinkedList<Double> merge(LinkedList<Double> before, LinkedList<Double> after) {
+    LinkedList<Double> previous = new LinkedList<Double>(before);
+    previous.addAll(after);
+    while (previous.size() > mNumRows - 1) {
+      previous.removeFirst();
+    }
+    return previous;
+  }
+}
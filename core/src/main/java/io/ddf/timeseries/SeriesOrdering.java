@@ -0,0 +1,115 @@
+package io.ddf.timeseries;
+
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Orders rows by series, i.e. by the values of their key columns, then by time and optionally by a tie-breaking
+ * column. Nulls come first. Rows of one series are thus contiguous and in time order, also across the partitions of a
+ * range-partitioned sort.
+ */
+public class SeriesOrdering implements Comparator<Object[]>, Serializable {
+
+  private static final long serialVersionUID = 5472390861436458183L;
+
+  private final int[] mKeyIndexes;
+
+  private final int mTimeIndex;
+
+  private final int mTieIndex;
+
+  /**
+   * @param tieIndex the column ordering rows of the same time, -1 for none
+   */
+  public SeriesOrdering(int[] keyIndexes, int timeIndex, int tieIndex) {
+    mKeyIndexes = keyIndexes.clone();
+    mTimeIndex = timeIndex;
+    mTieIndex = tieIndex;
+  }
+
+  public SeriesOrdering(int[] keyIndexes, int timeIndex) {
+    this(keyIndexes, timeIndex, -1);
+  }
+
+  public int[] getKeyIndexes() {
+    return mKeyIndexes.clone();
+  }
+
+  public int getTimeIndex() {
+    return mTimeIndex;
+  }
+
+  /**
+   * @return the values of the key columns of the row, which are equal for rows of the same series
+   */
+  public List<Object> seriesOf(Object[] row) {
+    List<Object> series = new ArrayList<Object>(mKeyIndexes.length);
+    for (int index : mKeyIndexes) {
+      series.add(row[index]);
+    }
+    return series;
+  }
+
+  public double timeOf(Object[] row) {
+    return toTime(row[mTimeIndex]);
+  }
+
+  @Override
+  public int compare(Object[] a, Object[] b) {
+    for (int index : mKeyIndexes) {
+      int c = compareValues(a[index], b[index]);
+      if (c != 0) return c;
+    }
+    int c = Double.compare(toTime(a[mTimeIndex]), toTime(b[mTimeIndex]));
+    if (c != 0 || mTieIndex < 0) return c;
+    return compareValues(a[mTieIndex], b[mTieIndex]);
+  }
+
+  /**
+   * @return milliseconds since the epoch for dates and timestamps, the value of numbers, NaN for nulls
+   */
+  public static double toTime(Object value) {
+    if (value == null) return Double.NaN;
+    if (value instanceof Number) return ((Number) value).doubleValue();
+    if (value instanceof Date) return ((Date) value).getTime();
+    throw new IllegalArgumentException(String.format("%s is not a time", value));
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public static int compareValues(Object a, Object b) {
+    if (a == null || b == null) return a == null ? (b == null ? 0 : -1) : 1;
+    if (a instanceof Number && b instanceof Number && a.getClass() != b.getClass()) {
+      return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+    }
+    if (a instanceof Comparable && a.getClass() == b.getClass()) return ((Comparable) a).compareTo(b);
+    return a.toString().compareTo(b.toString());
+  }
+
+  /**
+   * @return the key value such that keys of different numeric types are equal if their values are, e.g. to match the
+   * series of two DDFs
+   */
+  public static Object normalizeKey(Object value) {
+    if (value instanceof Number && !(value instanceof BigDecimal)) return ((Number) value).doubleValue();
+    return value;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof SeriesOrdering)) return false;
+    SeriesOrdering ordering = (SeriesOrdering) other;
+    return Arrays.equals(mKeyIndexes, ordering.mKeyIndexes) && mTimeIndex == ordering.mTimeIndex
+        && mTieIndex == ordering.mTieIndex;
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(mKeyIndexes) * 31 * 31 + mTimeIndex * 31 + mTieIndex;
+  }
+}
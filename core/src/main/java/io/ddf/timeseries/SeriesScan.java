@@ -0,0 +1,218 @@
+package io.ddf.timeseries;
+
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A single pass over rows sorted by {@link SeriesOrdering}, carrying a state along the rows of every group, e.g. of
+ * every series, and emitting output rows.
+ * <p/>
+ * A sorted dataset split in partitions is scanned without another shuffle: a first pass {@link #summarize}s every
+ * partition into the state of its last group, from which {@link #carry} computes on the driver the state every
+ * partition starts its first group with. Each partition is then {@link #run} on its own. Groups spanning partitions are
+ * only finished by the partition they end in.
+ *
+ * @param <S> the state of a group, shipped between partitions
+ */
+public abstract class SeriesScan<S extends Serializable> implements Serializable {
+
+  private static final long serialVersionUID = -2804415931285390131L;
+
+  /**
+   * @return the group of a row, equal for the rows of a group and different for the rows of the next one
+   */
+  public abstract Object groupOf(Object[] row);
+
+  /**
+   * @return the state of a group before its first row
+   */
+  public abstract S newState();
+
+  /**
+   * Processes the next row of a group
+   *
+   * @param out to which the output rows are added
+   * @return the state of the group after the row
+   */
+  public abstract S process(S state, Object[] row, List<Object[]> out);
+
+  /**
+   * Finishes a group after its last row
+   */
+  public void finish(S state, List<Object[]> out) {
+  }
+
+  /**
+   * @param before the state after some rows of a group
+   * @param after  the state after the rows of the group that follow them, processed from {@link #newState()}
+   * @return the state after all these rows, without modifying before or after
+   */
+  public abstract S merge(S before, S after);
+
+
+  public static class PartitionSummary implements Serializable {
+
+    private static final long serialVersionUID = 2265816037233120735L;
+
+    private boolean mEmpty = true;
+
+    private Object mFirstGroup;
+
+    private Object mLastGroup;
+
+    private boolean mSingleGroup = true;
+
+    private Serializable mLastState;
+  }
+
+
+  /**
+   * The state a partition starts with: the group it continues, if any, and whether its last group goes on in the next
+   * partitions
+   */
+  public static class Carry implements Serializable {
+
+    private static final long serialVersionUID = -1530457474227837434L;
+
+    private Object mGroup;
+
+    private Serializable mState;
+
+    private boolean mContinues;
+  }
+
+
+  public PartitionSummary summarize(Iterator<Object[]> rows) {
+    PartitionSummary summary = new PartitionSummary();
+    List<Object[]> ignored = new ArrayList<Object[]>();
+    Object group = null;
+    S state = null;
+    while (rows.hasNext()) {
+      Object[] row = rows.next();
+      Object rowGroup = this.groupOf(row);
+      if (summary.mEmpty) {
+        summary.mEmpty = false;
+        summary.mFirstGroup = rowGroup;
+      }
+      if (state == null || !rowGroup.equals(group)) {
+        if (state != null) summary.mSingleGroup = false;
+        group = rowGroup;
+        state = this.newState();
+      }
+      state = this.process(state, row, ignored);
+      ignored.clear();
+    }
+    summary.mLastGroup = group;
+    summary.mLastState = state;
+    return summary;
+  }
+
+  /**
+   * @param summaries the summaries of the partitions, in order
+   * @return the carries of the partitions, in the same order
+   */
+  @SuppressWarnings("unchecked")
+  public List<Carry> carry(List<PartitionSummary> summaries) {
+    List<Carry> carries = new ArrayList<Carry>(summaries.size());
+    Object group = null;
+    S state = null;
+    for (PartitionSummary summary : summaries) {
+      Carry carry = new Carry();
+      carries.add(carry);
+      if (summary.mEmpty) continue;
+
+      boolean continued = state != null && group.equals(summary.mFirstGroup);
+      if (continued) {
+        carry.mGroup = group;
+        carry.mState = state;
+      }
+      if (continued && summary.mSingleGroup) {
+        state = this.merge(state, (S) summary.mLastState);
+      } else {
+        state = (S) summary.mLastState;
+      }
+      group = summary.mLastGroup;
+    }
+
+    Object nextGroup = null;
+    for (int i = summaries.size() - 1; i >= 0; i--) {
+      PartitionSummary summary = summaries.get(i);
+      if (summary.mEmpty) continue;
+      carries.get(i).mContinues = nextGroup != null && nextGroup.equals(summary.mLastGroup);
+      nextGroup = summary.mFirstGroup;
+    }
+    return carries;
+  }
+
+  /**
+   * @return the output rows of a partition, computed as they are iterated
+   */
+  public Iterator<Object[]> run(final Iterator<Object[]> rows, final Carry carry) {
+    return new Iterator<Object[]>() {
+
+      private final LinkedList<Object[]> mOut = new LinkedList<Object[]>();
+
+      private Object mGroup = carry.mGroup;
+
+      // merged into a new state, as process may modify the state and the carry may be shared with a retried task
+      @SuppressWarnings("unchecked")
+      private S mState = carry.mState == null ? null
+          : SeriesScan.this.merge(SeriesScan.this.newState(), (S) carry.mState);
+
+      private boolean mDone;
+
+      private void fill() {
+        while (mOut.isEmpty() && !mDone) {
+          if (!rows.hasNext()) {
+            if (mState != null && !carry.mContinues) SeriesScan.this.finish(mState, mOut);
+            mDone = true;
+            return;
+          }
+
+          Object[] row = rows.next();
+          Object rowGroup = SeriesScan.this.groupOf(row);
+          if (mState == null || !rowGroup.equals(mGroup)) {
+            if (mState != null) SeriesScan.this.finish(mState, mOut);
+            mGroup = rowGroup;
+            mState = SeriesScan.this.newState();
+          }
+          mState = SeriesScan.this.process(mState, row, mOut);
+        }
+      }
+
+      @Override
+      public boolean hasNext() {
+        this.fill();
+        return !mOut.isEmpty();
+      }
+
+      @Override
+      public Object[] next() {
+        if (!this.hasNext()) throw new NoSuchElementException();
+        return mOut.removeFirst();
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  /**
+   * Scans rows that are all in one partition
+   */
+  public List<Object[]> scan(List<Object[]> rows) {
+    List<Object[]> out = new ArrayList<Object[]>();
+    Iterator<Object[]> iterator = this.run(rows.iterator(), new Carry());
+    while (iterator.hasNext()) {
+      out.add(iterator.next());
+    }
+    return out;
+  }
+}
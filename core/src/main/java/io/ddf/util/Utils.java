@@ -19,6 +19,10 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.text.DateFormat;
 import java.text.DecimalFormat;
 import java.util.*;
@@ -211,6 +215,18 @@ public class Utils {
     fileSystem.delete(path, true);
   }
 
+  /**
+   * Renames a local file over the target, atomically where the file system supports it, so that readers see either
+   * the old or the new contents of the target
+   */
+  public static void renameAtomically(String from, String to) throws IOException {
+    try {
+      Files.move(Paths.get(from), Paths.get(to), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(Paths.get(from), Paths.get(to), StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
   public static String readFromFile(String fileName) throws IOException {
     Reader reader = null;
     Configuration configuration = getConfiguration();
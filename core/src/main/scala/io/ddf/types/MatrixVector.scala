@@ -16,7 +16,7 @@
 
 package io.ddf.types
 
-import org.jblas.DoubleMatrix
+import org.jblas.{NativeBlas, DoubleMatrix}
 import com.google.gson.Gson
 import scala.annotation.tailrec
 import no.uib.cipr.matrix.sparse._
@@ -52,52 +52,23 @@ class Matrix(numRows: Int, numCols: Int) extends DoubleMatrix(numRows, numCols)
   def crs: CompRowMatrix = new CompRowMatrix(this.numRows, this.numCols, null)
 
   /*
-   * basically this experiment function is trying to avoid creating a copy of matrix Xt when doing XtX
-   * in JBLAS it will create an additional Xt matrix instance along with X in order to compute XtX
-   * this is somehow unnecessary because Xt is transpose of X and we don't need of copy for Xt
-   *
-   * XtX: Xt dimension is (columns, rows) and X dimension is (rows, columns) 
-   * this is not in-place
-   * the optimization happen by avoiding create additional matrix
-   * also XtX is symmetric then we can compute the upper half and fill in the lower half later
-   * XtX will be (columns, columns)  
-   * time complexity: O(columns * columns/2 * rows) 
-   * space complexity
+   * XtX: Xt dimension is (columns, rows) and X dimension is (rows, columns), XtX will be (columns, columns)
+   * no copy of Xt is made, see [[Matrix.addGramTo]] for the blocked kernel
    */
   def XtX(): Matrix = {
-    var XtX = new Matrix(this.columns, this.columns)
-    var i = 0
-
-    var value = 0.0
-    var t = 0
-    var j = i
-    while (i < this.columns) {
-      j = i
-      while (j < this.columns) {
-        value = 0.0
-        t = 0
-        while (t < this.rows) {
-          value += this.get(t, i) * this.get(t, j)
-          t += 1
-        }
-        XtX.put(i, j, value)
-        j += 1
-      }
-      i += 1
-    }
+    val XtX = new Matrix(this.columns, this.columns)
+    Matrix.addGramTo(this, XtX)
+    Matrix.fillLowerTriangle(XtX)
+    XtX
+  }
 
-    //fill in lower half of matrix
-    i = 0
-    j = 0
-    while (i < XtX.rows) {
-      j = 0
-      while (j < i) {
-        XtX.put(i, j, XtX.get(j, i))
-        j += 1
-      }
-      i += 1
-    }
-    return XtX
+  /*
+   * XtY: (columns, rows) x (rows, 1), without creating a copy of Xt
+   */
+  def XtY(y: DoubleMatrix): Vector = {
+    val XtY = new Vector(this.columns)
+    Matrix.addXtYTo(this, y, XtY)
+    XtY
   }
 
   private class MyIterator(matrix: Matrix) extends Iterator[DoubleMatrix] {
@@ -187,6 +158,142 @@ object Matrix {
     m
   }
 
+  /**
+   * Columns per block of the Gram kernels. A block pair of 64 columns over a 512-row tile is 512KB of doubles,
+   * which keeps the operands of the pure-Java kernel in L2.
+   */
+  val GRAM_COLUMN_BLOCK = 64
+  val GRAM_ROW_BLOCK = 512
+
+  /**
+   * Whether jblas could load its native BLAS. Without it every NativeBlas call would fail, so the kernels below fall
+   * back to pure Java.
+   */
+  lazy val hasNativeBlas: Boolean = {
+    try {
+      NativeBlas.ddot(1, Array(1.0), 0, 1, Array(1.0), 0, 1) == 1.0
+    } catch {
+      case e: LinkageError => false
+    }
+  }
+
+  /**
+   * Accumulates the upper triangle of Xt * X into acc, i.e. acc += XtX, in the manner of a symmetric rank-k update
+   * (BLAS dsyrk). Columns are processed in blocks and only the blocks on and above the diagonal are computed, each one
+   * with a single dgemm('T', 'N') on the column-major data of X, so Xt is never materialized.
+   * The blocks below the diagonal blocks are left untouched, but the native kernel also accumulates the lower half of
+   * every diagonal block, so the lower triangle of acc is unspecified: use [[fillLowerTriangle]], which overwrites it,
+   * once the accumulation is done.
+   */
+  def addGramTo(x: DoubleMatrix, acc: DoubleMatrix): Unit = addGramTo(x, acc, hasNativeBlas)
+
+  /**
+   * [[addGramTo]] with the native or the pure-Java kernel
+   */
+  private[types] def addGramTo(x: DoubleMatrix, acc: DoubleMatrix, native: Boolean): Unit = {
+    val rows = x.rows
+    val cols = x.columns
+    require(acc.rows == cols && acc.columns == cols,
+      "Accumulator must be %d x %d, got %d x %d".format(cols, cols, acc.rows, acc.columns))
+    if (rows == 0 || cols == 0) return
+
+    var bi = 0
+    while (bi < cols) {
+      val ni = math.min(GRAM_COLUMN_BLOCK, cols - bi)
+      var bj = bi
+      while (bj < cols) {
+        val nj = math.min(GRAM_COLUMN_BLOCK, cols - bj)
+        if (native) {
+          NativeBlas.dgemm('T', 'N', ni, nj, rows, 1.0, x.data, bi * rows, rows, x.data, bj * rows, rows,
+            1.0, acc.data, bi + bj * cols, cols)
+        } else {
+          addGramBlock(x, acc, bi, ni, bj, nj)
+        }
+        bj += nj
+      }
+      bi += ni
+    }
+  }
+
+  /**
+   * Pure-Java kernel for one block of [[addGramTo]], tiled over rows so that both column blocks stay in cache.
+   * On the diagonal block only the upper triangle is computed.
+   */
+  private def addGramBlock(x: DoubleMatrix, acc: DoubleMatrix, bi: Int, ni: Int, bj: Int, nj: Int): Unit = {
+    val rows = x.rows
+    val cols = acc.rows
+    val data = x.data
+    val out = acc.data
+
+    var t0 = 0
+    while (t0 < rows) {
+      val t1 = math.min(t0 + GRAM_ROW_BLOCK, rows)
+      var j = bj
+      while (j < bj + nj) {
+        val colJ = j * rows
+        var i = bi
+        val iEnd = math.min(bi + ni, j + 1)
+        while (i < iEnd) {
+          val colI = i * rows
+          var value = 0.0
+          var t = t0
+          while (t < t1) {
+            value += data(colI + t) * data(colJ + t)
+            t += 1
+          }
+          out(i + j * cols) += value
+          i += 1
+        }
+        j += 1
+      }
+      t0 = t1
+    }
+  }
+
+  /**
+   * Accumulates Xt * y into acc, i.e. acc += XtY, with a single dgemv('T') when native BLAS is available.
+   */
+  def addXtYTo(x: DoubleMatrix, y: DoubleMatrix, acc: DoubleMatrix): Unit = {
+    val rows = x.rows
+    val cols = x.columns
+    require(y.length == rows, "y must have %d elements, got %d".format(rows, y.length))
+    require(acc.length == cols, "Accumulator must have %d elements, got %d".format(cols, acc.length))
+    if (rows == 0 || cols == 0) return
+
+    if (hasNativeBlas) {
+      NativeBlas.dgemv('T', rows, cols, 1.0, x.data, 0, rows, y.data, 0, 1, 1.0, acc.data, 0, 1)
+    } else {
+      val data = x.data
+      var c = 0
+      while (c < cols) {
+        val col = c * rows
+        var value = 0.0
+        var t = 0
+        while (t < rows) {
+          value += data(col + t) * y.data(t)
+          t += 1
+        }
+        acc.data(c) += value
+        c += 1
+      }
+    }
+  }
+
+  /**
+   * Mirrors the upper triangle of a square matrix into its lower triangle
+   */
+  def fillLowerTriangle(m: DoubleMatrix): Unit = {
+    var i = 0
+    while (i < m.rows) {
+      var j = 0
+      while (j < i) {
+        m.put(i, j, m.get(j, i))
+        j += 1
+      }
+      i += 1
+    }
+  }
+
   /**
    * Create a column vector
    */
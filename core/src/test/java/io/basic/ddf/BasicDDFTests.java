@@ -46,6 +46,25 @@ public class BasicDDFTests {
     Assert.assertNotNull("DDF cannot be null", ddf2);
   }
 
+  @Test
+  public void testNumRowsFollowTheRepresentation() throws DDFException {
+    List<Object[]> list = new ArrayList<Object[]>();
+    list.add(new Object[] { "Last", "Nguyen" });
+    DDF ddf = ((BasicDDFManager) this.getDDFManager()).newDDF(list, Object[].class, null,
+        new Schema(null, "name string, value string"));
+    Assert.assertEquals(1, ddf.getNumRows());
+
+    List<Object[]> longer = new ArrayList<Object[]>(list);
+    longer.add(new Object[] { "First", "Christopher" });
+    ddf.getRepresentationHandler().set(longer, List.class, Object[].class);
+    Assert.assertEquals(2, ddf.getNumRows());
+
+    ddf.getRepresentationHandler().reset();
+    ddf.getRepresentationHandler().add(list, List.class, Object[].class);
+    ddf.getRepresentationHandler().setDefaultDataType(List.class, Object[].class);
+    Assert.assertEquals(1, ddf.getNumRows());
+  }
+
   @Test
   public void testDDFRepresentations() throws DDFException {
     DDF ddf = this.getTestDDF();
@@ -63,6 +82,26 @@ public class BasicDDFTests {
     }
   }
 
+  @Test
+  public void testCopyFrom() throws DDFException {
+    List<Object[]> list = new ArrayList<Object[]>();
+    list.add(new Object[] { "null", "a\tb", 1 });
+    list.add(new Object[] { null, "c", null });
+    DDF ddf = ((BasicDDFManager) this.getDDFManager()).newDDF(list, Object[].class, null,
+        new Schema(null, "name string, value string, n int"));
+
+    DDF copy = this.getDDFManager().copyFrom(ddf, null);
+    @SuppressWarnings("unchecked")
+    List<Object[]> rows = (List<Object[]>) copy.getRepresentationHandler().get(List.class, Object[].class);
+    Assert.assertEquals(2, rows.size());
+    Assert.assertEquals("null", rows.get(0)[0]);
+    Assert.assertEquals("a\tb", rows.get(0)[1]);
+    Assert.assertEquals(1, rows.get(0)[2]);
+    Assert.assertNull(rows.get(1)[0]);
+    Assert.assertNull(rows.get(1)[2]);
+    Assert.assertNotSame(list.get(0), rows.get(0));
+  }
+
   @Test(expected = DDFException.class)
   public void testDDFManagerSetUUID() throws DDFException {
     DDF ddf = this.getTestDDF();
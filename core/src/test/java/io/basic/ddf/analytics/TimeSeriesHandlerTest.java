@@ -0,0 +1,94 @@
+package io.basic.ddf.analytics;
+
+
+import io.basic.ddf.BasicDDF;
+import io.basic.ddf.BasicDDFManager;
+import io.ddf.DDF;
+import io.ddf.DDFManager;
+import io.ddf.content.Schema;
+import io.ddf.exception.DDFException;
+import io.ddf.types.AggregateTypes.AggregateFunction;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TimeSeriesHandlerTest {
+
+  private static final List<String> SENSOR = Arrays.asList("sensor");
+
+  private DDF newReadings() throws DDFException {
+    DDFManager manager = DDFManager.get(DDFManager.EngineType.BASIC);
+    List<Object[]> readings = new ArrayList<Object[]>();
+    // out of order, to be sorted by sensor and time
+    readings.add(new Object[] { "b", 2, 20.0 });
+    readings.add(new Object[] { "a", 3, 3.0 });
+    readings.add(new Object[] { "a", 1, 1.0 });
+    readings.add(new Object[] { "b", 1, 10.0 });
+    readings.add(new Object[] { "a", 2, null });
+    readings.add(new Object[] { "a", 5, 5.0 });
+    return ((BasicDDFManager) manager).newDDF(readings, Object[].class, null,
+        new Schema(null, "sensor string, t int, value double"));
+  }
+
+  private static List<String> rowsOf(DDF ddf) throws DDFException {
+    List<String> rows = new ArrayList<String>();
+    for (Object[] row : ((BasicDDF) ddf).getList(Object[].class)) {
+      rows.add(Arrays.toString(row));
+    }
+    return rows;
+  }
+
+  @Test
+  public void testRollingAndLag() throws DDFException {
+    DDF readings = this.newReadings();
+    DDF rolling = readings.getTimeSeriesHandler().rolling("t", SENSOR, "value", AggregateFunction.SUM, 2);
+    Assert.assertEquals("value_sum2", rolling.getColumnNames().get(3));
+    Assert.assertEquals(Arrays.asList("[a, 1, 1.0, 1.0]", "[a, 2, null, 1.0]", "[a, 3, 3.0, 3.0]", "[a, 5, 5.0, 8.0]",
+        "[b, 1, 10.0, 10.0]", "[b, 2, 20.0, 30.0]"), rowsOf(rolling));
+
+    DDF lagged = rolling.getTimeSeriesHandler().lag("t", SENSOR, "value", 1);
+    Assert.assertEquals(Arrays.asList(null, 1.0, null, 3.0, null, 10.0), this.column(lagged, "value_lag1"));
+    DDF led = readings.getTimeSeriesHandler().lead("t", SENSOR, "value", 2);
+    Assert.assertEquals(Arrays.asList(3.0, 5.0, null, null, null, null), this.column(led, "value_lead2"));
+  }
+
+  @Test
+  public void testResampleAndFillForward() throws DDFException {
+    DDF readings = this.newReadings();
+    DDF resampled = readings.getTimeSeriesHandler().resample("t", SENSOR, Arrays.asList("value"), 2,
+        AggregateFunction.COUNT);
+    Assert.assertEquals(Schema.ColumnType.BIGINT, resampled.getColumn("t").getType());
+    Assert.assertEquals(Arrays.asList("[a, 0, 1]", "[a, 2, 1]", "[a, 4, 1]", "[b, 0, 1]", "[b, 2, 1]"),
+        rowsOf(resampled));
+
+    DDF filled = readings.getTimeSeriesHandler().fillForward("t", SENSOR, Arrays.asList("value"));
+    Assert.assertEquals(Arrays.asList(1.0, 1.0, 3.0, 5.0, 10.0, 20.0), this.column(filled, "value"));
+  }
+
+  @Test
+  public void testAsOfJoin() throws DDFException {
+    DDF readings = this.newReadings();
+    List<Object[]> limits = new ArrayList<Object[]>();
+    limits.add(new Object[] { "a", 2L, 50.0 });
+    limits.add(new Object[] { "a", 0L, 40.0 });
+    limits.add(new Object[] { "b", 2L, 60.0 });
+    DDF limitDDF = ((BasicDDFManager) readings.getManager()).newDDF(limits, Object[].class, null,
+        new Schema(null, "sensor string, t bigint, value double"));
+
+    DDF joined = readings.getTimeSeriesHandler().asOfJoin(limitDDF, "t", SENSOR, Arrays.asList("value"));
+    Assert.assertEquals("value_r", joined.getColumnNames().get(3));
+    Assert.assertEquals(Arrays.asList(40.0, 50.0, 50.0, 50.0, null, 60.0), this.column(joined, "value_r"));
+  }
+
+  private List<Object> column(DDF ddf, String name) throws DDFException {
+    int index = ddf.getColumnIndex(name);
+    List<Object> values = new ArrayList<Object>();
+    for (Object[] row : ((BasicDDF) ddf).getList(Object[].class)) {
+      values.add(row[index]);
+    }
+    return values;
+  }
+}
@@ -0,0 +1,82 @@
+package io.basic.ddf.content;
+
+
+import com.google.common.io.Files;
+import io.ddf.content.Schema;
+import io.ddf.exception.DDFException;
+import junit.framework.Assert;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ */
+public class ChunkedDataFileTest {
+
+  private static List<Object[]> rows(int numRows) {
+    List<Object[]> rows = new ArrayList<Object[]>();
+    for (int i = 0; i < numRows; i++) {
+      rows.add(new Object[] { i, i * 0.5, i % 3 == 0 ? null : "row" + i, (long) i << 33, i % 2 == 0 });
+    }
+    return rows;
+  }
+
+  @Test
+  public void testWriteAndLazyLoad() throws DDFException, IOException {
+    File dir = Files.createTempDir();
+    try {
+      String path = new File(dir, "rows" + ChunkedDataFile.SUFFIX).getPath();
+      Schema schema = new Schema("rows", "id INT, value DOUBLE, label STRING, big BIGINT, even BOOLEAN");
+
+      Assert.assertEquals(1000, ChunkedDataFile.write(path, "rows", schema, rows(1000).iterator(), 64));
+      Assert.assertFalse(new File(path + ".tmp").exists());
+
+      ChunkedDataFile file = ChunkedDataFile.open(path);
+      Assert.assertEquals("rows", file.getName());
+      Assert.assertEquals(1000, file.getNumRows());
+      Assert.assertEquals(16, file.getNumChunks());
+      Assert.assertEquals(5, file.getSchema().getNumColumns());
+
+      List<Object[]> loaded = file.getRows();
+      Assert.assertEquals(1000, loaded.size());
+      Object[] row = loaded.get(999);
+      Assert.assertEquals(999, row[0]);
+      Assert.assertEquals(499.5, row[1]);
+      Assert.assertNull(row[2]);
+      Assert.assertEquals(999L << 33, row[3]);
+      Assert.assertEquals(false, row[4]);
+      Assert.assertEquals("row1", loaded.get(1)[2]);
+    } finally {
+      FileUtils.deleteDirectory(dir);
+    }
+  }
+
+  @Test(expected = DDFException.class)
+  public void testCorruptedChunkIsDetected() throws DDFException, IOException {
+    File dir = Files.createTempDir();
+    try {
+      String path = new File(dir, "rows" + ChunkedDataFile.SUFFIX).getPath();
+      ChunkedDataFile.write(path, "rows", new Schema("rows", "id INT, value DOUBLE, label STRING, big BIGINT, even BOOLEAN"),
+          rows(100).iterator(), 64);
+
+      ChunkedDataFile file = ChunkedDataFile.open(path);
+      // flip a byte in the second chunk, past the first one
+      RandomAccessFile raf = new RandomAccessFile(path, "rw");
+      long position = raf.length() - 100;
+      raf.seek(position);
+      int b = raf.read();
+      raf.seek(position);
+      raf.write(b ^ 0xFF);
+      raf.close();
+
+      file.readChunk(1);
+    } finally {
+      FileUtils.deleteDirectory(dir);
+    }
+  }
+}
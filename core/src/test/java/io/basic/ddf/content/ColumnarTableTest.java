@@ -0,0 +1,131 @@
+package io.basic.ddf.content;
+
+
+import io.basic.ddf.BasicDDFManager;
+import io.ddf.DDF;
+import io.ddf.DDFManager;
+import io.ddf.analytics.AStatisticsSupporter.FiveNumSummary;
+import io.ddf.content.Schema;
+import io.ddf.exception.DDFException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ColumnarTableTest {
+
+  private List<Schema.Column> getColumns() {
+    return Arrays.asList(new Schema.Column("id", Schema.ColumnType.INT),
+        new Schema.Column("name", Schema.ColumnType.STRING),
+        new Schema.Column("score", Schema.ColumnType.DOUBLE),
+        new Schema.Column("flag", Schema.ColumnType.BOOLEAN));
+  }
+
+  @Test
+  public void testRoundTrip() throws DDFException {
+    List<Object[]> rows = new ArrayList<Object[]>();
+    int numRows = 2 * ColumnVector.CHUNK_SIZE + 7;
+    for (int i = 0; i < numRows; i++) {
+      rows.add(new Object[] { i, i % 3 == 0 ? null : "name" + (i % 5), i % 7 == 0 ? null : i / 2.0, i % 2 == 0 });
+    }
+
+    ColumnarTable table = ColumnarTable.fromRows(rows, this.getColumns());
+    Assert.assertEquals(numRows, table.getNumRows());
+    Assert.assertTrue(table.getColumn(0) instanceof ColumnVector.IntVector);
+    Assert.assertEquals(5, ((ColumnVector.DictionaryVector) table.getColumn("name")).getDictionary().size());
+
+    List<Object[]> view = table.asRows();
+    Assert.assertEquals(numRows, view.size());
+    for (int i = 0; i < numRows; i++) {
+      Assert.assertArrayEquals(rows.get(i), view.get(i));
+    }
+  }
+
+  @Test
+  public void testAppendKeepsColumnsAligned() throws DDFException {
+    ColumnarTable table = new ColumnarTable(this.getColumns());
+    table.append(new Object[] { 1, "a", 1.0, true });
+    try {
+      table.append(new Object[] { 2, "b", "not a number", false });
+      Assert.fail("appended a string to a double column");
+    } catch (DDFException e) {
+      // expected
+    }
+    table.append(new Object[] { 3, null, null, null });
+
+    Assert.assertEquals(2, table.getNumRows());
+    for (int i = 0; i < table.getNumColumns(); i++) {
+      Assert.assertEquals(2, table.getColumn(i).size());
+    }
+    Assert.assertArrayEquals(new Object[] { 3, null, null, null }, table.getRow(1));
+  }
+
+  @Test
+  public void testDoubleRowsAndProjection() throws DDFException {
+    ColumnarTable table = new ColumnarTable(this.getColumns());
+    table.append(new Object[] { 1, "a", 1.5, true });
+    table.append(new Object[] { 2, "b", null, false });
+    table.append(new Object[] { 3, "a", 3.5, false });
+
+    List<double[]> doubles = table.toDoubleRows(new int[] { 0, 1, 2, 3 });
+    Assert.assertEquals(2, doubles.size());
+    Assert.assertArrayEquals(new double[] { 3, 0, 3.5, 0 }, doubles.get(1), 0);
+
+    ColumnarTable projection = table.project(Arrays.asList("score", "id"));
+    Assert.assertSame(table.getColumn("id"), projection.getColumn(1));
+    Assert.assertArrayEquals(new Object[] { 3.5, 3 }, projection.getRow(2));
+
+    // both tables stay appendable, the projection copies its columns first
+    table.append(new Object[] { 4, "c", 4.5, true });
+    Assert.assertEquals(3, projection.getNumRows());
+    projection.append(new Object[] { 5.5, 5 });
+    Assert.assertNotSame(table.getColumn("id"), projection.getColumn(1));
+    Assert.assertArrayEquals(new Object[] { 5.5, 5 }, projection.getRow(3));
+    Assert.assertArrayEquals(new Object[] { 4, "c", 4.5, true }, table.getRow(3));
+    Assert.assertEquals(4, table.getColumn("id").size());
+  }
+
+  @Test
+  public void testIntegerColumnsRejectInexactValues() throws DDFException {
+    ColumnarTable table = new ColumnarTable(Arrays.asList(new Schema.Column("id", Schema.ColumnType.INT),
+        new Schema.Column("big", Schema.ColumnType.BIGINT)));
+    table.append(new Object[] { 1L, 2.0 });
+    table.append(new Object[] { (short) 3, Long.MAX_VALUE });
+    Object[][] rejected = { { 3000000000L, 1L }, { 1.5, 1L }, { 1, 2.5 }, { 1, 1e19 }, { 1, Double.NaN } };
+    for (Object[] row : rejected) {
+      try {
+        table.append(row);
+        Assert.fail("appended " + Arrays.toString(row));
+      } catch (DDFException e) {
+        // expected
+      }
+    }
+    Assert.assertEquals(2, table.getNumRows());
+    Assert.assertArrayEquals(new Object[] { 1, 2L }, table.getRow(0));
+    Assert.assertArrayEquals(new Object[] { 3, Long.MAX_VALUE }, table.getRow(1));
+  }
+
+  @Test
+  public void testStatistics() throws DDFException {
+    DDFManager manager = DDFManager.get(DDFManager.EngineType.BASIC);
+    List<Object[]> rows = new ArrayList<Object[]>();
+    for (int i = 1; i <= 5; i++) {
+      rows.add(new Object[] { -i, "v" + i, i == 3 ? null : i * 2.0, true });
+    }
+    DDF ddf = ((BasicDDFManager) manager).newDDF(rows, Object[].class, null, new Schema(null, this.getColumns()));
+
+    Assert.assertEquals(-1.0, ddf.getStatisticsSupporter().getVectorMax("id"), 0);
+    Assert.assertEquals(-3.0, ddf.getStatisticsSupporter().getVectorMean("id"), 0);
+    Assert.assertEquals(6.0, ddf.getStatisticsSupporter().getVectorMean("score"), 0);
+
+    FiveNumSummary fivenum = ddf.getStatisticsSupporter().getFiveNumSummary(Arrays.asList("id"))[0];
+    Assert.assertEquals(-5.0, fivenum.getMin(), 0);
+    Assert.assertEquals(-3.0, fivenum.getMedian(), 0);
+
+    DDF projection = ddf.getViewHandler().project("score", "id");
+    Assert.assertEquals(2, projection.getNumColumns());
+    Assert.assertEquals(4, ((List<?>) projection.getRepresentationHandler().get(List.class, double[].class)).size());
+  }
+}
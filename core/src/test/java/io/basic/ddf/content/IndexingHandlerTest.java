@@ -0,0 +1,136 @@
+package io.basic.ddf.content;
+
+
+import com.google.common.io.Files;
+import io.basic.ddf.BasicDDF;
+import io.basic.ddf.BasicDDFManager;
+import io.ddf.DDF;
+import io.ddf.DDFManager;
+import io.ddf.content.IHandleIndexing.IndexType;
+import io.ddf.content.Schema;
+import io.ddf.exception.DDFException;
+import io.ddf.index.ColumnRange;
+import io.ddf.misc.Config;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+public class IndexingHandlerTest {
+
+  private static final String CHUNK_ROWS = Config.ConfigConstant.FIELD_BASIC_PERSISTENCE_CHUNK_ROWS.toString();
+
+  private String mChunkRows;
+
+  private DDFManager mManager;
+
+  @Before
+  public void setUp() throws DDFException {
+    mChunkRows = Config.getGlobalValue(CHUNK_ROWS);
+    Config.set(Config.ConfigConstant.SECTION_GLOBAL.toString(), CHUNK_ROWS, "100");
+    mManager = DDFManager.get(DDFManager.EngineType.BASIC);
+  }
+
+  @After
+  public void tearDown() {
+    Config.set(Config.ConfigConstant.SECTION_GLOBAL.toString(), CHUNK_ROWS, mChunkRows);
+  }
+
+  private DDF newPayments() throws DDFException {
+    return this.newPayments(null);
+  }
+
+  private DDF newPayments(String name) throws DDFException {
+    List<Object[]> payments = new ArrayList<Object[]>();
+    for (int i = 0; i < 1000; i++) {
+      payments.add(new Object[] { i, "c" + (i % 37), i * 0.5 });
+    }
+    return ((BasicDDFManager) mManager).newDDF(payments, Object[].class, name,
+        new Schema(null, "id int, customer string, amount double"));
+  }
+
+  private List<String> query(DDF ddf, String where) throws DDFException {
+    return mManager.sql(String.format("select id, amount from %s where %s order by id", ddf.getTableName(), where))
+        .getRows();
+  }
+
+  @Test
+  public void testSelect() throws DDFException {
+    DDF ddf = this.newPayments();
+    String[] wheres = { "id between 250 and 259", "customer = 'c5' and id < 300", "id in (3, 512, 999)",
+        "customer in ('c1', 'c2') and amount >= 450", "300 > id and customer <> 'c3'" };
+    List<List<String>> expected = new ArrayList<List<String>>();
+    for (String where : wheres) {
+      expected.add(this.query(ddf, where));
+    }
+
+    ddf.getIndexingHandler().createIndex(IndexType.ZONE_MAP, "id");
+    ddf.getIndexingHandler().createIndex(IndexType.HASH, "Customer");
+    Assert.assertEquals(IndexType.HASH, ddf.getIndexingHandler().getIndexes().get("customer"));
+    Assert.assertEquals(1,
+        ddf.getIndexingHandler().select(Arrays.asList(ColumnRange.between("id", 250, 259))).getNumKept());
+    Assert.assertEquals(3, ddf.getIndexingHandler().select(
+        Arrays.asList(ColumnRange.equalTo("customer", "c5"), ColumnRange.lessThan("id", 300, false))).getNumKept());
+    Assert.assertNull(ddf.getIndexingHandler().select(Arrays.asList(ColumnRange.equalTo("amount", 1.0))));
+
+    for (int i = 0; i < wheres.length; i++) {
+      Assert.assertEquals(wheres[i], expected.get(i), this.query(ddf, wheres[i]));
+    }
+  }
+
+  @Test
+  public void testInvalidate() throws DDFException {
+    DDF ddf = this.newPayments();
+    IndexingHandler handler = (IndexingHandler) ddf.getIndexingHandler();
+    handler.createIndex(IndexType.SORTED, "amount");
+    Assert.assertNotNull(handler.getIndexSet());
+
+    List<Object[]> doubled = new ArrayList<Object[]>();
+    for (int i = 0; i < 1000; i++) {
+      doubled.add(new Object[] { i, "c" + (i % 37), i * 2.0 });
+    }
+    ddf.updateInplace(((BasicDDFManager) mManager).newDDF(doubled, Object[].class, null,
+        new Schema(null, "id int, customer string, amount double")));
+    Assert.assertNull(handler.getIndexSet());
+    Assert.assertEquals(IndexType.SORTED, handler.getIndexes().get("amount"));
+
+    Assert.assertEquals(Arrays.asList("10\t20.0", "11\t22.0"), this.query(ddf, "amount >= 20 and amount < 23"));
+    Assert.assertNotNull(handler.getIndexSet());
+  }
+
+  @Test
+  public void testStaleIndexesAreNotLoaded() throws Exception {
+    String name = "indexed_" + UUID.randomUUID().toString().replace("-", "");
+    BasicDDF ddf = (BasicDDF) this.newPayments(name);
+    ddf.getIndexingHandler().createIndex(IndexType.ZONE_MAP, "id");
+    ddf.persist(true);
+    PersistenceHandler persistence = (PersistenceHandler) ddf.getPersistenceHandler();
+    try {
+      File indexFile = new File(persistence.getIndexFileName());
+      byte[] indexes = Files.toByteArray(indexFile);
+      DDF loaded = (DDF) persistence.load("adatao", name);
+      Assert.assertNotNull(((IndexingHandler) loaded.getIndexingHandler()).getIndexSet());
+
+      // the same number of chunks, with the indexes of the previous rows left over as by a crash between the renames
+      List<Object[]> reversed = new ArrayList<Object[]>();
+      for (int i = 0; i < 1000; i++) {
+        reversed.add(new Object[] { 999 - i, "c" + (i % 37), i * 0.5 });
+      }
+      ddf.setList(reversed, Object[].class);
+      ddf.persist(true);
+      Files.write(indexes, indexFile);
+
+      loaded = (DDF) persistence.load("adatao", name);
+      Assert.assertNull(((IndexingHandler) loaded.getIndexingHandler()).getIndexSet());
+      Assert.assertEquals(999, ((BasicDDF) loaded).getList(Object[].class).get(0)[0]);
+    } finally {
+      persistence.unpersist("adatao", name);
+    }
+  }
+}
@@ -4,18 +4,26 @@
 package io.basic.ddf.content;
 
 
+import io.basic.ddf.BasicDDF;
+import io.basic.ddf.BasicDDFManager;
 import io.ddf.DDF;
 import io.ddf.DDFManager;
 import io.ddf.content.APersistenceHandler.PersistenceUri;
+import io.ddf.content.IHandlePersistence;
+import io.ddf.content.Schema;
 import io.ddf.exception.DDFException;
+import io.ddf.misc.Config;
 import io.ddf.misc.Config.ConfigConstant;
 import junit.framework.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 
 /**
@@ -23,6 +31,8 @@ import java.util.List;
  */
 public class PersistenceHandlerTests {
 
+  private static final String CHUNK_ROWS = Config.ConfigConstant.FIELD_BASIC_PERSISTENCE_CHUNK_ROWS.toString();
+
   @Test
   public void testPersistenceDir() throws IOException, DDFException {
     DDFManager manager = DDFManager.get(DDFManager.EngineType.BASIC);
@@ -49,6 +59,49 @@ public class PersistenceHandlerTests {
 
     ddf.unpersist();
   }
+  @Test
+  public void testLoadedDDFOutlivesItsFile() throws Exception {
+    String chunkRows = Config.getGlobalValue(CHUNK_ROWS);
+    Config.set(Config.ConfigConstant.SECTION_GLOBAL.toString(), CHUNK_ROWS, "10");
+    try {
+      DDFManager manager = DDFManager.get(DDFManager.EngineType.BASIC);
+      String name = "persisted_" + UUID.randomUUID().toString().replace("-", "");
+      BasicDDF ddf = (BasicDDF) ((BasicDDFManager) manager).newDDF(rows(0, 100), Object[].class, name,
+          new Schema(null, "id int, label string"));
+      ddf.persist(true);
+      IHandlePersistence handler = ddf.getPersistenceHandler();
+
+      BasicDDF loaded = (BasicDDF) handler.load("adatao", name);
+      List<Object[]> rows = loaded.getList(Object[].class);
+      Assert.assertEquals(100, rows.size());
+      Assert.assertEquals(5, rows.get(5)[0]);
+
+      // a new copy renamed over the file, then no file at all: the loaded rows, read chunk by chunk, stay the same
+      ddf.setList(rows(1000, 100), Object[].class);
+      ddf.persist(true);
+      for (int i = 0; i < 100; i++) {
+        Assert.assertEquals(i, rows.get(i)[0]);
+      }
+      Assert.assertEquals(1000, ((BasicDDF) handler.load("adatao", name)).getList(Object[].class).get(0)[0]);
+
+      handler.unpersist("adatao", name);
+      Assert.assertEquals("row99", rows.get(99)[1]);
+      Assert.assertEquals("row0", rows.get(0)[1]);
+
+      ((Closeable) rows).close();
+    } finally {
+      Config.set(Config.ConfigConstant.SECTION_GLOBAL.toString(), CHUNK_ROWS, chunkRows);
+    }
+  }
+
+  private static List<Object[]> rows(int first, int numRows) {
+    List<Object[]> rows = new ArrayList<Object[]>();
+    for (int i = first; i < first + numRows; i++) {
+      rows.add(new Object[] { i, "row" + i });
+    }
+    return rows;
+  }
+
   /*
   @Test
   public void testLoadDDF() throws Exception {
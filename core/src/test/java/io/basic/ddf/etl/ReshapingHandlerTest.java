@@ -0,0 +1,82 @@
+package io.basic.ddf.etl;
+
+
+import io.basic.ddf.BasicDDF;
+import io.basic.ddf.BasicDDFManager;
+import io.ddf.DDF;
+import io.ddf.DDFManager;
+import io.ddf.content.Schema;
+import io.ddf.exception.DDFException;
+import io.ddf.types.AggregateTypes.AggregateFunction;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ReshapingHandlerTest {
+
+  private static final List<String> STORE = Arrays.asList("store");
+
+  private DDF newSales() throws DDFException {
+    DDFManager manager = DDFManager.get(DDFManager.EngineType.BASIC);
+    List<Object[]> sales = new ArrayList<Object[]>();
+    sales.add(new Object[] { "s1", "2015-01", 10.0, 1 });
+    sales.add(new Object[] { "s2", "2015-01", 5.0, 2 });
+    sales.add(new Object[] { "s1", "2015-02", 20.0, null });
+    sales.add(new Object[] { "s1", "2015-01", 1.0, 3 });
+    sales.add(new Object[] { "s2", "2015-03", null, 4 });
+    return ((BasicDDFManager) manager).newDDF(sales, Object[].class, null,
+        new Schema(null, "store string, month string, amount double, units int"));
+  }
+
+  private static List<String> rowsOf(DDF ddf) throws DDFException {
+    List<String> rows = new ArrayList<String>();
+    for (Object[] row : ((BasicDDF) ddf).getList(Object[].class)) {
+      rows.add(Arrays.toString(row));
+    }
+    return rows;
+  }
+
+  @Test
+  public void testPivot() throws DDFException {
+    DDF sales = this.newSales();
+    DDF pivoted = sales.getReshapingHandler().pivot(STORE, "month", "amount", AggregateFunction.SUM, null);
+    Assert.assertEquals(Arrays.asList("store", "month_2015_01", "month_2015_02", "month_2015_03"),
+        pivoted.getColumnNames());
+    Assert.assertEquals(Arrays.asList("[s1, 11.0, 20.0, null]", "[s2, 5.0, null, null]"), rowsOf(pivoted));
+    // the values found are kept as the levels of the pivot column
+    Assert.assertEquals(Arrays.asList("2015-01", "2015-02", "2015-03"),
+        sales.getColumn("month").getOptionalFactor().getLevels());
+
+    DDF counted = sales.getReshapingHandler().pivot(STORE, "month", "units", AggregateFunction.COUNT,
+        Arrays.asList("2015-03", "2015-01"));
+    Assert.assertEquals(Schema.ColumnType.BIGINT, counted.getColumn("month_2015_03").getType());
+    Assert.assertEquals(Arrays.asList("[s1, 0, 2]", "[s2, 1, 1]"), rowsOf(counted));
+  }
+
+  @Test
+  public void testMeltAndStack() throws DDFException {
+    DDF sales = this.newSales();
+    DDF melted = sales.getReshapingHandler().melt(Arrays.asList("store", "month"), Arrays.asList("amount", "units"),
+        "measure", "quantity");
+    Assert.assertEquals(Schema.ColumnType.DOUBLE, melted.getColumn("quantity").getType());
+    Assert.assertEquals(10, rowsOf(melted).size());
+    Assert.assertEquals("[s1, 2015-02, units, null]", rowsOf(melted).get(5));
+    Assert.assertEquals(Arrays.asList("amount", "units"), melted.getColumn("measure").getOptionalFactor().getLevels());
+
+    DDF wide = sales.getReshapingHandler().pivot(STORE, "month", "amount", AggregateFunction.MAX, null);
+    DDF stacked = wide.getReshapingHandler().stack(STORE);
+    Assert.assertEquals(Arrays.asList("[s1, month_2015_01, 10.0]", "[s1, month_2015_02, 20.0]",
+        "[s2, month_2015_01, 5.0]"), rowsOf(stacked));
+    DDF unstacked = stacked.getReshapingHandler().unstack(STORE, "variable", "value");
+    Assert.assertEquals(rowsOf(wide), rowsOf(unstacked));
+    Assert.assertEquals(wide.getColumnNames(), unstacked.getColumnNames());
+  }
+
+  @Test(expected = DDFException.class)
+  public void testUnstackDuplicates() throws DDFException {
+    this.newSales().getReshapingHandler().unstack(STORE, "month", "amount");
+  }
+}
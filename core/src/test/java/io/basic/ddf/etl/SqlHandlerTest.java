@@ -0,0 +1,95 @@
+package io.basic.ddf.etl;
+
+
+import io.basic.ddf.BasicDDFManager;
+import io.ddf.DDF;
+import io.ddf.DDFManager;
+import io.ddf.content.Schema;
+import io.ddf.content.SqlResult;
+import io.ddf.exception.DDFException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SqlHandlerTest {
+
+  private DDFManager mManager;
+
+  private DDFManager getDDFManager() throws DDFException {
+    if (mManager == null) {
+      mManager = DDFManager.get(DDFManager.EngineType.BASIC);
+      List<Object[]> sales = new ArrayList<Object[]>();
+      sales.add(new Object[] { 1, "east", 10.0 });
+      sales.add(new Object[] { 2, "west", 20.0 });
+      sales.add(new Object[] { 3, "east", 5.0 });
+      sales.add(new Object[] { 4, "north", null });
+      ((BasicDDFManager) mManager).newDDF(sales, Object[].class, "sales",
+          new Schema("sales", "id int, region string, amount double"));
+
+      List<Object[]> regions = new ArrayList<Object[]>();
+      regions.add(new Object[] { "east", "Alice" });
+      regions.add(new Object[] { "west", "Bob" });
+      ((BasicDDFManager) mManager).newDDF(regions, Object[].class, "regions",
+          new Schema("regions", "region string, manager string"));
+    }
+    return mManager;
+  }
+
+  @Test
+  public void testFilterAndOrder() throws DDFException {
+    SqlResult result = this.getDDFManager().sql(
+        "select id, amount * 2 as doubled from sales where amount > 5 or region = 'north' order by id desc limit 2");
+    Assert.assertEquals(2, result.getRows().size());
+    Assert.assertEquals("4\tnull", result.getRows().get(0));
+    Assert.assertEquals("2\t40.0", result.getRows().get(1));
+    Assert.assertEquals("doubled", result.getSchema().getColumn(1).getName());
+    Assert.assertEquals(Schema.ColumnType.INT, result.getSchema().getColumn(0).getType());
+  }
+
+  @Test
+  public void testGroupBy() throws DDFException {
+    SqlResult result = this.getDDFManager().sql(
+        "select region, count(*) as n, sum(amount) as total from sales group by region having count(*) > 1");
+    Assert.assertEquals(1, result.getRows().size());
+    Assert.assertEquals("east\t2\t15.0", result.getRows().get(0));
+    Assert.assertEquals(Schema.ColumnType.BIGINT, result.getSchema().getColumn(1).getType());
+  }
+
+  @Test
+  public void testJoin() throws DDFException {
+    SqlResult result = this.getDDFManager().sql(
+        "select s.id, r.manager from sales s left join regions r on s.region = r.region order by s.id");
+    Assert.assertEquals(4, result.getRows().size());
+    Assert.assertEquals("1\tAlice", result.getRows().get(0));
+    Assert.assertEquals("4\tnull", result.getRows().get(3));
+  }
+
+  @Test
+  public void testSql2ddf() throws DDFException {
+    DDF ddf = this.getDDFManager().sql2ddf("select region, max(amount) as top from sales group by region");
+    Assert.assertEquals(3, ddf.getNumRows());
+    Assert.assertEquals(Schema.ColumnType.DOUBLE, ddf.getSchema().getColumn("top").getType());
+  }
+
+  @Test
+  public void testLoadFile() throws DDFException, IOException {
+    File file = File.createTempFile("basic", ".csv");
+    file.deleteOnExit();
+    FileWriter writer = new FileWriter(file);
+    writer.write("1,a,1.5\n2,\"b,c\",2\nnot,a,row,at all\n3,d,\n");
+    writer.close();
+
+    DDF ddf = ((BasicDDFManager) this.getDDFManager()).loadFile(file.getAbsolutePath(), ",");
+    Assert.assertEquals(3, ddf.getNumRows());
+    Assert.assertEquals(Schema.ColumnType.INT, ddf.getSchema().getColumn("V1").getType());
+    Assert.assertEquals(Schema.ColumnType.DOUBLE, ddf.getSchema().getColumn("V3").getType());
+
+    SqlResult result = ddf.sql("select V2 from @this where V1 = 2", "Unable to query %s");
+    Assert.assertEquals("b,c", result.getRows().get(0));
+  }
+}
@@ -0,0 +1,178 @@
+package io.basic.ddf.etl;
+
+
+import io.basic.ddf.BasicDDF;
+import io.basic.ddf.BasicDDFManager;
+import io.ddf.DDF;
+import io.ddf.DDFManager;
+import io.ddf.analytics.IncrementalStatistics;
+import io.ddf.content.Schema;
+import io.ddf.content.SqlResult;
+import io.ddf.datasource.DataFormat;
+import io.ddf.datasource.DirectoryStreamSource;
+import io.ddf.datasource.QueueStreamSource;
+import io.ddf.datasource.TextFileFormat;
+import io.ddf.exception.DDFException;
+import io.ddf.misc.IHandleStreamingData;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StreamingDataHandlerTest {
+
+  private DDF newEventsDDF() throws DDFException {
+    DDFManager manager = DDFManager.get(DDFManager.EngineType.BASIC);
+    List<Object[]> events = new ArrayList<Object[]>();
+    events.add(new Object[] { 1, "click", 2.0 });
+    events.add(new Object[] { 2, "view", 4.0 });
+    return ((BasicDDFManager) manager).newDDF(events, Object[].class, null,
+        new Schema(null, "id int, kind string, duration double"));
+  }
+
+  @Test
+  public void testAppendBatch() throws DDFException {
+    DDF ddf = this.newEventsDDF();
+    IHandleStreamingData streaming = ddf.getStreamingDataHandler();
+
+    DDF first = streaming.snapshot();
+    Assert.assertEquals(2, first.getNumRows());
+
+    List<Object[]> batch = new ArrayList<Object[]>();
+    batch.add(new Object[] { 3, "click", 6.0 });
+    batch.add(new Object[] { 4, "click", null });
+    streaming.appendBatch(batch);
+
+    Assert.assertEquals(1, streaming.getNumBatches());
+    DDF second = streaming.snapshot();
+    Assert.assertNotSame(first, second);
+    Assert.assertSame(second, streaming.snapshot());
+    Assert.assertEquals(4, second.getNumRows());
+    Assert.assertEquals(2, ddf.getNumRows());
+
+    SqlResult result = ddf.getManager().sql(
+        String.format("select count(*) as n from %s where kind = 'click'", second.getTableName()));
+    Assert.assertEquals("3", result.getRows().get(0));
+
+    IncrementalStatistics statistics = streaming.getStatistics();
+    Assert.assertEquals(4, statistics.getNumRows());
+    Assert.assertEquals(3, statistics.getSummary("duration").count());
+    Assert.assertEquals(1, statistics.getSummary("duration").NACount());
+    Assert.assertEquals(4.0, statistics.getSummary("duration").mean(), 1e-9);
+    Assert.assertEquals(Long.valueOf(3), statistics.getLevelCounts("kind").get("click"));
+    Assert.assertNull(statistics.getLevelCounts("id"));
+  }
+
+  @Test
+  public void testSnapshotsKeepTheirRows() throws DDFException {
+    DDF ddf = this.newEventsDDF();
+    IHandleStreamingData streaming = ddf.getStreamingDataHandler();
+
+    List<Object[]> batch = new ArrayList<Object[]>();
+    batch.add(new Object[] { 3, "click", 6.0 });
+    streaming.appendBatch(batch);
+    DDF first = streaming.snapshot();
+
+    batch = new ArrayList<Object[]>();
+    batch.add(new Object[] { 4, "view", 1.0 });
+    batch.add(new Object[] { 5, "view", 2.0 });
+    streaming.appendBatch(batch);
+    DDF second = streaming.snapshot();
+
+    List<Object[]> firstRows = ((BasicDDF) first).getList(Object[].class);
+    Assert.assertEquals(3, firstRows.size());
+    Assert.assertEquals(3, firstRows.get(2)[0]);
+    List<Object[]> secondRows = ((BasicDDF) second).getList(Object[].class);
+    Assert.assertEquals(5, secondRows.size());
+    Assert.assertSame(firstRows.get(2), secondRows.get(2));
+    Assert.assertEquals(5, secondRows.get(4)[0]);
+  }
+
+  @Test
+  public void testStreamFromQueue() throws DDFException, InterruptedException {
+    DDF ddf = this.newEventsDDF();
+    IHandleStreamingData streaming = ddf.getStreamingDataHandler();
+    QueueStreamSource source = new QueueStreamSource();
+
+    source.offer("3,click,1.5").offer("4,\"view\",2.5").offer("not a number,view,1.0");
+    streaming.start(source, new TextFileFormat(DataFormat.CSV, false, ",", "\""), 50);
+    Assert.assertTrue(streaming.isStreaming());
+    for (int i = 0; i < 100 && streaming.getNumBatches() == 0; i++) {
+      Thread.sleep(50);
+    }
+    streaming.stop();
+    Assert.assertFalse(streaming.isStreaming());
+
+    Assert.assertEquals(1, streaming.getNumBatches());
+    Assert.assertEquals(4, streaming.snapshot().getNumRows());
+    Assert.assertEquals(Long.valueOf(2), streaming.getStatistics().getLevelCounts("kind").get("view"));
+  }
+
+  @Test
+  public void testDirectorySource() throws DDFException, IOException {
+    File directory = File.createTempFile("ddf-stream", "");
+    directory.delete();
+    directory.mkdirs();
+    try {
+      DirectoryStreamSource source = new DirectoryStreamSource(directory.getAbsolutePath());
+      write(new File(directory, "a.csv"), "1,click,1.0\n2,view,2.0\n");
+      write(new File(directory, "_b.csv"), "3,click,3.0\n");
+      Assert.assertEquals(2, source.poll().size());
+      Assert.assertTrue(source.poll().isEmpty());
+
+      new File(directory, "_b.csv").renameTo(new File(directory, "b.csv"));
+      List<String> lines = source.poll();
+      Assert.assertEquals(1, lines.size());
+      Assert.assertEquals("3,click,3.0", lines.get(0));
+    } finally {
+      for (File file : directory.listFiles()) {
+        file.delete();
+      }
+      directory.delete();
+    }
+  }
+
+  @Test
+  public void testDirectorySourceRetriesUnreadableFile() throws DDFException, IOException {
+    File directory = File.createTempFile("ddf-stream", "");
+    directory.delete();
+    directory.mkdirs();
+    try {
+      DirectoryStreamSource source = new DirectoryStreamSource(directory.getAbsolutePath());
+      File file = new File(directory, "a.csv");
+      write(file, "1,click,1.0\n");
+      file.setReadable(false);
+      // the owner can read any file when running as root
+      Assume.assumeFalse(file.canRead());
+      try {
+        source.poll();
+        Assert.fail("An unreadable file must fail the poll");
+      } catch (DDFException e) {
+        // read again by the next poll
+      }
+
+      file.setReadable(true);
+      Assert.assertEquals(1, source.poll().size());
+      Assert.assertTrue(source.poll().isEmpty());
+    } finally {
+      for (File file : directory.listFiles()) {
+        file.delete();
+      }
+      directory.delete();
+    }
+  }
+
+  private static void write(File file, String content) throws IOException {
+    FileWriter writer = new FileWriter(file);
+    try {
+      writer.write(content);
+    } finally {
+      writer.close();
+    }
+  }
+}
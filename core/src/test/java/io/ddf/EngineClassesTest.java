@@ -0,0 +1,38 @@
+package io.ddf;
+
+
+import io.basic.ddf.BasicDDFManager;
+import io.ddf.content.IHandleViews;
+import io.ddf.content.Schema;
+import io.ddf.exception.DDFException;
+import io.ddf.misc.Config;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class EngineClassesTest {
+
+  @Test
+  public void testCachedConstructors() throws Exception {
+    DDFManager manager = DDFManager.get(DDFManager.EngineType.BASIC);
+    String className = Config.getValueWithGlobalDefault(manager.getEngine(), IHandleViews.class.getSimpleName());
+
+    EngineClasses classes = EngineClasses.get(manager.getEngine());
+    Assert.assertSame(classes, EngineClasses.get(manager.getEngine()));
+    Assert.assertSame(classes.getHandlerConstructor(className), classes.getHandlerConstructor(className));
+  }
+
+  @Test
+  public void testLazyHandlers() throws DDFException {
+    BasicDDFManager manager = (BasicDDFManager) DDFManager.get(DDFManager.EngineType.BASIC);
+    DDF ddf = manager.newDDF(new ArrayList<Object[]>(), Object[].class, null, new Schema(null, "id int"));
+    DDF other = manager.newDDF(new ArrayList<Object[]>(), Object[].class, null, new Schema(null, "id int"));
+    Assert.assertNotSame(ddf, other);
+
+    // the facades share the handlers that the DDF creates on first use
+    Assert.assertSame(ddf.getViewHandler(), ddf.VIEWS.getViewHandler());
+    Assert.assertSame(other.Transform.getmTransformationHandler(), other.getTransformationHandler());
+    Assert.assertNotSame(ddf.getViewHandler(), other.getViewHandler());
+  }
+}
@@ -0,0 +1,135 @@
+package io.ddf;
+
+
+import com.google.common.io.Files;
+import io.ddf.exception.DDFException;
+import io.ddf.ml.IModel;
+import io.ddf.ml.Model;
+import junit.framework.Assert;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ */
+public class ModelCacheTest {
+
+  static class DummyModel implements Serializable {
+    private double[] mWeights;
+
+    public DummyModel(int numWeights) {
+      mWeights = new double[numWeights];
+      for (int i = 0; i < numWeights; i++) mWeights[i] = i;
+    }
+
+    public double[] getWeights() {
+      return mWeights;
+    }
+  }
+
+  @Test
+  public void testSpillAndReload() throws DDFException, IOException {
+    File modelDir = Files.createTempDir();
+    try {
+      // room for about two models of 1000 doubles each
+      ModelCache cache = new ModelCache(20000, modelDir.getPath());
+
+      IModel first = new Model(new DummyModel(1000));
+      IModel second = new Model(new DummyModel(1000));
+      IModel third = new Model(new DummyModel(1000));
+      cache.addModel(first);
+      cache.addModel(second);
+      Assert.assertTrue(cache.getModelSize(first.getName()) > 8000);
+
+      cache.getModel(first.getName());
+      cache.addModel(third);
+
+      // second is the least recently used one
+      Assert.assertTrue(cache.isSpilled(second.getName()));
+      Assert.assertFalse(cache.isSpilled(first.getName()));
+      Assert.assertTrue(cache.getUsedBytes() <= cache.getMaxBytes());
+      Assert.assertEquals(3, cache.listModelNames().size());
+
+      IModel reloaded = cache.getModel(second.getName());
+      Assert.assertEquals(second.getName(), reloaded.getName());
+      Assert.assertEquals(999.0, ((DummyModel) reloaded.getRawModel()).getWeights()[999], 0.0);
+      Assert.assertFalse(cache.isSpilled(second.getName()));
+
+      cache.removeModel(second.getName());
+      Assert.assertFalse(cache.hasModel(second.getName()));
+      Assert.assertNull(cache.getModel(second.getName()));
+    } finally {
+      FileUtils.deleteDirectory(modelDir);
+    }
+  }
+
+  static class CountingModel extends DummyModel {
+    static int sNumWrites = 0;
+
+    public CountingModel(int numWeights) {
+      super(numWeights);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+      sNumWrites++;
+      out.defaultWriteObject();
+    }
+  }
+
+  @Test
+  public void testSizeIsMeasuredOnce() throws DDFException, IOException {
+    CountingModel.sNumWrites = 0;
+    File modelDir = Files.createTempDir();
+    try {
+      ModelCache cache = new ModelCache(12000, modelDir.getPath());
+      IModel first = new Model(new CountingModel(1000));
+      cache.addModel(first);
+      long size = cache.getModelSize(first.getName());
+      Assert.assertEquals(1, CountingModel.sNumWrites);
+
+      // spilled, then reloaded with the size it was accounted with
+      cache.addModel(new Model(new DummyModel(1000)));
+      Assert.assertTrue(cache.isSpilled(first.getName()));
+      Assert.assertEquals(size, cache.getModelSize(first.getName()));
+      Assert.assertEquals(2, CountingModel.sNumWrites);
+      cache.getModel(first.getName());
+      cache.getModel(first.getName());
+      Assert.assertEquals(2, CountingModel.sNumWrites);
+      Assert.assertEquals(size, cache.getModelSize(first.getName()));
+    } finally {
+      FileUtils.deleteDirectory(modelDir);
+    }
+  }
+
+  @Test
+  public void testEngineModelIsPinned() throws DDFException {
+    ModelCache cache = new ModelCache(0, null) {
+      @Override
+      protected boolean isSpillable(IModel model) {
+        return !(model.getRawModel() instanceof CountingModel);
+      }
+    };
+
+    IModel model = new Model(new CountingModel(10));
+    cache.addModel(model);
+    cache.addModel(new Model(new DummyModel(10)));
+
+    Assert.assertTrue(cache.isPinned(model.getName()));
+    Assert.assertSame(model, cache.getModel(model.getName()));
+  }
+
+  @Test
+  public void testUnserializableModelIsPinned() throws DDFException {
+    ModelCache cache = new ModelCache(0, null);
+
+    IModel model = new Model(new Object());
+    cache.addModel(model);
+    cache.addModel(new Model(new DummyModel(10)));
+
+    Assert.assertSame(model, cache.getModel(model.getName()));
+  }
+}
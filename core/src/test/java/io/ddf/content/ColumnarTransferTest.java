@@ -0,0 +1,100 @@
+package io.ddf.content;
+
+
+import com.google.common.base.Charsets;
+import io.basic.ddf.BasicDDFManager;
+import io.ddf.DDF;
+import io.ddf.DDFManager;
+import io.ddf.exception.DDFException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ColumnarTransferTest {
+
+  private DDF newEvents(int numRows) throws DDFException {
+    DDFManager manager = DDFManager.get(DDFManager.EngineType.BASIC);
+    List<Object[]> events = new ArrayList<Object[]>();
+    for (int i = 0; i < numRows; i++) {
+      events.add(new Object[] { i, i % 3 == 0 ? null : "e" + (i % 2), i * 1.5 });
+    }
+    return ((BasicDDFManager) manager).newDDF(events, Object[].class, null,
+        new Schema(null, "id int, kind string, value double"));
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, Charsets.UTF_8);
+  }
+
+  @Test
+  public void testChunks() throws DDFException, IOException {
+    ColumnarTransfer transfer = ColumnarTransfer.head(this.newEvents(10), 7, 4);
+    List<byte[]> chunks = new ArrayList<byte[]>();
+    while (transfer.hasNext()) {
+      chunks.add(transfer.next());
+    }
+    Assert.assertEquals(2, chunks.size());
+
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(chunks.get(1)));
+    Assert.assertEquals(ColumnarTransfer.VERSION, in.readInt());
+    Assert.assertEquals(3, in.readInt());
+    Assert.assertEquals(3, in.readInt());
+
+    Assert.assertEquals("id", readString(in));
+    Assert.assertEquals(ColumnarTransfer.INT32, in.readByte());
+    Assert.assertFalse(in.readBoolean());
+    Assert.assertEquals(4, in.readInt());
+    Assert.assertEquals(5, in.readInt());
+    Assert.assertEquals(6, in.readInt());
+
+    // rows 4, 5 and 6: e0, e1 and null
+    Assert.assertEquals("kind", readString(in));
+    Assert.assertEquals(ColumnarTransfer.DICTIONARY, in.readByte());
+    Assert.assertTrue(in.readBoolean());
+    Assert.assertEquals(0x20, in.readByte());
+    Assert.assertEquals(2, in.readInt());
+    Assert.assertEquals(2, in.readInt());
+    Assert.assertEquals(2, in.readInt());
+    byte[] values = new byte[4];
+    in.readFully(values);
+    Assert.assertEquals("e0e1", new String(values, Charsets.UTF_8));
+    Assert.assertEquals(0, in.readInt());
+    Assert.assertEquals(1, in.readInt());
+    Assert.assertEquals(-1, in.readInt());
+
+    Assert.assertEquals("value", readString(in));
+    Assert.assertEquals(ColumnarTransfer.FLOAT64, in.readByte());
+    Assert.assertFalse(in.readBoolean());
+    Assert.assertEquals(6.0, in.readDouble(), 0.0);
+  }
+
+  @Test
+  public void testEmptyAndMistyped() throws DDFException, IOException {
+    ColumnarTransfer transfer = ColumnarTransfer.head(this.newEvents(0), -1, 0);
+    Assert.assertTrue(transfer.hasNext());
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(transfer.next()));
+    in.readInt();
+    Assert.assertEquals(0, in.readInt());
+    Assert.assertEquals(3, in.readInt());
+    Assert.assertFalse(transfer.hasNext());
+
+    List<Schema.Column> columns = new ArrayList<Schema.Column>();
+    columns.add(new Schema.Column("n", Schema.ColumnType.INT));
+    List<Object[]> rows = new ArrayList<Object[]>();
+    rows.add(new Object[] { 1 });
+    rows.add(new Object[] { "x" });
+    in = new DataInputStream(new ByteArrayInputStream(ColumnarTransfer.encode(columns, rows)));
+    in.readInt();
+    in.readInt();
+    in.readInt();
+    readString(in);
+    Assert.assertEquals(ColumnarTransfer.DICTIONARY, in.readByte());
+  }
+}
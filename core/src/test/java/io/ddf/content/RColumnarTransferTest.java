@@ -0,0 +1,82 @@
+package io.ddf.content;
+
+
+import io.basic.ddf.BasicDDFManager;
+import io.ddf.DDF;
+import io.ddf.DDFManager;
+import io.ddf.exception.DDFException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class RColumnarTransferTest {
+
+  private DDF newEvents(int numRows) throws DDFException {
+    DDFManager manager = DDFManager.get(DDFManager.EngineType.BASIC);
+    List<Object[]> events = new ArrayList<Object[]>();
+    for (int i = 0; i < numRows; i++) {
+      events.add(new Object[] { i, i % 3 == 0 ? null : "e" + (i % 2), i * 1.5, i % 2 == 0 });
+    }
+    return ((BasicDDFManager) manager).newDDF(events, Object[].class, null,
+        new Schema(null, "id int, kind string, value double, even boolean"));
+  }
+
+  @Test
+  public void testChunks() throws DDFException {
+    DDF ddf = this.newEvents(10);
+    ddf.getSchemaHandler().setAsFactor("kind").setLevels(Arrays.asList("e0", "e1"));
+
+    RColumnarTransfer transfer = RColumnarTransfer.head(ddf, 7, 4);
+    List<RColumn[]> chunks = new ArrayList<RColumn[]>();
+    while (transfer.hasNext()) {
+      chunks.add(transfer.nextChunk());
+    }
+    Assert.assertEquals(2, chunks.size());
+
+    // rows 4, 5 and 6
+    RColumn[] columns = chunks.get(1);
+    Assert.assertEquals(4, columns.length);
+    Assert.assertEquals("id", columns[0].getName());
+    Assert.assertEquals("integer", columns[0].getRClass());
+    Assert.assertArrayEquals(new int[] { 4, 5, 6 }, columns[0].getInts());
+
+    Assert.assertEquals("factor", columns[1].getRClass());
+    Assert.assertArrayEquals(new String[] { "e0", "e1" }, columns[1].getLevels());
+    Assert.assertArrayEquals(new int[] { 1, 2, RColumn.NA_INTEGER }, columns[1].getInts());
+
+    Assert.assertEquals("numeric", columns[2].getRClass());
+    Assert.assertArrayEquals(new double[] { 6.0, 7.5, 9.0 }, columns[2].getDoubles(), 0.0);
+
+    Assert.assertEquals("logical", columns[3].getRClass());
+    Assert.assertArrayEquals(new int[] { 1, 0, 1 }, columns[3].getInts());
+  }
+
+  @Test
+  public void testNAs() throws DDFException {
+    RColumnarTransfer transfer = RColumnarTransfer.head(this.newEvents(0), -1, 0);
+    Assert.assertTrue(transfer.hasNext());
+    RColumn[] columns = transfer.nextChunk();
+    Assert.assertEquals(4, columns.length);
+    Assert.assertEquals(0, columns[0].size());
+    Assert.assertEquals("character", columns[1].getRClass());
+    Assert.assertFalse(transfer.hasNext());
+
+    RColumn numbers = new RColumn("n", Schema.ColumnType.DOUBLE, null, 1);
+    numbers.add(null);
+    numbers.add("2.5");
+    numbers.add("x");
+    double[] values = numbers.getDoubles();
+    Assert.assertEquals(3, values.length);
+    Assert.assertEquals(Double.doubleToRawLongBits(RColumn.NA_DOUBLE), Double.doubleToRawLongBits(values[0]));
+    Assert.assertEquals(2.5, values[1], 0.0);
+    Assert.assertEquals(Double.doubleToRawLongBits(RColumn.NA_DOUBLE), Double.doubleToRawLongBits(values[2]));
+
+    RColumn strings = new RColumn("s", Schema.ColumnType.STRING, null);
+    strings.add(null);
+    strings.add(1);
+    Assert.assertArrayEquals(new String[] { null, "1" }, strings.getStrings());
+  }
+}
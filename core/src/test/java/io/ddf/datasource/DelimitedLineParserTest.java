@@ -0,0 +1,47 @@
+package io.ddf.datasource;
+
+
+import io.ddf.content.Schema.ColumnType;
+import io.ddf.exception.DDFException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DelimitedLineParserTest {
+
+  @Test
+  public void testSplit() throws DDFException {
+    DelimitedLineParser parser = new DelimitedLineParser(",", "\"");
+    Assert.assertArrayEquals(new String[] { "1", "a,b", "say \"hi\"", "", "" },
+        parser.split("1,\"a,b\",\"say \"\"hi\"\"\",,"));
+    Assert.assertArrayEquals(new String[] { "a", "b" }, new DelimitedLineParser("::", null).split("a::b"));
+    Assert.assertArrayEquals(new String[] { "a", "b" }, new DelimitedLineParser("\\t", null).split("a\tb"));
+  }
+
+  @Test
+  public void testInferAndWiden() {
+    Assert.assertEquals(ColumnType.INT, DelimitedLineParser.inferType("12"));
+    Assert.assertEquals(ColumnType.BIGINT, DelimitedLineParser.inferType("12345678901"));
+    Assert.assertEquals(ColumnType.DOUBLE, DelimitedLineParser.inferType("1.5"));
+    Assert.assertEquals(ColumnType.BOOLEAN, DelimitedLineParser.inferType("TRUE"));
+    Assert.assertEquals(ColumnType.DATE, DelimitedLineParser.inferType("2015-01-02"));
+    Assert.assertEquals(ColumnType.TIMESTAMP, DelimitedLineParser.inferType("2015-01-02 10:00:00"));
+    Assert.assertNull(DelimitedLineParser.inferType("NA"));
+    Assert.assertNull(DelimitedLineParser.inferType(""));
+
+    Assert.assertEquals(ColumnType.DOUBLE, DelimitedLineParser.widen(ColumnType.INT, ColumnType.DOUBLE));
+    Assert.assertEquals(ColumnType.BIGINT, DelimitedLineParser.widen(ColumnType.INT, ColumnType.BIGINT));
+    Assert.assertEquals(ColumnType.TIMESTAMP, DelimitedLineParser.widen(ColumnType.DATE, ColumnType.TIMESTAMP));
+    Assert.assertEquals(ColumnType.STRING, DelimitedLineParser.widen(ColumnType.BOOLEAN, ColumnType.INT));
+    Assert.assertEquals(ColumnType.BOOLEAN, DelimitedLineParser.widen(null, ColumnType.BOOLEAN));
+  }
+
+  @Test
+  public void testParse() throws DDFException {
+    DelimitedLineParser parser = new DelimitedLineParser(",", "\"");
+    ColumnType[] types = { ColumnType.INT, ColumnType.DOUBLE, ColumnType.STRING };
+    Assert.assertArrayEquals(new Object[] { 1, 2.5, "a" }, parser.parse("1,2.5,a", types));
+    Assert.assertArrayEquals(new Object[] { null, null, "NA" }, parser.parse(",NA,NA", types));
+    Assert.assertNull(parser.parse("x,2.5,a", types));
+    Assert.assertNull(parser.parse("1,2.5", types));
+  }
+}
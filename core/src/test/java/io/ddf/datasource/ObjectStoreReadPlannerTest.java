@@ -0,0 +1,127 @@
+package io.ddf.datasource;
+
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import io.ddf.datasource.ObjectStoreReadPlanner.ReadPartition;
+import io.ddf.datasource.ObjectStoreReadPlanner.Split;
+import io.ddf.exception.DDFException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+public class ObjectStoreReadPlannerTest {
+
+  private List<String> readAll(IObjectStore store, List<ReadPartition> partitions) throws DDFException {
+    List<String> lines = new ArrayList<String>();
+    for (ReadPartition partition : partitions) {
+      for (Split split : partition.getSplits()) {
+        ObjectSplitLineReader reader = new ObjectSplitLineReader(store, split);
+        while (reader.hasNext()) lines.add(reader.next());
+      }
+    }
+    return lines;
+  }
+
+  @Test
+  public void testSplitsReadEveryLineOnce() throws DDFException, IOException {
+    File root = Files.createTempDir();
+    File bucket = new File(root, "bucket/data");
+    bucket.mkdirs();
+    List<String> expected = new ArrayList<String>();
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      String line = "line " + i + (i % 7 == 0 ? ",with a longer tail to vary the lengths" : "");
+      expected.add(line);
+      content.append(line).append(i % 3 == 0 ? "\r\n" : "\n");
+    }
+    Files.write(content.toString(), new File(bucket, "big.csv"), Charsets.UTF_8);
+    for (int f = 0; f < 20; f++) {
+      Writer writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(new File(bucket,
+          "small-" + f + ".csv.gz"))), Charsets.UTF_8);
+      writer.write("gz " + f + "\ngz " + f + " again\n");
+      writer.close();
+      expected.add("gz " + f);
+      expected.add("gz " + f + " again");
+    }
+    Files.write("ignored", new File(bucket, "_SUCCESS"), Charsets.UTF_8);
+
+    LocalObjectStore store = new LocalObjectStore(root.getAbsolutePath());
+    ObjectStoreReadPlanner planner = new ObjectStoreReadPlanner(store, 1000, 2000, 60000);
+    List<ReadPartition> partitions = planner.plan("bucket/data");
+
+    Assert.assertEquals(21, planner.list("bucket/data").size());
+    Assert.assertTrue(partitions.size() > 1);
+    for (ReadPartition partition : partitions) {
+      // packing the largest splits first keeps each partition within a split of the target size
+      Assert.assertTrue(partition.getLength() <= 2000 + 1000);
+    }
+
+    List<String> lines = this.readAll(store, partitions);
+    Collections.sort(lines);
+    Collections.sort(expected);
+    Assert.assertEquals(expected, lines);
+  }
+
+  @Test
+  public void testPrefixAndCachedListing() throws DDFException, IOException {
+    File root = Files.createTempDir();
+    Files.write("a\n", new File(root, "part-1"), Charsets.UTF_8);
+    Files.write("b\n", new File(root, "part-2"), Charsets.UTF_8);
+    Files.write("c\n", new File(root, "other"), Charsets.UTF_8);
+
+    ObjectStoreReadPlanner planner = new ObjectStoreReadPlanner(new LocalObjectStore(root.getAbsolutePath()));
+    Assert.assertEquals(2, planner.list("part-").size());
+
+    Files.write("d\n", new File(root, "part-3"), Charsets.UTF_8);
+    Assert.assertEquals(2, planner.list("part-").size());
+    planner.invalidate("part-");
+    Assert.assertEquals(3, planner.list("part-").size());
+
+    List<ReadPartition> partitions = planner.plan("part-");
+    Assert.assertEquals(1, partitions.size());
+    Assert.assertEquals(3, partitions.get(0).getSplits().size());
+  }
+
+  @Test
+  public void testFirstObjectStartsTheFirstPartition() throws DDFException, IOException {
+    File root = Files.createTempDir();
+    // a compressed object larger than a split, packed first, and a.csv of two splits and a short third one
+    Writer writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(new File(root, "b.csv.gz"))),
+        Charsets.UTF_8);
+    writer.write("id,name\n");
+    for (int i = 0; i < 40; i++) {
+      writer.write(i + "," + UUID.randomUUID() + "\n");
+    }
+    writer.close();
+    long splitSize = new File(root, "b.csv.gz").length() - 10;
+    StringBuilder content = new StringBuilder("id,name\n");
+    for (int i = 0; content.length() < 2 * splitSize + splitSize / 3; i++) {
+      content.append(i).append(",a").append(i).append('\n');
+    }
+    Files.write(content.toString(), new File(root, "a.csv"), Charsets.UTF_8);
+
+    long totalLength = new File(root, "b.csv.gz").length() + new File(root, "a.csv").length();
+    ObjectStoreReadPlanner planner = new ObjectStoreReadPlanner(new LocalObjectStore(root.getAbsolutePath()),
+        splitSize, (totalLength + 1) / 2, 0);
+    List<ReadPartition> partitions = planner.plan("");
+
+    Assert.assertEquals(2, partitions.size());
+    Split first = partitions.get(0).getSplits().get(0);
+    Assert.assertEquals("a.csv", first.getKey());
+    Assert.assertEquals(0, first.getOffset());
+    for (int i = 0; i < partitions.size(); i++) {
+      Assert.assertEquals(i, partitions.get(i).getIndex());
+    }
+  }
+}
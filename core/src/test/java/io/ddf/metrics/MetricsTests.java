@@ -0,0 +1,65 @@
+package io.ddf.metrics;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+public class MetricsTests {
+
+  @Test
+  public void testTimerPercentiles() {
+    Timer timer = new Timer("test.timer");
+    for (int i = 0; i < 90; i++) timer.update(1000000L);
+    for (int i = 0; i < 10; i++) timer.update(100000000L);
+
+    Assert.assertEquals(100, timer.getCount());
+    Assert.assertEquals(10.9, timer.getMeanMillis(), 1e-9);
+    Assert.assertEquals(100, timer.getMaxMillis(), 1e-9);
+    // percentiles are within a factor of two of the latencies
+    Assert.assertTrue(timer.getMedianMillis() >= 1 && timer.getMedianMillis() <= 2);
+    Assert.assertTrue(timer.get95thPercentileMillis() >= 100 && timer.get95thPercentileMillis() <= 200);
+    Assert.assertEquals(100, timer.get99thPercentileMillis(), 1e-9);
+
+    timer.reset();
+    Assert.assertEquals(0, timer.getCount());
+    Assert.assertEquals(0, timer.getMedianMillis(), 1e-9);
+  }
+
+  @Test
+  public void testRegistry() {
+    IMetricsRegistry registry = new MetricsRegistry();
+    Assert.assertSame(registry.timer("a"), registry.timer("a"));
+    registry.counter("hits").inc();
+    registry.counter("hits").inc(2);
+    Assert.assertEquals(3, registry.getCounters().get("hits").getCount());
+
+    registry.reset();
+    Assert.assertEquals(0, registry.counter("hits").getCount());
+  }
+
+  @Test
+  public void testJmxReporter() throws Exception {
+    IMetricsRegistry registry = new MetricsRegistry();
+    registry.timer("DDF.getSummary").update(1000);
+    JmxReporter reporter = new JmxReporter();
+    reporter.report(registry);
+
+    ObjectName name = new ObjectName("io.ddf.metrics:type=Timer,name=" + ObjectName.quote("DDF.getSummary"));
+    Assert.assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Count"));
+
+    reporter.stop();
+    Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+  }
+
+  @Test
+  public void testTrace() {
+    long count = Metrics.timer("test.trace").getCount();
+    Trace trace = Trace.begin(null, null, "test.trace", "detail");
+    Assert.assertEquals("test.trace: detail", trace.getDescription());
+    trace.end();
+    Assert.assertEquals(count + 1, Metrics.timer("test.trace").getCount());
+  }
+}
@@ -0,0 +1,43 @@
+package io.ddf.ml;
+
+
+import io.ddf.exception.DDFException;
+import io.ddf.ml.MLClassMethods.CompiledTrainMethod;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class MLClassMethodsTest {
+
+  public static class DummyTrainer {
+    public static String train(List<double[]> data, int numIterations, double stepSize) {
+      return String.format("%d/%d/%.1f", data.size(), numIterations, stepSize);
+    }
+  }
+
+  @Test
+  public void testCompiledTrainMethod() throws DDFException {
+    CompiledTrainMethod trainMethod = new CompiledTrainMethod(DummyTrainer.class.getName(),
+        new Object[] { 10, 0.5 });
+
+    assertTrue(trainMethod.getInputParamInfo().argMatches(List.class));
+    assertFalse(trainMethod.isInputResolved());
+
+    List<double[]> data = Arrays.asList(new double[] { 1 }, new double[] { 2 });
+    // boxed arguments are unboxed, and widened where needed, like Method.invoke() did
+    assertEquals("2/10/0.5", trainMethod.classInvoke(data, 10, 0.5));
+    assertEquals("2/3/2.0", trainMethod.classInvoke(data, 3, 2));
+  }
+
+  @Test(expected = DDFException.class)
+  public void testMissingTrainMethod() throws DDFException {
+    new CompiledTrainMethod(DummyTrainer.class.getName(), new Object[] { 10 });
+  }
+}
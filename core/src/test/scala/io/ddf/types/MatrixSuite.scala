@@ -0,0 +1,60 @@
+package io.ddf.types
+
+import io.ddf.ATestSuite
+import org.jblas.DoubleMatrix
+
+import scala.util.Random
+
+/**
+  */
+class MatrixSuite extends ATestSuite {
+
+  private def randomMatrix(rows: Int, cols: Int, seed: Long): Matrix = {
+    val random = new Random(seed)
+    new Matrix(Array.fill(rows, cols)(random.nextGaussian()))
+  }
+
+  test("blocked XtX matches the jblas product") {
+    //more columns than one column block, more rows than one row tile
+    val X = randomMatrix(700, 150, 1L)
+    val expected = X.transpose().mmul(X)
+
+    val XtX = X.XtX()
+    assert(XtX.rows === 150)
+    assert(XtX.columns === 150)
+    assert(XtX.sub(expected).normmax() < 1e-8)
+  }
+
+  test("XtX and XtY can be accumulated over several blocks of rows") {
+    val X = randomMatrix(300, 70, 2L)
+    val y = DoubleMatrix.randn(300)
+
+    val acc = new Matrix(70, 70)
+    val xty = new Vector(70)
+    Seq((0, 120), (120, 300)).foreach {
+      case (from, to) =>
+        val block = Matrix(X.getRange(from, to, 0, 70))
+        Matrix.addGramTo(block, acc)
+        Matrix.addXtYTo(block, y.getRange(from, to), xty)
+    }
+    Matrix.fillLowerTriangle(acc)
+
+    assert(acc.sub(X.XtX()).normmax() < 1e-8)
+    assert(xty.sub(X.transpose().mmul(y)).normmax() < 1e-8)
+    assert(X.XtY(y).sub(xty).normmax() < 1e-8)
+  }
+
+  test("the pure-Java XtX kernel matches the naive product") {
+    // more columns than one column block and more rows than one row tile, neither a multiple of them
+    val X = randomMatrix(600, 130, 3L)
+    val acc = new Matrix(130, 130)
+    Matrix.addGramTo(X, acc, native = false)
+    Matrix.addGramTo(X, acc, native = false)
+    Matrix.fillLowerTriangle(acc)
+
+    for (i <- 0 until 130; j <- 0 until 130) {
+      val expected = (0 until 600).map(t => X.get(t, i) * X.get(t, j)).sum
+      assert(math.abs(acc.get(i, j) - 2 * expected) < 1e-8, s"($i, $j)")
+    }
+  }
+}
@@ -61,13 +61,18 @@ object RootBuild extends Build {
   val examplesJarName = examplesProjectName + "-" + rootVersion + ".jar"
   val examplesTestJarName = examplesProjectName + "-" + rootVersion + "-tests.jar"
 
+  val benchmarksProjectName = projectName + "_benchmarks"
+  val benchmarksVersion = rootVersion
+  val benchmarksJarName = benchmarksProjectName + "-" + rootVersion + ".jar"
+
 
   // lazy val root = Project("root", file("."), settings = rootSettings) aggregate(core, spark, examples)
-  lazy val root = Project("root", file("."), settings = rootSettings) aggregate(core, spark, examples)
+  lazy val root = Project("root", file("."), settings = rootSettings) aggregate(core, spark, examples, benchmarks)
   lazy val core = Project("core", file("core"), settings = coreSettings)
   // lazy val spark = Project("spark", file("spark"), settings = sparkSettings) dependsOn (core) 
   lazy val spark = Project("spark", file("spark"), settings = sparkSettings) dependsOn (core) 
   lazy val examples = Project("examples", file("examples"), settings = examplesSettings) dependsOn (spark) dependsOn (core)
+  lazy val benchmarks = Project("benchmarks", file("benchmarks"), settings = benchmarksSettings) dependsOn (spark) dependsOn (core)
 
   // A configuration to set an alternative publishLocalConfiguration
   lazy val MavenCompile = config("m2r") extend(Compile)
@@ -115,7 +120,8 @@ object RootBuild extends Build {
     "net.sf" % "jsqlparser" % "0.9.8.5",
     "org.jblas" % "jblas" % "1.2.3", // for fast linear algebra
     //"org.apache.derby" % "derby" % "10.4.2.0",
-   // "org.apache.spark" % "spark-streaming_2.10" % SPARK_VERSION excludeAll(excludeSpark),
+    "org.apache.spark" % "spark-streaming_2.10" % SPARK_VERSION exclude("io.netty", "netty-all")
+      exclude("org.jboss.netty", "netty") exclude("org.mortbay.jetty", "jetty"),
     "org.apache.spark" % "spark-core_2.10" % SPARK_VERSION  exclude("net.java.dev.jets3t", "jets3t") exclude("com.google.protobuf", "protobuf-java")
       exclude("org.jboss.netty", "netty") exclude("org.mortbay.jetty", "jetty"),
     //"org.apache.spark" % "spark-repl_2.10" % SPARK_VERSION excludeAll(excludeSpark) exclude("com.google.protobuf", "protobuf-java") exclude("io.netty", "netty-all") exclude("org.jboss.netty", "netty"),
@@ -472,6 +478,7 @@ object RootBuild extends Build {
     testOptions in Test += Tests.Argument("-oI"),
     libraryDependencies ++= rforge,
     libraryDependencies ++= spark_dependencies,
+    libraryDependencies += "com.h2database" % "h2" % "1.4.187" % "test", // embedded database for the JDBC tests
     if(isLocal) {
       initialCommands in console :=
         s"""
@@ -506,6 +513,19 @@ object RootBuild extends Build {
     compile in Compile <<= compile in Compile andFinally { List("sh", "-c", "touch examples/" + targetDir + "/*timestamp") }
   ) ++ assemblySettings ++ extraAssemblySettings
 
+  val JMH_VERSION = "1.11.2"
+
+  def benchmarksSettings = commonSettings ++ Seq(
+    name := benchmarksProjectName,
+    // The JMH annotation processor generates the benchmark harness when javac compiles the @Benchmark classes
+    libraryDependencies ++= Seq(
+      "org.openjdk.jmh" % "jmh-core" % JMH_VERSION,
+      "org.openjdk.jmh" % "jmh-generator-annprocess" % JMH_VERSION
+    ),
+    mainClass in assembly := Some("io.ddf.benchmarks.BenchmarkRunner"),
+    compile in Compile <<= compile in Compile andFinally { List("sh", "-c", "touch benchmarks/" + targetDir + "/*timestamp") }
+  ) ++ assemblySettings ++ extraAssemblySettings
+
 
 
   def extraAssemblySettings() = Seq(test in assembly := {}) ++ Seq(
@@ -0,0 +1,136 @@
+"""
+Decoding of the chunks of io.ddf.content.ColumnarTransfer, in which the JVM encodes results by columns, into
+pandas DataFrames, a few NumPy calls per column instead of a py4j call per value
+"""
+# no unicode_literals: NumPy dtype and struct formats of Python 2 are byte strings
+import struct
+
+import numpy as np
+import pandas as pd
+
+
+VERSION = 1
+
+CHUNK_ROWS = 65536
+
+INT32, INT64, FLOAT64, BOOL, TIMESTAMP, DICTIONARY = range(6)
+
+_DTYPES = {INT32: np.dtype('>i4'),
+           INT64: np.dtype('>i8'),
+           FLOAT64: np.dtype('>f8'),
+           BOOL: np.dtype('u1'),
+           TIMESTAMP: np.dtype('>i8')}
+
+
+class _Reader(object):
+
+    def __init__(self, buf):
+        self._buf = buf
+        self._pos = 0
+
+    def int(self):
+        value = struct.unpack_from('>i', self._buf, self._pos)[0]
+        self._pos += 4
+        return value
+
+    def byte(self):
+        value = struct.unpack_from('>b', self._buf, self._pos)[0]
+        self._pos += 1
+        return value
+
+    def string(self):
+        length = self.int()
+        value = bytes(self._buf[self._pos:self._pos + length]).decode('utf-8')
+        self._pos += length
+        return value
+
+    def array(self, dtype, count):
+        """
+        Read count values of dtype, converted to the native byte order
+        """
+        dtype = np.dtype(dtype)
+        values = np.frombuffer(self._buf, dtype=dtype, count=count, offset=self._pos)
+        self._pos += dtype.itemsize * count
+        return values.astype(dtype.newbyteorder('='))
+
+    def strings(self, count):
+        lengths = self.array('>i4', count)
+        ends = self._pos + np.cumsum(lengths)
+        starts = ends - lengths
+        values = [bytes(self._buf[s:e]).decode('utf-8') for s, e in zip(starts, ends)]
+        if count > 0:
+            self._pos = int(ends[-1])
+        return values
+
+
+def decode(buf):
+    """
+    Decode one chunk into a pandas DataFrame. Integer and boolean columns with nulls become float and object
+    columns, in which nulls are NaN and None; times become datetime64 columns.
+
+    :param buf: the bytes of a chunk, e.g. a bytearray returned by py4j
+    :return: a pandas DataFrame
+    """
+    reader = _Reader(buf)
+    version = reader.int()
+    if version != VERSION:
+        raise ValueError('Unsupported columnar chunk version: {}'.format(version))
+    n = reader.int()
+    num_columns = reader.int()
+
+    names = []
+    data = {}
+    for _ in range(num_columns):
+        name = reader.string()
+        encoding = reader.byte()
+        nulls = None
+        if reader.byte():
+            nulls = np.unpackbits(reader.array('u1', (n + 7) // 8))[:n].astype(bool)
+        names.append(name)
+        data[name] = _decode_values(reader, encoding, n, nulls)
+    return pd.DataFrame(data=data, columns=names)
+
+
+def _decode_values(reader, encoding, n, nulls):
+    if encoding == DICTIONARY:
+        k = reader.int()
+        dictionary = np.empty(k + 1, dtype=object)
+        dictionary[:k] = reader.strings(k)
+        # code -1 takes the last entry, None
+        dictionary[k] = None
+        return dictionary[reader.array('>i4', n)]
+
+    if encoding not in _DTYPES:
+        raise ValueError('Unsupported columnar encoding: {}'.format(encoding))
+    values = reader.array(_DTYPES[encoding], n)
+
+    if encoding == TIMESTAMP:
+        values = pd.to_datetime(values, unit='ms').values
+        if nulls is not None:
+            values[nulls] = np.datetime64('NaT')
+        return values
+    if encoding == BOOL:
+        values = values.astype(bool)
+        if nulls is not None:
+            values = values.astype(object)
+            values[nulls] = None
+        return values
+    if nulls is not None:
+        values = values.astype(float)
+        values[nulls] = np.nan
+    return values
+
+
+def fetch(transfer):
+    """
+    Fetch all chunks of a ColumnarTransfer, one py4j call each
+
+    :param transfer: the java ColumnarTransfer
+    :return: a pandas DataFrame of all rows
+    """
+    frames = []
+    while transfer.hasNext():
+        frames.append(decode(transfer.next()))
+    if len(frames) == 1:
+        return frames[0]
+    return pd.concat(frames, ignore_index=True)
@@ -6,9 +6,8 @@ Created on Jun 22, 2014
 from __future__ import unicode_literals
 
 import pandas as pd
-import numpy as np
-import json
 
+import columnar
 import util
 
 
@@ -25,6 +24,7 @@ class DistributedDataFrame(object):
         """
         self._jddf = jddf
         self._gateway_client = gateway_client
+        self._columnar = gateway_client.jvm.io.ddf.content.ColumnarTransfer
 
     ###########################################################################
 
@@ -149,8 +149,7 @@ class DistributedDataFrame(object):
         Return this DistributedDataFrame's some first rows
         :param n: number of rows to get
         """
-        res = self._jddf.getViewHandler().head(n)
-        return util.parse_ddf_data(res, self.colnames, self.coltypes)
+        return columnar.fetch(self._columnar.head(self._jddf, n, columnar.CHUNK_ROWS))
 
     def project(self, column_names):
         """
@@ -168,10 +167,7 @@ class DistributedDataFrame(object):
         :param seed: random seed
         :return: a pandas DataFrame
         """
-        res = self._jddf.getViewHandler().getRandomSample(size, replacement, seed)
-        df = pd.read_json(json.dumps([list(c) for c in res]))
-        df.columns = self.colnames
-        return self._convert_type(df, raise_on_error=False)
+        return columnar.fetch(self._columnar.sample(self._jddf, size, replacement, seed, columnar.CHUNK_ROWS))
 
     def sample2ddf(self, fraction, replacement=False, seed=123):
         """
@@ -193,16 +189,9 @@ class DistributedDataFrame(object):
         Return a statistical summary of a DistributedDataFrame's columns
         :return: a pandas DataFrame containing summaries
         """
-        data = {}
-        ls = list(self._jddf.getSummary())
-        for colname, s in zip(self.colnames, ls):
-            if s is not None:
-                data[colname] = {'mean': float(s.mean()), 'stdev': float(s.stdev()), 'count': int(s.count()),
-                                 'cNA': int(s.NACount()), 'min': float(s.min()), 'max': float(s.max())}
-            else:
-                data[colname] = {'mean': np.nan, 'stdev': np.nan, 'count': np.nan,
-                                 'cNA': np.nan, 'min': np.nan, 'max': np.nan}
-        return pd.DataFrame(data=data, index=['mean', 'stdev', 'count', 'cNA', 'min', 'max'])
+        summaries = columnar.fetch(self._columnar.summary(self._jddf)).set_index('column')
+        summaries.index.name = None
+        return summaries.astype(float).T
 
     """
     Statistic functions
@@ -345,11 +334,10 @@ class DistributedDataFrame(object):
         if not all([x in col_names for x in by_columns]):
             raise ValueError('Invalid column names in by_columns')
 
-        res = dict(self._jddf.aggregate(','.join(by_columns) + "," + ','.join(aggr_columns)))
-        data = []
-        for k, v in res.iteritems():
-            data.append(k.split('\t') + list(v))
-        df = pd.DataFrame(data=data, columns=by_columns+aggr_columns)
+        df = columnar.fetch(self._columnar.aggregate(self._jddf,
+                                                     util.to_java_list(by_columns, self._gateway_client),
+                                                     util.to_java_list(aggr_columns, self._gateway_client),
+                                                     columnar.CHUNK_ROWS))
         for c in by_columns:
             df[c] = df[c].astype(util.to_python_type(col_types[col_names.index(c)]))
         return df
@@ -46,7 +46,8 @@ def start_gateway_server():
     if not any([s.startswith('-Xms') for s in java_opts]):
         java_opts += ['-Xms128m']
     if not any([s.startswith('-Xmx') for s in java_opts]):
-        java_opts += ['-Xmx512m']
+        # results are encoded by chunks in the gateway, so its heap bounds the size of fetched results
+        java_opts += ['-Xmx{}'.format(os.getenv('DDF_GATEWAY_MEMORY', '2g'))]
     if not any([s.startswith('-XX:MaxPermSize') for s in java_opts]):
         java_opts += ['-XX:MaxPermSize=512m']
 
@@ -8,7 +8,7 @@ import unittest
 import pandas as pd
 
 import test_base
-from ddf import DistributedDataFrame
+from ddf import DistributedDataFrame, columnar
 
 
 class TestDDF(test_base.BaseTest):
@@ -42,6 +42,18 @@ class TestDDF(test_base.BaseTest):
         self.assertItemsEqual(df.columns.tolist(), self.airlines.colnames)
         self.assertEqual(len(df), 10)
 
+    def testColumnarTransfer(self):
+        df = self.airlines.head(31)
+        self.assertIn(df['year'].dtype.kind, 'if')
+        # nulls of int columns are NaN
+        self.assertEqual(df['lateaircraftdelay'].dtype.kind, 'f')
+        self.assertEqual(df['uniquecarrier'].dtype, object)
+
+        # in chunks of 7 rows
+        df = columnar.fetch(self.airlines._columnar.head(self.airlines._jddf, -1, 7))
+        self.assertEqual(len(df), 31)
+        self.assertEqual(df.columns.tolist(), self.airlines.colnames)
+
     def testSample2DDF(self):
         ddf2 = self.airlines.sample2ddf(0.5)
         self.assertIsInstance(ddf2, DistributedDataFrame)
@@ -7,6 +7,7 @@ import io.ddf.content.IHandleRepresentations.IGetResult;
 import io.ddf.content.RepresentationHandler.GetResult;
 import io.ddf.content.Schema;
 import io.ddf.exception.DDFException;
+import io.ddf.spark.datasource.ScanSpec;
 import io.ddf.spark.util.SparkUtils;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.rdd.RDD;
@@ -73,6 +74,37 @@ public class SparkDDF extends DDF {
     super();
   }
 
+  private int mRecomputeCost = 0;
+
+  /**
+   * @return the estimated number of shuffles to recompute this DDF, see {@link io.ddf.spark.etl.CachePolicy}
+   */
+  public int getRecomputeCost() {
+    return mRecomputeCost;
+  }
+
+  public void setRecomputeCost(int recomputeCost) {
+    this.mRecomputeCost = recomputeCost;
+  }
+
+  private transient ScanSpec mPendingScan;
+
+  private transient DataFrame mPendingScanFrame;
+
+  /**
+   * @return the scan of the JSON or Parquet source this DDF was loaded from, as long as its DataFrame is still the one
+   * of that scan, null otherwise
+   */
+  public ScanSpec getPendingScan() throws DDFException {
+    if (mPendingScan == null || !this.getRepresentationHandler().has(DataFrame.class)) return null;
+    return this.getRepresentationHandler().get(DataFrame.class) == mPendingScanFrame ? mPendingScan : null;
+  }
+
+  public void setPendingScan(ScanSpec scan, DataFrame df) {
+    this.mPendingScan = scan;
+    this.mPendingScanFrame = df;
+  }
+
   @SuppressWarnings("unchecked")
   public <T> RDD<T> getRDD(Class<T> unitType) throws DDFException {
     Object obj = this.getRepresentationHandler().get(RDD.class, unitType);
@@ -4,24 +4,27 @@ package io.ddf.spark;
 import com.google.gson.Gson;
 import io.ddf.DDF;
 import io.ddf.DDFManager;
+import io.ddf.ModelCache;
 import io.ddf.content.Schema;
+import io.ddf.datasource.DataFormat;
 import io.ddf.datasource.DataSourceDescriptor;
 import io.ddf.datasource.JDBCDataSourceDescriptor;
+import io.ddf.datasource.TextFileFormat;
 import io.ddf.exception.DDFException;
+import io.ddf.metrics.ITraceListener;
 import io.ddf.spark.datasource.SparkDataSourceManager;
 import io.ddf.spark.etl.DateParseUDF;
 import io.ddf.spark.etl.DateTimeExtractUDF;
 import io.ddf.spark.etl.DateUDF;
+import io.ddf.spark.ml.SparkModelCache;
+import io.ddf.spark.util.JobGroupTagger;
 import io.ddf.spark.util.SparkUtils;
 import io.ddf.spark.util.Utils;
-import org.apache.commons.lang.StringUtils;
 import org.apache.spark.SparkContext;
-import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.sql.hive.HiveContext;
 
 import java.io.File;
-import java.security.SecureRandom;
 import java.util.*;
 
 
@@ -35,6 +38,11 @@ public class SparkDDFManager extends DDFManager {
     return "spark";
   }
 
+  @Override
+  protected ModelCache createModelCache() {
+    return new SparkModelCache();
+  }
+
 
   private static final String DEFAULT_SPARK_APPNAME = "DDFClient";
   private static final String DEFAULT_SPARK_MASTER = "local[4]";
@@ -68,6 +76,10 @@ public class SparkDDFManager extends DDFManager {
     mLog.info(">>>> spark.sql.inMemoryColumnarStorage.batchSize= " + batchSize);
     this.mHiveContext.setConf("spark.sql.inMemoryColumnarStorage.compressed", compression);
     this.mHiveContext.setConf("spark.sql.inMemoryColumnarStorage.batchSize", batchSize);
+    // lets the predicates of a pending scan skip Parquet row groups, see ScanSpec
+    String parquetFilterPushdown = System.getProperty("spark.sql.parquet.filterPushdown", "true");
+    mLog.info(">>>> spark.sql.parquet.filterPushdown= " + parquetFilterPushdown);
+    this.mHiveContext.setConf("spark.sql.parquet.filterPushdown", parquetFilterPushdown);
 
     // register SparkSQL UDFs
     this.registerUDFs();
@@ -94,6 +106,17 @@ public class SparkDDFManager extends DDFManager {
 
   private void setSparkContext(SparkContext sparkContext) {
     this.mSparkContext = sparkContext;
+    this.mTraceListener = new JobGroupTagger(sparkContext);
+  }
+
+  private ITraceListener mTraceListener;
+
+  /**
+   * @return a listener tagging the Spark jobs of DDF operations with the DDF UUID and operation
+   */
+  @Override
+  public ITraceListener getTraceListener() {
+    return mTraceListener;
   }
 
   private HiveContext mHiveContext;
@@ -104,6 +127,7 @@ public class SparkDDFManager extends DDFManager {
     { "SPARK_MASTER", "spark.master" },
     { "SPARK_HOME", "spark.home" },
     { "SPARK_SERIALIZER", "spark.kryo.registrator" },
+    { "SPARK_KRYO_REGISTRATION_REQUIRED", "spark.kryo.registrationRequired" },
     { "HIVE_HOME", "hive.home" },
     { "HADOOP_HOME", "hadoop.home" },
     { "DDFSPARK_JAR", "ddfspark.jar" }
@@ -148,7 +172,7 @@ public class SparkDDFManager extends DDFManager {
     // Some well-known defaults
     if (!params.containsKey("SPARK_MASTER")) params.put("SPARK_MASTER", DEFAULT_SPARK_MASTER);
     if (!params.containsKey("SPARK_APPNAME")) params.put("SPARK_APPNAME", DEFAULT_SPARK_APPNAME);
-    params.put("SPARK_SERIALIZER", "io.spark.content.KryoRegistrator");
+    if (!params.containsKey("SPARK_SERIALIZER")) params.put("SPARK_SERIALIZER", SparkUtils.DEFAULT_KRYO_REGISTRATOR());
     Gson gson = new Gson();
 
     mLog.info(String.format(">>>>>>> params = %s", gson.toJson(params)));
@@ -221,17 +245,12 @@ public class SparkDDFManager extends DDFManager {
     return ddf;
   }
 
+  /**
+   * Loads a delimited file without header, whose columns are named V1, V2, ... and typed by sampling the file
+   */
   public DDF loadFile(String fileURL, String fieldSeparator) throws DDFException {
-    JavaRDD<String> fileRDD = mJavaSparkContext.textFile(fileURL);
-    String[] metaInfos = getMetaInfo(fileRDD, fieldSeparator);
-    SecureRandom rand = new SecureRandom();
-    String tableName = "tbl" + String.valueOf(Math.abs(rand.nextLong()));
-    String cmd = "CREATE TABLE " + tableName + "(" + StringUtils.join(metaInfos, ", ")
-        + ") ROW FORMAT DELIMITED FIELDS TERMINATED BY '" + fieldSeparator + "'";
-    sql(cmd, false);
-    sql("LOAD DATA LOCAL INPATH '" + fileURL + "' " +
-        "INTO TABLE " + tableName, false);
-    return sql2ddf("SELECT * FROM " + tableName, false);
+    TextFileFormat format = new TextFileFormat(DataFormat.CSV, false, fieldSeparator, "\"");
+    return ((SparkDataSourceManager) this.mDataSourceManager).loadDelimitedFile(fileURL, format, null);
   }
 
   @Override
@@ -242,7 +261,7 @@ public class SparkDDFManager extends DDFManager {
     if (dataSourceDescriptor instanceof JDBCDataSourceDescriptor) {
       // It's a jdbc ddf.
       JDBCDataSourceDescriptor jdbcDS = (JDBCDataSourceDescriptor) dataSourceDescriptor;
-      JDBCDataSourceDescriptor loadDS = new JDBCDataSourceDescriptor(jdbcDS.getDataSourceUri(), jdbcDS.getCredentials(), ddf.getTableName());
+      JDBCDataSourceDescriptor loadDS = jdbcDS.copyWithTable(ddf.getTableName());
       DDF tgtddf = this.load(loadDS);
       this.setDDFName(tgtddf, tgtname);
       return tgtddf;
@@ -255,127 +274,4 @@ public class SparkDDFManager extends DDFManager {
   public DDF copyFrom(DDFManager manager, String ddfname, String tgtname) throws DDFException {
     return this.copyFrom(manager.getDDFByName(ddfname), tgtname);
   }
-
-  /**
-   * Given a String[] vector of data values along one column, try to infer what the data type should be.
-   * <p/>
-   * TODO: precompile regex
-   *
-   * @param vector
-   * @return string representing name of the type "integer", "double", "character", or "logical" The algorithm will
-   * first scan the vector to detect whether the vector contains only digits, ',' and '.', <br>
-   * if true, then it will detect whether the vector contains '.', <br>
-   * &nbsp; &nbsp; if true then the vector is double else it is integer <br>
-   * if false, then it will detect whether the vector contains only 'T' and 'F' <br>
-   * &nbsp; &nbsp; if true then the vector is logical, otherwise it is characters
-   */
-  public static String determineType(String[] vector, Boolean doPreferDouble) {
-    boolean isNumber = true;
-    boolean isInteger = true;
-    boolean isLogical = true;
-    boolean allNA = true;
-
-    for (String s : vector) {
-      if (s == null || s.startsWith("NA") || s.startsWith("Na") || s.matches("^\\s*$")) {
-        // Ignore, don't set the type based on this
-        continue;
-      }
-
-      allNA = false;
-
-      if (isNumber) {
-        // match numbers: 123,456.123 123 123,456 456.123 .123
-        if (!s.matches("(^|^-)((\\d+(,\\d+)*)|(\\d*))\\.?\\d+$")) {
-          isNumber = false;
-        }
-        // match double
-        else if (isInteger && s.matches("(^|^-)\\d*\\.{1}\\d+$")) {
-          isInteger = false;
-        }
-      }
-
-      // NOTE: cannot use "else" because isNumber changed in the previous
-      // if block
-      if (isLogical && !s.toLowerCase().matches("^t|f|true|false$")) {
-        isLogical = false;
-      }
-    }
-
-    // String result = "Unknown";
-    String result = "string";
-
-    if (!allNA) {
-      if (isNumber) {
-        if (!isInteger || doPreferDouble) {
-          result = "double";
-        } else {
-          result = "int";
-        }
-      } else {
-        if (isLogical) {
-          result = "boolean";
-        } else {
-          result = "string";
-        }
-      }
-    }
-    return result;
-  }
-
-  /**
-   * TODO: check more than a few lines in case some lines have NA
-   *
-   * @param fileRDD
-   * @return
-   */
-  public String[] getMetaInfo(JavaRDD<String> fileRDD, String fieldSeparator) {
-    String[] headers = null;
-    int sampleSize = 5;
-
-    // sanity check
-    if (sampleSize < 1) {
-      mLog.info("DATATYPE_SAMPLE_SIZE must be bigger than 1");
-      return null;
-    }
-
-    List<String> sampleStr = fileRDD.take(sampleSize);
-    sampleSize = sampleStr.size(); // actual sample size
-    mLog.info("Sample size: " + sampleSize);
-
-    // create sample list for getting data type
-    String[] firstSplit = sampleStr.get(0).split(fieldSeparator);
-
-    // get header
-    boolean hasHeader = false;
-    if (hasHeader) {
-      headers = firstSplit;
-    } else {
-      headers = new String[firstSplit.length];
-      int size = headers.length;
-      for (int i = 0; i < size; ) {
-        headers[i] = "V" + (++i);
-      }
-    }
-
-    String[][] samples = hasHeader ? (new String[firstSplit.length][sampleSize - 1])
-        : (new String[firstSplit.length][sampleSize]);
-
-    String[] metaInfoArray = new String[firstSplit.length];
-    int start = hasHeader ? 1 : 0;
-    for (int j = start; j < sampleSize; j++) {
-      firstSplit = sampleStr.get(j).split(fieldSeparator);
-      for (int i = 0; i < firstSplit.length; i++) {
-        samples[i][j - start] = firstSplit[i];
-      }
-    }
-
-    boolean doPreferDouble = true;
-    for (int i = 0; i < samples.length; i++) {
-      String[] vector = samples[i];
-      metaInfoArray[i] = headers[i] + " " + determineType(vector, doPreferDouble);
-    }
-
-    return metaInfoArray;
-  }
-}  
-
+}
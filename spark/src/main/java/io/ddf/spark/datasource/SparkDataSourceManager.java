@@ -1,10 +1,12 @@
 package io.ddf.spark.datasource;
 
+
 import io.ddf.DDF;
 import io.ddf.DDFManager;
 import io.ddf.content.Schema;
 import io.ddf.datasource.*;
 import io.ddf.exception.DDFException;
+import io.ddf.spark.SparkDDF;
 import io.ddf.spark.SparkDDFManager;
 import io.ddf.spark.util.SparkUtils;
 import org.apache.spark.rdd.RDD;
@@ -12,6 +14,8 @@ import org.apache.spark.sql.DataFrame;
 import org.apache.spark.sql.Row;
 import org.apache.spark.sql.hive.HiveContext;
 
+import scala.collection.JavaConversions;
+
 import java.net.URI;
 import java.util.*;
 
@@ -24,30 +28,29 @@ public class SparkDataSourceManager extends DataSourceManager {
         super(manager);
     }
 
+    /**
+     * Loads lazily: the DDF keeps the {@link ScanSpec} of its source, so that projections and subsets of it read only
+     * the columns and rows they need, see the Spark ViewHandler. Flattening reads the whole source.
+     */
     @Override
     public DDF loadSpecialFormat(DataFormat format, URI fileURI, Boolean flatten) throws DDFException {
         SparkDDFManager sparkDDFManager = (SparkDDFManager)mDDFManager;
         HiveContext sqlContext = sparkDDFManager.getHiveContext();
-        DataFrame jdf = null;
-        switch (format) {
-            case JSON:
-                jdf = sqlContext.jsonFile(fileURI.toString());
-                break;
-            case PQT:
-                jdf = sqlContext.parquetFile(fileURI.toString());
-                break;
-            default:
-                throw new DDFException(String.format("Unsupported data format: %s", format.toString()));
+        if (format != DataFormat.JSON && format != DataFormat.PQT) {
+            throw new DDFException(String.format("Unsupported data format: %s", format.toString()));
         }
 
-        DataFrame df = SparkUtils.getDataFrameWithValidColnames(jdf);
+        ScanSpec scan = ScanSpec.source(sqlContext, format, fileURI.toString());
+        DataFrame df = scan.load(sqlContext);
         DDF ddf = sparkDDFManager.newDDF(sparkDDFManager, df, new Class<?>[]{DataFrame.class},
             null, SparkUtils.schemaFromDataFrame(df));
 
-        if(flatten == true)
+        if(flatten == true) {
             return ddf.getFlattenedDDF();
-        else
+        } else {
+            ((SparkDDF) ddf).setPendingScan(scan, df);
             return ddf;
+        }
     }
 
     @Override
@@ -55,16 +58,8 @@ public class SparkDataSourceManager extends DataSourceManager {
         SparkDDFManager sparkDDFManager = (SparkDDFManager)mDDFManager;
         HiveContext sqlContext = sparkDDFManager.getHiveContext();
 
-        JDBCDataSourceCredentials cred = (JDBCDataSourceCredentials)dataSource.getDataSourceCredentials();
-        String fullURL = dataSource.getDataSourceUri().getUri().toString();
-        if (cred.getUsername() != null &&  !cred.getUsername().equals("")) {
-            fullURL += String.format("?user=%s&password=%s", cred.getUsername(), cred.getPassword());
-        }
-
-        Map<String, String> options = new HashMap<String, String>();
-        options.put("url", fullURL);
-        options.put("dbtable", dataSource.getDbTable());
-        DataFrame df = sqlContext.load("jdbc", options);
+        // range-partitioned on the descriptor's partition column, see JDBCDataSourceDescriptor
+        DataFrame df = PartitionedJDBCReader.load(sqlContext, dataSource);
 
         DDF ddf = sparkDDFManager.newDDF(sparkDDFManager, df, new Class<?>[]{DataFrame.class},
             null, SparkUtils.schemaFromDataFrame(df));
@@ -74,37 +69,51 @@ public class SparkDataSourceManager extends DataSourceManager {
         return ddf;
     }
 
+    /**
+     * Parses the file with {@link DelimitedFileReader}, using the columns of the descriptor's schema if it has any and
+     * inferring them otherwise. S3 and HDFS files are read through the {@link ObjectStoreReadPlanner} of their store.
+     */
     @Override
     public DDF loadTextFile(DataSourceDescriptor dataSource) throws DDFException {
-         String hiveTableName = UUID.randomUUID().toString().replace("-", "_");
-         StringBuilder stringBuilder = new StringBuilder();
-        List<String> columnNames = new ArrayList<>();
-         List<Schema.Column> columnList = dataSource.getDataSourceSchema().getColumns();
-         for (int i = 0; i < columnList.size(); ++i) {
-             columnNames.add(columnList.get(i).getName());
-             if (i == 0) {
-             stringBuilder.append(columnList.get(i).getName() + " " + columnList.get(i).getType());
-             } else {
-             stringBuilder.append(", " + columnList.get(i).getName() + " " + columnList.get(i).getType());
-             }
-         }
-         String schemaStr = stringBuilder.toString();
-
-         TextFileFormat textFileFormat = (TextFileFormat)(dataSource.getFileFormat());
-         String quote = textFileFormat.getQuote();
-         String delimiter = textFileFormat.getDelimiter();
-
-         String serdesString = "ROW FORMAT SERDE 'com.bizo.hive.serde.csv.CSVSerde' " +
-         "WITH serdeproperties ('separatorChar' = '" +  delimiter + "', 'quoteChar' = '" + quote + "')";
-
-         URI uri = dataSource.getDataSourceUri().getUri();
-         String sqlCmd = "create external table " + hiveTableName + " (" + schemaStr  + ") "
-         + serdesString + " STORED AS TEXTFILE LOCATION '"+ uri.toString() + "'";
-
-        this.mDDFManager.sql(sqlCmd, false);
-        DDF ddf = this.mDDFManager.sql2ddf(String.format("select * from %s", hiveTableName), false);
-
-        ddf.setColumnNames(columnNames);
-        return ddf;
+        TextFileFormat textFileFormat = (TextFileFormat) dataSource.getFileFormat();
+        List<Schema.Column> columns = dataSource.getDataSourceSchema() == null ? null
+            : dataSource.getDataSourceSchema().getColumns();
+        URI uri = dataSource.getDataSourceUri().getUri();
+        if (dataSource instanceof S3DataSourceDescriptor || dataSource instanceof HDFSDataSourceDescriptor) {
+            return this.loadObjects(uri, textFileFormat, columns);
+        }
+        return this.loadDelimitedFile(uri.toString(), textFileFormat, columns);
+    }
+
+    public DDF loadObjects(URI uri, TextFileFormat format, List<Schema.Column> columns) throws DDFException {
+        SparkDDFManager sparkDDFManager = (SparkDDFManager) mDDFManager;
+        ObjectStoreReadPlanner planner = this.getReadPlanner(uri);
+        List<ObjectStoreReadPlanner.ReadPartition> partitions = planner.plan(getObjectPrefix(planner, uri));
+        ObjectStoreRDD lines = new ObjectStoreRDD(sparkDDFManager.getSparkContext(), planner.getStore(),
+            JavaConversions.asScalaBuffer(partitions));
+
+        DelimitedFileLoad load = DelimitedFileReader.load(sparkDDFManager.getHiveContext(), lines,
+            getObjectPrefix(planner, uri), format, columns, getLoaderSampleSize());
+        DataFrame df = load.dataFrame();
+        return sparkDDFManager.newDDF(sparkDDFManager, df, new Class<?>[]{DataFrame.class},
+            null, SparkUtils.schemaFromDataFrame(df));
+    }
+
+    public DDF loadDelimitedFile(String fileURL, TextFileFormat format, List<Schema.Column> columns)
+        throws DDFException {
+        SparkDDFManager sparkDDFManager = (SparkDDFManager) mDDFManager;
+        DelimitedFileLoad load = DelimitedFileReader.load(sparkDDFManager.getHiveContext(), fileURL, format, columns,
+            getLoaderSampleSize());
+        DataFrame df = load.dataFrame();
+        return sparkDDFManager.newDDF(sparkDDFManager, df, new Class<?>[]{DataFrame.class},
+            null, SparkUtils.schemaFromDataFrame(df));
+    }
+
+    /**
+     * Writes from the workers rather than streaming every row through the driver, see {@link CsvExporter}.
+     */
+    @Override
+    public void export2csv(DDF ddf, String fileURL, CsvExportFormat format) throws DDFException {
+        CsvExporter.export(ddf, fileURL, format);
     }
 }
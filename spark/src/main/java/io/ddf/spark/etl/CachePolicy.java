@@ -0,0 +1,93 @@
+package io.ddf.spark.etl;
+
+
+import com.google.common.base.Strings;
+import io.ddf.DDF;
+import io.ddf.exception.DDFException;
+import io.ddf.misc.Config;
+import io.ddf.spark.SparkDDF;
+import io.ddf.spark.SparkDDFManager;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Decides when a DDF returned by sql2ddf, which is evaluated lazily, gets cached: once it has been referred to by
+ * {@link #CACHE_REUSE_COUNT} sql commands, or by the first one if recomputing it is estimated to take at least
+ * {@link #CACHE_RECOMPUTE_COST} shuffles. A DDF can still be cached explicitly with IHandleRepresentations.cache().
+ * <p/>
+ * The recomputation cost of a DDF is the number of joins, aggregations, sorts and unions of its sql command, plus the
+ * cost of the uncached DDFs it reads.
+ */
+public class CachePolicy {
+
+  public static final String CACHE_REUSE_COUNT = "CacheReuseCount";
+
+  public static final String CACHE_RECOMPUTE_COST = "CacheRecomputeCost";
+
+  private static final int DEFAULT_CACHE_REUSE_COUNT = 2;
+
+  private static final int DEFAULT_CACHE_RECOMPUTE_COST = 3;
+
+  private static final Pattern SHUFFLE_PATTERN = Pattern.compile(
+      "\\b(JOIN|GROUP\\s+BY|DISTINCT|ORDER\\s+BY|SORT\\s+BY|DISTRIBUTE\\s+BY|CLUSTER\\s+BY|UNION)\\b",
+      Pattern.CASE_INSENSITIVE);
+
+  private final int mReuseCount;
+
+  private final int mRecomputeCost;
+
+  public CachePolicy(String engine) throws DDFException {
+    mReuseCount = getIntValue(engine, CACHE_REUSE_COUNT, DEFAULT_CACHE_REUSE_COUNT);
+    mRecomputeCost = getIntValue(engine, CACHE_RECOMPUTE_COST, DEFAULT_CACHE_RECOMPUTE_COST);
+  }
+
+  private static int getIntValue(String engine, String key, int defaultValue) throws DDFException {
+    String value = Config.getValue(engine, key);
+    if (Strings.isNullOrEmpty(value)) return defaultValue;
+
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      throw new DDFException(String.format("Invalid %s: %s", key, value), e);
+    }
+  }
+
+  /**
+   * @return the number of shuffles the command is estimated to take on its own
+   */
+  public static int estimateCost(String command) {
+    int cost = 0;
+    Matcher matcher = SHUFFLE_PATTERN.matcher(command);
+    while (matcher.find()) cost++;
+    return cost;
+  }
+
+  /**
+   * @return the estimated cost of recomputing the result of the command, which reads the given DDFs
+   */
+  public int estimateRecomputeCost(String command, List<DDF> referencedDDFs) {
+    int cost = estimateCost(command);
+    Map<DDF, Boolean> seen = new IdentityHashMap<DDF, Boolean>();
+    for (DDF ddf : referencedDDFs) {
+      if (seen.put(ddf, true) == null && ddf instanceof SparkDDF && !isCached(ddf)) {
+        cost += ((SparkDDF) ddf).getRecomputeCost();
+      }
+    }
+    return cost;
+  }
+
+  public boolean shouldCache(DDF ddf) {
+    if (!(ddf instanceof SparkDDF) || isCached(ddf)) return false;
+
+    int useCount = ddf.getMetaDataHandler().getUseCount();
+    return useCount >= mReuseCount || (useCount >= 1 && ((SparkDDF) ddf).getRecomputeCost() >= mRecomputeCost);
+  }
+
+  private static boolean isCached(DDF ddf) {
+    return ((SparkDDFManager) ddf.getManager()).getHiveContext().isCached(ddf.getTableName());
+  }
+}
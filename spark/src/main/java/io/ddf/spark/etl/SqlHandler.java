@@ -5,6 +5,7 @@ package io.ddf.spark.etl;
 
 
 import io.ddf.DDF;
+import io.ddf.TableNameReplacer;
 import io.ddf.content.Schema;
 import io.ddf.content.SqlTypedCell;
 import io.ddf.content.SqlTypedResult;
@@ -14,11 +15,11 @@ import io.ddf.datasource.DataSourceDescriptor;
 import io.ddf.datasource.SQLDataSourceDescriptor;
 import io.ddf.etl.ASqlHandler;
 import io.ddf.exception.DDFException;
+import io.ddf.spark.SparkDDF;
 import io.ddf.spark.SparkDDFManager;
 import io.ddf.spark.content.SchemaHandler;
 import io.ddf.spark.util.SparkUtils;
 import org.apache.avro.generic.GenericData;
-import org.apache.spark.rdd.RDD;
 import org.apache.spark.sql.DataFrame;
 import org.apache.spark.sql.Row;
 import org.apache.spark.sql.hive.HiveContext;
@@ -72,21 +73,54 @@ public class SqlHandler extends ASqlHandler {
     return this.sql2ddf(command, schema, null, dataFormat);
   }
 
-  //TODO: SparkSql
+  /**
+   * Returns a lazily evaluated DDF: nothing is computed until it is used, and it is cached according to the
+   * {@link CachePolicy}.
+   */
   @Override
   public DDF sql2ddf(String command, Schema schema, DataSourceDescriptor dataSource, DataFormat dataFormat) throws DDFException {
-    //    TableRDD tableRdd = null;
-    //    RDD<Row> rddRow = null;
-
     DataFrame rdd = this.getHiveContext().sql(command);
     if (schema == null) schema = SchemaHandler.getSchemaFromDataFrame(rdd);
     DDF ddf = this.getManager().newDDF(this.getManager(), rdd, new Class<?>[]
                     {DataFrame.class}, null, schema);
-    ddf.getRepresentationHandler().cache(false);
-    ddf.getRepresentationHandler().get(new Class<?>[]{RDD.class, Row.class});
+    ((SparkDDF) ddf).setRecomputeCost(CachePolicy.estimateCost(command));
     return ddf;
   }
 
+  @Override
+  public DDF sql2ddfHandle(String command, Schema schema, DataSourceDescriptor dataSource, DataFormat dataFormat,
+      TableNameReplacer tableNameReplacer) throws DDFException {
+    DDF ddf = super.sql2ddfHandle(command, schema, dataSource, dataFormat, tableNameReplacer);
+    if (ddf instanceof SparkDDF) {
+      ((SparkDDF) ddf).setRecomputeCost(this.getCachePolicy().estimateRecomputeCost(command,
+          tableNameReplacer.getReferencedDDFs()));
+    }
+    return ddf;
+  }
+
+  /**
+   * Caches the DDFs the {@link CachePolicy} selects, lazily: they are materialized by the first command that reads them
+   */
+  @Override
+  protected void onReferenced(List<DDF> ddfs) throws DDFException {
+    super.onReferenced(ddfs);
+    CachePolicy cachePolicy = this.getCachePolicy();
+    for (DDF ddf : ddfs) {
+      if (cachePolicy.shouldCache(ddf)) {
+        mLog.info(String.format(">>>> caching %s, used %d time(s), recompute cost %d", ddf.getTableName(),
+            ddf.getMetaDataHandler().getUseCount(), ((SparkDDF) ddf).getRecomputeCost()));
+        ddf.getRepresentationHandler().cache(true);
+      }
+    }
+  }
+
+  private CachePolicy mCachePolicy;
+
+  private CachePolicy getCachePolicy() throws DDFException {
+    if (mCachePolicy == null) mCachePolicy = new CachePolicy(this.getEngine());
+    return mCachePolicy;
+  }
+
   private <T> List<T> toList(Seq<T> sequence) {
     return scala.collection.JavaConversions.seqAsJavaList(sequence);
   }
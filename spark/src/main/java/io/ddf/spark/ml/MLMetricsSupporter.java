@@ -155,6 +155,19 @@ public class MLMetricsSupporter extends AMLMetricsSupporter {
     return (rc.ROC(rddLabeledPoint, alpha_length));
   }
 
+  @Override
+  public RocMetric roc(DDF predictionDDF, RocMetric.Mode mode, int numPoints) throws DDFException {
+    if (mode == null || mode == RocMetric.Mode.BUCKETED) {
+      return this.roc(predictionDDF, numPoints);
+    }
+
+    RDD<LabeledPoint> rddLabeledPoint = (RDD<LabeledPoint>) predictionDDF.getRepresentationHandler()
+        .get(RDD.class, LabeledPoint.class);
+    ROCComputer rc = new ROCComputer();
+
+    return (rc.exactROC(rddLabeledPoint, numPoints));
+  }
+
   public MLMetricsSupporter(DDF theDDF) {
     super(theDDF);
     this.initialize();
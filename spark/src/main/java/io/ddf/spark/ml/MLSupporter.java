@@ -1,17 +1,21 @@
 package io.ddf.spark.ml;
 
 
+import com.google.common.base.Strings;
 import io.ddf.DDF;
 import io.ddf.content.IHandleRepresentations.IGetResult;
 import io.ddf.content.IHandleSchema;
 import io.ddf.content.Schema;
 import io.ddf.exception.DDFException;
 import io.ddf.ml.CrossValidationSet;
+import io.ddf.misc.Config;
 import io.ddf.ml.IModel;
+import io.ddf.ml.MLClassMethods.CompiledTrainMethod;
 import io.ddf.types.TupleMatrixVector;
 import io.ddf.util.Utils.MethodInfo.ParamInfo;
 import io.ddf.spark.SparkDDF;
 import io.ddf.spark.analytics.CrossValidation;
+import io.ddf.spark.content.RepresentationHandler;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.function.FlatMapFunction;
@@ -21,20 +25,153 @@ import org.apache.spark.mllib.linalg.Vector;
 import org.apache.spark.mllib.recommendation.Rating;
 import org.apache.spark.mllib.regression.LabeledPoint;
 import org.apache.spark.rdd.RDD;
+import org.apache.spark.storage.StorageLevel;
 
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 public class MLSupporter extends io.ddf.ml.MLSupporter implements Serializable {
 
+  /**
+   * Storage level for training input RDDs, e.g. MEMORY_AND_DISK_SER, or NONE to leave them uncached
+   */
+  public static final String TRAINING_INPUT_STORAGE_LEVEL = "TrainingInputStorageLevel";
+
+  private static final String DEFAULT_TRAINING_INPUT_STORAGE_LEVEL = "MEMORY_AND_DISK_SER";
+
+  /**
+   * Ids of the training input RDDs persisted here, mapped to whether they are kept after training
+   */
+  private transient Map<Integer, Boolean> mPersistedInputs;
+
   public MLSupporter(DDF theDDF) {
     super(theDDF);
   }
 
+  /**
+   * The prepared input is persisted and stays persisted across trainings, until the DDF is uncached, see
+   * {@link RepresentationHandler#addPersisted}.
+   */
+  @Override
+  public Object prepareTrainingInput(String trainMethodName, Object... paramArgs) throws DDFException {
+    Object input = super.prepareTrainingInput(trainMethodName, paramArgs);
+    if (input instanceof RDD) this.persistTrainingInput((RDD<?>) input, true);
+    return input;
+  }
+
+  /**
+   * Iterative MLlib algorithms scan their input once per iteration, so make sure it is not recomputed from the source
+   * query each time.
+   */
+  @Override
+  protected void beforeTraining(CompiledTrainMethod trainMethod, Object[] allArgs) throws DDFException {
+    if (allArgs.length > 0 && allArgs[0] instanceof RDD) this.persistTrainingInput((RDD<?>) allArgs[0], false);
+  }
+
+  @Override
+  protected void afterTraining(CompiledTrainMethod trainMethod, Object[] allArgs) throws DDFException {
+    if (allArgs.length == 0 || !(allArgs[0] instanceof RDD)) return;
+
+    RDD<?> rdd = (RDD<?>) allArgs[0];
+    Boolean keep = this.getPersistedInputs().get(rdd.id());
+    if (keep != null && !keep) {
+      rdd.unpersist(false);
+      this.getPersistedInputs().remove(rdd.id());
+    }
+  }
+
+  private void persistTrainingInput(RDD<?> rdd, boolean keep) throws DDFException {
+    Boolean kept = this.getPersistedInputs().get(rdd.id());
+    // unpersisted since, e.g. by uncaching the DDF
+    if (kept != null && StorageLevel.NONE().equals(rdd.getStorageLevel())) {
+      this.getPersistedInputs().remove(rdd.id());
+      kept = null;
+    }
+    if (kept != null) {
+      if (keep && !kept) this.keepPersisted(rdd);
+      return;
+    }
+
+    // already cached by someone else, who is then also responsible for unpersisting it
+    if (!StorageLevel.NONE().equals(rdd.getStorageLevel())) return;
+
+    StorageLevel level = this.getTrainingInputStorageLevel();
+    if (StorageLevel.NONE().equals(level)) return;
+
+    mLog.info(String.format(">>>> Persisting training input RDD %d at %s", rdd.id(), level.description()));
+    rdd.persist(level);
+    if (keep) this.keepPersisted(rdd);
+    else this.getPersistedInputs().put(rdd.id(), false);
+  }
+
+  /**
+   * Hands the input over to the representation handler of the DDF, which unpersists it when the DDF is uncached
+   */
+  private void keepPersisted(RDD<?> rdd) {
+    this.getPersistedInputs().put(rdd.id(), true);
+    if (this.getDDF().getRepresentationHandler() instanceof RepresentationHandler) {
+      ((RepresentationHandler) this.getDDF().getRepresentationHandler()).addPersisted(rdd);
+    }
+  }
+
+  // transient, so created again after the handler is deserialized
+  private synchronized Map<Integer, Boolean> getPersistedInputs() {
+    if (mPersistedInputs == null) mPersistedInputs = new ConcurrentHashMap<Integer, Boolean>();
+    return mPersistedInputs;
+  }
+
+  private StorageLevel getTrainingInputStorageLevel() throws DDFException {
+    String level = Config.getValue(this.getEngine(), TRAINING_INPUT_STORAGE_LEVEL);
+    if (Strings.isNullOrEmpty(level)) level = DEFAULT_TRAINING_INPUT_STORAGE_LEVEL;
+
+    try {
+      return StorageLevel.fromString(level.trim());
+    } catch (IllegalArgumentException e) {
+      throw new DDFException(String.format("Invalid %s: %s", TRAINING_INPUT_STORAGE_LEVEL, level), e);
+    }
+  }
+
+
+  /**
+   * Returns the RDD representation matching that specified in {@link ParamInfo}, or null if the method does not take
+   * an RDD. This is resolved only once per train() method, see {@link io.ddf.ml.MLSupporter#getTrainMethod}.
+   *
+   * @param paramInfo
+   * @return
+   */
+  @Override
+  protected Class<?>[] getInputTypeSpecs(ParamInfo paramInfo) throws DDFException {
+    if (!paramInfo.argMatches(RDD.class)) return null;
+
+    // Yay, our target data format is an RDD!
+    if (paramInfo.paramMatches(LabeledPoint.class)) {
+      return new Class<?>[] { RDD.class, LabeledPoint.class };
+    } else if (paramInfo.paramMatches(Vector.class)) {
+      return new Class<?>[] { RDD.class, Vector.class };
+    } else if (paramInfo.paramMatches(double[].class)) {
+      return new Class<?>[] { RDD.class, double[].class };
+    } else if (paramInfo.paramMatches(io.ddf.types.Vector.class)) {
+      return new Class<?>[] { RDD.class, io.ddf.types.Vector.class };
+    } else if (paramInfo.paramMatches(TupleMatrixVector.class)) {
+      return new Class<?>[] { RDD.class, TupleMatrixVector.class };
+    } else if (paramInfo.paramMatches(Rating.class)) {
+      return new Class<?>[] { RDD.class, Rating.class };
+    }
+    //      else if (paramInfo.paramMatches(TablePartition.class)) {
+    //        return new Class<?>[] { RDD.class, TablePartition.class };
+    //      }
+    else if (paramInfo.paramMatches(Object.class)) {
+      return new Class<?>[] { RDD.class, Object[].class };
+    }
+
+    return null;
+  }
 
   /**
    * Override this to return the approriate DDF representation matching that specified in {@link ParamInfo}. The base
@@ -43,37 +180,14 @@ public class MLSupporter extends io.ddf.ml.MLSupporter implements Serializable {
    * @param paramInfo
    * @return
    */
-  @SuppressWarnings("unchecked")
   @Override
   protected Object convertDDF(ParamInfo paramInfo) throws DDFException {
     mLog.info(">>>> Running ConvertDDF of io.ddf.spark.ml.MLSupporter");
-    if (paramInfo.argMatches(RDD.class)) {
-      // Yay, our target data format is an RDD!
-      RDD<?> rdd = null;
-
-      if (paramInfo.paramMatches(LabeledPoint.class)) {
-        rdd = (RDD<LabeledPoint>) this.getDDF().getRepresentationHandler().get(RDD.class, LabeledPoint.class);
-
-      } else if (paramInfo.paramMatches(Vector.class)) {
-        rdd = (RDD<Vector>) this.getDDF().getRepresentationHandler().get(RDD.class, Vector.class);
-      } else if (paramInfo.paramMatches(double[].class)) {
-        rdd = (RDD<double[]>) this.getDDF().getRepresentationHandler().get(RDD.class, double[].class);
-      } else if (paramInfo.paramMatches(io.ddf.types.Vector.class)) {
-        rdd = (RDD<io.ddf.types.Vector>) this.getDDF().getRepresentationHandler()
-            .get(RDD.class, io.ddf.types.Vector.class);
-      } else if (paramInfo.paramMatches(TupleMatrixVector.class)) {
-        rdd = (RDD<TupleMatrixVector>) this.getDDF().getRepresentationHandler().get(RDD.class, TupleMatrixVector.class);
-      } else if (paramInfo.paramMatches(Rating.class)) {
-        rdd = (RDD<Rating>) this.getDDF().getRepresentationHandler().get(RDD.class, Rating.class);
-      }
-      //      else if (paramInfo.paramMatches(TablePartition.class)) {
-      //        rdd = (RDD<TablePartition>) this.getDDF().getRepresentationHandler().get(RDD.class, TablePartition.class);
-      //      }
-      else if (paramInfo.paramMatches(Object.class)) {
-        rdd = (RDD<Object[]>) this.getDDF().getRepresentationHandler().get(RDD.class, Object[].class);
-      }
-
-      return rdd;
+    Class<?>[] typeSpecs = this.getInputTypeSpecs(paramInfo);
+    if (typeSpecs != null) {
+      return this.getDDF().getRepresentationHandler().get(typeSpecs);
+    } else if (paramInfo.argMatches(RDD.class)) {
+      return null;
     } else {
       return super.convertDDF(paramInfo);
     }
@@ -0,0 +1,42 @@
+package io.ddf.spark.ml;
+
+
+import io.ddf.ModelCache;
+import io.ddf.ml.IModel;
+import org.apache.spark.api.java.JavaRDDLike;
+import org.apache.spark.rdd.RDD;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Model registry of a SparkDDFManager, which pins the models that hold RDDs, e.g. the factor RDDs of an ALS
+ * MatrixFactorizationModel: their serialized form is only a handle to the RDD and the reloaded model would have no
+ * SparkContext to predict with.
+ */
+public class SparkModelCache extends ModelCache {
+
+  @Override
+  protected boolean isSpillable(IModel model) {
+    Object rawModel = model.getRawModel();
+    return rawModel == null || !holdsRDD(rawModel);
+  }
+
+  /**
+   * @return whether the object is an RDD or has a field declared as one
+   */
+  static boolean holdsRDD(Object obj) {
+    if (isRDD(obj.getClass())) return true;
+
+    for (Class<?> clazz = obj.getClass(); clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+      for (Field field : clazz.getDeclaredFields()) {
+        if (!Modifier.isStatic(field.getModifiers()) && isRDD(field.getType())) return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isRDD(Class<?> clazz) {
+    return RDD.class.isAssignableFrom(clazz) || JavaRDDLike.class.isAssignableFrom(clazz);
+  }
+}
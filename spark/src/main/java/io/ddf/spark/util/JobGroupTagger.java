@@ -0,0 +1,56 @@
+package io.ddf.spark.util;
+
+
+import io.ddf.metrics.ITraceListener;
+import io.ddf.metrics.Trace;
+import org.apache.spark.SparkContext;
+
+/**
+ * Puts the Spark jobs of a traced DDF operation into the job group ddf-&lt;UUID of the DDF&gt;, described by the
+ * operation, so that the Spark UI and listeners can tell which DDF and operation a job is for. Job groups are local
+ * to the calling thread; the group of an enclosing operation is restored when a nested one ends.
+ */
+public class JobGroupTagger implements ITraceListener {
+
+  public static final String JOB_GROUP_PREFIX = "ddf-";
+
+  public static final String MANAGER_JOB_GROUP = "ddf-manager";
+
+  /**
+   * The local properties SparkContext.setJobGroup sets
+   */
+  private static final String JOB_GROUP_ID = "spark.jobGroup.id";
+  private static final String JOB_DESCRIPTION = "spark.job.description";
+
+  private static final int MAX_DESCRIPTION_LENGTH = 200;
+
+  private final SparkContext mSparkContext;
+
+  public JobGroupTagger(SparkContext sparkContext) {
+    mSparkContext = sparkContext;
+  }
+
+  @Override
+  public Object onBegin(Trace trace) {
+    String[] previous = new String[] { mSparkContext.getLocalProperty(JOB_GROUP_ID),
+        mSparkContext.getLocalProperty(JOB_DESCRIPTION) };
+
+    String groupId = trace.getDDF() != null ? JOB_GROUP_PREFIX + trace.getDDF().getUUID() : MANAGER_JOB_GROUP;
+    String description = trace.getDescription();
+    if (description.length() > MAX_DESCRIPTION_LENGTH) {
+      description = description.substring(0, MAX_DESCRIPTION_LENGTH) + "...";
+    }
+    mSparkContext.setJobGroup(groupId, description, false);
+    return previous;
+  }
+
+  @Override
+  public void onEnd(Trace trace, Object state) {
+    String[] previous = (String[]) state;
+    if (previous[0] == null) {
+      mSparkContext.clearJobGroup();
+    } else {
+      mSparkContext.setJobGroup(previous[0], previous[1], false);
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package io.ddf.spark.analytics
+
+import io.ddf.DDF
+import io.ddf.content.Schema
+import io.ddf.timeseries.{ATimeSeriesHandler, AsOfJoinScan, SeriesOrdering, SeriesScan}
+import io.ddf.spark.SparkDDFManager
+import io.ddf.spark.util.SparkUtils
+import org.apache.spark.rdd.RDD
+import org.apache.spark.storage.StorageLevel
+
+/**
+ * Time series of Spark DDFs. The rows are range-partitioned and sorted by series and time in one shuffle, and every
+ * operation is a [[SeriesScan]] of the sorted partitions: a first pass summarizes each partition, the driver computes
+ * the state each partition carries over from the ones before it, and a second pass scans every partition on its own.
+ *
+ * The sorted rows are kept persisted with the handler, and the output rows of an operation, which are in the same
+ * order, are handed to the handler of the resulting DDF, so that a chain of operations costs a single sort. Both are
+ * registered with the representation handler of their DDF, so that uncaching the DDF unpersists them.
+ */
+class TimeSeriesHandler(mDDF: DDF) extends ATimeSeriesHandler(mDDF) {
+
+  @volatile private var mSorted: Option[(SeriesOrdering, RDD[Array[AnyRef]])] = None
+
+  private def manager: SparkDDFManager = this.getManager.asInstanceOf[SparkDDFManager]
+
+  /**
+   * Sets rows of the DDF sorted by the ordering
+   */
+  def setSorted(ordering: SeriesOrdering, rows: RDD[Array[AnyRef]]): Unit = {
+    mSorted = Some((ordering, rows))
+  }
+
+  private def sorted(ordering: SeriesOrdering): RDD[Array[AnyRef]] = synchronized {
+    mSorted match {
+      case Some((sortedBy, rows)) if sortedBy == ordering =>
+        // the DDF may have been uncached since
+        if (rows.getStorageLevel == StorageLevel.NONE) SparkUtils.persistWith(this.getDDF, rows)
+        rows
+      case _ =>
+        mSorted.foreach(_._2.unpersist(blocking = false))
+        val rows = TimeSeriesHandler.sort(SparkUtils.rowsOf(this.getDDF), ordering)
+        SparkUtils.persistWith(this.getDDF, rows)
+        mSorted = Some((ordering, rows))
+        rows
+    }
+  }
+
+  override protected def scan(ordering: SeriesOrdering, scan: SeriesScan[_], schema: Schema,
+                              outputOrdering: SeriesOrdering): DDF = {
+    this.newDDF(TimeSeriesHandler.run(this.sorted(ordering), scan), schema, outputOrdering)
+  }
+
+  override protected def scanAsOfJoin(other: DDF, scan: AsOfJoinScan, schema: Schema,
+                                      outputOrdering: SeriesOrdering): DDF = {
+    val rows = SparkUtils.rowsOf(this.getDDF).map(row => scan.leftRow(row))
+      .union(SparkUtils.rowsOf(other).map(row => scan.rightRow(row)))
+    val sortedRows = TimeSeriesHandler.sort(rows, scan.getOrdering)
+    sortedRows.persist(StorageLevel.MEMORY_AND_DISK_SER)
+    try {
+      // the joined rows are computed lazily from the sorted rows, so they are materialized before those are dropped
+      val joinedRows = TimeSeriesHandler.run(sortedRows, scan)
+      joinedRows.persist(StorageLevel.MEMORY_AND_DISK_SER)
+      joinedRows.count()
+      this.newDDF(joinedRows, schema, outputOrdering)
+    } finally {
+      sortedRows.unpersist(blocking = false)
+    }
+  }
+
+  private def newDDF(rows: RDD[Array[AnyRef]], schema: Schema, ordering: SeriesOrdering): DDF = {
+    val ddf = SparkUtils.newDDF(manager, rows, schema)
+    SparkUtils.persistWith(ddf, rows)
+    ddf.getTimeSeriesHandler match {
+      case handler: TimeSeriesHandler => handler.setSorted(ordering, rows)
+      case _ =>
+    }
+    ddf
+  }
+}
+
+object TimeSeriesHandler {
+
+  /**
+   * Range-partitions the rows by the ordering, into as many partitions, and sorts every partition
+   */
+  def sort(rows: RDD[Array[AnyRef]], ordering: SeriesOrdering): RDD[Array[AnyRef]] = {
+    rows.sortBy(row => row, ascending = true, rows.partitions.length)(Ordering.comparatorToOrdering(ordering),
+      scala.reflect.classTag[Array[AnyRef]])
+  }
+
+  /**
+   * Scans rows sorted by the ordering of the scan, with one job to summarize the partitions and no shuffle
+   */
+  def run(sorted: RDD[Array[AnyRef]], scan: SeriesScan[_]): RDD[Array[AnyRef]] = {
+    val summaries = sorted.mapPartitions(rows => Iterator(scan.summarize(rows))).collect()
+    val carries = sorted.sparkContext.broadcast(scan.carry(summaries.toSeq))
+    sorted.mapPartitionsWithIndex((index, rows) => scan.run(rows, carries.value.get(index)))
+  }
+}
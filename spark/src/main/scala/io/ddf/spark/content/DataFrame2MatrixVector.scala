@@ -18,6 +18,7 @@ class DataFrame2MatrixVector(@transient ddf: DDF) extends ConvertFunction(ddf) {
 
   override def apply(representation: Representation): Representation = {
     val columns = ddf.getSchemaHandler.getColumns
+    if (ddf.getSchema.getDummyCoding == null) ddf.getSchemaHandler.generateDummyCoding()
     val dummyCoding = ddf.getSchema.getDummyCoding
     val rddMatrixVector = representation.getValue match {
       case rdd: DataFrame => {
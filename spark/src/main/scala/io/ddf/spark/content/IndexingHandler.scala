@@ -0,0 +1,140 @@
+package io.ddf.spark.content
+
+import java.util.{List => JList}
+
+import io.ddf.DDF
+import io.ddf.exception.DDFException
+import io.ddf.index.{AIndexingHandler, ColumnRange, IndexSelection, IndexSet}
+import io.ddf.spark.SparkDDFManager
+import org.apache.spark.rdd.{PartitionPruningRDD, RDD}
+import org.apache.spark.sql.sources._
+import org.apache.spark.sql.types.StructType
+import org.apache.spark.sql.{DataFrame, Row, SQLContext}
+import org.apache.spark.storage.StorageLevel
+
+import scala.collection.JavaConversions._
+
+/**
+ * Indexes the partitions of Spark DDFs. The rows are persisted as they are indexed, so that the row positions of the
+ * indexes stay valid, and the table of an indexed DDF is an [[IndexedRelation]], to which Spark SQL pushes down the
+ * filters of queries and subsets.
+ */
+class IndexingHandler(mDDF: DDF) extends AIndexingHandler(mDDF) {
+
+  @volatile private var mRows: RDD[Row] = null
+
+  @volatile private var mRegistered = false
+
+  private def manager: SparkDDFManager = this.getManager.asInstanceOf[SparkDDFManager]
+
+  private def dataFrame: DataFrame = mDDF.getRepresentationHandler.get(classOf[DataFrame]).asInstanceOf[DataFrame]
+
+  override protected def getSource: AnyRef = {
+    val df = this.dataFrame
+    if (df == null) throw new DDFException(s"Cannot get the DataFrame of ${mDDF.getName}")
+    df
+  }
+
+  override protected def indexPartitions(source: AnyRef, indexer: IndexSet.Indexer): JList[IndexSet.Partition] = {
+    // indexes added to built ones must see the same rows at the same positions
+    val rows = if (this.isBuilt && mRows != null) {
+      mRows
+    } else {
+      this.unpersistRows()
+      // rows in the internal format that relations return, copied as the query may reuse them
+      val internalRows = source.asInstanceOf[DataFrame].queryExecution.toRdd.map(_.copy())
+      internalRows.persist(StorageLevel.MEMORY_AND_DISK_SER)
+      mRows = internalRows
+      internalRows
+    }
+    rows.mapPartitions {
+      partition => Iterator(indexer.index(partition.map(row => row.toSeq.map(_.asInstanceOf[AnyRef]).toArray)))
+    }.collect().toSeq
+  }
+
+  /**
+   * Registers the table of the DDF as an [[IndexedRelation]] while it has indexes, and as its DataFrame otherwise
+   */
+  override protected def indexesChanged(): Unit = {
+    if (!this.isBuilt) this.unpersistRows()
+    if (this.getIndexes.isEmpty && !mRegistered) return
+
+    val df = this.dataFrame
+    if (this.getIndexes.isEmpty) {
+      df.registerTempTable(mDDF.getTableName)
+      mRegistered = false
+    } else {
+      val ctx = manager.getHiveContext
+      ctx.baseRelationToDataFrame(new IndexedRelation(this, df.schema, ctx)).registerTempTable(mDDF.getTableName)
+      mRegistered = true
+    }
+    mLog.info(s">>>> registered ${mDDF.getTableName} with indexes ${this.getIndexes}")
+  }
+
+  /**
+   * @return the required columns of the rows that may satisfy the filters
+   */
+  def scan(schema: StructType, requiredColumns: Array[String], filters: Array[Filter]): RDD[Row] = {
+    val selection = this.select(filters.toSeq.flatMap(IndexingHandler.rangesOf))
+    val rows = this.synchronized {
+      if (this.getIndexSet != null) mRows
+      else this.getSource.asInstanceOf[DataFrame].queryExecution.toRdd
+    }
+    val selected = if (selection == null || selection.getNumPartitions != rows.partitions.length) rows
+    else IndexingHandler.prune(rows, selection)
+
+    val indexes = requiredColumns.map(schema.fieldNames.indexOf(_))
+    selected.map(row => Row.fromSeq(indexes.map(row(_))))
+  }
+
+  private def unpersistRows(): Unit = {
+    if (mRows != null) mRows.unpersist(blocking = false)
+    mRows = null
+  }
+}
+
+object IndexingHandler {
+
+  /**
+   * @return the ranges of the columns that rows satisfying the filter are in
+   */
+  def rangesOf(filter: Filter): Seq[ColumnRange] = filter match {
+    case EqualTo(column, value) if value != null => Seq(ColumnRange.equalTo(column, value))
+    case GreaterThan(column, value) if value != null => Seq(ColumnRange.greaterThan(column, value, false))
+    case GreaterThanOrEqual(column, value) if value != null => Seq(ColumnRange.greaterThan(column, value, true))
+    case LessThan(column, value) if value != null => Seq(ColumnRange.lessThan(column, value, false))
+    case LessThanOrEqual(column, value) if value != null => Seq(ColumnRange.lessThan(column, value, true))
+    case In(column, values) => Seq(ColumnRange.in(column, values.toSeq.map(_.asInstanceOf[AnyRef])))
+    case And(left, right) => rangesOf(left) ++ rangesOf(right)
+    case _ => Seq()
+  }
+
+  /**
+   * Skips the partitions that the selection does not keep, and the rows of the others that it does not tell
+   */
+  def prune(rows: RDD[Row], selection: IndexSelection): RDD[Row] = {
+    val kept = (0 until selection.getNumPartitions).filter(selection.isKept).toSet
+    val broadcast = rows.sparkContext.broadcast(selection)
+    val selected = rows.mapPartitionsWithIndex({
+      (partition, partitionRows) =>
+        val positions = broadcast.value.getRows(partition)
+        if (positions == null) partitionRows
+        else partitionRows.take(positions.last + 1).zipWithIndex.collect {
+          case (row, position) if java.util.Arrays.binarySearch(positions, position) >= 0 => row
+        }
+    }, preservesPartitioning = true)
+    PartitionPruningRDD.create(selected, kept.contains)
+  }
+}
+
+/**
+ * The table of an indexed DDF, whose scans only read the partitions and rows that may satisfy the pushed filters.
+ * Spark SQL still evaluates the filters over the returned rows.
+ */
+class IndexedRelation(handler: IndexingHandler, override val schema: StructType,
+                      @transient override val sqlContext: SQLContext) extends BaseRelation with PrunedFilteredScan {
+
+  override def buildScan(requiredColumns: Array[String], filters: Array[Filter]): RDD[Row] = {
+    handler.scan(schema, requiredColumns, filters)
+  }
+}
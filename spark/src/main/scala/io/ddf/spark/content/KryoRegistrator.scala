@@ -1,26 +1,427 @@
 package io.ddf.spark.content
 
-import com.esotericsoftware.kryo.Kryo
+import java.util.{ArrayList => JArrayList, HashMap => JHashMap, LinkedHashMap => JLinkedHashMap}
+
+import com.esotericsoftware.kryo.{Kryo, Serializer}
+import com.esotericsoftware.kryo.io.{Input, Output}
 import org.apache.spark.serializer.{KryoRegistrator => SparkKryoRegistrator}
-import com.esotericsoftware.kryo.serializers.{JavaSerializer => KryoJavaSerializer, FieldSerializer}
-import io.ddf.types.Matrix
-import io.ddf.types.Vector
-import io.ddf.spark.ml.ROCComputer
+import com.esotericsoftware.kryo.serializers.FieldSerializer
+import io.ddf.{DDF, Factor}
+import io.ddf.analytics.{IncrementalStatistics, Summary}
+import io.ddf.analytics.AStatisticsSupporter.{FiveNumSummary, HistogramBin}
+import io.ddf.content.{Schema, SqlTypedCell}
+import io.ddf.etl.Pivot
+import io.ddf.index.{ColumnRange, IndexSet, PartitionIndex, ZoneMap}
+import io.ddf.types.{Matrix, MatrixSparse, TupleMatrixVector, Vector}
+import io.ddf.types.AggregateTypes.AggregationResult
+import io.ddf.spark.ml.{NormalEquationModel, NormalEquations, ROCComputer, TransformRow}
+import io.ddf.timeseries.{AsOfJoinScan, ResampleScan, SeriesScan}
+import no.uib.cipr.matrix.sparse.{SparseVector => MTJSparseVector}
+import org.apache.spark.mllib.linalg.{DenseVector, SparseVector, Vector => MLVector}
+import org.apache.spark.mllib.recommendation.Rating
+import org.apache.spark.mllib.regression.LabeledPoint
 import org.jblas.DoubleMatrix
-import org.rosuda.REngine.REXP
-import org.rosuda.REngine.RList
+import org.rosuda.REngine._
 import io.ddf.ml.RocMetric
 
+import scala.collection.JavaConversions._
 
+/**
+ * Registers the classes DDF shuffles, caches and collects, so that Kryo writes a small id instead of the class name
+ * of every record, with compact serializers for the numeric types of statistics and ML jobs.
+ *
+ * With spark.kryo.registrationRequired=true, see {@link io.ddf.spark.util.SparkUtils#createSparkConf}, Kryo fails on
+ * any class that is not registered, which is how gaps are caught in tests.
+ */
 class KryoRegistrator extends SparkKryoRegistrator {
   def registerClasses(kryo: Kryo) {
-    kryo.register(classOf[Vector])
-    kryo.register(classOf[Matrix])
-    kryo.register(classOf[DoubleMatrix])
+    import KryoRegistrator._
+
+    // arrays and collections of rows and results
+    kryo.register(classOf[Array[Object]])
+    kryo.register(classOf[Array[Array[Object]]])
+    kryo.register(classOf[Array[Double]])
+    kryo.register(classOf[Array[Array[Double]]])
+    kryo.register(classOf[Array[Int]])
+    kryo.register(classOf[Array[Long]])
+    kryo.register(classOf[Array[Boolean]])
+    kryo.register(classOf[Array[Byte]])
+    kryo.register(classOf[Array[String]])
+    kryo.register(classOf[JArrayList[_]])
+    kryo.register(classOf[JHashMap[_, _]])
+    kryo.register(classOf[JLinkedHashMap[_, _]])
+    kryo.register(classOf[java.sql.Date])
+    kryo.register(classOf[java.sql.Timestamp])
+    kryo.register(classOf[java.math.BigDecimal])
+
+    // linear algebra
+    kryo.register(classOf[Vector], new VectorSerializer)
+    kryo.register(classOf[Matrix], new MatrixSerializer)
+    kryo.register(classOf[DoubleMatrix], new DoubleMatrixSerializer)
+    kryo.register(classOf[TupleMatrixVector], new TupleMatrixVectorSerializer)
+    kryo.register(classOf[MatrixSparse], new MatrixSparseSerializer)
+    kryo.register(classOf[Array[Vector]])
+    kryo.register(classOf[Array[DoubleMatrix]])
+
+    // statistics
+    kryo.register(classOf[Summary], new SummarySerializer)
+    kryo.register(classOf[Array[Summary]])
+    kryo.register(classOf[FiveNumSummary], new FiveNumSummarySerializer)
+    kryo.register(classOf[Array[FiveNumSummary]])
+    kryo.register(classOf[HistogramBin], new HistogramBinSerializer)
+    kryo.register(classOf[Array[HistogramBin]])
+    kryo.register(classOf[IncrementalStatistics])
+    kryo.register(classOf[AggregationResult])
+
+    // schemas and factors
+    kryo.register(classOf[Factor[_]], new FactorSerializer)
+    kryo.register(classOf[Schema.Column])
+    kryo.register(classOf[Array[Schema.Column]])
+    kryo.register(classOf[Schema.ColumnType])
+    kryo.register(classOf[Schema.ColumnClass])
+    kryo.register(classOf[SqlTypedCell])
+
+    // ML
+    kryo.register(classOf[LabeledPoint], new LabeledPointSerializer)
+    kryo.register(classOf[Array[LabeledPoint]])
+    kryo.register(classOf[DenseVector], new DenseVectorSerializer)
+    kryo.register(classOf[SparseVector], new SparseVectorSerializer)
+    kryo.register(classOf[Rating])
+    kryo.register(classOf[NormalEquations])
+    kryo.register(classOf[NormalEquationModel])
+    kryo.register(classOf[TransformRow])
     kryo.register(classOf[ROCComputer])
     kryo.register(classOf[RocMetric])
+
+    // indexes, reshaping and time series
+    kryo.register(classOf[ZoneMap])
+    kryo.register(classOf[Array[ZoneMap]])
+    kryo.register(classOf[ColumnRange])
+    kryo.register(classOf[PartitionIndex.HashIndex])
+    kryo.register(classOf[PartitionIndex.SortedIndex])
+    kryo.register(classOf[Array[PartitionIndex]])
+    kryo.register(classOf[IndexSet.Partition])
+    kryo.register(classOf[Pivot.Cell])
+    kryo.register(classOf[Array[Pivot.Cell]])
+    kryo.register(classOf[SeriesScan.PartitionSummary])
+    kryo.register(classOf[SeriesScan.Carry])
+    kryo.register(classOf[ResampleScan.Bucket])
+    kryo.register(classOf[AsOfJoinScan.Last])
+
+    // R data.frames of partitions
     kryo.register(classOf[REXP])
     kryo.register(classOf[RList], new FieldSerializer(kryo, classOf[RList]))
-    //super.registerClasses(kryo)
+    kryo.register(classOf[Array[REXP]])
+    kryo.register(classOf[REXPGenericVector])
+    kryo.register(classOf[REXPList])
+    kryo.register(classOf[REXPDouble])
+    kryo.register(classOf[REXPInteger])
+    kryo.register(classOf[REXPLogical])
+    kryo.register(classOf[REXPFactor])
+    kryo.register(classOf[REXPString])
+    kryo.register(classOf[REXPNull])
+
+    // rows and shuffle buffers of Spark, some of which are not public
+    SPARK_CLASSES.foreach {
+      name =>
+        try {
+          kryo.register(Class.forName(name))
+        } catch {
+          case e: ClassNotFoundException => // not in this version of Spark
+        }
+    }
+  }
+}
+
+object KryoRegistrator {
+
+  val SPARK_CLASSES = Seq(
+    "org.apache.spark.sql.catalyst.expressions.GenericRow",
+    "org.apache.spark.sql.catalyst.expressions.GenericRowWithSchema",
+    "org.apache.spark.sql.catalyst.expressions.GenericMutableRow",
+    "org.apache.spark.sql.types.StructType",
+    "org.apache.spark.sql.types.StructField",
+    "[Lorg.apache.spark.sql.types.StructField;",
+    "org.apache.spark.util.collection.CompactBuffer",
+    "[Lorg.apache.spark.util.collection.CompactBuffer;",
+    "[Lscala.Tuple2;")
+
+  private def writeDoubles(output: Output, values: Array[Double], length: Int) {
+    var i = 0
+    while (i < length) {
+      output.writeDouble(values(i))
+      i += 1
+    }
+  }
+
+  private def readDoubles(input: Input, values: Array[Double]): Array[Double] = {
+    var i = 0
+    while (i < values.length) {
+      values(i) = input.readDouble()
+      i += 1
+    }
+    values
+  }
+
+  class VectorSerializer extends Serializer[Vector] {
+    override def write(kryo: Kryo, output: Output, vector: Vector) {
+      output.writeInt(vector.length, true)
+      writeDoubles(output, vector.data, vector.length)
+    }
+
+    override def read(kryo: Kryo, input: Input, cls: Class[Vector]): Vector = {
+      val vector = new Vector(input.readInt(true))
+      readDoubles(input, vector.data)
+      vector
+    }
+  }
+
+  class MatrixSerializer extends Serializer[Matrix] {
+    override def write(kryo: Kryo, output: Output, matrix: Matrix) {
+      output.writeInt(matrix.rows, true)
+      output.writeInt(matrix.columns, true)
+      writeDoubles(output, matrix.data, matrix.length)
+    }
+
+    override def read(kryo: Kryo, input: Input, cls: Class[Matrix]): Matrix = {
+      val matrix = new Matrix(input.readInt(true), input.readInt(true))
+      readDoubles(input, matrix.data)
+      matrix
+    }
+  }
+
+  class DoubleMatrixSerializer extends Serializer[DoubleMatrix] {
+    override def write(kryo: Kryo, output: Output, matrix: DoubleMatrix) {
+      output.writeInt(matrix.rows, true)
+      output.writeInt(matrix.columns, true)
+      writeDoubles(output, matrix.data, matrix.length)
+    }
+
+    override def read(kryo: Kryo, input: Input, cls: Class[DoubleMatrix]): DoubleMatrix = {
+      val matrix = new DoubleMatrix(input.readInt(true), input.readInt(true))
+      readDoubles(input, matrix.data)
+      matrix
+    }
+  }
+
+  class TupleMatrixVectorSerializer extends Serializer[TupleMatrixVector] {
+    override def write(kryo: Kryo, output: Output, tuple: TupleMatrixVector) {
+      kryo.writeObject(output, tuple.x)
+      kryo.writeObject(output, tuple.y)
+    }
+
+    override def read(kryo: Kryo, input: Input, cls: Class[TupleMatrixVector]): TupleMatrixVector = {
+      new TupleMatrixVector(kryo.readObject(input, classOf[Matrix]), kryo.readObject(input, classOf[Vector]))
+    }
+  }
+
+  /**
+   * Writes the non-zeros of each row, with the column indexes as deltas
+   */
+  class MatrixSparseSerializer extends Serializer[MatrixSparse] {
+    override def write(kryo: Kryo, output: Output, matrix: MatrixSparse) {
+      val crs = matrix.crs
+      output.writeInt(crs.numRows, true)
+      output.writeInt(crs.numColumns, true)
+      var r = 0
+      while (r < crs.numRows) {
+        val row = crs.getRow(r)
+        val used = row.getUsed
+        val index = row.getIndex
+        val data = row.getData
+        output.writeInt(used, true)
+        var i = 0
+        while (i < used) {
+          output.writeInt(if (i == 0) index(i) else index(i) - index(i - 1), true)
+          output.writeDouble(data(i))
+          i += 1
+        }
+        r += 1
+      }
+    }
+
+    override def read(kryo: Kryo, input: Input, cls: Class[MatrixSparse]): MatrixSparse = {
+      val numRows = input.readInt(true)
+      val numCols = input.readInt(true)
+      val matrix = new MatrixSparse(numRows, numCols)
+      var r = 0
+      while (r < numRows) {
+        val used = input.readInt(true)
+        val index = new Array[Int](used)
+        val data = new Array[Double](used)
+        var i = 0
+        while (i < used) {
+          index(i) = if (i == 0) input.readInt(true) else index(i - 1) + input.readInt(true)
+          data(i) = input.readDouble()
+          i += 1
+        }
+        matrix.crs.setRow(r, new MTJSparseVector(numCols, index, data, false))
+        r += 1
+      }
+      matrix
+    }
+  }
+
+  /**
+   * Writes only the counts of summaries without values, e.g. those of non-numeric columns
+   */
+  class SummarySerializer extends Serializer[Summary] {
+    override def write(kryo: Kryo, output: Output, summary: Summary) {
+      output.writeLong(summary.count, true)
+      output.writeLong(summary.NACount, true)
+      if (summary.count > 0) {
+        output.writeDouble(summary.mean)
+        output.writeDouble(summary.mSS)
+        output.writeDouble(summary.min)
+        output.writeDouble(summary.max)
+      }
+    }
+
+    override def read(kryo: Kryo, input: Input, cls: Class[Summary]): Summary = {
+      val count = input.readLong(true)
+      val naCount = input.readLong(true)
+      if (count > 0) {
+        new Summary(count, input.readDouble(), input.readDouble(), naCount, input.readDouble(), input.readDouble())
+      } else {
+        val summary = new Summary()
+        summary.setNACount(naCount)
+        summary
+      }
+    }
+  }
+
+  class FiveNumSummarySerializer extends Serializer[FiveNumSummary] {
+    override def write(kryo: Kryo, output: Output, summary: FiveNumSummary) {
+      output.writeDouble(summary.getMin)
+      output.writeDouble(summary.getMax)
+      output.writeDouble(summary.getFirstQuantile)
+      output.writeDouble(summary.getMedian)
+      output.writeDouble(summary.getThirdQuantile)
+    }
+
+    override def read(kryo: Kryo, input: Input, cls: Class[FiveNumSummary]): FiveNumSummary = {
+      new FiveNumSummary(input.readDouble(), input.readDouble(), input.readDouble(), input.readDouble(),
+        input.readDouble())
+    }
+  }
+
+  class HistogramBinSerializer extends Serializer[HistogramBin] {
+    override def write(kryo: Kryo, output: Output, bin: HistogramBin) {
+      output.writeDouble(bin.getX)
+      output.writeDouble(bin.getY)
+    }
+
+    override def read(kryo: Kryo, input: Input, cls: Class[HistogramBin]): HistogramBin = {
+      val bin = new HistogramBin
+      bin.setX(input.readDouble())
+      bin.setY(input.readDouble())
+      bin
+    }
+  }
+
+  /**
+   * Writes the column name, levels, codes, counts and order of a factor, but not its DDF, which is transient
+   */
+  class FactorSerializer extends Serializer[Factor[_]] {
+    override def write(kryo: Kryo, output: Output, factor: Factor[_]) {
+      output.writeString(factor.getDDFColumnName)
+      val levels = factor.getLevels
+      if (levels == null) {
+        output.writeInt(0, true)
+      } else {
+        output.writeInt(levels.size + 1, true)
+        val codes = factor.getLevelMap
+        levels.foreach {
+          level =>
+            output.writeString(level)
+            output.writeInt(codes.get(level), true)
+        }
+      }
+      val counts = factor.getLevelCounts
+      if (counts == null) {
+        output.writeInt(0, true)
+      } else {
+        output.writeInt(counts.size + 1, true)
+        counts.synchronized {
+          counts.foreach {
+            case (level, count) =>
+              output.writeString(level)
+              output.writeInt(count, true)
+          }
+        }
+      }
+      output.writeBoolean(factor.isOrdered)
+    }
+
+    override def read(kryo: Kryo, input: Input, cls: Class[Factor[_]]): Factor[_] = {
+      val factor = new Factor[Object](null.asInstanceOf[DDF], input.readString())
+      val numLevels = input.readInt(true) - 1
+      val levels = new JArrayList[String]()
+      val codes = new JArrayList[Integer]()
+      (0 until numLevels).foreach {
+        i =>
+          levels.add(input.readString())
+          codes.add(input.readInt(true))
+      }
+      val numCounts = input.readInt(true) - 1
+      if (numCounts >= 0) {
+        val counts = new JLinkedHashMap[String, Integer]()
+        (0 until numCounts).foreach(i => counts.put(input.readString(), input.readInt(true)))
+        factor.setLevelCounts(counts)
+      }
+      val ordered = input.readBoolean()
+      if (numLevels > 0) factor.setLevels(levels, codes, ordered) else factor.setOrdered(ordered)
+      factor
+    }
+  }
+
+  class DenseVectorSerializer extends Serializer[DenseVector] {
+    override def write(kryo: Kryo, output: Output, vector: DenseVector) {
+      output.writeInt(vector.size, true)
+      writeDoubles(output, vector.values, vector.size)
+    }
+
+    override def read(kryo: Kryo, input: Input, cls: Class[DenseVector]): DenseVector = {
+      new DenseVector(readDoubles(input, new Array[Double](input.readInt(true))))
+    }
+  }
+
+  class SparseVectorSerializer extends Serializer[SparseVector] {
+    override def write(kryo: Kryo, output: Output, vector: SparseVector) {
+      output.writeInt(vector.size, true)
+      output.writeInt(vector.indices.length, true)
+      var i = 0
+      while (i < vector.indices.length) {
+        output.writeInt(vector.indices(i), true)
+        output.writeDouble(vector.values(i))
+        i += 1
+      }
+    }
+
+    override def read(kryo: Kryo, input: Input, cls: Class[SparseVector]): SparseVector = {
+      val size = input.readInt(true)
+      val used = input.readInt(true)
+      val indices = new Array[Int](used)
+      val values = new Array[Double](used)
+      var i = 0
+      while (i < used) {
+        indices(i) = input.readInt(true)
+        values(i) = input.readDouble()
+        i += 1
+      }
+      new SparseVector(size, indices, values)
+    }
+  }
+
+  class LabeledPointSerializer extends Serializer[LabeledPoint] {
+    override def write(kryo: Kryo, output: Output, point: LabeledPoint) {
+      output.writeDouble(point.label)
+      kryo.writeClassAndObject(output, point.features)
+    }
+
+    override def read(kryo: Kryo, input: Input, cls: Class[LabeledPoint]): LabeledPoint = {
+      val label = input.readDouble()
+      LabeledPoint(label, kryo.readClassAndObject(input).asInstanceOf[MLVector])
+    }
   }
 }
@@ -1,53 +1,182 @@
 package io.ddf.spark.content
 
-import com.google.common.base.Strings
+import java.util.{List => JList, Map => JMap}
+
+import com.google.common.base.{Charsets, Strings}
 import io.basic.ddf.content.{PersistenceHandler => BPersistenceHandler}
 import io.ddf.DDF
 import io.ddf.content.Schema
 import io.ddf.content.APersistenceHandler.PersistenceUri
+import io.ddf.content.IHandleIndexing.IndexType
+import io.ddf.exception.DDFException
+import io.ddf.index.AIndexingHandler
+import io.ddf.misc.Config
+import io.ddf.misc.Config.ConfigConstant
 import io.ddf.util.Utils
 import io.ddf.util.Utils.JsonSerDes
-import org.apache.spark.sql.SchemaRDD
+import org.apache.spark.sql.{Column, DataFrame, Row}
+import org.apache.spark.sql.types.{DataType, StructType}
+import org.apache.spark.storage.StorageLevel
 import io.ddf.spark.SparkDDFManager
 import io.ddf.content.IHandlePersistence.IPersistible
 import scala.collection.JavaConversions._
-import org.apache.hadoop.fs.Path
+import org.apache.commons.io.IOUtils
+import org.apache.hadoop.fs.{FileSystem, Path}
 
 /**
+ * Persists DDFs as directories of parquet files described by a [[PersistenceManifest]].
+ *
+ * Each persist or append writes its rows into new directories under parts/v&lt;version&gt;, one per distinct value
+ * of the partition columns if any, and then commits a new manifest version. Existing data directories are never
+ * rewritten, so appending a few rows, renaming or moving a DDF only costs a manifest commit or a directory rename.
+ *
  * author: daoduchuan
  */
 
 class PersistenceHandler(ddf: DDF) extends BPersistenceHandler(ddf) {
 
+  private var mPartitionColumns: Seq[String] = Seq()
+
+  /**
+   * Sets the columns by which the next full persist() partitions the data files. Appends always use the
+   * partition columns of the persisted DDF.
+   */
+  def setPartitionColumns(columns: JList[String]): Unit = {
+    mPartitionColumns = if (columns == null) Seq() else columns.toList
+  }
+
+  def getPartitionColumns: JList[String] = mPartitionColumns
+
+  /**
+   * Writes a new snapshot of the DDF. With doOverwrite, the data files of the previous snapshot are deleted once the
+   * new manifest is committed.
+   */
   override def persist(doOverwrite: Boolean): PersistenceUri = {
-    val dataFile = this.getDataFileName()
-    val schemaFile = this.getSchemaFileName()
-    if(doOverwrite) {
-      mLog.info(">>>> overwriting")
-      if(Utils.fileExists(dataFile)) {
-        mLog.info(s">>> file $dataFile exists deleting")
-        Utils.deleteFile(dataFile)
-      }
-      if(Utils.fileExists(schemaFile)) {
-        mLog.info(s">>> file $schemaFile exists deleting")
-        Utils.deleteFile(schemaFile)
-      }
+    val folder = new Path(this.getFolderPath(getNamespace, ddf.getName, ""))
+    val fs = this.getFileSystem(folder)
+    val previous = PersistenceManifest.latest(fs, folder)
+    val legacyData = new Path(this.getDataFileName())
+
+    if (!doOverwrite && (previous.isDefined || fs.exists(legacyData))) {
+      throw new DDFException("DDF already exists in persistence storage, and overwrite option is false")
+    }
+
+    val dataFrame = this.getDataFrame(ddf)
+    val version = previous.map(_.version + 1).getOrElse(0L)
+    mLog.info(s">>>> persisting ${ddf.getName} as version $version, partitioned by ${mPartitionColumns.mkString(",")}")
+    val entries = this.writeVersion(folder, version, dataFrame, mPartitionColumns)
+
+    val manifest = new PersistenceManifest(ddf.getName, JsonSerDes.serialize(ddf.getSchema), dataFrame.schema.json,
+      mPartitionColumns, entries, version)
+    PersistenceManifest.commit(fs, folder, manifest)
+
+    this.writeIndexDefinitions(fs, folder)
+
+    // the previous snapshot is no longer referenced by any manifest
+    previous.foreach(_.entries.foreach(entry => fs.delete(new Path(folder, entry.path), true)))
+    if (fs.exists(legacyData)) fs.delete(legacyData, true)
+    val legacySchema = new Path(this.getSchemaFileName())
+    if (fs.exists(legacySchema)) fs.delete(legacySchema, true)
+
+    new PersistenceUri(ddf.getEngine, folder.toString)
+  }
+
+  /**
+   * Appends the rows of delta to the persisted copy of this DDF, writing only the new rows and committing a new
+   * manifest version. delta must have the same columns as the persisted DDF.
+   */
+  def append(delta: DDF): PersistenceUri = {
+    val folder = new Path(this.getFolderPath(getNamespace, ddf.getName, ""))
+    val fs = this.getFileSystem(folder)
+    val manifest = PersistenceManifest.latest(fs, folder).getOrElse {
+      throw new DDFException(s"${ddf.getName} has not been persisted yet, persist() it before appending")
+    }
+
+    val dataFrame = this.getDataFrame(delta)
+    val expected = DataType.fromJson(manifest.sparkSchema).asInstanceOf[StructType].fieldNames.toSeq
+    if (dataFrame.schema.fieldNames.toSeq != expected) {
+      throw new DDFException(s"Cannot append columns ${dataFrame.schema.fieldNames.mkString(",")} " +
+        s"to ${expected.mkString(",")}")
     }
 
-    // TODO
-    val folderPath = this.getFolderPath("adatao", ddf.getName, "")
-    Utils.writeToFile(schemaFile, JsonSerDes.serialize(this.getDDF.getSchema) + "\n")
-    val schemaRDD = ddf.getRepresentationHandler.get(classOf[SchemaRDD]).asInstanceOf[SchemaRDD]
-    schemaRDD.saveAsParquetFile(dataFile)
-    new PersistenceUri(ddf.getEngine, folderPath)
+    val version = manifest.version + 1
+    mLog.info(s">>>> appending to ${ddf.getName} as version $version")
+    val entries = this.writeVersion(folder, version, dataFrame, manifest.partitionColumns)
+    PersistenceManifest.commit(fs, folder, manifest.withEntries(manifest.entries ++ entries))
+
+    new PersistenceUri(ddf.getEngine, folder.toString)
+  }
+
+  private def writeVersion(folder: Path, version: Long, dataFrame: DataFrame,
+                           partitionColumns: Seq[String]): Seq[ManifestEntry] = {
+    if (partitionColumns.isEmpty) {
+      val path = s"parts/v$version"
+      dataFrame.saveAsParquetFile(new Path(folder, path).toString)
+      return Seq(ManifestEntry(path, Map(), version))
+    }
+
+    // one pass per partition value, so avoid recomputing the DDF each time
+    dataFrame.persist(StorageLevel.MEMORY_AND_DISK)
+    try {
+      val values = dataFrame.select(partitionColumns.map(dataFrame.col): _*).distinct.collect()
+      values.zipWithIndex.map {
+        case (value, k) =>
+          val condition: Column = partitionColumns.zipWithIndex.map {
+            case (column, i) => if (value.isNullAt(i)) dataFrame.col(column).isNull
+            else dataFrame.col(column) === value(i)
+          }.reduce(_ && _)
+          val path = s"parts/v$version/part-$k"
+          dataFrame.filter(condition).saveAsParquetFile(new Path(folder, path).toString)
+
+          val partition = partitionColumns.zipWithIndex.map {
+            case (column, i) => column -> (if (value.isNullAt(i)) null else value(i).toString)
+          }.toMap
+          ManifestEntry(path, partition, version)
+      }.toSeq
+    } finally {
+      dataFrame.unpersist()
+    }
+  }
+
+  override def unpersist(namespace: String, name: String): Unit = {
+    this.getDDF.beforeUnpersisting()
+    val folder = new Path(this.getFolderPath(namespace, name, ""))
+    this.getFileSystem(folder).delete(folder, true)
+    this.getDDF.afterUnpersisting()
+  }
+
+  /**
+   * Moves the DDF directory and commits a manifest with the new name, the data files are not rewritten
+   */
+  override def rename(fromNamespace: String, fromName: String, toNamespace: String, toName: String,
+                      doOverwrite: Boolean): Unit = {
+    val from = new Path(this.getFolderPath(fromNamespace, fromName, ""))
+    val to = new Path(this.getFolderPath(toNamespace, toName, ""))
+    val fs = this.getFileSystem(from)
+
+    val manifest = PersistenceManifest.latest(fs, from).getOrElse {
+      throw new DDFException(s"$fromNamespace/$fromName has not been persisted with a manifest")
+    }
+    if (fs.exists(to)) {
+      if (!doOverwrite) throw new DDFException(s"$toNamespace/$toName already exists, and overwrite option is false")
+      fs.delete(to, true)
+    }
+
+    if (!fs.rename(from, to)) throw new DDFException(s"Unable to rename $from to $to")
+    PersistenceManifest.commit(fs, to, manifest.withName(toName))
   }
 
   override def getDataFileName(): String = {
-    this.getFolderPath("adatao", ddf.getName, "data")
+    this.getFolderPath(getNamespace, ddf.getName, "data")
   }
 
   override def getSchemaFileName(): String = {
-    this.getFolderPath("adatao", ddf.getName, "schema")
+    this.getFolderPath(getNamespace, ddf.getName, "schema")
+  }
+
+  def getNamespace: String = {
+    val namespace = Config.getGlobalValue(ConfigConstant.FIELD_NAMESPACE)
+    if (Strings.isNullOrEmpty(namespace)) "adatao" else namespace
   }
 
   def getFolderPath(namespace: String, name: String, subfolder: String) = {
@@ -58,28 +187,118 @@ class PersistenceHandler(ddf: DDF) extends BPersistenceHandler(ddf) {
       s"$directory/$name"
     }
   }
+
   override def load(namespace: String, name: String): IPersistible = {
-    val schemaPath = this.getFolderPath(namespace, name, "schema")
-    val dataPath = this.getFolderPath(namespace, name, "data")
+    this.load(namespace, name, null, null)
+  }
+
+  /**
+   * Loads a persisted DDF, reading only the data files of the matching partitions, and only the given columns
+   *
+   * @param partitionFilter required values of partition columns, or null for all partitions
+   * @param columns columns to load, or null for all columns
+   */
+  def load(namespace: String, name: String, partitionFilter: JMap[String, String], columns: JList[String]): DDF = {
+    val folder = new Path(this.getFolderPath(namespace, name, ""))
     val manager = this.getManager
     val ctx = manager.asInstanceOf[SparkDDFManager].getHiveContext
-    val schemaRDD = ctx.parquetFile(dataPath)
-    val schema = JsonSerDes.loadFromFile(schemaPath).asInstanceOf[Schema]
 
-    val ddf = manager.newDDF(manager, schemaRDD, Array(classOf[SchemaRDD]),null, schema)
-    ddf
+    val (dataFrame, schema) = PersistenceManifest.latest(this.getFileSystem(folder), folder) match {
+      case Some(manifest) =>
+        val filter = if (partitionFilter == null) Map[String, String]() else partitionFilter.toMap
+        val paths = manifest.prune(filter).map(entry => new Path(folder, entry.path).toString)
+        val dataFrame = if (paths.isEmpty) {
+          val sparkSchema = DataType.fromJson(manifest.sparkSchema).asInstanceOf[StructType]
+          ctx.createDataFrame(manager.asInstanceOf[SparkDDFManager].getSparkContext.emptyRDD[Row], sparkSchema)
+        } else {
+          ctx.parquetFile(paths: _*)
+        }
+        (dataFrame, JsonSerDes.deserialize(manifest.schema).asInstanceOf[Schema])
+
+      case None =>
+        // DDFs persisted before manifests were introduced
+        if (partitionFilter != null && !partitionFilter.isEmpty) {
+          throw new DDFException(s"$namespace/$name is not partitioned")
+        }
+        val schemaPath = this.getFolderPath(namespace, name, "schema")
+        val dataPath = this.getFolderPath(namespace, name, "data")
+        (ctx.parquetFile(dataPath), JsonSerDes.loadFromFile(schemaPath).asInstanceOf[Schema])
+    }
+
+    val loaded = if (columns == null || columns.isEmpty) {
+      manager.newDDF(manager, dataFrame, Array(classOf[DataFrame]), null, schema)
+    } else {
+      val projected = dataFrame.select(columns.map(dataFrame.col): _*)
+      val projectedSchema = new Schema(null, seqAsJavaList(columns.map(column => schema.getColumn(column))))
+      manager.newDDF(manager, projected, Array(classOf[DataFrame]), null, projectedSchema)
+    }
+    this.readIndexDefinitions(this.getFileSystem(folder), folder, loaded)
+    loaded
+  }
+
+  /**
+   * Writes which columns of the DDF are indexed, as "column TYPE" lines. Row positions depend on how the rows are
+   * partitioned when loaded, so the indexes themselves are rebuilt over the loaded DDF when first used.
+   */
+  private def writeIndexDefinitions(fs: FileSystem, folder: Path): Unit = {
+    val path = new Path(folder, PersistenceHandler.INDEX_DEFINITIONS)
+    val definitions = try {
+      ddf.getIndexingHandler.getIndexes.toMap
+    } catch {
+      case e: UnsupportedOperationException => Map[String, IndexType]()
+    }
+
+    if (definitions.isEmpty) {
+      if (fs.exists(path)) fs.delete(path, false)
+    } else {
+      val out = fs.create(path, true)
+      try {
+        val lines = definitions.map { case (column, indexType) => s"$column $indexType\n" }
+        out.write(lines.mkString.getBytes(Charsets.UTF_8))
+      } finally {
+        out.close()
+      }
+    }
+  }
+
+  private def readIndexDefinitions(fs: FileSystem, folder: Path, loaded: DDF): Unit = {
+    val path = new Path(folder, PersistenceHandler.INDEX_DEFINITIONS)
+    try {
+      if (!fs.exists(path)) return
+      val in = fs.open(path)
+      val lines = try IOUtils.readLines(in, "UTF-8") finally in.close()
+      val definitions = lines.map(_.trim).filter(_.nonEmpty).map(_.split(" ")).collect {
+        case Array(column, indexType) if loaded.getColumn(column) != null => column -> IndexType.valueOf(indexType)
+      }.toMap
+      loaded.getIndexingHandler match {
+        case handler: AIndexingHandler if definitions.nonEmpty => handler.setDefinitions(definitions)
+        case _ =>
+      }
+    } catch {
+      case e: Exception => mLog.warn(s"Unable to read the index definitions of ${loaded.getName} from $path", e)
+    }
   }
 
   def listPersistedDDFUris(): List[String] = {
-    val persistenceDirectory = this.locateOrCreatePersistenceSubdirectory("adatao")
+    val persistenceDirectory = this.locateOrCreatePersistenceSubdirectory(getNamespace)
     val listDDFs = Utils.listHDFSSubDirectory(persistenceDirectory).map{
       directory => new Path(directory).getName
     }
     listDDFs.map {
       ddfName => {
-        val folderPath = this.getFolderPath("adatao", ddfName, "")
+        val folderPath = this.getFolderPath(getNamespace, ddfName, "")
         new PersistenceUri(ddf.getEngine, folderPath).toString
       }
     }.toList
   }
+
+  private def getFileSystem(path: Path): FileSystem = path.getFileSystem(Utils.getConfiguration)
+
+  private def getDataFrame(theDDF: DDF): DataFrame = {
+    theDDF.getRepresentationHandler.get(classOf[DataFrame]).asInstanceOf[DataFrame]
+  }
+}
+
+object PersistenceHandler {
+  val INDEX_DEFINITIONS = "indexes"
 }
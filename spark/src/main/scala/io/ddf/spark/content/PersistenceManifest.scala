@@ -0,0 +1,145 @@
+package io.ddf.spark.content
+
+import com.google.common.base.Charsets
+import com.google.gson.{JsonArray, JsonNull, JsonObject, JsonParser, JsonPrimitive}
+import io.ddf.exception.DDFException
+import org.apache.commons.io.IOUtils
+import org.apache.hadoop.fs.{FileSystem, Path}
+
+import scala.collection.JavaConversions._
+
+/**
+ * One directory of parquet files of a persisted DDF, relative to the DDF's directory,
+ * together with the values of the partition columns shared by all of its rows.
+ */
+case class ManifestEntry(path: String, partition: Map[String, String], version: Long)
+
+/**
+ * Describes which parquet directories make up a persisted DDF. Data directories are never rewritten: persisting
+ * writes new directories and commits a new version of the manifest, so that appends, renames and partition pruning
+ * only involve the manifest.
+ *
+ * @param schema the DDF schema, serialized by JsonSerDes
+ * @param sparkSchema the Spark SQL schema of the parquet files, used to load a DDF that has no rows
+ */
+class PersistenceManifest(val name: String,
+                          val schema: String,
+                          val sparkSchema: String,
+                          val partitionColumns: Seq[String],
+                          val entries: Seq[ManifestEntry],
+                          val version: Long) {
+
+  def withName(newName: String): PersistenceManifest =
+    new PersistenceManifest(newName, schema, sparkSchema, partitionColumns, entries, version + 1)
+
+  def withEntries(newEntries: Seq[ManifestEntry]): PersistenceManifest =
+    new PersistenceManifest(name, schema, sparkSchema, partitionColumns, newEntries, version + 1)
+
+  /**
+   * @param partitionFilter required values of some of the partition columns, null values match null partitions
+   */
+  def prune(partitionFilter: Map[String, String]): Seq[ManifestEntry] = {
+    partitionFilter.keys.find(!partitionColumns.contains(_)).foreach {
+      column => throw new DDFException(s"$column is not a partition column of $name")
+    }
+    entries.filter {
+      entry => partitionFilter.forall { case (column, value) => entry.partition.get(column) == Some(value) }
+    }
+  }
+
+  def toJson: String = {
+    val json = new JsonObject()
+    json.addProperty("name", name)
+    json.addProperty("schema", schema)
+    json.addProperty("sparkSchema", sparkSchema)
+    json.addProperty("version", version)
+
+    val columns = new JsonArray()
+    partitionColumns.foreach(column => columns.add(new JsonPrimitive(column)))
+    json.add("partitionColumns", columns)
+
+    val files = new JsonArray()
+    entries.foreach {
+      entry =>
+        val file = new JsonObject()
+        file.addProperty("path", entry.path)
+        file.addProperty("version", entry.version)
+        val partition = new JsonObject()
+        entry.partition.foreach {
+          case (column, value) => if (value == null) partition.add(column, JsonNull.INSTANCE)
+          else partition.addProperty(column, value)
+        }
+        file.add("partition", partition)
+        files.add(file)
+    }
+    json.add("entries", files)
+    json.toString
+  }
+}
+
+object PersistenceManifest {
+
+  val PREFIX = "_manifest-"
+
+  def fromJson(jsonString: String): PersistenceManifest = {
+    val json = new JsonParser().parse(jsonString).getAsJsonObject
+    val partitionColumns = json.getAsJsonArray("partitionColumns").map(_.getAsString).toList
+    val entries = json.getAsJsonArray("entries").map {
+      element =>
+        val file = element.getAsJsonObject
+        val partition = file.getAsJsonObject("partition").entrySet().map {
+          e => e.getKey -> (if (e.getValue.isJsonNull) null else e.getValue.getAsString)
+        }.toMap
+        ManifestEntry(file.get("path").getAsString, partition, file.get("version").getAsLong)
+    }.toList
+    new PersistenceManifest(json.get("name").getAsString, json.get("schema").getAsString,
+      json.get("sparkSchema").getAsString, partitionColumns, entries, json.get("version").getAsLong)
+  }
+
+  /**
+   * @return the latest committed manifest in the DDF directory, if any
+   */
+  def latest(fs: FileSystem, directory: Path): Option[PersistenceManifest] = {
+    if (!fs.exists(directory)) return None
+
+    val versions = fs.listStatus(directory).map(_.getPath.getName).filter(_.startsWith(PREFIX))
+      .flatMap(name => scala.util.Try(name.stripPrefix(PREFIX).toLong).toOption)
+    if (versions.isEmpty) return None
+
+    val in = fs.open(new Path(directory, PREFIX + versions.max))
+    try {
+      Some(fromJson(IOUtils.toString(in, "utf-8")))
+    } finally {
+      in.close()
+    }
+  }
+
+  /**
+   * Writes the manifest as a new version file, then removes the older versions. A manifest only becomes visible
+   * when its file is renamed into place, which is atomic on HDFS and local file systems, so readers see either the
+   * previous or the new version.
+   */
+  def commit(fs: FileSystem, directory: Path, manifest: PersistenceManifest): Unit = {
+    val target = new Path(directory, PREFIX + manifest.version)
+    if (fs.exists(target)) {
+      throw new DDFException(s"Manifest version ${manifest.version} of ${manifest.name} already exists, " +
+        "the DDF was persisted concurrently")
+    }
+
+    val tmp = new Path(directory, "." + PREFIX + manifest.version + ".tmp")
+    val out = fs.create(tmp, true)
+    try {
+      out.write(manifest.toJson.getBytes(Charsets.UTF_8))
+    } finally {
+      out.close()
+    }
+    if (!fs.rename(tmp, target)) {
+      fs.delete(tmp, false)
+      throw new DDFException(s"Unable to commit manifest $target")
+    }
+
+    fs.listStatus(directory).map(_.getPath).filter {
+      path => path.getName.startsWith(PREFIX) && path.getName != target.getName
+    }.foreach(fs.delete(_, false))
+  }
+}
@@ -1,86 +1,60 @@
 package io.ddf.spark.content
 
 import io.ddf.DDF
-import io.ddf.content.{Representation, ConvertFunction}
+import io.ddf.content.{Representation, ConvertFunction, RColumn}
+import io.ddf.content.RColumn.RType
 import org.apache.spark.rdd.RDD
-import io.ddf.spark.{SparkDDFManager, SparkDDF}
 import org.apache.spark.sql.Row
-import io.ddf.content.Schema.{ColumnType, Column}
-import org.apache.spark.sql.types.StructField
+import io.ddf.content.Schema.ColumnType
 import scala.collection.JavaConversions._
-import scala.collection.mutable.ArrayBuffer
 import org.rosuda.REngine._
 
 /**
- * // TODO review. What is this for?
-  */
+ * Converts the rows of each partition into an R data.frame, by filling an {@link RColumn} per column, a primitive
+ * array with the NA sentinels of R, straight from the typed getters of the Rows, see {@link RColumn} for the types.
+ */
 class RDDROW2REXP(@transient ddf: DDF) extends ConvertFunction(ddf) {
 
   override def apply(representation: Representation): Representation = {
-    val columnList = ddf.getSchemaHandler.getColumns
+    // the levels of factor columns are read on the driver, the columns are filled on the executors
+    val columns: Array[(String, ColumnType, Array[String])] = ddf.getSchemaHandler.getColumns.map {
+      col =>
+        val factor = col.getOptionalFactor
+        val levels = if (factor == null || factor.getLevels == null) null else factor.getLevels.toArray(Array[String]())
+        (col.getName, col.getType, levels)
+    }.toArray
 
     representation.getValue match {
       case rdd: RDD[Row] => {
         val rddREXP = rdd.mapPartitions {
           iterator => {
-            val arrayBufferColumns: List[ArrayBuffer[_]] = columnList.map {
-              col => col.getType match {
-                case ColumnType.INT => new ArrayBuffer[Int]
-                case ColumnType.DOUBLE => new ArrayBuffer[Double]
-                case ColumnType.STRING => new ArrayBuffer[String]
-              }
-            }.toList
+            val rColumns = columns.map {
+              case (name, colType, levels) =>
+                new RColumn(name, colType, if (levels == null) null else java.util.Arrays.asList(levels: _*))
+            }
+            val getters = columns.map(_._2)
 
             while (iterator.hasNext) {
               val row = iterator.next()
               var i = 0
-              while (i < row.size) {
-                columnList(i).getType match {
-                  case ColumnType.INT => {
-                    val buffer = arrayBufferColumns(i).asInstanceOf[ArrayBuffer[Int]]
-                    if (row.isNullAt(i)) {
-                      buffer += REXPInteger.NA
-                    } else {
-                      buffer += row.getInt(i)
-                    }
-                  }
-                  case ColumnType.DOUBLE => {
-                    val buffer = arrayBufferColumns(i).asInstanceOf[ArrayBuffer[Double]]
-                    if (row.isNullAt(i)) {
-                      buffer += REXPDouble.NA
-                    } else {
-                      buffer += row.getDouble(i)
-                    }
-                  }
-                  case ColumnType.STRING => {
-                    val buffer = arrayBufferColumns(i).asInstanceOf[ArrayBuffer[String]]
-                    if (row.isNullAt(i)) {
-                      buffer += null
-                    } else {
-                      buffer += row.getString(i)
-                    }
-                  }
+              while (i < rColumns.length) {
+                val rColumn = rColumns(i)
+                if (row.isNullAt(i)) {
+                  rColumn.addNA()
+                } else if (rColumn.getType == RType.FACTOR) {
+                  rColumn.add(row.get(i).asInstanceOf[AnyRef])
+                } else getters(i) match {
+                  case ColumnType.INT => rColumn.addInt(row.getInt(i))
+                  case ColumnType.DOUBLE => rColumn.addDouble(row.getDouble(i))
+                  case ColumnType.BOOLEAN => rColumn.addBoolean(row.getBoolean(i))
+                  case _ => rColumn.add(row.get(i).asInstanceOf[AnyRef])
                 }
                 i += 1
               }
             }
-            val rVectors = columnList zip arrayBufferColumns map {
-              case (col, buffer) => col.getType match {
-                case ColumnType.INT => {
-                  new REXPInteger(buffer.asInstanceOf[ArrayBuffer[Int]].toArray).asInstanceOf[REXP]
-                }
-                case ColumnType.DOUBLE => {
-                  new REXPDouble(buffer.asInstanceOf[ArrayBuffer[Double]].toArray).asInstanceOf[REXP]
-                }
-                case ColumnType.STRING => {
-                  new REXPString(buffer.asInstanceOf[ArrayBuffer[String]].toArray).asInstanceOf[REXP]
-                }
-              }
-            }
-            val dfList = new RList(rVectors, columnList.map {
-              col => col.getName
-            })
-            Iterator(REXP.createDataFrame(dfList))
+
+            val rVectors: Array[REXP] = rColumns.map(RDDROW2REXP.toREXP)
+            Iterator(REXP.createDataFrame(new RList(rVectors, rColumns.map(_.getName))))
           }
         }
 
@@ -89,3 +63,21 @@ class RDDROW2REXP(@transient ddf: DDF) extends ConvertFunction(ddf) {
     }
   }
 }
+
+object RDDROW2REXP {
+
+  def toREXP(column: RColumn): REXP = column.getType match {
+    case RType.INTEGER => new REXPInteger(column.getInts)
+    case RType.NUMERIC => new REXPDouble(column.getDoubles)
+    case RType.LOGICAL =>
+      new REXPLogical(column.getInts.map(v => if (v == RColumn.NA_INTEGER) REXPLogical.NA else v.toByte))
+    case RType.FACTOR => new REXPFactor(column.getInts, column.getLevels)
+    case RType.DATE => new REXPDouble(column.getDoubles, classAttribute("Date"))
+    case RType.POSIXCT => new REXPDouble(column.getDoubles, classAttribute("POSIXct", "POSIXt"))
+    case _ => new REXPString(column.getStrings)
+  }
+
+  private def classAttribute(classes: String*): REXPList = {
+    new REXPList(new RList(Array[REXP](new REXPString(classes.toArray)), Array("class")))
+  }
+}
@@ -1,18 +1,29 @@
 package io.ddf.spark.content
 
+import java.util.TimeZone
+
 import io.ddf.DDF
 import io.ddf.content.{Representation, ConvertFunction}
+import io.ddf.content.Schema.ColumnType
+import io.ddf.datasource.DelimitedLineParser
+import io.ddf.exception.DDFException
 import org.apache.spark.rdd.RDD
-import org.rosuda.REngine.{REXPString, REXPInteger, REXPDouble, REXP}
+import org.rosuda.REngine.{REXPFactor, REXPLogical, REXPString, REXPInteger, REXPDouble, REXP}
 
 /**
+ * Converts R data.frames back into rows of the types of the schema, see
+ * [[io.ddf.spark.etl.TransformationHandler.RDataFrameToColumnList]]: factors hold the labels of their levels, Dates
+ * the days and POSIXct the seconds since the epoch.
  */
 class REXP2ArrayObject(@transient ddf: DDF) extends ConvertFunction(ddf) {
 
   override def apply(representation: Representation): Representation = {
+    val types: Array[ColumnType] = if (ddf.getSchema == null) null
+    else ddf.getSchemaHandler.getColumns.toArray(Array[io.ddf.content.Schema.Column]()).map(_.getType)
+
     val rddArrObj = representation.getValue match {
       case rdd: RDD[REXP] => {
-        val rddArr = REXP2ArrayObject.RDataFrameToArrayObject(rdd)
+        val rddArr = REXP2ArrayObject.RDataFrameToArrayObject(rdd, types)
         rddArr
       }
     }
@@ -21,10 +32,14 @@ class REXP2ArrayObject(@transient ddf: DDF) extends ConvertFunction(ddf) {
 }
 
 object REXP2ArrayObject {
+  private val MILLIS_PER_DAY = 24L * 60 * 60 * 1000
+
   /**
    * Convert a RDD of R data.frames into a RDD of Object[]
+   *
+   * @param types the column types to convert factor labels and dated doubles to, or null to keep labels and doubles
    */
-  def RDataFrameToArrayObject(rdd: RDD[REXP]): RDD[Array[Object]] = {
+  def RDataFrameToArrayObject(rdd: RDD[REXP], types: Array[ColumnType] = null): RDD[Array[Object]] = {
 
     val rddarrobj = rdd.flatMap {
       partdf ⇒
@@ -44,6 +59,7 @@ object REXP2ArrayObject {
         (0 until dflist.size()).foreach {
           j ⇒
             val rcolvec = dflist.at(j)
+            val colType = if (types == null || j >= types.length) null else types(j)
             dflist.at(j) match {
               case v: REXPDouble ⇒ {
                 val data = rcolvec.asDoubles() // no allocation
@@ -51,8 +67,26 @@ object REXP2ArrayObject {
                 while (i < partitionSize) {
                   if (REXPDouble.isNA(data(i)))
                     jdata(i)(j) = null
-                  else
-                    jdata(i)(j) = data(i).asInstanceOf[Object]
+                  else colType match {
+                    case ColumnType.DATE ⇒ jdata(i)(j) = toDate(data(i))
+                    case ColumnType.TIMESTAMP ⇒ jdata(i)(j) = new java.sql.Timestamp(math.round(data(i) * 1000))
+                    case _ ⇒ jdata(i)(j) = data(i).asInstanceOf[Object]
+                  }
+                  i += 1
+                }
+              }
+              case v: REXPFactor ⇒ {
+                val data = v.asFactor().asStrings() // the levels of the codes, null for NA
+                var i = 0 // row idx
+                while (i < partitionSize) {
+                  jdata(i)(j) = if (colType == null || colType == ColumnType.STRING) data(i) else {
+                    try {
+                      DelimitedLineParser.convert(data(i), colType)
+                    } catch {
+                      case e: IllegalArgumentException ⇒ throw new DDFException(
+                        String.format("Level %s of factor column %d is not a %s", data(i), Int.box(j), colType), e)
+                    }
+                  }
                   i += 1
                 }
               }
@@ -75,7 +109,18 @@ object REXP2ArrayObject {
                   i += 1
                 }
               }
-              // TODO: case REXPLogical
+              case v: REXPLogical ⇒ {
+                val na = v.isNA
+                val data = v.isTRUE
+                var i = 0 // row idx
+                while (i < partitionSize) {
+                  if (na(i))
+                    jdata(i)(j) = null
+                  else
+                    jdata(i)(j) = data(i).asInstanceOf[Object]
+                  i += 1
+                }
+              }
             }
         }
 
@@ -84,4 +129,12 @@ object REXP2ArrayObject {
 
     rddarrobj
   }
+
+  /**
+   * @return the local calendar date of the days since the epoch of an R Date
+   */
+  private def toDate(days: Double): java.sql.Date = {
+    val millis = math.round(days) * MILLIS_PER_DAY
+    new java.sql.Date(millis - TimeZone.getDefault.getOffset(millis))
+  }
 }
@@ -63,6 +63,14 @@ class RepresentationHandler(mDDF: DDF) extends RH(mDDF) {
    */
   def add[T](data: RDD[T])(implicit m: Manifest[T]): Unit = this.add(data, classOf[RDD[_]], m.erasure)
 
+  // RDDs derived from our DDF and persisted on its behalf, e.g. ML training inputs, unpersisted with its representations
+  private val mPersistedRDDs = new java.util.concurrent.ConcurrentHashMap[Int, RDD[_]]()
+
+  /**
+   * Keeps an RDD derived from our {@link DDF} persisted until the DDF is uncached
+   */
+  def addPersisted(rdd: RDD[_]): Unit = mPersistedRDDs.put(rdd.id, rdd)
+
   private def forAllReps[T](f: RDD[_] ⇒ Any) {
     mReps.foreach {
       kv ⇒ if (kv._2 != null) {
@@ -107,7 +115,14 @@ class RepresentationHandler(mDDF: DDF) extends RH(mDDF) {
           rdd.unpersist(false)
         }
     })
-    
+
+    mPersistedRDDs.values.foreach {
+      rdd ⇒
+        mLog.info(this.getClass() + ": Unpersisting " + rdd.toString())
+        rdd.unpersist(false)
+    }
+    mPersistedRDDs.clear()
+
     val dataFrame = this.get(classOf[DataFrame]).asInstanceOf[DataFrame]
     if (dataFrame != null) {
       dataFrame.unpersist()
@@ -5,9 +5,13 @@ package io.ddf.spark.content
 
 import io.ddf.DDF
 import io.ddf.content.IHandleViews
+import io.ddf.content.ViewHandler.{Column => ViewColumn, Expression, Operator}
+import io.ddf.exception.DDFException
 import scala.collection.JavaConverters._
 import io.ddf.content.Schema
 import io.ddf.spark.{SparkDDFManager, SparkDDF}
+import io.ddf.spark.datasource.ScanSpec
+import io.ddf.spark.util.SparkUtils
 import org.apache.spark.sql.{DataFrame, Row}
 import org.apache.spark.rdd.RDD
 
@@ -93,9 +97,85 @@ class ViewHandler(mDDF: DDF) extends io.ddf.content.ViewHandler(mDDF) with IHand
       sampleDDF
     }
   }
+
+  /**
+   * Fetches the rows to the driver one partition at a time, as they are iterated
+   */
+  override def getRowIterator(numRows: Int): java.util.Iterator[Array[Object]] = {
+    val df = mDDF.getRepresentationHandler.get(classOf[DataFrame]).asInstanceOf[DataFrame]
+    val rows = if (numRows < 0) df.rdd else df.limit(numRows).rdd
+    rows.toLocalIterator.map(row => row.toSeq.map(_.asInstanceOf[Object]).toArray).asJava
+  }
+
+  /**
+   * Projects a DDF loaded from JSON or Parquet by narrowing its pending scan, so that only the projected columns are
+   * read, instead of querying the whole source.
+   */
+  override def project(columnNames: java.util.List[String]): DDF = {
+    val scan = this.pendingScan
+    if (scan == null || columnNames == null || columnNames.isEmpty || !this.areColumns(columnNames.asScala)) {
+      super.project(columnNames)
+    } else {
+      this.newScanDDF(scan.project(columnNames.asScala.map(_.trim).asJava))
+    }
+  }
+
+  override def project(columnNames: String*): DDF = {
+    if (columnNames == null || columnNames.isEmpty) super.project(columnNames: _*)
+    else this.project(columnNames.asJava)
+  }
+
+  /**
+   * Pushes the filter of a subset of a DDF loaded from JSON or Parquet into its pending scan, see {@link #project}
+   */
+  override protected def _subset(columnExpr: java.util.List[ViewColumn], filter: Expression): DDF = {
+    val scan = this.pendingScan
+    if (scan == null) return super._subset(columnExpr, filter)
+
+    this.updateVectorName(filter, mDDF)
+    val columnNames = columnExpr.asScala.map {
+      column =>
+        this.updateVectorName(column, mDDF)
+        column.getName
+    }
+    val filterColumns = ViewHandler.referencedColumns(filter)
+    if (!this.areColumns(columnNames) || !this.areColumns(filterColumns)) return super._subset(columnExpr, filter)
+
+    val filtered = if (filter == null) scan else scan.filter(filter.toSql, filterColumns.asJava)
+    this.newScanDDF(filtered.project(columnNames.asJava))
+  }
+
+  private def pendingScan: ScanSpec = mDDF match {
+    case sparkDDF: SparkDDF => sparkDDF.getPendingScan
+    case _ => null
+  }
+
+  private def areColumns(names: Seq[String]): Boolean = {
+    val columnNames = mDDF.getColumnNames.asScala.map(_.toLowerCase).toSet
+    names.forall(name => name != null && columnNames.contains(name.trim.toLowerCase))
+  }
+
+  private def newScanDDF(scan: ScanSpec): DDF = {
+    val manager = this.getManager
+    val df = try {
+      scan.load(manager.asInstanceOf[SparkDDFManager].getHiveContext)
+    } catch {
+      case e: Exception => throw new DDFException(s"Unable to load $scan", e)
+    }
+    mLog.info(">>>> pending " + scan)
+    val ddf = manager.newDDF(manager, df, Array(classOf[DataFrame]), null, SparkUtils.schemaFromDataFrame(df))
+    ddf.asInstanceOf[SparkDDF].setPendingScan(scan, df)
+    ddf
+  }
 }
 
 object ViewHandler {
+  def referencedColumns(expression: Expression): Seq[String] = expression match {
+    case column: ViewColumn => Seq(column.getName)
+    case operator: Operator => operator.getOperands.toSeq.flatMap(referencedColumns)
+    case _ => Seq()
+  }
+
   def getDefault(cols: Array[Int], theDDF: DDF): DDF = {
 
     null
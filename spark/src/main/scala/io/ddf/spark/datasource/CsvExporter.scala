@@ -0,0 +1,59 @@
+package io.ddf.spark.datasource
+
+import io.ddf.DDF
+import io.ddf.datasource.CsvExportFormat
+import io.ddf.exception.DDFException
+import io.ddf.util.Utils
+import org.apache.hadoop.fs.{FileUtil, Path}
+import org.apache.hadoop.io.compress.CompressionCodec
+import org.apache.spark.sql.DataFrame
+
+import scala.collection.JavaConversions._
+
+/**
+ * Writes a DDF as delimited text from the workers, one part file per partition, without collecting it to the driver.
+ *
+ * With merge, the part files are written next to fileURL and then concatenated into fileURL. Part files are
+ * compressed independently; concatenated gzip or snappy streams remain readable as a single file by Hadoop and gzip.
+ */
+object CsvExporter {
+
+  def export(ddf: DDF, fileURL: String, format: CsvExportFormat): Unit = {
+    format.validate()
+    val dataFrame = ddf.getRepresentationHandler.get(classOf[DataFrame]).asInstanceOf[DataFrame]
+    if (dataFrame == null) throw new DDFException(s"Cannot get the DataFrame of ${ddf.getName}")
+
+    val header = if (format.getHasHeader) Some(format.formatHeader(ddf.getColumnNames)) else None
+    val merge = format.getMerge
+    val lines = dataFrame.rdd.mapPartitionsWithIndex {
+      (index, rows) =>
+        val formatted = rows.map(row => format.formatRow(row.toSeq.map(_.asInstanceOf[AnyRef]).toArray))
+        // when merging, only the first part file keeps the header
+        header match {
+          case Some(h) if !merge || index == 0 => Iterator(h) ++ formatted
+          case _ => formatted
+        }
+    }
+
+    val conf = Utils.getConfiguration
+    val target = new Path(fileURL)
+    val fs = target.getFileSystem(conf)
+    val output = if (merge) new Path(fileURL + ".parts") else target
+    if (fs.exists(output)) fs.delete(output, true)
+
+    val codec = Option(format.getCompression.getCodecClassName)
+    codec match {
+      case Some(codecClassName) =>
+        lines.saveAsTextFile(output.toString, Class.forName(codecClassName).asSubclass(classOf[CompressionCodec]))
+      case None => lines.saveAsTextFile(output.toString)
+    }
+
+    if (merge) {
+      if (fs.exists(target)) fs.delete(target, true)
+      // the _SUCCESS marker is empty, so merging it is harmless; copyMerge deletes the parts directory
+      if (!FileUtil.copyMerge(fs, output, fs, target, true, conf, null)) {
+        throw new DDFException(s"Unable to merge the part files of $output into $fileURL")
+      }
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package io.ddf.spark.datasource
+
+import java.util.{List => JList}
+
+import com.google.common.base.Strings
+import io.ddf.content.Schema
+import io.ddf.content.Schema.ColumnType
+import io.ddf.datasource.{DelimitedLineParser, TextFileFormat}
+import io.ddf.exception.DDFException
+import org.apache.spark.Accumulator
+import org.apache.spark.rdd.RDD
+import org.apache.spark.sql.types._
+import org.apache.spark.sql.{DataFrame, Row, SQLContext}
+import org.slf4j.LoggerFactory
+
+import scala.collection.JavaConversions._
+import scala.collection.mutable.ArrayBuffer
+import scala.util.Random
+
+/**
+ * The result of loading a delimited file.
+ *
+ * @param malformedRows lines dropped because of a wrong number of fields or a value that does not convert to the
+ *                      type of its column. Exact after load when quarantining, otherwise counted as the DataFrame is
+ *                      computed.
+ */
+class DelimitedFileLoad(val dataFrame: DataFrame, val malformedRows: Accumulator[Long])
+
+/**
+ * Parses delimited text files directly into typed Rows on the workers with a [[DelimitedLineParser]], without going
+ * through a Hive table and SerDe.
+ *
+ * Column types are either taken from the given schema or inferred from a reservoir sample of every partition: each
+ * partition infers the narrowest type that fits its sampled values, and the per-partition types are widened into one.
+ */
+object DelimitedFileReader {
+
+  private val mLog = LoggerFactory.getLogger(this.getClass)
+
+  def load(sqlContext: SQLContext, path: String, format: TextFileFormat, columns: JList[Schema.Column],
+           sampleSize: Int): DelimitedFileLoad = {
+    this.load(sqlContext, sqlContext.sparkContext.textFile(path), path, format, columns, sampleSize)
+  }
+
+  /**
+   * @param lines the lines of the files at path
+   */
+  def load(sqlContext: SQLContext, lines: RDD[String], path: String, format: TextFileFormat,
+           columns: JList[Schema.Column], sampleSize: Int): DelimitedFileLoad = {
+    val quarantinePath = format.getQuarantinePath
+    val parser = new DelimitedLineParser(format)
+
+    // the first line of the first object, which ObjectStoreReadPlanner and textFile both put first in partition 0
+    val first = lines.take(1).headOption.getOrElse(throw new DDFException(s"$path is empty"))
+    val firstFields = parser.split(first)
+    // files of a directory each start with the header, so drop every copy of it rather than the first line only
+    val header = if (format.getHasHeader) Some(first) else None
+    val dataLines = header match {
+      case Some(h) => lines.filter(_ != h)
+      case None => lines
+    }
+
+    val (names, types) = if (columns != null && !columns.isEmpty) {
+      (columns.map(_.getName).toArray, columns.map(_.getType).toArray)
+    } else {
+      val names = if (format.getHasHeader) firstFields.map(_.trim)
+      else (1 to firstFields.length).map("V" + _).toArray
+      val types = this.inferTypes(dataLines, parser, names.length, sampleSize)
+      mLog.info(s">>>> inferred ${names.zip(types).map { case (n, t) => s"$n $t" }.mkString(", ")}")
+      (names, types)
+    }
+    val schema = StructType(names.zip(types).map { case (name, t) => StructField(name, sparkType(t), nullable = true) })
+
+    val malformedRows = sqlContext.sparkContext.accumulator(0L)
+    if (!Strings.isNullOrEmpty(quarantinePath)) {
+      dataLines.filter {
+        line =>
+          val isMalformed = parser.parse(line, types) == null
+          if (isMalformed) malformedRows += 1L
+          isMalformed
+      }.saveAsTextFile(quarantinePath)
+      mLog.info(s">>>> quarantined ${malformedRows.value} malformed rows of $path to $quarantinePath")
+    }
+
+    val rows = this.parse(dataLines, parser, types, if (Strings.isNullOrEmpty(quarantinePath)) {
+      Some(malformedRows)
+    } else {
+      None
+    })
+    new DelimitedFileLoad(sqlContext.createDataFrame(rows, schema), malformedRows)
+  }
+
+  /**
+   * @param malformedRows counts the dropped lines, if given
+   */
+  def parse(lines: RDD[String], parser: DelimitedLineParser, types: Array[ColumnType],
+            malformedRows: Option[Accumulator[Long]]): RDD[Row] = {
+    lines.flatMap {
+      line =>
+        val values = parser.parse(line, types)
+        if (values == null) {
+          malformedRows.foreach(_ += 1L)
+          None
+        } else {
+          Some(Row.fromSeq(values))
+        }
+    }
+  }
+
+  /**
+   * Infers the column types from a reservoir sample of up to sampleSize lines per partition, ignoring lines that do
+   * not have numColumns fields. Columns without any non-null sampled value are strings.
+   */
+  def inferTypes(lines: RDD[String], parser: DelimitedLineParser, numColumns: Int,
+                 sampleSize: Int): Array[ColumnType] = {
+    val types = lines.mapPartitionsWithIndex {
+      (index, iter) =>
+        val reservoir = new ArrayBuffer[String](sampleSize)
+        val random = new Random(index)
+        var seen = 0L
+        iter.foreach {
+          line =>
+            if (reservoir.length < sampleSize) {
+              reservoir += line
+            } else {
+              val j = (random.nextDouble() * (seen + 1)).toLong
+              if (j < sampleSize) reservoir(j.toInt) = line
+            }
+            seen += 1
+        }
+
+        val partitionTypes = new Array[ColumnType](numColumns)
+        reservoir.foreach(line => parser.inferTypes(line, partitionTypes))
+        Iterator(partitionTypes)
+    }.reduce((a, b) => a.zip(b).map { case (x, y) => DelimitedLineParser.widen(x, y) })
+
+    types.map(t => if (t == null) ColumnType.STRING else t)
+  }
+
+  def sparkType(columnType: ColumnType): DataType = columnType match {
+    case ColumnType.TINYINT => ByteType
+    case ColumnType.SMALLINT => ShortType
+    case ColumnType.INT => IntegerType
+    case ColumnType.BIGINT => LongType
+    case ColumnType.FLOAT => FloatType
+    case ColumnType.DOUBLE => DoubleType
+    case ColumnType.DECIMAL => DecimalType.Unlimited
+    case ColumnType.BOOLEAN => BooleanType
+    case ColumnType.TIMESTAMP => TimestampType
+    case ColumnType.DATE => DateType
+    case _ => StringType
+  }
+}
@@ -0,0 +1,40 @@
+package io.ddf.spark.datasource
+
+import io.ddf.datasource.ObjectStoreReadPlanner.ReadPartition
+import io.ddf.datasource.{IObjectStore, ObjectSplitLineReader}
+import org.apache.spark.rdd.RDD
+import org.apache.spark.{Partition, SparkContext, TaskContext}
+
+import scala.collection.JavaConverters._
+
+class ObjectStorePartition(val index: Int, val readPartition: ReadPartition) extends Partition
+
+/**
+ * The lines of the objects of a store, one partition per planned [[ReadPartition]], see
+ * [[io.ddf.datasource.ObjectStoreReadPlanner]]. Each task reads its splits one after the other, from the store
+ * directly.
+ */
+class ObjectStoreRDD(sc: SparkContext,
+                     store: IObjectStore,
+                     @transient readPartitions: Seq[ReadPartition]) extends RDD[String](sc, Nil) {
+
+  override def getPartitions: Array[Partition] = {
+    readPartitions.zipWithIndex.map { case (p, i) => new ObjectStorePartition(i, p) }.toArray
+  }
+
+  override def compute(split: Partition, context: TaskContext): Iterator[String] = {
+    val splits = split.asInstanceOf[ObjectStorePartition].readPartition.getSplits.asScala.iterator
+    var reader: ObjectSplitLineReader = null
+
+    context.addTaskCompletionListener {
+      (context: TaskContext) => if (reader != null) reader.close()
+    }
+
+    splits.flatMap {
+      s =>
+        if (reader != null) reader.close()
+        reader = new ObjectSplitLineReader(store, s)
+        reader.asScala
+    }
+  }
+}
@@ -0,0 +1,239 @@
+package io.ddf.spark.datasource
+
+import java.sql.{Connection, DriverManager, PreparedStatement, ResultSet, ResultSetMetaData, Timestamp, Types}
+import java.util.Properties
+
+import com.google.common.base.Strings
+import io.ddf.datasource.{JDBCDataSourceCredentials, JDBCDataSourceDescriptor}
+import io.ddf.exception.DDFException
+import org.apache.spark.rdd.RDD
+import org.apache.spark.sql.types._
+import org.apache.spark.sql.{DataFrame, Row, SQLContext}
+import org.apache.spark.{Partition, SparkContext, TaskContext}
+
+/**
+ * A range of the partition column, as a SQL condition
+ */
+class JDBCPartition(val index: Int, val condition: String) extends Partition
+
+/**
+ * Reads one range of the table per partition, each over its own connection.
+ * Credentials are passed as connection properties, never in the URL.
+ */
+class JDBCPartitionedRDD(sc: SparkContext,
+                         url: String,
+                         properties: Properties,
+                         driver: String,
+                         query: String,
+                         filter: String,
+                         conditions: Array[String],
+                         schema: StructType,
+                         fetchSize: Int) extends RDD[Row](sc, Nil) {
+
+  override def getPartitions: Array[Partition] = {
+    conditions.zipWithIndex.map { case (condition, i) => new JDBCPartition(i, condition) }
+  }
+
+  override def compute(split: Partition, context: TaskContext): Iterator[Row] = {
+    val condition = split.asInstanceOf[JDBCPartition].condition
+    val conn = PartitionedJDBCReader.connect(url, properties, driver)
+    var stmt: PreparedStatement = null
+    var rs: ResultSet = null
+    // registered before anything else can fail, so that the connection is closed with the task
+    context.addTaskCompletionListener {
+      (context: TaskContext) =>
+        try if (rs != null) rs.close() finally try if (stmt != null) stmt.close() finally conn.close()
+    }
+
+    stmt = conn.prepareStatement(PartitionedJDBCReader.where(query, filter, condition),
+      ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)
+    stmt.setFetchSize(fetchSize)
+    rs = stmt.executeQuery()
+
+    val getters = PartitionedJDBCReader.getters(schema)
+    new Iterator[Row] {
+      private var hasRow = rs.next()
+
+      override def hasNext: Boolean = hasRow
+
+      override def next(): Row = {
+        if (!hasRow) throw new NoSuchElementException("End of JDBC result set")
+        val values = new Array[Any](getters.length)
+        var i = 0
+        while (i < getters.length) {
+          val value = getters(i)(rs, i + 1)
+          values(i) = if (rs.wasNull()) null else value
+          i += 1
+        }
+        hasRow = rs.next()
+        Row.fromSeq(values)
+      }
+    }
+  }
+}
+
+object PartitionedJDBCReader {
+
+  /**
+   * Loads the table of the descriptor, range-partitioned on its partition column if one is set
+   */
+  def load(sqlContext: SQLContext, descriptor: JDBCDataSourceDescriptor): DataFrame = {
+    val url = descriptor.getDataSourceUri.getUri.toString
+    val properties = new Properties()
+    descriptor.getDataSourceCredentials match {
+      case cred: JDBCDataSourceCredentials if !Strings.isNullOrEmpty(cred.getUsername) =>
+        properties.setProperty("user", cred.getUsername)
+        if (cred.getPassword != null) properties.setProperty("password", cred.getPassword)
+      case _ =>
+    }
+    val table = descriptor.getDbTable
+    val filter = descriptor.getFilter
+
+    val conn = connect(url, properties, descriptor.getDriver)
+    val (schema, conditions) = try {
+      val schema = this.schemaOf(conn, table)
+      val partitionColumn = descriptor.getPartitionColumn
+      val conditions = if (Strings.isNullOrEmpty(partitionColumn)) {
+        Array[String](null)
+      } else {
+        val numPartitions = if (descriptor.getNumPartitions > 0) descriptor.getNumPartitions
+        else sqlContext.sparkContext.defaultParallelism
+        val field = schema.fields.find(_.name.equalsIgnoreCase(partitionColumn)).getOrElse {
+          throw new DDFException(s"Partition column $partitionColumn not found in $table")
+        }
+        this.rangeConditions(conn, table, filter, partitionColumn, field.dataType, numPartitions,
+          descriptor.getLowerBound, descriptor.getUpperBound)
+      }
+      (schema, conditions)
+    } finally {
+      conn.close()
+    }
+
+    val rdd = new JDBCPartitionedRDD(sqlContext.sparkContext, url, properties, descriptor.getDriver,
+      s"SELECT * FROM $table", filter, conditions, schema, descriptor.getFetchSize)
+    sqlContext.createDataFrame(rdd, schema)
+  }
+
+  def connect(url: String, properties: Properties, driver: String): Connection = {
+    if (!Strings.isNullOrEmpty(driver)) Class.forName(driver)
+    DriverManager.getConnection(url, properties)
+  }
+
+  /**
+   * Appends the non-empty conditions, e.g. the pushed-down filter and the range of a partition, to the query
+   */
+  def where(query: String, conditions: String*): String = {
+    val nonEmpty = conditions.filter(!Strings.isNullOrEmpty(_))
+    if (nonEmpty.isEmpty) query else nonEmpty.map("(" + _ + ")").mkString(s"$query WHERE ", " AND ", "")
+  }
+
+  def schemaOf(conn: Connection, table: String): StructType = {
+    val stmt = conn.prepareStatement(s"SELECT * FROM $table WHERE 1=0")
+    try {
+      val meta = stmt.executeQuery().getMetaData
+      StructType((1 to meta.getColumnCount).map {
+        i => StructField(meta.getColumnLabel(i), sparkType(meta, i),
+          meta.isNullable(i) != ResultSetMetaData.columnNoNulls)
+      })
+    } finally {
+      stmt.close()
+    }
+  }
+
+  private def sparkType(meta: ResultSetMetaData, i: Int): DataType = meta.getColumnType(i) match {
+    case Types.BIT | Types.BOOLEAN => BooleanType
+    case Types.TINYINT | Types.SMALLINT | Types.INTEGER => IntegerType
+    case Types.BIGINT => LongType
+    case Types.REAL => FloatType
+    case Types.FLOAT | Types.DOUBLE => DoubleType
+    case Types.NUMERIC | Types.DECIMAL => if (meta.getScale(i) == 0 && meta.getPrecision(i) > 0
+      && meta.getPrecision(i) <= 18) LongType else DecimalType.Unlimited
+    case Types.DATE => DateType
+    case Types.TIMESTAMP => TimestampType
+    case Types.BINARY | Types.VARBINARY | Types.LONGVARBINARY | Types.BLOB => BinaryType
+    case _ => StringType
+  }
+
+  private[datasource] def getters(schema: StructType): Array[(ResultSet, Int) => Any] = {
+    schema.fields.map {
+      field => field.dataType match {
+        case BooleanType => (rs: ResultSet, i: Int) => rs.getBoolean(i)
+        case IntegerType => (rs: ResultSet, i: Int) => rs.getInt(i)
+        case LongType => (rs: ResultSet, i: Int) => rs.getLong(i)
+        case FloatType => (rs: ResultSet, i: Int) => rs.getFloat(i)
+        case DoubleType => (rs: ResultSet, i: Int) => rs.getDouble(i)
+        case DateType => (rs: ResultSet, i: Int) => rs.getDate(i)
+        case TimestampType => (rs: ResultSet, i: Int) => rs.getTimestamp(i)
+        case BinaryType => (rs: ResultSet, i: Int) => rs.getBytes(i)
+        case _: DecimalType => (rs: ResultSet, i: Int) => rs.getBigDecimal(i)
+        case _ => (rs: ResultSet, i: Int) => rs.getString(i)
+      }
+    }
+  }
+
+  /**
+   * Splits [lower, upper] of the partition column into numPartitions ranges of equal width. The first range also
+   * takes the NULLs and everything below lower, the last one everything above upper, so no row is lost when
+   * the bounds are given rather than queried.
+   */
+  def rangeConditions(conn: Connection, table: String, filter: String, column: String, dataType: DataType,
+                      numPartitions: Int, lowerBound: String, upperBound: String): Array[String] = {
+    val isTime = dataType == DateType || dataType == TimestampType
+    val isIntegral = dataType == IntegerType || dataType == LongType
+
+    val (lower, upper) = if (lowerBound != null && upperBound != null) {
+      (this.parseBound(lowerBound, isTime), this.parseBound(upperBound, isTime))
+    } else {
+      val stmt = conn.prepareStatement(where(s"SELECT MIN($column), MAX($column) FROM $table", filter))
+      try {
+        val rs = stmt.executeQuery()
+        rs.next()
+        val bounds = (this.boundOf(rs, 1, isTime), this.boundOf(rs, 2, isTime))
+        (Option(lowerBound).map(this.parseBound(_, isTime)).getOrElse(bounds._1),
+          Option(upperBound).map(this.parseBound(_, isTime)).getOrElse(bounds._2))
+      } finally {
+        stmt.close()
+      }
+    }
+
+    // empty table, or a column of NULLs only
+    if (lower.isNaN || upper.isNaN || numPartitions <= 1 || upper <= lower) return Array[String](null)
+
+    val n = if (isIntegral || isTime) math.min(numPartitions.toDouble, upper - lower).toInt.max(1) else numPartitions
+    val stride = (upper - lower) / n
+    def literal(value: Double): String = {
+      if (dataType == DateType) s"{d '${new java.sql.Date(value.toLong)}'}"
+      else if (dataType == TimestampType) s"{ts '${new Timestamp(value.toLong)}'}"
+      else if (isIntegral) value.toLong.toString
+      else value.toString
+    }
+
+    (0 until n).map {
+      i =>
+        val from = if (i == 0) None else Some(literal(if (isIntegral) math.ceil(lower + i * stride) else lower + i * stride))
+        val to = if (i == n - 1) None else Some(literal(if (isIntegral) math.ceil(lower + (i + 1) * stride) else lower + (i + 1) * stride))
+        (from, to) match {
+          case (None, Some(t)) => s"$column < $t OR $column IS NULL"
+          case (Some(f), Some(t)) => s"$column >= $f AND $column < $t"
+          case (Some(f), None) => s"$column >= $f"
+          case (None, None) => null
+        }
+    }.toArray
+  }
+
+  private def boundOf(rs: ResultSet, i: Int, isTime: Boolean): Double = {
+    if (isTime) {
+      val ts = rs.getTimestamp(i)
+      if (ts == null) Double.NaN else ts.getTime.toDouble
+    } else {
+      val value = rs.getBigDecimal(i)
+      if (value == null) Double.NaN else value.doubleValue()
+    }
+  }
+
+  private def parseBound(bound: String, isTime: Boolean): Double = {
+    if (!isTime) bound.trim.toDouble
+    else if (bound.trim.length <= 10) java.sql.Date.valueOf(bound.trim).getTime.toDouble
+    else Timestamp.valueOf(bound.trim).getTime.toDouble
+  }
+}
@@ -0,0 +1,91 @@
+package io.ddf.spark.datasource
+
+import io.ddf.datasource.DataFormat
+import io.ddf.exception.DDFException
+import io.ddf.spark.util.SparkUtils
+import org.apache.spark.sql.types.StructType
+import org.apache.spark.sql.{Column, DataFrame, SQLContext}
+
+import scala.collection.JavaConverters._
+
+/**
+ * The scan of a JSON or Parquet source still pending for a DDF: the columns it needs and the predicates its rows must
+ * satisfy, accumulated by projections and subsets before the data is first read.
+ *
+ * Column names are those of the DDF, i.e. with the leading '_' removed by
+ * {@link SparkUtils#getDataFrameWithValidColnames}. The JSON reader is given a schema of the needed fields only, so
+ * the other fields are never converted; Parquet reads the needed column chunks only and, with
+ * spark.sql.parquet.filterPushdown, skips the row groups that the predicates rule out.
+ *
+ * @param sourceSchema the schema of the whole source, so that JSON is inferred once, when the source is loaded
+ * @param columns      the columns of the scan in order, all of them if None
+ * @param filters      predicates in SQL, each with the columns it references
+ */
+class ScanSpec(val format: DataFormat,
+               val path: String,
+               val sourceSchema: StructType,
+               val columns: Option[Seq[String]],
+               val filters: Seq[(String, Seq[String])]) extends Serializable {
+
+  def project(names: java.util.List[String]): ScanSpec = {
+    new ScanSpec(format, path, sourceSchema, Some(ScanSpec.toSeq(names)), filters)
+  }
+
+  def filter(predicate: String, referencedColumns: java.util.List[String]): ScanSpec = {
+    new ScanSpec(format, path, sourceSchema, columns, filters :+ ((predicate, ScanSpec.toSeq(referencedColumns))))
+  }
+
+  /**
+   * The columns to read: those of the scan and those its filters reference
+   */
+  def requiredColumns: Option[Set[String]] = {
+    columns.map(names => (names ++ filters.flatMap(_._2)).map(_.toLowerCase).toSet)
+  }
+
+  def load(sqlContext: SQLContext): DataFrame = {
+    val source = format match {
+      case DataFormat.PQT => sqlContext.parquetFile(path)
+      case DataFormat.JSON => sqlContext.jsonFile(path, this.prunedSchema)
+      case _ => throw new DDFException(s"Unsupported data format: $format")
+    }
+    val df = SparkUtils.getDataFrameWithValidColnames(source)
+    val filtered = filters.foldLeft(df) { case (current, (predicate, _)) => current.filter(predicate) }
+    columns match {
+      case Some(names) => filtered.select(names.map(name => new Column(name)): _*)
+      case None => filtered
+    }
+  }
+
+  private def prunedSchema: StructType = requiredColumns match {
+    case Some(required) => StructType(sourceSchema.fields.filter {
+      field => required.contains(ScanSpec.validName(field.name).toLowerCase)
+    })
+    case None => sourceSchema
+  }
+
+  override def toString: String = {
+    s"ScanSpec($format, $path, columns=${columns.map(_.mkString(",")).getOrElse("*")}, " +
+      s"filters=${filters.map(_._1).mkString(" AND ")})"
+  }
+}
+
+object ScanSpec {
+
+  /**
+   * A scan of the whole source, whose schema is read (or, for JSON, inferred) now
+   */
+  def source(sqlContext: SQLContext, format: DataFormat, path: String): ScanSpec = {
+    val schema = format match {
+      case DataFormat.PQT => sqlContext.parquetFile(path).schema
+      case DataFormat.JSON => sqlContext.jsonFile(path).schema
+      case _ => throw new DDFException(s"Unsupported data format: $format")
+    }
+    new ScanSpec(format, path, schema, None, Seq())
+  }
+
+  private def validName(name: String): String = if (name.charAt(0) == '_') name.substring(1) else name
+
+  private def toSeq(names: java.util.List[String]): Seq[String] = {
+    names.asScala.toList
+  }
+}
@@ -0,0 +1,30 @@
+package io.ddf.spark.datasource
+
+import io.ddf.datasource.{DirectoryStreamSource, IStreamSource}
+import org.apache.spark.rdd.RDD
+import org.apache.spark.streaming.dstream.InputDStream
+import org.apache.spark.streaming.{StreamingContext, Time}
+
+import scala.collection.JavaConversions._
+
+/**
+ * The lines of an [[IStreamSource]], polled on the driver once per batch. The new files of a
+ * [[DirectoryStreamSource]] are read by the workers instead, so its directory must be visible to all of them.
+ * Batches without any line are skipped.
+ */
+class StreamSourceInputDStream(ssc: StreamingContext, @transient source: IStreamSource)
+  extends InputDStream[String](ssc) {
+
+  override def start(): Unit = {}
+
+  override def stop(): Unit = {}
+
+  override def compute(validTime: Time): Option[RDD[String]] = source match {
+    case directory: DirectoryStreamSource =>
+      val files = directory.pollFiles()
+      if (files.isEmpty) None else Some(context.sparkContext.textFile(files.map(_.getAbsolutePath).mkString(",")))
+    case _ =>
+      val lines = source.poll()
+      if (lines.isEmpty) None else Some(context.sparkContext.parallelize(lines))
+  }
+}
@@ -0,0 +1,43 @@
+package io.ddf.spark.etl
+
+import java.util.{List => JList}
+
+import _root_.io.ddf.DDF
+import _root_.io.ddf.content.Schema
+import _root_.io.ddf.etl.{AReshapingHandler, Melt, Pivot}
+import _root_.io.ddf.spark.SparkDDFManager
+import _root_.io.ddf.spark.util.SparkUtils
+import org.apache.spark.SparkContext._
+import org.apache.spark.storage.StorageLevel
+
+import scala.collection.JavaConversions._
+
+/**
+ * Reshapes Spark DDFs in one pass over their rows. A pivot aggregates the rows of every partition by key into one
+ * array of cells, and a single shuffle merges the arrays of each key; a melt is a flatMap.
+ */
+class ReshapingHandler(theDDF: DDF) extends AReshapingHandler(theDDF) {
+
+  private def manager: SparkDDFManager = this.getManager.asInstanceOf[SparkDDFManager]
+
+  override protected def getDistinctValues(columnIndex: Int): JList[AnyRef] = {
+    SparkUtils.rowsOf(this.getDDF).map(_(columnIndex)).filter(_ != null).distinct().collect().toList
+  }
+
+  override protected def pivot(pivot: Pivot, schema: Schema): DDF = {
+    val cells = SparkUtils.rowsOf(this.getDDF).mapPartitions {
+      rows => pivot.aggregate(rows).iterator
+    }.reduceByKey((a, b) => pivot.merge(a, b))
+    val rows = cells.map { case (key, keyCells) => pivot.output(key, keyCells) }
+    rows.persist(StorageLevel.MEMORY_AND_DISK_SER)
+    // aggregate now rather than when the DDF is first used, so that e.g. a failed unstack fails here
+    rows.count()
+    val ddf = SparkUtils.newDDF(manager, rows, schema)
+    SparkUtils.persistWith(ddf, rows)
+    ddf
+  }
+
+  override protected def melt(melt: Melt, schema: Schema): DDF = {
+    SparkUtils.newDDF(manager, SparkUtils.rowsOf(this.getDDF).flatMap(row => melt.melt(row)), schema)
+  }
+}
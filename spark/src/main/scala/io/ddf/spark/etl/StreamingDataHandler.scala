@@ -0,0 +1,160 @@
+package io.ddf.spark.etl
+
+import java.util.{List => JList}
+
+import _root_.io.ddf.DDF
+import _root_.io.ddf.analytics.IncrementalStatistics
+import _root_.io.ddf.content.Schema
+import _root_.io.ddf.datasource.{DelimitedLineParser, IStreamSource, TextFileFormat}
+import _root_.io.ddf.etl.AStreamingDataHandler
+import _root_.io.ddf.exception.DDFException
+import _root_.io.ddf.metrics.Metrics
+import _root_.io.ddf.spark.SparkDDFManager
+import _root_.io.ddf.spark.datasource.{DelimitedFileReader, StreamSourceInputDStream}
+import org.apache.spark.rdd.RDD
+import org.apache.spark.sql.{DataFrame, Row}
+import org.apache.spark.storage.StorageLevel
+import org.apache.spark.streaming.{Duration, Milliseconds, StreamingContext}
+
+import scala.collection.JavaConversions._
+import scala.collection.mutable.ArrayBuffer
+
+/**
+ * Streaming for Spark DDFs on Spark Streaming: every batch of lines is parsed on the workers into a DataFrame of the
+ * schema of the DDF, persisted, and its statistics computed per partition and merged on the driver. Snapshots are
+ * the union of the DataFrame of the DDF with those of the batches.
+ *
+ * Once there are [[StreamingDataHandler.MaxBatches]] batches, they are compacted into one, so that the plans of
+ * snapshots stay small. Spark allows only one StreamingContext at a time, hence only one DDF can stream at a time.
+ */
+class StreamingDataHandler(theDDF: DDF) extends AStreamingDataHandler(theDDF) {
+
+  private val mBatches = new ArrayBuffer[DataFrame]()
+
+  @volatile private var mStreamingContext: StreamingContext = null
+
+  private var mSource: IStreamSource = null
+
+  private def manager: SparkDDFManager = this.getManager.asInstanceOf[SparkDDFManager]
+
+  private def dataFrame: DataFrame = {
+    val df = this.getDDF.getRepresentationHandler.get(classOf[DataFrame]).asInstanceOf[DataFrame]
+    if (df == null) throw new DDFException(s"Cannot get the DataFrame of ${this.getDDF.getName}")
+    df
+  }
+
+  override def start(source: IStreamSource, format: TextFileFormat, batchIntervalMillis: Long): Unit = synchronized {
+    if (mStreamingContext != null) throw new DDFException(s"${this.getDDF.getName} is already streaming")
+    if (batchIntervalMillis <= 0) throw new DDFException("The batch interval must be positive")
+
+    val parser = new DelimitedLineParser(format)
+    val types = this.getColumnTypes
+    val ssc = StreamingDataHandler.newStreamingContext(this, Milliseconds(batchIntervalMillis))
+    try {
+      new StreamSourceInputDStream(ssc, source).foreachRDD(lines => this.appendLines(lines, parser, types))
+      ssc.start()
+    } catch {
+      case e: Exception =>
+        StreamingDataHandler.release(this)
+        throw new DDFException(s"Cannot start streaming into ${this.getDDF.getName}", e)
+    }
+    mStreamingContext = ssc
+    mSource = source
+    mLog.info(s">>>> Streaming $source into ${this.getDDF.getName} every $batchIntervalMillis ms")
+  }
+
+  override def stop(): Unit = {
+    val (ssc, source) = synchronized {
+      val current = (mStreamingContext, mSource)
+      mStreamingContext = null
+      mSource = null
+      current
+    }
+    if (ssc == null) return
+
+    // the batch in progress appends under the lock of this handler, so it cannot be held here
+    ssc.stop(stopSparkContext = false, stopGracefully = true)
+    StreamingDataHandler.release(this)
+    source.close()
+  }
+
+  override def isStreaming: Boolean = mStreamingContext != null
+
+  override def appendBatch(rows: JList[Array[Object]]): Unit = {
+    val numColumns = this.getColumns.size
+    rows.find(_.length != numColumns).foreach {
+      row => throw new DDFException(s"Rows of ${this.getDDF.getName} have ${row.length} values, not $numColumns")
+    }
+    this.appendRows(manager.getSparkContext.parallelize(rows.map(row => Row.fromSeq(row))))
+  }
+
+  private def appendLines(lines: RDD[String], parser: DelimitedLineParser, types: Array[Schema.ColumnType]): Unit = {
+    val malformedRows = lines.sparkContext.accumulator(0L)
+    this.appendRows(DelimitedFileReader.parse(lines, parser, types, Some(malformedRows)))
+    Metrics.counter("streaming.malformed").inc(malformedRows.value)
+  }
+
+  private def appendRows(rows: RDD[Row]): Unit = {
+    val batch = manager.getHiveContext.createDataFrame(rows, dataFrame.schema)
+    batch.persist(StorageLevel.MEMORY_AND_DISK_SER)
+    val statistics = StreamingDataHandler.computeStatistics(batch, this.getColumns)
+    if (statistics.getNumRows == 0) {
+      batch.unpersist()
+      return
+    }
+
+    synchronized {
+      mBatches += batch
+      if (mBatches.size >= StreamingDataHandler.MaxBatches) this.compact()
+      this.batchAppended(statistics)
+    }
+  }
+
+  private def compact(): Unit = {
+    val compacted = mBatches.reduce(_ unionAll _).repartition(manager.getSparkContext.defaultParallelism)
+    compacted.persist(StorageLevel.MEMORY_AND_DISK_SER)
+    compacted.count()
+    mBatches.foreach(_.unpersist())
+    mBatches.clear()
+    mBatches += compacted
+  }
+
+  override protected def computeStatistics(): IncrementalStatistics = {
+    StreamingDataHandler.computeStatistics(dataFrame, this.getColumns)
+  }
+
+  override protected def newSnapshot(): DDF = {
+    val df = mBatches.foldLeft(dataFrame)(_ unionAll _)
+    manager.newDDF(manager, df, Array(classOf[DataFrame]), null, this.newSnapshotSchema())
+  }
+}
+
+object StreamingDataHandler {
+
+  val MaxBatches = 64
+
+  private var sStreaming: StreamingDataHandler = null
+
+  private def newStreamingContext(handler: StreamingDataHandler, batchInterval: Duration)
+  : StreamingContext = synchronized {
+    if (sStreaming != null && sStreaming != handler) {
+      throw new DDFException(s"${sStreaming.getDDF.getName} is already streaming, only one DDF can stream at a time")
+    }
+    sStreaming = handler
+    new StreamingContext(handler.manager.getSparkContext, batchInterval)
+  }
+
+  private def release(handler: StreamingDataHandler): Unit = synchronized {
+    if (sStreaming == handler) sStreaming = null
+  }
+
+  private def computeStatistics(df: DataFrame, columns: JList[Schema.Column]): IncrementalStatistics = {
+    val zero = new IncrementalStatistics(columns)
+    df.rdd.mapPartitions {
+      rows =>
+        val statistics = zero.copy()
+        rows.foreach(row => statistics.add(row.toSeq.map(_.asInstanceOf[AnyRef]).toArray))
+        Iterator(statistics)
+    }.fold(zero)((a, b) => a.merge(b))
+  }
+}
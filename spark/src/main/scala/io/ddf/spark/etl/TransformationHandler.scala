@@ -13,6 +13,7 @@ import org.apache.spark.rdd.RDD
 import org.apache.spark.storage.StorageLevel
 import org.rosuda.REngine.REXP
 import org.rosuda.REngine.REXPDouble
+import org.rosuda.REngine.REXPFactor
 import org.rosuda.REngine.REXPInteger
 import org.rosuda.REngine.REXPList
 import org.rosuda.REngine.REXPLogical
@@ -115,7 +116,7 @@ class TransformationHandler(mDDF: DDF) extends CoreTransformationHandler(mDDF) {
     }
 
     // convert R-processed DF partitions back to BigR DataFrame
-    val columnArr = TransformationHandler.RDataFrameToColumnList(rReduced)
+    val columnArr = TransformationHandler.RDataFrameToColumnList(rReduced, mDDF.getSchemaHandler.getColumns)
 
 
     val newSchema = new Schema(mDDF.getSchemaHandler.newTableName(), columnArr.toList);
@@ -167,7 +168,7 @@ class TransformationHandler(mDDF: DDF) extends CoreTransformationHandler(mDDF) {
     }
 
     // convert R-processed data partitions back to RDD[Array[Object]]
-    val columnArr = TransformationHandler.RDataFrameToColumnList(rMapped)
+    val columnArr = TransformationHandler.RDataFrameToColumnList(rMapped, mDDF.getSchemaHandler.getColumns)
 
     val newSchema = new Schema(mDDF.getSchemaHandler.newTableName(), columnArr.toList);
 
@@ -282,16 +283,34 @@ object TransformationHandler {
     rconn.eval("paste(capture.output(print(" + expr + ")), collapse='\\n')").asString()
   }
 
-  def RDataFrameToColumnList(rdd: RDD[REXP]): Array[Column] = {
+  // the types that factor labels are converted back to, see REXP2ArrayObject
+  private val FACTOR_LABEL_TYPES = {
+    import Schema.ColumnType._
+    Set(TINYINT, SMALLINT, INT, BIGINT, FLOAT, DOUBLE, DECIMAL, BOOLEAN, STRING, DATE, TIMESTAMP)
+  }
+
+  /**
+   * @param sourceColumns the columns of the DDF the data.frames were made from, whose types are restored for factors
+   *                      of the same name, e.g. an INT column set as factor, which R returns as a factor of labels
+   */
+  def RDataFrameToColumnList(rdd: RDD[REXP], sourceColumns: java.util.List[Column] = null): Array[Column] = {
+    val sourceTypes = if (sourceColumns == null) Map[String, Schema.ColumnType]()
+    else sourceColumns.asScala.map(col ⇒ (col.getName, col.getType)).toMap
+
     val firstdf = rdd.first()
     val names = firstdf.getAttribute("names").asStrings()
     val columns = new Array[Column](firstdf.length)
     for (j ← 0 until firstdf.length()) {
       val ddfType = firstdf.asList().at(j) match {
+        case v: REXPDouble if v.inherits("Date") ⇒ "DATE"
+        case v: REXPDouble if v.inherits("POSIXct") ⇒ "TIMESTAMP"
         case v: REXPDouble ⇒ "DOUBLE"
+        case v: REXPFactor ⇒
+          sourceTypes.get(names(j)).filter(FACTOR_LABEL_TYPES.contains).map(_.name).getOrElse("STRING")
         case v: REXPInteger ⇒ "INT"
+        case v: REXPLogical ⇒ "BOOLEAN"
         case v: REXPString ⇒ "STRING"
-        case _ ⇒ throw new DDFException("Only support atomic vectors of type int|double|string!")
+        case _ ⇒ throw new DDFException("Only support atomic vectors of type int|double|string|logical|factor!")
       }
       columns(j) = new Column(names(j), ddfType)
     }
@@ -0,0 +1,41 @@
+package io.ddf.spark.ml
+
+import io.ddf.exception.DDFException
+import io.ddf.types.TupleMatrixVector
+import org.apache.spark.mllib.linalg.{Vector => MLVector}
+import org.apache.spark.rdd.RDD
+import org.jblas.{DoubleMatrix, Solve}
+
+/**
+ * Linear regression solved in closed form from the normal equations (XtX + lambda I) w = XtY, with XtX and XtY
+ * computed by [[NormalEquations]] over the RDD_MATRIX_VECTOR representation of a DDF, whose first column of X is
+ * the bias term and whose last column is the label.
+ */
+object LinearRegressionNormalEquation {
+
+  /**
+   * @param ridgeLambda L2 regularization of the weights other than the bias, 0 for ordinary least squares
+   */
+  def train(input: RDD[TupleMatrixVector], ridgeLambda: Double): NormalEquationModel = {
+    val (xtx, xty, numRows) = NormalEquations.compute(input)
+    if (xtx == null) throw new DDFException("Cannot fit a linear regression to no rows")
+
+    var i = 1
+    while (i < xtx.columns) {
+      xtx.put(i, i, xtx.get(i, i) + ridgeLambda)
+      i += 1
+    }
+    val weights = Solve.solveSymmetric(xtx, xty)
+    new NormalEquationModel(weights.toArray, numRows)
+  }
+}
+
+/**
+ * @param weights the bias followed by the weights of the features
+ */
+class NormalEquationModel(val weights: Array[Double], val numSamples: Long) extends Serializable {
+
+  def predict(features: MLVector): Double = {
+    weights(0) + new DoubleMatrix(weights.drop(1)).dot(new DoubleMatrix(features.toArray))
+  }
+}
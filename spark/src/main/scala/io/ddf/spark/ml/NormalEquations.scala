@@ -0,0 +1,61 @@
+package io.ddf.spark.ml
+
+import io.ddf.types.{Matrix, TupleMatrixVector, Vector}
+import org.apache.spark.rdd.RDD
+
+/**
+ * Partial XtX, XtY and row count, merged across partitions. The matrices are allocated on the first block
+ * so that the zero value does not need to know the number of features.
+ */
+class NormalEquations(var XtX: Matrix, var XtY: Vector, var numRows: Long) extends Serializable {
+
+  def this() = this(null, null, 0L)
+
+  def add(X: Matrix, Y: Vector): NormalEquations = {
+    if (X.rows > 0) {
+      if (XtX == null) {
+        XtX = new Matrix(X.columns, X.columns)
+        XtY = new Vector(X.columns)
+      }
+      Matrix.addGramTo(X, XtX)
+      Matrix.addXtYTo(X, Y, XtY)
+      numRows += X.rows
+    }
+    this
+  }
+
+  def merge(other: NormalEquations): NormalEquations = {
+    if (other.XtX != null) {
+      if (XtX == null) {
+        XtX = other.XtX
+        XtY = other.XtY
+      } else {
+        XtX.addi(other.XtX)
+        XtY.addi(other.XtY)
+      }
+    }
+    numRows += other.numRows
+    this
+  }
+}
+
+object NormalEquations {
+
+  /**
+   * Computes XtX and XtY of a RDD[TupleMatrixVector], e.g. the RDD_MATRIX_VECTOR representation of a DDF.
+   * Each partition accumulates the upper triangle of its blocks with the blocked Gram kernel of [[Matrix]],
+   * and the partial results are merged with treeAggregate so that the driver does not receive one
+   * (columns x columns) matrix per partition.
+   *
+   * @return (XtX, XtY, number of rows), XtX and XtY are null if the RDD has no rows
+   */
+  def compute(rdd: RDD[TupleMatrixVector], depth: Int = 2): (Matrix, Vector, Long) = {
+    val result = rdd.treeAggregate(new NormalEquations())(
+      (acc, block) => acc.add(block.x, block.y),
+      (acc1, acc2) => acc1.merge(acc2),
+      depth)
+
+    if (result.XtX != null) Matrix.fillLowerTriangle(result.XtX)
+    (result.XtX, result.XtY, result.numRows)
+  }
+}
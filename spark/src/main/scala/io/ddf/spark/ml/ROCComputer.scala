@@ -5,6 +5,9 @@ import io.ddf.ml.RocMetric
 import org.apache.spark.mllib.regression.LabeledPoint
 import org.apache.spark.mllib.recommendation.Rating;
 import org.apache.spark.SparkContext._
+import org.apache.spark.storage.StorageLevel
+
+import scala.collection.mutable.ArrayBuffer
 
 class ROCComputer extends Serializable {
 
@@ -142,6 +145,113 @@ class ROCComputer extends Serializable {
     ret
   }
 
+  /**
+   * Exact ROC: every distinct score is a threshold, so the curve and the AUC do not depend on a bucket grid.
+   *
+   * Scores are aggregated per distinct value, sorted in descending order across the cluster, and each partition
+   * then accumulates its TP/FP counts starting from the totals of all preceding partitions. The AUC is summed
+   * from every threshold before any downsampling, so it stays exact even when only numPoints points are returned.
+   *
+   * !!! NOTE: same input layout as ROC(), i.e. yTrue is features(0) and the predicted score is the label
+   *
+   * @param numPoints maximum number of curve points to return, or <= 0 to return one point per distinct score
+   * @return RocMetric in EXACT mode, with points ordered by ascending threshold like the bucketed ROC()
+   */
+  def exactROC(XYData: RDD[LabeledPoint], numPoints: Int): RocMetric = {
+    val counts = XYData.map {
+      point => (point.label, if (point.features(0) == 1.0) (1L, 0L) else (0L, 1L))
+    }.reduceByKey((a, b) => (a._1 + b._1, a._2 + b._2)).sortByKey(ascending = false)
+    counts.persist(StorageLevel.MEMORY_AND_DISK)
+
+    try {
+      //(tp, fp, number of thresholds) of each partition
+      val partitionTotals: Array[(Long, Long, Long)] = counts.mapPartitions {
+        iter =>
+          var tp = 0L
+          var fp = 0L
+          var n = 0L
+          iter.foreach {
+            case (_, (pos, neg)) =>
+              tp += pos
+              fp += neg
+              n += 1
+          }
+          Iterator((tp, fp, n))
+      }.collect()
+
+      val offsets = partitionTotals.scanLeft((0L, 0L, 0L)) {
+        (acc, t) => (acc._1 + t._1, acc._2 + t._2, acc._3 + t._3)
+      }
+      val (totalP, totalN, numThresholds) = offsets.last
+
+      if (numThresholds == 0) {
+        throw new IllegalArgumentException("Please try to run on binary classification model or contact system operators for assistance");
+      }
+
+      val P = totalP.toDouble
+      val N = totalN.toDouble
+      val step: Long = if (numPoints > 0 && numThresholds > numPoints) {
+        math.ceil(numThresholds.toDouble / numPoints).toLong
+      } else 1L
+
+      val pointsAndAreas = counts.mapPartitionsWithIndex {
+        (index, iter) =>
+          var tp = offsets(index)._1
+          var fp = offsets(index)._2
+          var i = offsets(index)._3
+          var area = 0.0
+          val points = new ArrayBuffer[Array[Double]]()
+
+          iter.foreach {
+            case (score, (pos, neg)) =>
+              val previousTp = tp
+              val previousFp = fp
+              tp += pos
+              fp += neg
+              //trapezoid between two consecutive thresholds, in un-normalized (fp, tp) space
+              area += (fp - previousFp).toDouble * (tp + previousTp) / 2.0
+              //counted from the lowest score so that the (1, 1) end of the curve is always kept
+              if ((numThresholds - 1 - i) % step == 0) {
+                points += rocPoint(score, tp, fp, P, N)
+              }
+              i += 1
+          }
+          Iterator((points.toArray, area))
+      }.collect()
+
+      val area = pointsAndAreas.map(_._2).sum
+      val auc = if (P != 0 && N != 0) area / (P * N) else 0.0
+
+      //keep the same order as ROC(): ascending threshold
+      new RocMetric(pointsAndAreas.flatMap(_._1).reverse, auc, RocMetric.Mode.EXACT)
+    } finally {
+      counts.unpersist(blocking = false)
+    }
+  }
+
+  /*
+   * threshold, tpr, fpr, precision, recall, sensitivity, specificity, f1 score, accuracy
+   * for the cumulative counts of all predictions scored at or above threshold
+   */
+  private def rocPoint(threshold: Double, tp: Long, fp: Long, P: Double, N: Double): Array[Double] = {
+    val accumulatetp = tp.toDouble
+    val accumulatefp = fp.toDouble
+    val accumulatefn = P - accumulatetp
+    val accumulatetn = N - accumulatefp
+
+    val result = new Array[Double](9)
+    result(0) = threshold
+    result(1) = if (P != 0) accumulatetp / P else accumulatetp
+    result(2) = if (N != 0) accumulatefp / N else accumulatefp
+    result(3) = accumulatetp / (accumulatetp + accumulatefp)
+    result(4) = result(1)
+    result(5) = result(1)
+    result(6) = accumulatetn / (accumulatetn + accumulatefp)
+    result(7) = 2 * accumulatetp / (2 * accumulatetp + accumulatefp + accumulatefn)
+    result(8) = (accumulatetp + accumulatetn) / (accumulatetp + accumulatetn + accumulatefp + accumulatefn)
+    result
+  }
+
   /*
    * compute TP, FP for each prediction partition
    * input: partition <Vector, Vector>
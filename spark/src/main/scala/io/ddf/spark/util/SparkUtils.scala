@@ -11,7 +11,13 @@ import org.apache.spark.sql.types._
 import org.apache.spark.{SparkConf, SparkContext}
 import org.apache.spark.sql.DataFrame
 import org.apache.spark.sql.{Column => DFColumn}
+import org.apache.spark.sql.{Row => SqlRow}
+import org.apache.spark.storage.StorageLevel
+import io.ddf.DDF
 import io.ddf.content.Schema
+import io.ddf.spark.SparkDDFManager
+import io.ddf.spark.content.RepresentationHandler
+import io.ddf.spark.datasource.DelimitedFileReader
 import scala.collection.Map
 import scala.collection.mutable.ArrayBuffer
 import java.util.{List => JList}
@@ -25,8 +31,15 @@ import scala.collection.JavaConverters._
   */
 
 object SparkUtils {
+  val DEFAULT_KRYO_REGISTRATOR = "io.ddf.spark.content.KryoRegistrator"
+
   /**
    * Create custom sharkContext with adatao's spark.kryo.registrator
+   *
+   * The registrator is SPARK_SERIALIZER of the environment, or the system property spark.kryo.registrator. Kryo
+   * requires every serialized class to be registered when SPARK_KRYO_REGISTRATION_REQUIRED or the system property
+   * spark.kryo.registrationRequired is true, e.g. mvn test -Dspark.kryo.registrationRequired=true, to find the classes
+   * whose names are still written with every record.
    * @param master
    * @param jobName
    * @param sparkHome
@@ -42,7 +55,12 @@ object SparkUtils {
       .setAppName(jobName)
       .setJars(jars)
       .setExecutorEnv(environment.asScala.toSeq)
-    conf.set("spark.kryo.registrator", System.getProperty("spark.kryo.registrator", "io.ddf.spark.content.KryoRegistrator"))
+    val settings = environment.asScala
+    conf.set("spark.serializer", System.getProperty("spark.serializer", "org.apache.spark.serializer.KryoSerializer"))
+    conf.set("spark.kryo.registrator", settings.getOrElse("SPARK_SERIALIZER",
+      System.getProperty("spark.kryo.registrator", DEFAULT_KRYO_REGISTRATOR)))
+    conf.set("spark.kryo.registrationRequired", settings.getOrElse("SPARK_KRYO_REGISTRATION_REQUIRED",
+      System.getProperty("spark.kryo.registrationRequired", "false")))
   }
 
   def createSparkContext(master: String, jobName: String, sparkHome: String, jars: Array[String],
@@ -268,4 +286,31 @@ object SparkUtils {
       case x => throw new DDFException(s"Type not support $x")
     }
   }
+
+  /**
+   * The rows of the DataFrame representation of the DDF, as arrays of cells
+   */
+  def rowsOf(ddf: DDF): RDD[Array[AnyRef]] = {
+    val df = ddf.getRepresentationHandler.get(classOf[DataFrame]).asInstanceOf[DataFrame]
+    df.rdd.map(row => row.toSeq.map(_.asInstanceOf[AnyRef]).toArray)
+  }
+
+  /**
+   * A DDF of the manager over the rows, whose cells are of the column types of the schema
+   */
+  def newDDF(manager: SparkDDFManager, rows: RDD[Array[AnyRef]], schema: Schema): DDF = {
+    val structType = StructType(schema.getColumns.asScala.map {
+      column => StructField(column.getName, DelimitedFileReader.sparkType(column.getType), nullable = true)
+    })
+    val df = manager.getHiveContext.createDataFrame(rows.map(row => SqlRow.fromSeq(row)), structType)
+    manager.newDDF(manager, df, Array(classOf[DataFrame]), null, schema)
+  }
+
+  /**
+   * Persists rows behind the DDF until the DDF is uncached
+   */
+  def persistWith(ddf: DDF, rows: RDD[_]): Unit = {
+    if (rows.getStorageLevel == StorageLevel.NONE) rows.persist(StorageLevel.MEMORY_AND_DISK_SER)
+    ddf.getRepresentationHandler.asInstanceOf[RepresentationHandler].addPersisted(rows)
+  }
 }
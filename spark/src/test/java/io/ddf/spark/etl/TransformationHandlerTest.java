@@ -14,6 +14,8 @@ import io.ddf.spark.BaseTest;
 import org.junit.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 public class TransformationHandlerTest extends BaseTest {
@@ -40,6 +42,36 @@ public class TransformationHandlerTest extends BaseTest {
     Assert.assertEquals(10, res.size());
   }
 
+  @Test
+  public void testTransformNativeRserveKeepsTypes() throws DDFException {
+    DDF typed = manager.sql2ddf("select month, distance, cast(concat(year, '-', lpad(month, 2, '0'), '-', " +
+        "lpad(dayofmonth, 2, '0')) as date) as flightdate from airline", false);
+    typed.setAsFactor("month");
+
+    DDF newddf = typed.Transform.transformNativeRserve("halfdistance = distance / 2");
+    Assert.assertEquals(ColumnType.INT, newddf.getColumn("month").getType());
+    Assert.assertEquals(ColumnType.DATE, newddf.getColumn("flightdate").getType());
+    Assert.assertEquals(ColumnType.DOUBLE, newddf.getColumn("halfdistance").getType());
+
+    List<String> expected = new ArrayList<String>();
+    Iterator<Object[]> rows = typed.getViewHandler().getRowIterator(-1);
+    while (rows.hasNext()) {
+      Object[] row = rows.next();
+      expected.add(row[0] + " " + row[2]);
+    }
+    List<String> actual = new ArrayList<String>();
+    rows = newddf.getViewHandler().getRowIterator(-1);
+    while (rows.hasNext()) {
+      Object[] row = rows.next();
+      Assert.assertTrue(row[0] instanceof Integer);
+      Assert.assertTrue(row[2] instanceof java.sql.Date);
+      actual.add(row[0] + " " + row[2]);
+    }
+    Collections.sort(expected);
+    Collections.sort(actual);
+    Assert.assertEquals(expected, actual);
+  }
+
   @Test
   public void testTransformScaleMinMax() throws DDFException {
     DDF newddf0 = ddf.Transform.transformScaleMinMax();
@@ -3,6 +3,9 @@ package io.ddf.spark.analytics
 import io.ddf.DDF
 import io.ddf.ml.IModel
 import io.ddf.spark.{ATestSuite, SparkDDF}
+import org.apache.spark.mllib.linalg.Vector
+import org.apache.spark.rdd.RDD
+import org.apache.spark.storage.StorageLevel
 
 /**
   */
@@ -33,4 +36,21 @@ class MLSupporterSuite extends ATestSuite {
     assert(numrows > 0)
     manager.shutdown
   }
+
+  test("Test training input is persisted only while training unless prepared") {
+    val ddf: DDF = manager.sql2ddf("select year, month, dayofmonth from airline", false)
+    ddf.ML.KMeans(5, 5, 2, "random")
+    val input = ddf.getRepresentationHandler.get(classOf[RDD[_]], classOf[Vector]).asInstanceOf[RDD[_]]
+    assert(input.getStorageLevel === StorageLevel.NONE)
+
+    val prepared = ddf.ML.prepareTrainingInput("kmeans", Int.box(5), Int.box(5), Int.box(2), "random")
+      .asInstanceOf[RDD[_]]
+    assert(prepared.id === input.id)
+    ddf.ML.KMeans(5, 5, 2, "random")
+    assert(prepared.getStorageLevel === StorageLevel.MEMORY_AND_DISK_SER)
+
+    // kept until the DDF is uncached
+    ddf.getRepresentationHandler.uncacheAll()
+    assert(prepared.getStorageLevel === StorageLevel.NONE)
+  }
 }
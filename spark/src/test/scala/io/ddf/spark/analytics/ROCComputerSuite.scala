@@ -0,0 +1,63 @@
+package io.ddf.spark.analytics
+
+import io.ddf.ml.RocMetric
+import io.ddf.spark.ATestSuite
+import io.ddf.spark.ml.ROCComputer
+import org.apache.spark.mllib.linalg.Vectors
+import org.apache.spark.mllib.regression.LabeledPoint
+
+import scala.util.Random
+
+/**
+  */
+class ROCComputerSuite extends ATestSuite {
+
+  //label = predicted score, features(0) = yTrue, as expected by ROCComputer
+  private def points(n: Int, seed: Long): Seq[LabeledPoint] = {
+    val random = new Random(seed)
+    (1 to n).map {
+      _ =>
+        val yTrue = if (random.nextDouble() < 0.4) 1.0 else 0.0
+        //round the scores so that there are ties between positives and negatives
+        val score = math.round((0.3 * yTrue + 0.7 * random.nextDouble()) * 1000) / 1000.0
+        new LabeledPoint(score, Vectors.dense(yTrue))
+    }
+  }
+
+  //probability that a random positive scores above a random negative, ties counting one half
+  private def bruteForceAUC(data: Seq[LabeledPoint]): Double = {
+    val positives = data.filter(_.features(0) == 1.0).map(_.label)
+    val negatives = data.filter(_.features(0) != 1.0).map(_.label)
+    val wins = positives.map {
+      p => negatives.map(n => if (p > n) 1.0 else if (p == n) 0.5 else 0.0).sum
+    }.sum
+    wins / (positives.size.toDouble * negatives.size)
+  }
+
+  test("exact ROC matches the brute-force AUC") {
+    val data = points(2000, 42L)
+    val rdd = manager.getSparkContext.parallelize(data, 7)
+
+    val roc = new ROCComputer().exactROC(rdd, 0)
+    assert(roc.mode === RocMetric.Mode.EXACT)
+    assert(truncate(roc.auc, 4) === truncate(bruteForceAUC(data), 4))
+    assert(roc.computeAUC() === roc.auc)
+
+    //ascending thresholds, the lowest threshold accepts everything
+    val first = roc.pred.head
+    assert(first(1) === 1.0)
+    assert(first(2) === 1.0)
+    assert(roc.pred.map(_(0)).sliding(2).forall(w => w(0) < w(1)))
+  }
+
+  test("downsampled exact ROC keeps the exact AUC") {
+    val data = points(2000, 7L)
+    val rdd = manager.getSparkContext.parallelize(data, 5)
+
+    val full = new ROCComputer().exactROC(rdd, 0)
+    val sampled = new ROCComputer().exactROC(rdd, 50)
+    assert(sampled.pred.length <= 50)
+    assert(sampled.auc === full.auc)
+    assert(sampled.pred.head(1) === 1.0)
+  }
+}
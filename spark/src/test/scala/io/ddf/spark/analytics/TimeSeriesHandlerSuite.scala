@@ -0,0 +1,116 @@
+package io.ddf.spark.analytics
+
+import io.ddf.DDF
+import io.ddf.spark.ATestSuite
+import io.ddf.spark.util.SparkUtils
+import io.ddf.types.AggregateTypes.AggregateFunction
+import org.apache.spark.sql.types.{DoubleType, IntegerType, StringType, StructField, StructType}
+import org.apache.spark.sql.{DataFrame, Row}
+
+import scala.collection.JavaConversions._
+
+/**
+  */
+class TimeSeriesHandlerSuite extends ATestSuite {
+
+  // 3 sensors, shuffled over 4 partitions, with a null every 7 readings
+  private val readings = (0 until 300).map {
+    i => (s"s${i % 3}", i / 3, if (i % 7 == 0) null else Double.box(i % 11))
+  }
+
+  private def newReadingsDDF(): DDF = {
+    val rows = manager.getSparkContext.parallelize(scala.util.Random.shuffle(readings), 4).map {
+      case (sensor, t, value) => Row(sensor, t, value)
+    }
+    val schema = StructType(Seq(StructField("sensor", StringType), StructField("t", IntegerType),
+      StructField("value", DoubleType)))
+    val df = manager.getHiveContext.createDataFrame(rows, schema)
+    manager.newDDF(manager, df, Array(classOf[DataFrame]), null, SparkUtils.schemaFromDataFrame(df))
+  }
+
+  // a calibration offset every 10 time units, for every sensor
+  private def newOffsetsDDF(): DDF = {
+    val rows = manager.getSparkContext.parallelize(for (sensor <- 0 until 3; t <- 0 until 100 by 10)
+      yield Row(s"s$sensor", t, t.toDouble), 3)
+    val schema = StructType(Seq(StructField("sensor", StringType), StructField("t", IntegerType),
+      StructField("offset", DoubleType)))
+    val df = manager.getHiveContext.createDataFrame(rows, schema)
+    manager.newDDF(manager, df, Array(classOf[DataFrame]), null, SparkUtils.schemaFromDataFrame(df))
+  }
+
+  private def rowsOf(ddf: DDF): Seq[Row] = {
+    ddf.getRepresentationHandler.get(classOf[DataFrame]).asInstanceOf[DataFrame].collect().toSeq
+  }
+
+  private val expected = readings.groupBy(_._1).mapValues(_.sortBy(_._2).map(_._3))
+
+  test("rolling and lag chained across partitions") {
+    val series = List("sensor")
+    val rolling = newReadingsDDF().getTimeSeriesHandler.rolling("t", series, "value", AggregateFunction.MAX, 3)
+    val lagged = rolling.getTimeSeriesHandler.lag("t", series, "value", 2)
+
+    val actual = rowsOf(lagged)
+    assert(actual.map(row => (row.getString(0), row.getInt(1))) === readings.map(r => (r._1, r._2)).sorted)
+    actual.groupBy(_.getString(0)).foreach {
+      case (sensor, rows) =>
+        val values = expected(sensor)
+        rows.zipWithIndex.foreach {
+          case (row, i) =>
+            val window = values.slice(math.max(0, i - 2), i + 1).filter(_ != null).map(_.doubleValue)
+            assert(row.get(3) === (if (window.isEmpty) null else window.max))
+            assert(row.get(4) === (if (i < 2) null else values(i - 2)))
+        }
+    }
+  }
+
+  test("resample and fill forward") {
+    val ddf = newReadingsDDF()
+    val resampled = ddf.getTimeSeriesHandler.resample("t", List("sensor"), List("value"), 10,
+      AggregateFunction.COUNT)
+    assert(rowsOf(resampled).size === 3 * 10)
+    assert(rowsOf(resampled).map(_.getLong(2)).sum === readings.count(_._3 != null))
+
+    val filled = ddf.getTimeSeriesHandler.fillForward("t", List("sensor"), List("value"))
+    assert(rowsOf(filled).count(_.isNullAt(2)) === 1)
+  }
+
+  test("as-of join keeps its rows cached and drops the sorted input") {
+    val left = newReadingsDDF()
+    val right = newOffsetsDDF()
+    val sc = manager.getSparkContext
+    val persistedBefore = sc.getPersistentRDDs.keySet
+
+    val joined = left.getTimeSeriesHandler.asOfJoin(right, "t", List("sensor"), List("offset"))
+
+    // the sorted input is dropped, and the joined rows left persisted are computed already
+    val persisted = sc.getPersistentRDDs.keySet -- persistedBefore
+    assert(persisted.nonEmpty)
+    persisted.foreach {
+      id =>
+        val info = sc.getRDDStorageInfo.find(_.id == id)
+        assert(info.isDefined)
+        assert(info.get.numCachedPartitions === info.get.numPartitions)
+    }
+
+    val actual = rowsOf(joined)
+    assert(actual.size === readings.size)
+    actual.foreach(row => assert(row.getDouble(3) === (row.getInt(1) / 10 * 10).toDouble))
+  }
+
+  test("uncaching the DDFs unpersists the sorted and the output rows") {
+    val sc = manager.getSparkContext
+    val persistedBefore = sc.getPersistentRDDs.keySet
+    val ddf = newReadingsDDF()
+    val lagged = ddf.getTimeSeriesHandler.lag("t", List("sensor"), "value", 1)
+    rowsOf(lagged)
+    assert((sc.getPersistentRDDs.keySet -- persistedBefore).nonEmpty)
+
+    ddf.getRepresentationHandler.uncacheAll()
+    lagged.getRepresentationHandler.uncacheAll()
+    assert((sc.getPersistentRDDs.keySet -- persistedBefore).isEmpty)
+
+    // the sorted rows are persisted again on the next operation
+    val lead = ddf.getTimeSeriesHandler.lag("t", List("sensor"), "value", 2)
+    assert(rowsOf(lead).size === readings.size)
+  }
+}
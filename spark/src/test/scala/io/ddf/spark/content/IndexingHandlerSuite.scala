@@ -0,0 +1,78 @@
+package io.ddf.spark.content
+
+import io.ddf.DDF
+import io.ddf.content.IHandleIndexing.IndexType
+import io.ddf.index.{ColumnRange, IndexSelection}
+import io.ddf.spark.ATestSuite
+import io.ddf.spark.util.SparkUtils
+import org.apache.spark.sql.sources._
+import org.apache.spark.sql.types.{DoubleType, IntegerType, StringType, StructField, StructType}
+import org.apache.spark.sql.{DataFrame, Row}
+
+import scala.collection.JavaConversions._
+
+/**
+  */
+class IndexingHandlerSuite extends ATestSuite {
+
+  // 1000 payments in id order, over 4 partitions
+  private def newPaymentsDDF(): DDF = {
+    val rows = manager.getSparkContext.parallelize(0 until 1000, 4).map(i => Row(i, s"c${i % 37}", i * 0.5))
+    val schema = StructType(Seq(StructField("id", IntegerType), StructField("customer", StringType),
+      StructField("amount", DoubleType)))
+    val df = manager.getHiveContext.createDataFrame(rows, schema)
+    manager.newDDF(manager, df, Array(classOf[DataFrame]), null, SparkUtils.schemaFromDataFrame(df))
+  }
+
+  private def query(ddf: DDF, where: String): Seq[String] = {
+    manager.sql(s"select id, amount from ${ddf.getTableName} where $where order by id", false).getRows.toSeq
+  }
+
+  test("ranges of pushed filters") {
+    val ranges = IndexingHandler.rangesOf(And(GreaterThanOrEqual("id", 10), LessThan("id", 20)))
+    assert(ranges.map(_.getColumn) === Seq("id", "id"))
+    assert(IndexingHandler.rangesOf(In("customer", Array[Any]("c1", "c2"))).size === 1)
+    assert(IndexingHandler.rangesOf(EqualTo("id", null)).isEmpty)
+    assert(IndexingHandler.rangesOf(Or(EqualTo("id", 1), EqualTo("id", 2))).isEmpty)
+    assert(IndexingHandler.rangesOf(Not(EqualTo("id", 1))).isEmpty)
+  }
+
+  test("prune keeps the selected partitions and rows") {
+    val rows = manager.getSparkContext.parallelize(0 until 40, 4).map(i => Row(i))
+    val selection = new IndexSelection(Array(true, false, true, false), Array(null, null, Array(1, 3), null))
+
+    val pruned = IndexingHandler.prune(rows, selection)
+    val expected = rows.mapPartitionsWithIndex {
+      (partition, partitionRows) => partitionRows.zipWithIndex.filter {
+        case (_, position) => partition == 0 || (partition == 2 && (position == 1 || position == 3))
+      }.map(_._1)
+    }
+    assert(pruned.partitions.length === 2)
+    assert(pruned.collect().map(_.getInt(0)).toSeq === expected.collect().map(_.getInt(0)).toSeq)
+    assert(pruned.collect().map(_.getInt(0)).toSeq === (0 until 10) ++ Seq(21, 23))
+  }
+
+  test("queries of an indexed DDF return the rows of the unindexed one") {
+    val ddf = newPaymentsDDF()
+    val wheres = Seq("id between 250 and 259", "customer = 'c5' and id < 300", "id in (3, 512, 999)",
+      "customer in ('c1', 'c2') and amount >= 450", "300 > id and customer <> 'c3'", "id = 1 or id = 998")
+    val expected = wheres.map(where => query(ddf, where))
+    assert(expected.forall(_.nonEmpty))
+
+    val handler = ddf.getIndexingHandler
+    handler.createIndex(IndexType.ZONE_MAP, "id")
+    handler.createIndex(IndexType.HASH, "customer")
+    assert(handler.select(List(ColumnRange.between("id", 250, 259))).getNumKept === 1)
+    assert(handler.select(List(ColumnRange.equalTo("customer", "c5"), ColumnRange.lessThan("id", 300, false)))
+      .getNumKept === 2)
+
+    wheres.zip(expected).foreach {
+      case (where, rows) => assert(query(ddf, where) === rows, where)
+    }
+
+    handler.dropIndexes()
+    wheres.zip(expected).foreach {
+      case (where, rows) => assert(query(ddf, where) === rows, where)
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package io.ddf.spark.content
+
+import io.ddf.Factor
+import io.ddf.analytics.Summary
+import io.ddf.analytics.AStatisticsSupporter.FiveNumSummary
+import io.ddf.spark.ATestSuite
+import io.ddf.types.{Matrix, MatrixSparse, Vector}
+import org.apache.spark.SparkConf
+import org.apache.spark.mllib.linalg.Vectors
+import org.apache.spark.mllib.regression.LabeledPoint
+import org.apache.spark.serializer.KryoSerializer
+
+import scala.collection.JavaConversions._
+import scala.reflect.ClassTag
+
+class KryoRegistratorSuite extends ATestSuite {
+
+  // fails on any type that is serialized without being registered
+  val serializer = new KryoSerializer(new SparkConf()
+    .set("spark.kryo.registrator", classOf[KryoRegistrator].getName)
+    .set("spark.kryo.registrationRequired", "true")).newInstance()
+
+  def roundTrip[T: ClassTag](value: T): T = serializer.deserialize[T](serializer.serialize(value))
+
+  test("Can round-trip the numeric types") {
+    val summaries = roundTrip(Array(new Summary(Array(1.0, 2.0, 6.0)), new Summary()))
+    assert(summaries(0).count == 3)
+    assert(summaries(0).mean == 3.0)
+    assert(summaries(0).variance == new Summary(Array(1.0, 2.0, 6.0)).variance)
+    assert(summaries(0).max == 6.0)
+    assert(summaries(1).count == 0)
+    assert(summaries(1).min.isNaN)
+
+    val fiveNums = roundTrip(new FiveNumSummary(1, 9, 3, 5, 7))
+    assert(fiveNums.getMedian == 5)
+    assert(fiveNums.getMax == 9)
+
+    val vector = roundTrip(Vector(Array(1.0, 2.0, 3.0)))
+    assert(vector.data.toSeq == Seq(1.0, 2.0, 3.0))
+    val matrix = roundTrip(new Matrix(Array(Array(1.0, 2.0), Array(3.0, 4.0))))
+    assert(matrix.rows == 2 && matrix.get(1, 0) == 3.0)
+
+    val sparse = new MatrixSparse(3, 1000)
+    sparse.crs.set(0, 5, 1.5)
+    sparse.crs.set(0, 999, 2.5)
+    sparse.crs.set(2, 0, 3.5)
+    val sparseCopy = roundTrip(sparse)
+    assert(sparseCopy.crs.get(0, 999) == 2.5)
+    assert(sparseCopy.crs.get(2, 0) == 3.5)
+    assert(sparseCopy.crs.get(1, 5) == 0.0)
+
+    val points = roundTrip(Array(LabeledPoint(1.0, Vectors.dense(0.5, 1.5)),
+      LabeledPoint(0.0, Vectors.sparse(10, Array(3), Array(4.0)))))
+    assert(points(0).features.toArray.toSeq == Seq(0.5, 1.5))
+    assert(points(1).features(3) == 4.0)
+  }
+
+  test("Can round-trip factors and summaries compactly") {
+    val factor = new Factor[Object](null, "carb")
+    factor.setLevels(Seq("1", "2", "4"), true)
+    factor.setLevelCounts(Map("1" -> Integer.valueOf(7), "2" -> Integer.valueOf(10)))
+    val factorCopy = roundTrip(factor)
+    assert(factorCopy.getDDFColumnName == "carb")
+    assert(factorCopy.getLevels.toSeq == Seq("1", "2", "4"))
+    assert(factorCopy.getLevelMap.get("4") == 3)
+    assert(factorCopy.getLevelCounts.get("2") == 10)
+    assert(factorCopy.isOrdered)
+
+    // an id and a few varints and doubles, no class names
+    assert(serializer.serialize(new Summary(Array(1.0, 2.0))).limit() < 40)
+  }
+}
@@ -0,0 +1,44 @@
+package io.ddf.spark.content
+
+import io.ddf.DDF
+import io.ddf.spark.ATestSuite
+import org.apache.hadoop.fs.Path
+
+import scala.collection.JavaConversions._
+
+/**
+  */
+class PersistenceHandlerSuite extends ATestSuite {
+  createTableMtcars()
+
+  test("incremental, partitioned persistence with pruning, projection and rename") {
+    val ddf = manager.sql2ddf("select * from mtcars where gear = 4", false)
+    val handler = ddf.getPersistenceHandler.asInstanceOf[PersistenceHandler]
+    handler.setPartitionColumns(List("cyl"))
+    handler.persist(true)
+
+    val folder = handler.getFolderPath(handler.getNamespace, ddf.getName, "")
+    val firstFiles = new java.io.File(folder, "parts/v0").list().toSet
+
+    val delta = manager.sql2ddf("select * from mtcars where gear <> 4", false)
+    handler.append(delta)
+
+    //the files of the first version are untouched
+    assert(new java.io.File(folder, "parts/v0").list().toSet === firstFiles)
+
+    val loaded = handler.load(handler.getNamespace, ddf.getName, null, null)
+    assert(loaded.getNumRows === 32)
+
+    val pruned = handler.load(handler.getNamespace, ddf.getName, Map("cyl" -> "6"), List("mpg", "cyl"))
+    assert(pruned.getNumRows === 7)
+    assert(pruned.getNumColumns === 2)
+
+    val newName = ddf.getName + "_renamed"
+    handler.rename(handler.getNamespace, ddf.getName, handler.getNamespace, newName, true)
+    assert(!new java.io.File(folder).exists())
+    val renamed = handler.load(handler.getNamespace, newName, null, null)
+    assert(renamed.getNumRows === 32)
+
+    handler.unpersist(handler.getNamespace, newName)
+  }
+}
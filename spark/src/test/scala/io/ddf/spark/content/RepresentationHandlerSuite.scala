@@ -11,7 +11,7 @@ import io.ddf.spark.{ATestSuite, SparkDDF}
 import org.apache.spark.sql.Row
 import org.apache.spark.mllib.linalg.Vector
 import org.apache.spark.sql.{DataFrame}
-import org.rosuda.REngine.REXP
+import org.rosuda.REngine.{REXP, REXPDouble, REXPFactor, REXPInteger, REXPLogical}
 import io.ddf.etl.IHandleMissingData.Axis
 
 /**
@@ -127,6 +127,22 @@ class RepresentationHandlerSuite extends ATestSuite {
     assert(rdd == null)
   }
 
+  test("Can convert typed columns to R data.frames") {
+    createTableMtcars()
+    val ddf = manager.sql2ddf("select mpg, cyl, vs = 1 as straight, carb from mtcars", false)
+    ddf.getSchemaHandler.setAsFactor("carb")
+    ddf.getSchemaHandler.computeFactorLevelsAndLevelCounts()
+    val rdd = ddf.getRepresentationHandler.get(classOf[RDD[_]], classOf[REXP]).asInstanceOf[RDD[REXP]]
+    val dfs = rdd.collect().map(_.asList())
+    assert(dfs.map(_.at(0).length()).sum == 32)
+    assert(dfs(0).at("mpg").isInstanceOf[REXPDouble])
+    assert(dfs(0).at("cyl").isInstanceOf[REXPInteger])
+    assert(dfs(0).at("straight").isInstanceOf[REXPLogical])
+    assert(dfs(0).at("carb").isInstanceOf[REXPFactor])
+    assert(dfs(0).at("carb").asInstanceOf[REXPFactor].asFactor().levels().toSet ==
+      Set("1", "2", "3", "4", "6", "8"))
+  }
+
   test("Can do sql queries after Transform Rserve") {
     createTableMtcars()
     val ddf = manager.sql2ddf("select * from mtcars", false)
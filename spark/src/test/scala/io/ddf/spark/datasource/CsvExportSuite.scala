@@ -0,0 +1,56 @@
+package io.ddf.spark.datasource
+
+import java.io.{BufferedReader, File, FileInputStream, InputStreamReader}
+import java.util.zip.GZIPInputStream
+
+import com.google.common.io.Files
+import io.ddf.datasource.CsvExportFormat
+import io.ddf.spark.ATestSuite
+
+import scala.collection.JavaConversions._
+
+/**
+  */
+class CsvExportSuite extends ATestSuite {
+
+  createTableMtcars()
+
+  private def readLines(file: File, gzip: Boolean): List[String] = {
+    val in = if (gzip) new GZIPInputStream(new FileInputStream(file)) else new FileInputStream(file)
+    val reader = new BufferedReader(new InputStreamReader(in, "utf-8"))
+    try Iterator.continually(reader.readLine()).takeWhile(_ != null).toList finally reader.close()
+  }
+
+  test("export merges part files into one file with a single header") {
+    val ddf = manager.sql2ddf("select * from mtcars", false)
+    val file = new File(Files.createTempDir(), "mtcars.tsv")
+    ddf.export2csv(file.getAbsolutePath, new CsvExportFormat("\t", true))
+
+    val lines = readLines(file, gzip = false)
+    assert(lines.head === ddf.getColumnNames.mkString("\t"))
+    assert(lines.tail.size === 32)
+    assert(lines.tail.forall(_.split("\t").length == 11))
+    assert(!new File(file.getAbsolutePath + ".parts").exists())
+  }
+
+  test("export with gzip compression and without merge") {
+    val ddf = manager.sql2ddf("select * from mtcars", false)
+    val dir = new File(Files.createTempDir(), "mtcars")
+    val format = new CsvExportFormat(",", true)
+    format.setCompression(CsvExportFormat.Compression.GZIP)
+    format.setMerge(false)
+    ddf.export2csv(dir.getAbsolutePath, format)
+
+    val parts = dir.listFiles().filter(_.getName.startsWith("part-"))
+    assert(parts.nonEmpty && parts.forall(_.getName.endsWith(".gz")))
+    val lines = parts.flatMap(readLines(_, gzip = true))
+    assert(lines.count(_.startsWith("mpg,")) === parts.length)
+    assert(lines.length - parts.length === 32)
+  }
+
+  test("fields containing the delimiter or quotes are quoted") {
+    val format = new CsvExportFormat(",", false)
+    assert(format.formatRow(Array[AnyRef]("a,b", "say \"hi\"", null, Integer.valueOf(1))) ===
+      "\"a,b\",\"say \"\"hi\"\"\",,1")
+  }
+}
@@ -0,0 +1,88 @@
+package io.ddf.spark.datasource
+
+import java.io.{File, FileOutputStream, OutputStreamWriter}
+import java.net.URI
+import java.util.UUID
+import java.util.zip.GZIPOutputStream
+
+import com.google.common.base.Charsets
+import com.google.common.io.Files
+import io.ddf.content.Schema.ColumnType
+import io.ddf.datasource.{DataFormat, TextFileFormat}
+import io.ddf.misc.Config
+import io.ddf.spark.ATestSuite
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  */
+class DelimitedFileReaderSuite extends ATestSuite {
+
+  private def writeFile(lines: Seq[String]): File = {
+    val file = new File(Files.createTempDir(), "data.csv")
+    Files.write(lines.mkString("\n"), file, Charsets.UTF_8)
+    file
+  }
+
+  test("inference looks beyond the first lines, and malformed lines are quarantined") {
+    val lines = Seq("id,score,name") ++ (1 to 200).map(i => s"$i,$i,n$i") ++
+      Seq("201,2.5,late double", "202,x,y,too many fields", "oops,1,not an int id")
+    val file = writeFile(lines)
+    val quarantine = new File(file.getParentFile, "quarantine")
+
+    val format = new TextFileFormat(DataFormat.CSV, true, ",", "\"")
+    format.setQuarantinePath(quarantine.getAbsolutePath)
+    val ddf = new SparkDataSourceManager(manager).loadDelimitedFile(file.getAbsolutePath, format, null)
+
+    assert(ddf.getColumnNames.toArray.toSeq === Seq("id", "score", "name"))
+    assert(ddf.getSchema.getColumn("id").getType === ColumnType.INT)
+    assert(ddf.getSchema.getColumn("score").getType === ColumnType.DOUBLE)
+    assert(ddf.getNumRows === 201)
+    val quarantined = quarantine.listFiles().filter(_.getName.startsWith("part-"))
+      .flatMap(f => Files.readLines(f, Charsets.UTF_8).toArray).map(_.toString)
+    assert(quarantined.toSet === Set("202,x,y,too many fields", "oops,1,not an int id"))
+  }
+
+  test("loadFile names columns V1, V2, ...") {
+    val file = writeFile(Seq("21 6 160", "22.8 4 108", "21.4 6 258"))
+    val ddf = manager.loadFile(file.getAbsolutePath, " ")
+    assert(ddf.getColumnNames.toArray.toSeq === Seq("V1", "V2", "V3"))
+    assert(ddf.getSchema.getColumn("V1").getType === ColumnType.DOUBLE)
+    assert(ddf.getSchema.getColumn("V2").getType === ColumnType.INT)
+    assert(ddf.getNumRows === 3)
+  }
+
+  test("loadObjects reads the header from the first object when later splits are packed first") {
+    val root = Files.createTempDir()
+    val bucket = new File(root, "bucket/data")
+    bucket.mkdirs()
+    // b.csv.gz cannot be split and is packed first, a.csv is split in three and its last split joins b.csv.gz
+    val writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(new File(bucket, "b.csv.gz"))),
+      Charsets.UTF_8)
+    writer.write("id,name\n")
+    (0 until 40).foreach(i => writer.write(s"${1000 + i},${UUID.randomUUID()}\n"))
+    writer.close()
+    val splitSize = new File(bucket, "b.csv.gz").length() - 10
+    val aLines = ArrayBuffer("id,name")
+    while (aLines.map(_.length + 1).sum < 2 * splitSize + splitSize / 3) aLines += s"${aLines.size},a${aLines.size}"
+    Files.write(aLines.mkString("", "\n", "\n"), new File(bucket, "a.csv"), Charsets.UTF_8)
+    val totalLength = bucket.listFiles().map(_.length).sum
+
+    val settings = Seq(Config.ConfigConstant.FIELD_OBJECT_STORE_LOCAL_ROOT -> root.getAbsolutePath,
+      Config.ConfigConstant.FIELD_OBJECT_STORE_SPLIT_SIZE -> splitSize.toString,
+      Config.ConfigConstant.FIELD_OBJECT_STORE_PARTITION_SIZE -> ((totalLength + 1) / 2).toString)
+    val global = Config.ConfigConstant.SECTION_GLOBAL.toString
+    val previous = settings.map { case (key, _) => key -> Config.getGlobalValue(key) }
+    try {
+      settings.foreach { case (key, value) => Config.set(global, key.toString, value) }
+      val format = new TextFileFormat(DataFormat.CSV, true, ",", "\"")
+      val ddf = new SparkDataSourceManager(manager).loadObjects(new URI("s3://bucket/data"), format, null)
+
+      assert(ddf.getColumnNames.toArray.toSeq === Seq("id", "name"))
+      assert(ddf.getSchema.getColumn("id").getType === ColumnType.INT)
+      assert(ddf.getNumRows === aLines.size - 1 + 40)
+    } finally {
+      previous.foreach { case (key, value) => Config.set(global, key.toString, value) }
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package io.ddf.spark.datasource
+
+import java.sql.DriverManager
+
+import io.ddf.datasource.JDBCDataSourceDescriptor
+import io.ddf.spark.ATestSuite
+import org.apache.spark.sql.DataFrame
+
+/**
+  */
+class JDBCLoadSuite extends ATestSuite {
+
+  val url = "jdbc:h2:mem:ddf_jdbc_test;DB_CLOSE_DELAY=-1"
+
+  override def beforeAll(): Unit = {
+    Class.forName("org.h2.Driver")
+    val conn = DriverManager.getConnection(url, "sa", "")
+    val stmt = conn.createStatement()
+    stmt.execute("CREATE TABLE flights (id INT, delay DOUBLE, day DATE, carrier VARCHAR(10))")
+    (1 to 1000).foreach {
+      i =>
+        val day = if (i % 100 == 0) "NULL" else s"DATE '2015-01-${"%02d".format(i % 28 + 1)}'"
+        stmt.execute(s"INSERT INTO flights VALUES ($i, ${i * 0.5}, $day, 'C${i % 5}')")
+    }
+    stmt.execute("INSERT INTO flights VALUES (NULL, 0.0, NULL, 'none')")
+    conn.close()
+  }
+
+  private def descriptor(): JDBCDataSourceDescriptor = {
+    val descriptor = new JDBCDataSourceDescriptor(url, "sa", "", "flights")
+    descriptor.setDriver("org.h2.Driver")
+    descriptor
+  }
+
+  test("range-partitioned load reads every row once") {
+    val ds = descriptor()
+    ds.setPartitionColumn("id")
+    ds.setNumPartitions(4)
+    ds.setFetchSize(100)
+
+    val ddf = manager.load(ds)
+    val df = ddf.getRepresentationHandler.get(classOf[DataFrame]).asInstanceOf[DataFrame]
+    assert(df.rdd.partitions.length === 4)
+    assert(ddf.getNumRows === 1001)
+    assert(df.select("ID").distinct.count() === 1001)
+  }
+
+  test("date split column with a pushed-down filter") {
+    val ds = descriptor()
+    ds.setPartitionColumn("day")
+    ds.setNumPartitions(3)
+    ds.setFilter("carrier = 'C1'")
+
+    val ddf = manager.load(ds)
+    assert(ddf.getNumRows === 200)
+  }
+
+  test("given bounds do not drop rows outside of them") {
+    val ds = descriptor()
+    ds.setPartitionColumn("delay")
+    ds.setNumPartitions(5)
+    ds.setLowerBound("100")
+    ds.setUpperBound("200")
+
+    assert(manager.load(ds).getNumRows === 1001)
+  }
+}
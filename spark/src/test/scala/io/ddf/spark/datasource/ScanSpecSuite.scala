@@ -0,0 +1,57 @@
+package io.ddf.spark.datasource
+
+import java.io.File
+
+import com.google.common.base.Charsets
+import com.google.common.io.Files
+import io.ddf.content.ViewHandler.{Column, Expression, Operator, OperationName}
+import io.ddf.datasource.DataFormat
+import io.ddf.spark.{ATestSuite, SparkDDF}
+
+import scala.collection.JavaConverters._
+
+/**
+  */
+class ScanSpecSuite extends ATestSuite {
+
+  private def writeJson(): File = {
+    val file = new File(Files.createTempDir(), "data.json")
+    val lines = (1 to 10).map(i => s"""{"_id": $i, "name": "n$i", "score": ${i * 10}, "extra": {"a": $i}}""")
+    Files.write(lines.mkString("\n"), file, Charsets.UTF_8)
+    file
+  }
+
+  test("projections and subsets of a JSON load narrow its pending scan") {
+    val ddf = new SparkDataSourceManager(manager).loadSpecialFormat(DataFormat.JSON, writeJson().toURI, false)
+    assert(ddf.asInstanceOf[SparkDDF].getPendingScan != null)
+
+    val projected = ddf.VIEWS.project("id", "score")
+    val scan = projected.asInstanceOf[SparkDDF].getPendingScan
+    assert(scan.columns === Some(Seq("id", "score")))
+    assert(projected.getColumnNames.asScala === Seq("id", "score"))
+
+    val id = new Column()
+    id.setName("id")
+    val five = new Expression {
+      override def toSql: String = "5"
+    }
+    five.setType("IntVal")
+    val filter = new Operator()
+    filter.setName(OperationName.gt)
+    filter.setOperarands(Array(id, five))
+    val score = new Column()
+    score.setName("score")
+    val subset = projected.VIEWS.subset(List(score).asJava, filter)
+
+    val subsetScan = subset.asInstanceOf[SparkDDF].getPendingScan
+    assert(subsetScan.requiredColumns === Some(Set("id", "score")))
+    assert(subset.getColumnNames.asScala === Seq("score"))
+    assert(subset.getNumRows === 5)
+  }
+
+  test("a DDF whose DataFrame changed no longer has a pending scan") {
+    val ddf = new SparkDataSourceManager(manager).loadSpecialFormat(DataFormat.JSON, writeJson().toURI, false)
+    ddf.getRepresentationHandler.reset()
+    assert(ddf.asInstanceOf[SparkDDF].getPendingScan === null)
+  }
+}
@@ -0,0 +1,40 @@
+package io.ddf.spark.etl
+
+import io.ddf.spark.{ATestSuite, SparkDDF}
+
+/**
+  */
+class CachePolicySuite extends ATestSuite {
+  createTableMtcars()
+
+  private def isCached(tableName: String) = manager.getHiveContext.isCached(tableName)
+
+  test("sql2ddf is lazy, and its result is cached once reused") {
+    val ddf = manager.sql2ddf("select * from mtcars where cyl > 4", false)
+    assert(!isCached(ddf.getTableName))
+
+    ddf.sql2ddf("select mpg from @this")
+    assert(ddf.getMetaDataHandler.getUseCount === 1)
+    assert(!isCached(ddf.getTableName))
+
+    val numRows = ddf.getNumRows
+    assert(ddf.getMetaDataHandler.getUseCount === 2)
+    assert(isCached(ddf.getTableName))
+    assert(ddf.getNumRows === numRows)
+    assert(ddf.getMetaDataHandler.getUseCount === 2)
+  }
+
+  test("expensive results are cached on first use") {
+    val ddf = manager.sql2ddf("select distinct cyl, avg(mpg) as mpg from mtcars group by cyl order by cyl", false)
+    assert(ddf.asInstanceOf[SparkDDF].getRecomputeCost === 3)
+    assert(!isCached(ddf.getTableName))
+
+    ddf.getNumRows
+    assert(isCached(ddf.getTableName))
+  }
+
+  test("cost estimates") {
+    assert(CachePolicy.estimateCost("select a from t") === 0)
+    assert(CachePolicy.estimateCost("select a, count(*) from t join u on t.id = u.id group  by a") === 2)
+  }
+}
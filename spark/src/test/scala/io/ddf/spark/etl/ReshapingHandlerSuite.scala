@@ -0,0 +1,68 @@
+package io.ddf.spark.etl
+
+import io.ddf.DDF
+import io.ddf.exception.DDFException
+import io.ddf.spark.ATestSuite
+import io.ddf.spark.util.SparkUtils
+import io.ddf.types.AggregateTypes.AggregateFunction
+import org.apache.spark.sql.types.{DoubleType, IntegerType, StringType, StructField, StructType}
+import org.apache.spark.sql.{DataFrame, Row}
+
+import scala.collection.JavaConversions._
+
+/**
+  */
+class ReshapingHandlerSuite extends ATestSuite {
+
+  // 20 stores with sales in 12 months, over 4 partitions
+  private val sales = for (store <- 0 until 20; month <- 1 to 12) yield (s"s$store", month, Double.box(store + month))
+
+  private def newSalesDDF(): DDF = {
+    val rows = manager.getSparkContext.parallelize(scala.util.Random.shuffle(sales), 4).map {
+      case (store, month, amount) => Row(store, month, amount)
+    }
+    val schema = StructType(Seq(StructField("store", StringType), StructField("month", IntegerType),
+      StructField("amount", DoubleType)))
+    val df = manager.getHiveContext.createDataFrame(rows, schema)
+    manager.newDDF(manager, df, Array(classOf[DataFrame]), null, SparkUtils.schemaFromDataFrame(df))
+  }
+
+  private def rowsOf(ddf: DDF): Seq[Row] = {
+    ddf.getRepresentationHandler.get(classOf[DataFrame]).asInstanceOf[DataFrame].collect().toSeq
+  }
+
+  test("pivot aggregates across partitions and stack/unstack round-trip") {
+    val ddf = newSalesDDF()
+    val pivoted = ddf.getReshapingHandler.pivot(List("store"), "month", "amount", AggregateFunction.SUM, null)
+    assert(pivoted.getColumnNames.toList === "store" :: (1 to 12).map(m => s"month_$m").toList)
+    assert(ddf.getColumn("month").getOptionalFactor.getLevels.toList === (1 to 12).map(_.toString).toList)
+    val wide = rowsOf(pivoted).map(row => row.getString(0) -> row).toMap
+    assert(wide.size === 20)
+    sales.foreach {
+      case (store, month, amount) => assert(wide(store).getDouble(month) === amount)
+    }
+
+    val stacked = pivoted.getReshapingHandler.stack(List("store"))
+    assert(stacked.getNumRows === sales.size)
+    val unstacked = stacked.getReshapingHandler.unstack(List("store"), "variable", "value")
+    assert(unstacked.getColumnNames === pivoted.getColumnNames)
+    assert(rowsOf(unstacked).map(_.toSeq).toSet === wide.values.map(_.toSeq).toSet)
+  }
+
+  test("unstack fails on several values of a cell") {
+    intercept[DDFException] {
+      newSalesDDF().getReshapingHandler.unstack(List(), "month", "amount")
+    }
+  }
+
+  test("uncaching a pivot unpersists its rows") {
+    val sc = manager.getSparkContext
+    val ddf = newSalesDDF()
+    val persistedBefore = sc.getPersistentRDDs.keySet
+    val pivoted = ddf.getReshapingHandler.pivot(List("store"), "month", "amount", AggregateFunction.SUM, null)
+    assert((sc.getPersistentRDDs.keySet -- persistedBefore).nonEmpty)
+
+    pivoted.getRepresentationHandler.uncacheAll()
+    assert((sc.getPersistentRDDs.keySet -- persistedBefore).isEmpty)
+  }
+}
@@ -0,0 +1,73 @@
+package io.ddf.spark.etl
+
+import java.io.File
+
+import com.google.common.base.Charsets
+import com.google.common.io.Files
+import io.ddf.datasource.{DataFormat, DirectoryStreamSource, QueueStreamSource, TextFileFormat}
+import io.ddf.spark.ATestSuite
+
+import scala.collection.JavaConversions._
+
+/**
+  */
+class StreamingDataHandlerSuite extends ATestSuite {
+
+  private val format = new TextFileFormat(DataFormat.CSV, false, ",", "\"")
+
+  private def loadEvents() = {
+    val file = new File(Files.createTempDir(), "events.csv")
+    Files.write("1,click,2.0\n2,view,4.0\n", file, Charsets.UTF_8)
+    manager.loadFile(file.getAbsolutePath, ",")
+  }
+
+  private def awaitBatches(streaming: io.ddf.misc.IHandleStreamingData, numBatches: Int): Unit = {
+    var i = 0
+    while (streaming.getNumBatches < numBatches && i < 100) {
+      Thread.sleep(100)
+      i += 1
+    }
+  }
+
+  test("micro-batches from a queue are appended to snapshots and statistics") {
+    val ddf = loadEvents()
+    val streaming = ddf.getStreamingDataHandler
+    val source = new QueueStreamSource().offer("3,click,1.0").offer("4,view,3.0").offer("x,view,1.0")
+    streaming.start(source, format, 200)
+    try {
+      awaitBatches(streaming, 1)
+    } finally {
+      streaming.stop()
+    }
+
+    val snapshot = streaming.snapshot()
+    assert(snapshot.getNumRows === 4)
+    assert(streaming.snapshot() eq snapshot)
+    assert(ddf.getNumRows === 2)
+    val result = manager.sql(s"select count(*) from ${snapshot.getTableName} where V2 = 'view'", false)
+    assert(result.getRows.get(0) === "2")
+
+    val statistics = streaming.getStatistics
+    assert(statistics.getNumRows === 4)
+    assert(statistics.getSummary("V3").mean === 2.5)
+    assert(statistics.getLevelCounts("V2").toMap === Map("click" -> 2L, "view" -> 2L))
+  }
+
+  test("the files of a directory are read by the workers") {
+    val ddf = loadEvents()
+    val streaming = ddf.getStreamingDataHandler
+    val directory = Files.createTempDir()
+    Files.write("3,click,1.0\n", new File(directory, "a.csv"), Charsets.UTF_8)
+    streaming.start(new DirectoryStreamSource(directory.getAbsolutePath), format, 200)
+    try {
+      awaitBatches(streaming, 1)
+      streaming.appendBatch(Seq(Array[Object](Int.box(4), "view", Double.box(5.0))))
+    } finally {
+      streaming.stop()
+    }
+
+    assert(streaming.getNumBatches === 2)
+    assert(streaming.snapshot().getNumRows === 4)
+    assert(streaming.getStatistics.getSummary("V3").max === 5.0)
+  }
+}
@@ -0,0 +1,71 @@
+package io.ddf.spark.ml
+
+import io.ddf.DDF
+import io.ddf.spark.ATestSuite
+import io.ddf.types.{Matrix, TupleMatrixVector, Vector}
+import org.apache.spark.rdd.RDD
+import org.jblas.DoubleMatrix
+
+class NormalEquationsSuite extends ATestSuite {
+  createTableMtcars()
+
+  private def block(rows: Seq[Array[Double]], labels: Seq[Double]): TupleMatrixVector = {
+    val X = new Matrix(rows.length, 3)
+    val Y = new Vector(rows.length)
+    rows.zipWithIndex.foreach { case (row, i) => X.putRow(i, new DoubleMatrix(row)) }
+    labels.zipWithIndex.foreach { case (label, i) => Y.put(i, label) }
+    new TupleMatrixVector(X, Y)
+  }
+
+  private def stack(blocks: Seq[TupleMatrixVector]): (DoubleMatrix, DoubleMatrix) = {
+    blocks.filter(_.x.rows > 0).map(b => (b.x: DoubleMatrix, b.y: DoubleMatrix)).reduce {
+      (a, b) => (DoubleMatrix.concatVertically(a._1, b._1), DoubleMatrix.concatVertically(a._2, b._2))
+    }
+  }
+
+  test("compute matches XtX and XtY over several partitions") {
+    val random = new scala.util.Random(42)
+    val blocks = (0 until 6).map {
+      b =>
+        val numRows = if (b == 2) 0 else 5 + b
+        block(Seq.fill(numRows)(Array(1.0, random.nextDouble(), random.nextDouble())), Seq.fill(numRows)(random.nextDouble()))
+    }
+    val (xtx, xty, numRows) = NormalEquations.compute(manager.getSparkContext.parallelize(blocks, 3))
+
+    val (x, y) = stack(blocks)
+    val X = new Matrix(x.rows, x.columns)
+    X.copy(x)
+    assert(numRows === x.rows)
+    assert(xtx.sub(X.XtX()).normmax() < 1e-9)
+    assert(xtx.sub(xtx.transpose()).normmax() === 0.0)
+    assert(xty.sub(X.XtY(y)).normmax() < 1e-9)
+  }
+
+  test("compute over no rows gives null matrices") {
+    val sc = manager.getSparkContext
+    assert(NormalEquations.compute(sc.parallelize(Seq[TupleMatrixVector](), 3)) === (null, null, 0L))
+    val emptyBlocks = sc.parallelize(Seq(block(Seq(), Seq()), block(Seq(), Seq())), 2)
+    assert(NormalEquations.compute(emptyBlocks) === (null, null, 0L))
+  }
+
+  test("compute matches the RDD_MATRIX_VECTOR representation of a DDF") {
+    val ddf: DDF = manager.sql2ddf("select wt, hp, mpg from mtcars", false)
+    val rdd = ddf.getRepresentationHandler.get(classOf[RDD[_]], classOf[TupleMatrixVector])
+      .asInstanceOf[RDD[TupleMatrixVector]].repartition(3)
+    val (xtx, xty, numRows) = NormalEquations.compute(rdd)
+
+    val (x, y) = stack(rdd.collect())
+    assert(numRows === 32)
+    assert(xtx.sub(x.transpose().mmul(x)).normmax() < 1e-6)
+    assert(xty.sub(x.transpose().mmul(y)).normmax() < 1e-6)
+  }
+
+  test("Can train a linear regression from the normal equations") {
+    val ddf: DDF = manager.sql2ddf("select wt, hp, mpg from mtcars", false)
+    val model = ddf.ML.train("linearRegressionNormalEquation", java.lang.Double.valueOf(0.0))
+    val weights = model.getRawModel.asInstanceOf[NormalEquationModel].weights
+    assert(truncate(weights(0), 4) === 37.2273)
+    assert(truncate(weights(1), 4) === -3.8778)
+    assert(truncate(weights(2), 4) === -0.0318)
+  }
+}
@@ -0,0 +1,25 @@
+package io.ddf.spark.ml
+
+import io.ddf.spark.ATestSuite
+import org.apache.spark.mllib.recommendation.MatrixFactorizationModel
+
+class SparkModelCacheSuite extends ATestSuite {
+
+  test("Pins models that hold RDDs") {
+    val sc = manager.getSparkContext
+    val features = sc.parallelize(Seq((1, Array(0.5, 1.5)), (2, Array(1.0, 2.0))))
+    val als = new Model(new MatrixFactorizationModel(2, features, features))
+    val weights = new Model(Array(1.0, 2.0))
+
+    val cache = new SparkModelCache()
+    assert(SparkModelCache.holdsRDD(als.getRawModel))
+    assert(!SparkModelCache.holdsRDD(weights.getRawModel))
+
+    cache.addModel(als)
+    cache.addModel(weights)
+    assert(cache.isPinned(als.getName))
+    assert(!cache.isPinned(weights.getName))
+    assert(cache.getModel(als.getName) eq als)
+    cache.clear()
+  }
+}